@@ -0,0 +1,75 @@
+package filesystem.benchmark;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemOperation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FileSystem#apply} against the same creates, writes and deletes issued one call at a time.
+ * Each invocation creates and writes {@code size} files under the shape's leaf container and then
+ * deletes them again, so the tree is unchanged afterwards.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchBenchmark {
+
+    @Param({"DEEP", "NESTED_ZIP"})
+    public TreeShape shape;
+
+    @Param({"100"})
+    public int size;
+
+    private FileSystem fs;
+    private List<FileSystemOperation> operations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fs = new FileSystem();
+        String parent = shape.build(fs);
+        operations = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            operations.add(new FileSystemOperation.Create("TextFile", "f" + i + ".txt", parent));
+            operations.add(new FileSystemOperation.Write(parent + "\\f" + i + ".txt", "content"));
+        }
+        for (int i = 0; i < size; i++) {
+            operations.add(new FileSystemOperation.Delete(parent + "\\f" + i + ".txt"));
+        }
+    }
+
+    @Benchmark
+    public void oneAtATime() {
+        for (FileSystemOperation operation : operations) {
+            if (operation instanceof FileSystemOperation.Create create) {
+                fs.create(create.type(), create.name(), create.parentPath());
+            } else if (operation instanceof FileSystemOperation.Write write) {
+                fs.writeToFile(write.path(), write.content());
+            } else if (operation instanceof FileSystemOperation.Delete delete) {
+                fs.delete(delete.path());
+            }
+        }
+    }
+
+    @Benchmark
+    public void batched() {
+        fs.apply(operations);
+    }
+}
@@ -0,0 +1,93 @@
+package filesystem.benchmark;
+
+import filesystem.api.FileSystem;
+import filesystem.durable.Checkpoint;
+import filesystem.durable.SyncPolicy;
+import filesystem.durable.WriteAheadLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restart time for a tree of {@value #FOLDERS} folders of {@value #FILES_PER_FOLDER} small text files
+ * each, about a million entities: loading a {@link Checkpoint} of it against replaying the
+ * {@link WriteAheadLog} that recorded it being built.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CheckpointBenchmark {
+    static final int FOLDERS = 1000;
+    static final int FILES_PER_FOLDER = 1000;
+
+    @Param({"checkpoint", "log"})
+    public String source;
+
+    private Path dir;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("checkpoint-benchmark");
+        FileSystem fs = new FileSystem();
+        WriteAheadLog log = null;
+        if (source.equals("log")) {
+            file = dir.resolve("fs.wal");
+            log = WriteAheadLog.open(fs, file, SyncPolicy.interval(Duration.ofMillis(100)));
+        } else {
+            file = dir.resolve("fs.checkpoint");
+        }
+
+        fs.create("Drive", "C", null);
+        for (int f = 0; f < FOLDERS; f++) {
+            String folder = "C\\folder" + f;
+            fs.create("Folder", "folder" + f, "C");
+            for (int i = 0; i < FILES_PER_FOLDER; i++) {
+                fs.create("TextFile", "file" + i + ".txt", folder);
+                fs.writeToFile(folder + "\\file" + i + ".txt", "entry " + f + "/" + i);
+            }
+        }
+
+        if (log != null) {
+            log.close();
+        } else {
+            Checkpoint.write(fs, file);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.delete(file);
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public FileSystem restart() throws IOException {
+        FileSystem fs = new FileSystem();
+        if (source.equals("log")) {
+            WriteAheadLog.open(fs, file, SyncPolicy.interval(Duration.ofSeconds(1))).close();
+        } else {
+            Checkpoint.load(file, fs);
+        }
+        return fs;
+    }
+}
@@ -0,0 +1,81 @@
+package filesystem.benchmark;
+
+import filesystem.api.FileSystemEntity;
+import filesystem.concurrent.ConcurrentFileSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link ConcurrentFileSystem} as threads are added. Run with increasing {@code -t} to
+ * see the scaling, e.g. {@code -t 1}, {@code -t 4}, {@code -t max}. Each thread works in its own drive,
+ * except for the shared-folder lookups.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentFileSystemBenchmark {
+    private static final int DRIVES = 64;
+    private static final int FOLDERS = 100;
+
+    @State(Scope.Benchmark)
+    public static class Tree {
+        final ConcurrentFileSystem fs = new ConcurrentFileSystem();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fs.create("Drive", "Shared", null);
+            fs.create("Folder", "Common", "Shared");
+            fs.create("TextFile", "hot.txt", "Shared\\Common");
+            for (int d = 0; d < DRIVES; d++) {
+                fs.create("Drive", "D" + d, null);
+                for (int f = 0; f < FOLDERS; f++) {
+                    fs.create("Folder", "f" + f, "D" + d);
+                    fs.create("TextFile", "leaf.txt", "D" + d + "\\f" + f);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Worker {
+        String leafPath;
+        String folderPath;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams threads) {
+            int drive = threads.getThreadIndex() % DRIVES;
+            leafPath = "D" + drive + "\\f" + (FOLDERS / 2) + "\\leaf.txt";
+            folderPath = "D" + drive + "\\f" + (FOLDERS / 2);
+        }
+    }
+
+    @Benchmark
+    public FileSystemEntity disjointLookup(Tree tree, Worker worker) {
+        return tree.fs.findEntity(worker.leafPath);
+    }
+
+    @Benchmark
+    public FileSystemEntity sharedLookup(Tree tree) {
+        return tree.fs.findEntity("Shared\\Common\\hot.txt");
+    }
+
+    @Benchmark
+    public void disjointCreateAndDelete(Tree tree, Worker worker) {
+        tree.fs.create("TextFile", "scratch.txt", worker.folderPath);
+        tree.fs.delete(worker.folderPath + "\\scratch.txt");
+    }
+}
@@ -0,0 +1,64 @@
+package filesystem.benchmark;
+
+import filesystem.api.FileSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of small edits to a large text file against rewriting it with {@code writeToFile}. The
+ * edits restore the original size, so the file stays the same for the whole trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ContentEditBenchmark {
+    private static final String PATH = "C\\log.txt";
+    private static final String LINE = "2024-01-01T00:00:00Z INFO request served in 3 ms\n";
+
+    /** File size in bytes. */
+    @Param({"1048576", "52428800"})
+    public int fileSize;
+
+    private FileSystem fs;
+    private String whole;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fs = new FileSystem();
+        fs.create("Drive", "C", null);
+        fs.create("TextFile", "log.txt", "C");
+        whole = LINE.repeat(fileSize / LINE.length());
+        fs.writeToFile(PATH, whole);
+    }
+
+    @Benchmark
+    public void appendLine() {
+        fs.appendToFile(PATH, LINE);
+        fs.truncate(PATH, whole.length());
+    }
+
+    @Benchmark
+    public void writeAtMiddle() {
+        fs.writeAt(PATH, fileSize / 2, LINE);
+    }
+
+    @Benchmark
+    public void rewriteWholeFile() {
+        fs.writeToFile(PATH, whole);
+    }
+}
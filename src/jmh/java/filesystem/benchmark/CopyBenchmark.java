@@ -0,0 +1,88 @@
+package filesystem.benchmark;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import filesystem.containers.Container;
+import filesystem.entities.TextFile;
+import filesystem.persistent.PersistentFileSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Duplicating a project folder of {@value #FOLDERS} folders with {@value #FILES_PER_FOLDER} text files
+ * of {@value #FILE_BYTES} bytes each, then deleting the duplicate: {@code copy} against re-creating
+ * every entity and rewriting its content, and {@code copy} on a {@link PersistentFileSystem}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CopyBenchmark {
+    static final int FOLDERS = 50;
+    static final int FILES_PER_FOLDER = 100;
+    static final int FILE_BYTES = 1024;
+
+    private FileSystem fs;
+    private PersistentFileSystem persistent;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fs = new FileSystem();
+        fs.create("Drive", "C", null);
+        fs.create("Folder", "project", "C");
+        fs.create("Folder", "backup", "C");
+        for (int f = 0; f < FOLDERS; f++) {
+            String folder = "C\\project\\src" + f;
+            fs.create("Folder", "src" + f, "C\\project");
+            for (int i = 0; i < FILES_PER_FOLDER; i++) {
+                fs.create("TextFile", "f" + i + ".txt", folder);
+                String content = (f + "/" + i + " ").repeat(FILE_BYTES);
+                fs.writeToFile(folder + "\\f" + i + ".txt", content.substring(0, FILE_BYTES));
+            }
+        }
+        persistent = PersistentFileSystem.copyOf(fs);
+    }
+
+    @Benchmark
+    public void copy() {
+        fs.copy("C\\project", "C\\backup");
+        fs.delete("C\\backup\\project");
+    }
+
+    @Benchmark
+    public void recreate() {
+        rebuild(fs.findEntity("C\\project"), "C\\backup");
+        fs.delete("C\\backup\\project");
+    }
+
+    @Benchmark
+    public void persistentCopy() {
+        persistent.copy("C\\project", "C\\backup");
+        persistent.delete("C\\backup\\project");
+    }
+
+    private void rebuild(FileSystemEntity entity, String parentPath) {
+        fs.create(entity.getType(), entity.getName(), parentPath);
+        String path = parentPath + "\\" + entity.getName();
+        if (entity instanceof TextFile file) {
+            fs.writeToFile(path, file.getContent());
+        } else if (entity instanceof Container container) {
+            for (FileSystemEntity child : container.getContents()) {
+                rebuild(child, path);
+            }
+        }
+    }
+}
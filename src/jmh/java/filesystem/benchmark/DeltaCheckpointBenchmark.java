@@ -0,0 +1,96 @@
+package filesystem.benchmark;
+
+import filesystem.api.FileSystem;
+import filesystem.durable.Checkpoint;
+import filesystem.durable.CheckpointStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of checkpointing a tree of about a million entities after {@value #CHANGES} writes to files
+ * spread over the tree: a full {@link Checkpoint} each time against a {@link CheckpointStore} delta,
+ * including its background compactions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DeltaCheckpointBenchmark {
+    static final int FOLDERS = 1000;
+    static final int FILES_PER_FOLDER = 1000;
+    static final int CHANGES = 10;
+
+    @Param({"full", "delta"})
+    public String checkpoint;
+
+    private Path dir;
+    private FileSystem fs;
+    private CheckpointStore store;
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("delta-checkpoint-benchmark");
+        fs = new FileSystem();
+        if (checkpoint.equals("delta")) {
+            store = CheckpointStore.open(fs, dir);
+        }
+        fs.create("Drive", "C", null);
+        for (int f = 0; f < FOLDERS; f++) {
+            fs.create("Folder", "folder" + f, "C");
+            for (int i = 0; i < FILES_PER_FOLDER; i++) {
+                fs.create("TextFile", "file" + i + ".txt", "C\\folder" + f);
+                fs.writeToFile("C\\folder" + f + "\\file" + i + ".txt", "entry " + f + "/" + i);
+            }
+        }
+        if (store != null) {
+            store.checkpoint();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void changeAndCheckpoint() throws IOException {
+        for (int i = 0; i < CHANGES; i++) {
+            int folder = (round * 7919 + i * 104_729) % FOLDERS;
+            fs.writeToFile("C\\folder" + folder + "\\file" + (round % FILES_PER_FOLDER) + ".txt", "round " + round);
+        }
+        round++;
+        if (store != null) {
+            store.checkpoint();
+        } else {
+            Checkpoint.write(fs, dir.resolve("fs.checkpoint"));
+        }
+    }
+}
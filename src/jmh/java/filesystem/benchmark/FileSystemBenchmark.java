@@ -0,0 +1,103 @@
+package filesystem.benchmark;
+
+import filesystem.api.EntityPath;
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline cost of the core {@link FileSystem} operations for each {@link TreeShape}.
+ * <p>
+ * Mutating benchmarks undo their own change ({@code create} + {@code delete}, {@code move} there and
+ * back) so the tree keeps the same shape for the whole trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileSystemBenchmark {
+
+    @Param({"DEEP", "WIDE", "MANY_DRIVES", "NESTED_ZIP"})
+    public TreeShape shape;
+
+    /** Lookup cache capacity; 0 disables the cache. */
+    @Param({"0", "4096"})
+    public int cacheCapacity;
+
+    private FileSystem fs;
+    private String leafParent;
+    private String leafPath;
+    private String scratchPath;
+    private String sparePath;
+    private String movedPath;
+    private EntityPath parsedLeafPath;
+    private FileSystemEntity leaf;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fs = cacheCapacity == 0 ? new FileSystem() : new FileSystem(cacheCapacity);
+        leafParent = shape.build(fs);
+        leafPath = leafParent + "\\leaf.txt";
+        scratchPath = leafParent + "\\scratch.txt";
+        sparePath = "C\\Spare";
+        movedPath = sparePath + "\\leaf.txt";
+
+        fs.create("TextFile", "leaf.txt", leafParent);
+        fs.create("Folder", "Spare", "C");
+        fs.writeToFile(leafPath, "benchmark");
+        parsedLeafPath = EntityPath.parse(leafPath);
+        leaf = fs.findEntity(leafPath);
+    }
+
+    @Benchmark
+    public FileSystemEntity findEntity() {
+        return fs.findEntity(leafPath);
+    }
+
+    @Benchmark
+    public FileSystemEntity findEntityParsed() {
+        return fs.find(parsedLeafPath);
+    }
+
+    @Benchmark
+    public FileSystemEntity findEntityMiss() {
+        return fs.findEntity(scratchPath);
+    }
+
+    @Benchmark
+    public String getPath() {
+        return leaf.getPath();
+    }
+
+    @Benchmark
+    public void writeToFile() {
+        fs.writeToFile(leafPath, "benchmark");
+    }
+
+    @Benchmark
+    public void createAndDelete() {
+        fs.create("TextFile", "scratch.txt", leafParent);
+        fs.delete(scratchPath);
+    }
+
+    @Benchmark
+    public void moveAndMoveBack() {
+        fs.move(leafPath, sparePath);
+        fs.move(movedPath, leafParent);
+    }
+}
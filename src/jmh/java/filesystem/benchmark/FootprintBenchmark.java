@@ -0,0 +1,127 @@
+package filesystem.benchmark;
+
+import filesystem.api.FileSystem;
+
+/**
+ * Retained heap per entity for trees of folders with a fixed number of children each, retained heap
+ * for the same text content in a folder and in a zip file, and for files written with repeated content.
+ * Not a JMH benchmark: it builds each tree once, forces a collection and reports the growth in used
+ * heap, e.g.
+ * <pre>
+ * java -XX:+UseSerialGC -Xmx4g -cp target/benchmarks.jar filesystem.benchmark.FootprintBenchmark
+ * </pre>
+ * Entity names are the same in every run, so their strings add the same amount to every figure.
+ */
+public final class FootprintBenchmark {
+    private static final int ENTITIES = 1_000_000;
+    private static final int[] FAN_OUTS = {0, 1, 2, 4, 8, 16, 64};
+    private static final int CONTENT_FILES = 1024;
+    private static final int CONTENT_FILE_SIZE = 256 * 1024;
+    private static final int CONFIG_FILES = 4096;
+    private static final int CONFIG_FILE_SIZE = 4 * 1024;
+    private static final int[] COPIES = {1, 16, 4096};
+
+    private FootprintBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        System.out.printf("%8s  %14s%n", "children", "bytes/entity");
+        for (int fanOut : FAN_OUTS) {
+            // Warm-up run so class loading and JIT allocations are not counted.
+            build(fanOut, ENTITIES / 10);
+            long before = usedHeap();
+            FileSystem fs = build(fanOut, ENTITIES);
+            long after = usedHeap();
+            System.out.printf("%8d  %14.1f%n", fanOut, (double) (after - before) / ENTITIES);
+            if (fs.findDrive("C") == null) {
+                throw new AssertionError();
+            }
+        }
+
+        System.out.printf("%n%8s  %14s%n", "content", "MB retained");
+        for (String container : new String[]{"Folder", "ZipFile"}) {
+            long before = usedHeap();
+            FileSystem fs = buildContent(container);
+            long after = usedHeap();
+            System.out.printf("%8s  %14.1f%n", container, (after - before) / (1024.0 * 1024.0));
+            if (fs.findDrive("C") == null) {
+                throw new AssertionError();
+            }
+        }
+
+        System.out.printf("%n%8s  %14s  %14s%n", "copies", "MB retained", "MB saved");
+        for (int copies : COPIES) {
+            long before = usedHeap();
+            FileSystem fs = buildConfigs(copies);
+            long after = usedHeap();
+            System.out.printf("%8d  %14.1f  %14.1f%n", copies, (after - before) / (1024.0 * 1024.0),
+                    fs.getDedupStats().savedBytes() / (1024.0 * 1024.0));
+        }
+    }
+
+    /**
+     * {@value #CONTENT_FILES} log files of {@value #CONTENT_FILE_SIZE} bytes each in a container of the
+     * given type.
+     */
+    private static FileSystem buildContent(String container) {
+        FileSystem fs = new FileSystem();
+        fs.create("Drive", "C", null);
+        fs.create(container, "store", "C");
+        for (int i = 0; i < CONTENT_FILES; i++) {
+            fs.create("TextFile", "f" + i + ".log", "C\\store");
+            fs.writeToFile("C\\store\\f" + i + ".log", logText(CONTENT_FILE_SIZE, i));
+        }
+        return fs;
+    }
+
+    /**
+     * {@value #CONFIG_FILES} files of {@value #CONFIG_FILE_SIZE} bytes, each distinct text written to
+     * {@code copies} of them.
+     */
+    private static FileSystem buildConfigs(int copies) {
+        FileSystem fs = new FileSystem();
+        fs.create("Drive", "C", null);
+        fs.create("Folder", "etc", "C");
+        for (int i = 0; i < CONFIG_FILES; i++) {
+            fs.create("TextFile", "f" + i + ".conf", "C\\etc");
+            fs.writeToFile("C\\etc\\f" + i + ".conf", logText(CONFIG_FILE_SIZE, i / copies));
+        }
+        return fs;
+    }
+
+    /**
+     * Roughly {@code size} bytes of log lines that differ in their counters, compressible like real logs.
+     * Texts with different {@code firstRequest} numbers differ.
+     */
+    static String logText(int size, int firstRequest) {
+        StringBuilder text = new StringBuilder(size + 100);
+        for (int i = firstRequest; text.length() < size; i++) {
+            text.append("2024-01-01T00:").append(i % 60).append(':').append(i * 7 % 60)
+                    .append("Z INFO request ").append(i).append(" served in ").append(i * 31 % 97).append(" ms\n");
+        }
+        return text.toString();
+    }
+
+    private static FileSystem build(int fanOut, int entities) {
+        FileSystem fs = new FileSystem();
+        fs.create("Drive", "C", null);
+        int folders = entities / (fanOut + 1);
+        for (int f = 0; f < folders; f++) {
+            String folder = "d" + f;
+            fs.create("Folder", folder, "C");
+            String path = "C\\" + folder;
+            for (int c = 0; c < fanOut; c++) {
+                fs.create("TextFile", "f" + c + ".txt", path);
+            }
+        }
+        return fs;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,96 @@
+package filesystem.benchmark;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import filesystem.api.Glob;
+import filesystem.containers.Container;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@value #PROJECTS} project folders, each with a {@code build} folder and {@value #SOURCES} other
+ * folders of {@value #FILES} files: {@code C\*\build\*.txt}, which needs only the build folders, and
+ * {@code C\**\*.log}, which needs every folder, as a glob (sequential and parallel) against matching
+ * every path while walking the tree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GlobBenchmark {
+    static final int PROJECTS = 100;
+    static final int SOURCES = 10;
+    static final int FILES = 100;
+
+    @Param({"C\\*\\build\\*.txt", "C\\**\\*.log"})
+    public String pattern;
+
+    private FileSystem fs;
+    private Glob glob;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fs = new FileSystem();
+        fs.create("Drive", "C", null);
+        for (int p = 0; p < PROJECTS; p++) {
+            String project = "C\\project" + p;
+            fs.create("Folder", "project" + p, "C");
+            fs.create("Folder", "build", project);
+            fs.create("TextFile", "out.txt", project + "\\build");
+            for (int s = 0; s < SOURCES; s++) {
+                fs.create("Folder", "src" + s, project);
+                fs.create("TextFile", "app.log", project + "\\src" + s);
+                for (int f = 1; f < FILES; f++) {
+                    fs.create("TextFile", "file" + f + ".txt", project + "\\src" + s);
+                }
+            }
+        }
+        glob = Glob.compile(pattern);
+    }
+
+    @Benchmark
+    public List<FileSystemEntity> glob() {
+        return glob.stream(fs).toList();
+    }
+
+    @Benchmark
+    public List<FileSystemEntity> globParallel() {
+        return glob.stream(fs).parallel().toList();
+    }
+
+    @Benchmark
+    public List<FileSystemEntity> walk() {
+        List<FileSystemEntity> result = new ArrayList<>();
+        for (FileSystemEntity drive : fs.getDrives()) {
+            collect(drive, result);
+        }
+        return result;
+    }
+
+    private void collect(FileSystemEntity entity, List<FileSystemEntity> result) {
+        if (glob.matches(entity.getPath())) {
+            result.add(entity);
+        }
+        if (entity instanceof Container container) {
+            for (FileSystemEntity child : container.getContents()) {
+                collect(child, result);
+            }
+        }
+    }
+}
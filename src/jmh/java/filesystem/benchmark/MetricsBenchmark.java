@@ -0,0 +1,58 @@
+package filesystem.benchmark;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of metrics on {@code findEntity} and {@code writeToFile}: with metrics never enabled, and
+ * with them enabled. Run with {@code -jvmArgs -Dfilesystem.metrics=false} to compare with the
+ * instrumentation compiled out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private FileSystem fs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fs = new FileSystem();
+        if (metrics) {
+            fs.enableMetrics();
+        }
+        fs.create("Drive", "C", null);
+        fs.create("Folder", "Documents", "C");
+        fs.create("Folder", "Reports", "C\\Documents");
+        fs.create("TextFile", "q1.txt", "C\\Documents\\Reports");
+    }
+
+    @Benchmark
+    public FileSystemEntity findEntity() {
+        return fs.findEntity("C\\Documents\\Reports\\q1.txt");
+    }
+
+    @Benchmark
+    public void writeToFile() {
+        fs.writeToFile("C\\Documents\\Reports\\q1.txt", "Revenue");
+    }
+}
@@ -0,0 +1,82 @@
+package filesystem.benchmark;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import filesystem.api.NameIndex;
+import filesystem.containers.Container;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the {@value #FOLDERS} {@code *.log} files among {@value #FOLDERS} folders of
+ * {@value #FILES_PER_FOLDER} files each: a {@link NameIndex} query against walking every drive.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NameIndexBenchmark {
+    static final int FOLDERS = 1000;
+    static final int FILES_PER_FOLDER = 100;
+
+    @Param({"index", "walk"})
+    public String lookup;
+
+    private FileSystem fs;
+    private NameIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fs = new FileSystem();
+        if (lookup.equals("index")) {
+            index = fs.indexNames();
+        }
+        fs.create("Drive", "C", null);
+        for (int f = 0; f < FOLDERS; f++) {
+            fs.create("Folder", "folder" + f, "C");
+            fs.create("TextFile", "app.log", "C\\folder" + f);
+            for (int i = 1; i < FILES_PER_FOLDER; i++) {
+                fs.create("TextFile", "file" + i + ".txt", "C\\folder" + f);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<FileSystemEntity> findByExtension() {
+        if (index != null) {
+            return index.withExtension("log");
+        }
+        List<FileSystemEntity> result = new ArrayList<>();
+        for (FileSystemEntity drive : fs.getDrives()) {
+            collect(drive, result);
+        }
+        return result;
+    }
+
+    private static void collect(FileSystemEntity entity, List<FileSystemEntity> result) {
+        if (entity.getName().endsWith(".log")) {
+            result.add(entity);
+        }
+        if (entity instanceof Container container) {
+            for (FileSystemEntity child : container.getContents()) {
+                collect(child, result);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package filesystem.benchmark;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import filesystem.api.TextIndex;
+import filesystem.entities.TextFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@value #FILES} text files of {@value #WORDS_PER_FILE} words drawn from a {@value #VOCABULARY}-word
+ * vocabulary: the latency {@link TextIndex} adds to {@code writeToFile}, and a two-word search through
+ * it against reading every file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextIndexBenchmark {
+    static final int FILES = 10_000;
+    static final int WORDS_PER_FILE = 100;
+    static final int VOCABULARY = 5000;
+
+    @Param({"none", "text"})
+    public String index;
+
+    private FileSystem fs;
+    private TextIndex textIndex;
+    private String[] contents;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fs = new FileSystem();
+        if (index.equals("text")) {
+            textIndex = fs.indexText();
+        }
+        Random random = new Random(42);
+        contents = new String[64];
+        for (int c = 0; c < contents.length; c++) {
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < WORDS_PER_FILE; w++) {
+                text.append("w").append(random.nextInt(VOCABULARY)).append(' ');
+            }
+            contents[c] = text.toString();
+        }
+        fs.create("Drive", "C", null);
+        for (int i = 0; i < FILES; i++) {
+            fs.create("TextFile", "f" + i + ".txt", "C");
+            fs.writeToFile("C\\f" + i + ".txt", contents[i % contents.length]);
+        }
+        if (textIndex != null) {
+            textIndex.awaitIndexed();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (textIndex != null) {
+            textIndex.close();
+        }
+    }
+
+    @Benchmark
+    public void write() {
+        int i = next++;
+        fs.writeToFile("C\\f" + (i % FILES) + ".txt", contents[i % contents.length]);
+    }
+
+    @Benchmark
+    public List<FileSystemEntity> search() {
+        if (textIndex != null) {
+            return textIndex.search("w17 w4242");
+        }
+        List<FileSystemEntity> result = new ArrayList<>();
+        for (FileSystemEntity entity : fs.findDrive("C").getContents()) {
+            String content = ((TextFile) entity).getContent();
+            if (content.contains("w17 ") && content.contains("w4242 ")) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+package filesystem.benchmark;
+
+import filesystem.api.FileSystem;
+
+/**
+ * Tree layouts the benchmarks are parameterized over. Every shape builds a tree with a single
+ * {@code leaf.txt} target and an empty {@code Spare} folder to move it to, so each benchmark
+ * exercises the same operations against differently shaped paths.
+ */
+public enum TreeShape {
+    /** A single chain of {@value #DEEP_DEPTH} nested folders on one drive. */
+    DEEP {
+        @Override
+        String build(FileSystem fs) {
+            fs.create("Drive", "C", null);
+            StringBuilder path = new StringBuilder("C");
+            for (int i = 0; i < DEEP_DEPTH; i++) {
+                fs.create("Folder", "d" + i, path.toString());
+                path.append("\\d").append(i);
+            }
+            return path.toString();
+        }
+    },
+    /** One folder holding {@value #WIDE_CHILDREN} sibling files. */
+    WIDE {
+        @Override
+        String build(FileSystem fs) {
+            fs.create("Drive", "C", null);
+            fs.create("Folder", "Wide", "C");
+            for (int i = 0; i < WIDE_CHILDREN; i++) {
+                fs.create("TextFile", "f" + i + ".txt", "C\\Wide");
+            }
+            return "C\\Wide";
+        }
+    },
+    /** {@value #DRIVE_COUNT} drives, each holding a small folder. */
+    MANY_DRIVES {
+        @Override
+        String build(FileSystem fs) {
+            for (int i = 0; i < DRIVE_COUNT; i++) {
+                fs.create("Drive", "D" + i, null);
+                fs.create("Folder", "Data", "D" + i);
+            }
+            fs.create("Drive", "C", null);
+            return "D" + (DRIVE_COUNT / 2) + "\\Data";
+        }
+    },
+    /** A chain of {@value #ZIP_DEPTH} zip files nested inside each other. */
+    NESTED_ZIP {
+        @Override
+        String build(FileSystem fs) {
+            fs.create("Drive", "C", null);
+            StringBuilder path = new StringBuilder("C");
+            for (int i = 0; i < ZIP_DEPTH; i++) {
+                fs.create("ZipFile", "z" + i + ".zip", path.toString());
+                path.append("\\z").append(i).append(".zip");
+            }
+            return path.toString();
+        }
+    };
+
+    static final int DEEP_DEPTH = 256;
+    static final int WIDE_CHILDREN = 100_000;
+    static final int DRIVE_COUNT = 10_000;
+    static final int ZIP_DEPTH = 64;
+
+    /**
+     * Builds the shape into an empty file system and returns the path of the container that
+     * {@code leaf.txt} should be created in.
+     */
+    abstract String build(FileSystem fs);
+}
@@ -0,0 +1,91 @@
+package filesystem.benchmark;
+
+import filesystem.concurrent.ConcurrentFileSystem;
+import filesystem.durable.SyncPolicy;
+import filesystem.durable.WriteAheadLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write throughput of a {@link ConcurrentFileSystem} logged by a {@link WriteAheadLog} under each
+ * {@link SyncPolicy}, against no log at all. With several writing threads, {@code perBatch} shares each
+ * sync between the threads waiting for it while {@code perOperation} syncs once per write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class WalBenchmark {
+    private static final String LINE = "2024-01-01T00:00:00Z INFO request served in 3 ms\n";
+
+    @Param({"none", "perOperation", "perBatch", "interval"})
+    public String policy;
+
+    private ConcurrentFileSystem fs;
+    private Path dir;
+    private WriteAheadLog log;
+
+    @State(Scope.Thread)
+    public static class Writer {
+        String path;
+
+        @Setup(Level.Trial)
+        public void setUp(WalBenchmark benchmark, ThreadParams threads) {
+            path = "C\\t" + threads.getThreadIndex() + ".log";
+            benchmark.fs.create("TextFile", "t" + threads.getThreadIndex() + ".log", "C");
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fs = new ConcurrentFileSystem();
+        dir = Files.createTempDirectory("wal-benchmark");
+        SyncPolicy syncPolicy = switch (policy) {
+            case "none" -> null;
+            case "perOperation" -> SyncPolicy.perOperation();
+            case "perBatch" -> SyncPolicy.perBatch();
+            case "interval" -> SyncPolicy.interval(Duration.ofMillis(10));
+            default -> throw new IllegalArgumentException("Unknown policy: " + policy);
+        };
+        if (syncPolicy != null) {
+            log = WriteAheadLog.open(fs, dir.resolve("fs.wal"), syncPolicy);
+        }
+        fs.create("Drive", "C", null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (log != null) {
+            log.close();
+            Files.delete(dir.resolve("fs.wal"));
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public void writeFile(Writer writer) {
+        fs.writeToFile(writer.path, LINE);
+    }
+}
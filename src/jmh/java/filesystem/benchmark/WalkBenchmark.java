@@ -0,0 +1,97 @@
+package filesystem.benchmark;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import filesystem.api.FileSystemVisitor;
+import filesystem.containers.Container;
+import filesystem.entities.TextFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totals the content size of {@value #FOLDERS} folders of {@value #FILES_PER_FOLDER} files each, one
+ * level of nesting per {@value #FAN_OUT} folders: a hand-written recursion against {@code walk} as a
+ * sequential stream, a parallel stream and a visitor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WalkBenchmark {
+    static final int FOLDERS = 5000;
+    static final int FILES_PER_FOLDER = 200;
+    static final int FAN_OUT = 10;
+
+    private FileSystem fs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fs = new FileSystem();
+        fs.create("Drive", "C", null);
+        String[] paths = new String[FOLDERS];
+        for (int f = 0; f < FOLDERS; f++) {
+            String parent = f < FAN_OUT ? "C" : paths[f / FAN_OUT - 1];
+            fs.create("Folder", "d" + f, parent);
+            paths[f] = parent + "\\d" + f;
+            for (int i = 0; i < FILES_PER_FOLDER; i++) {
+                fs.create("TextFile", "f" + i + ".txt", paths[f]);
+            }
+            fs.writeToFile(paths[f] + "\\f0.txt", "content of folder " + f);
+        }
+    }
+
+    @Benchmark
+    public long recursion() {
+        return sizeOf(fs.findDrive("C"));
+    }
+
+    @Benchmark
+    public long stream() {
+        return fs.walk("C").mapToLong(WalkBenchmark::size).sum();
+    }
+
+    @Benchmark
+    public long parallelStream() {
+        return fs.walk("C").parallel().mapToLong(WalkBenchmark::size).sum();
+    }
+
+    @Benchmark
+    public long visitor() {
+        long[] total = new long[1];
+        fs.walk("C", new FileSystemVisitor() {
+            @Override
+            public Result preVisit(FileSystemEntity entity) {
+                total[0] += size(entity);
+                return Result.CONTINUE;
+            }
+        });
+        return total[0];
+    }
+
+    private static long sizeOf(FileSystemEntity entity) {
+        long size = size(entity);
+        if (entity instanceof Container container) {
+            for (FileSystemEntity child : container.getContents()) {
+                size += sizeOf(child);
+            }
+        }
+        return size;
+    }
+
+    private static long size(FileSystemEntity entity) {
+        return entity instanceof TextFile file ? file.getSize() : 0;
+    }
+}
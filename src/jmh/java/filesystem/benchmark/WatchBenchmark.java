@@ -0,0 +1,64 @@
+package filesystem.benchmark;
+
+import filesystem.api.FileSystem;
+import filesystem.watch.OverflowPolicy;
+import filesystem.watch.WatchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a {@link WatchService} adds to {@code writeToFile}: no service, and a service watching the
+ * written file's folder, which coalesces the repeated writes and drops what it cannot keep up with.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WatchBenchmark {
+    @Param({"false", "true"})
+    public boolean watched;
+
+    private FileSystem fs;
+    private WatchService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fs = new FileSystem();
+        fs.create("Drive", "C", null);
+        fs.create("Folder", "Documents", "C");
+        fs.create("TextFile", "note.txt", "C\\Documents");
+        if (watched) {
+            service = WatchService.open(fs, WatchService.DEFAULT_CAPACITY, Duration.ofMillis(10), OverflowPolicy.DROP);
+            service.watch("C\\Documents", batch -> {
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @Benchmark
+    public void writeToFile() {
+        fs.writeToFile("C\\Documents\\note.txt", "Hello World!");
+    }
+}
@@ -0,0 +1,74 @@
+package filesystem.benchmark;
+
+import filesystem.api.FileSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of reading and writing text files in a plain folder against the same files in a
+ * {@link filesystem.entities.ZipFile}. {@code hot} reads keep hitting one file, whose chunk stays in the
+ * zip's decompression cache; {@code cold} reads cycle through every file and miss it. Retained memory
+ * is reported by {@link FootprintBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZipBenchmark {
+    static final int FILES = 256;
+
+    @Param({"Folder", "ZipFile"})
+    public String container;
+
+    private FileSystem fs;
+    private String[] paths;
+    private String[] contents;
+    private int next;
+    private int written;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fs = new FileSystem();
+        fs.create("Drive", "C", null);
+        fs.create(container, "store", "C");
+        paths = new String[FILES];
+        for (int i = 0; i < FILES; i++) {
+            fs.create("TextFile", "f" + i + ".log", "C\\store");
+            paths[i] = "C\\store\\f" + i + ".log";
+            fs.writeToFile(paths[i], FootprintBenchmark.logText(64 * 1024, i));
+        }
+        // Held by no other file, so alternating between them never shares stored content.
+        contents = new String[]{FootprintBenchmark.logText(64 * 1024, FILES), FootprintBenchmark.logText(64 * 1024, FILES + 1)};
+    }
+
+    @Benchmark
+    public byte[] readLineHot() {
+        return fs.readFromFile(paths[0], 1024, 80);
+    }
+
+    @Benchmark
+    public byte[] readLineCold() {
+        next = (next + 1) % FILES;
+        return fs.readFromFile(paths[next], 1024, 80);
+    }
+
+    @Benchmark
+    public void writeFile() {
+        written ^= 1;
+        fs.writeToFile(paths[1], contents[written]);
+    }
+}
@@ -2,18 +2,40 @@ package filesystem;
 
 import filesystem.api.FileSystem;
 import filesystem.api.FileSystemEntity;
+import filesystem.api.TextIndex;
+import filesystem.durable.SyncPolicy;
+import filesystem.durable.WriteAheadLog;
 import filesystem.entities.TextFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Scanner;
 
 public class FilesystemCLI {
 
     private static final FileSystem fs = new FileSystem();
 
+    /**
+     * @param args optionally the path of a write-ahead log to restore the file system from and keep
+     *             recording to
+     */
     public static void main(String[] args) {
         System.out.println("=== In-Memory File System CLI ===");
         System.out.println("Type 'help' for commands, 'exit' to quit");
 
+        WriteAheadLog log = null;
+        if (args.length > 0) {
+            try {
+                log = WriteAheadLog.open(fs, Path.of(args[0]), SyncPolicy.perBatch());
+                System.out.println("Logging to " + args[0]);
+            } catch (IOException e) {
+                System.err.println("✗ Error opening log " + args[0] + ": " + e.getMessage());
+                return;
+            }
+        }
+
         Scanner scanner = new Scanner(System.in);
 
         while (true) {
@@ -34,6 +56,13 @@ public class FilesystemCLI {
         }
 
         scanner.close();
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                System.err.println("✗ Error closing log: " + e.getMessage());
+            }
+        }
     }
 
     private static void processCommand(String[] args) {
@@ -53,6 +82,9 @@ public class FilesystemCLI {
                 case "move":
                     handleMove(args);
                     break;
+                case "copy":
+                    handleCopy(args);
+                    break;
                 case "write":
                     handleWrite(args);
                     break;
@@ -62,6 +94,15 @@ public class FilesystemCLI {
                 case "find":
                     handleFind(args);
                     break;
+                case "du":
+                    handleDu(args);
+                    break;
+                case "search":
+                    handleSearch(args);
+                    break;
+                case "glob":
+                    handleGlob(args);
+                    break;
                 default:
                     System.err.println("Unknown command: " + command + ". Type 'help' for available commands.");
             }
@@ -75,9 +116,13 @@ public class FilesystemCLI {
         System.out.println("  create <type> <name> <parent_path>  - Create entity (Drive, Folder, TextFile, ZipFile)");
         System.out.println("  delete <path>                       - Delete entity");
         System.out.println("  move <source_path> <dest_path>      - Move entity");
+        System.out.println("  copy <source_path> <dest_path>      - Copy entity and everything below it");
         System.out.println("  write <path> <content>              - Write content to file");
         System.out.println("  read <path>                         - Read and display file content");
         System.out.println("  find <path>                         - Find and show entity info");
+        System.out.println("  du <path>                           - Show entity count, size and depth below a path");
+        System.out.println("  search <query>                      - List text files containing words, \"phrases\", OR alternatives");
+        System.out.println("  glob <pattern>                      - List paths matching *, ?, [a-z] and ** wildcards");
         System.out.println("  help                                - Show this help message");
         System.out.println("  exit                                - Exit the CLI");
         System.out.println();
@@ -86,8 +131,12 @@ public class FilesystemCLI {
         System.out.println("  create Folder Documents C");
         System.out.println("  create TextFile note.txt C\\Documents");
         System.out.println("  write C\\Documents\\note.txt Hello World!");
+        System.out.println("  copy C\\Documents\\note.txt C");
         System.out.println("  read C\\Documents\\note.txt");
         System.out.println("  find C\\Documents\\note.txt");
+        System.out.println("  du C");
+        System.out.println("  search hello OR \"hello world\"");
+        System.out.println("  glob C\\**\\*.txt");
     }
 
     private static void handleCreate(String[] args) {
@@ -129,6 +178,18 @@ public class FilesystemCLI {
         System.out.println("✓ Moved " + sourcePath + " to " + destPath);
     }
 
+    private static void handleCopy(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Usage: copy <source_path> <dest_path>");
+            return;
+        }
+
+        String sourcePath = args[1];
+        String destPath = args[2];
+        fs.copy(sourcePath, destPath);
+        System.out.println("✓ Copied " + sourcePath + " to " + destPath);
+    }
+
     private static void handleWrite(String[] args) {
         if (args.length < 3) {
             System.err.println("Usage: write <path> <content>");
@@ -166,13 +227,16 @@ public class FilesystemCLI {
             return;
         }
 
-        String content = textFile.getContent();
-
         System.out.println("--- Content of " + path + " ---");
-        if (content.isEmpty()) {
+        if (textFile.getSize() == 0) {
             System.out.println("(empty file)");
         } else {
-            System.out.println(content);
+            try (InputStream in = fs.openRead(path)) {
+                in.transferTo(System.out);
+            } catch (IOException e) {
+                System.out.println("✗ Error reading " + path + ": " + e.getMessage());
+            }
+            System.out.println();
         }
         System.out.println("--- End of file ---");
     }
@@ -192,4 +256,58 @@ public class FilesystemCLI {
             System.out.println("✓ Found: " + entity.getClass().getSimpleName() + " '" + entity.getName() + "' at " + entity.getPath());
         }
     }
-}
\ No newline at end of file
+
+    private static void handleDu(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: du <path>");
+            return;
+        }
+
+        String path = args[1];
+        FileSystemEntity entity = fs.findEntity(path);
+
+        if (entity == null) {
+            System.out.println("✗ Not found: " + path);
+        } else {
+            System.out.println(entity.getPath() + ": " + entity.getTotalBytes() + " bytes in "
+                    + entity.getDescendantCount() + " entities, " + entity.getMaxDepth() + " levels deep");
+        }
+    }
+
+    private static void handleSearch(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: search <query>");
+            return;
+        }
+
+        String query = String.join(" ", List.of(args).subList(1, args.length));
+        // Indexed on first use; later writes are indexed in the background.
+        TextIndex index = fs.getTextIndex();
+        if (index == null) {
+            index = fs.indexText();
+        }
+        List<String> paths = index.search(query, true).stream().map(FileSystemEntity::getPath).sorted().toList();
+
+        if (paths.isEmpty()) {
+            System.out.println("✗ No files match: " + query);
+        } else {
+            paths.forEach(System.out::println);
+        }
+    }
+
+    private static void handleGlob(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: glob <pattern>");
+            return;
+        }
+
+        String pattern = args[1];
+        List<String> paths = fs.glob(pattern).parallel().map(FileSystemEntity::getPath).sorted().toList();
+
+        if (paths.isEmpty()) {
+            System.out.println("✗ Nothing matches: " + pattern);
+        } else {
+            paths.forEach(System.out::println);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package filesystem.api;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, pre-parsed backslash-delimited path such as {@code C\Documents\note.txt}.
+ * <p>
+ * The segments and their hashes are computed once by {@link #parse(String)}, so a path that is used
+ * for many {@link FileSystem} calls is only parsed once. {@link #parent()} shares the segment arrays
+ * of the path it was derived from.
+ */
+public final class EntityPath {
+    private final String[] segments;
+    private final int[] hashes;
+    private final int depth;
+    private String text;
+
+    private EntityPath(String[] segments, int[] hashes, int depth) {
+        this.segments = segments;
+        this.hashes = hashes;
+        this.depth = depth;
+    }
+
+    /**
+     * Parses a path like {@code C\Documents\note.txt}. Trailing separators are ignored.
+     *
+     * @throws IllegalArgumentException if the path is null, empty or contains an empty segment
+     */
+    public static EntityPath parse(String path) {
+        if (path == null) {
+            throw new IllegalArgumentException("Path must not be null");
+        }
+        int end = path.length();
+        while (end > 0 && path.charAt(end - 1) == '\\') {
+            end--;
+        }
+        if (end == 0) {
+            throw new IllegalArgumentException("Invalid path: " + path);
+        }
+
+        int depth = 1;
+        for (int i = path.indexOf('\\'); i != -1 && i < end; i = path.indexOf('\\', i + 1)) {
+            depth++;
+        }
+
+        String[] segments = new String[depth];
+        int[] hashes = new int[depth];
+        int from = 0;
+        for (int i = 0; i < depth; i++) {
+            int to = path.indexOf('\\', from);
+            if (to == -1 || to > end) {
+                to = end;
+            }
+            if (to == from) {
+                throw new IllegalArgumentException("Invalid path: " + path);
+            }
+            segments[i] = path.substring(from, to);
+            hashes[i] = segments[i].hashCode();
+            from = to + 1;
+        }
+        EntityPath parsed = new EntityPath(segments, hashes, depth);
+        if (end == path.length()) {
+            parsed.text = path;
+        }
+        return parsed;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public String segment(int index) {
+        if (index < 0 || index >= depth) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return segments[index];
+    }
+
+    /**
+     * {@link String#hashCode()} of {@link #segment(int)}, computed at parse time.
+     */
+    public int segmentHash(int index) {
+        if (index < 0 || index >= depth) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return hashes[index];
+    }
+
+    /**
+     * Last segment of the path, i.e. the name of the entity it points to.
+     */
+    public String name() {
+        return segments[depth - 1];
+    }
+
+    public boolean isDrive() {
+        return depth == 1;
+    }
+
+    /**
+     * Path of the containing entity, or {@code null} for a drive. Runs in constant time.
+     */
+    public EntityPath parent() {
+        return depth == 1 ? null : new EntityPath(segments, hashes, depth - 1);
+    }
+
+    /**
+     * Path of the child called {@code name} inside this path.
+     */
+    public EntityPath child(String name) {
+        if (name == null || name.isEmpty() || name.indexOf('\\') != -1) {
+            throw new IllegalArgumentException("Invalid name: " + name);
+        }
+        String[] childSegments = Arrays.copyOf(segments, depth + 1);
+        int[] childHashes = Arrays.copyOf(hashes, depth + 1);
+        childSegments[depth] = name;
+        childHashes[depth] = name.hashCode();
+        return new EntityPath(childSegments, childHashes, depth + 1);
+    }
+
+    /**
+     * Whether this path equals {@code other} or lies beneath it.
+     */
+    public boolean startsWith(EntityPath other) {
+        if (other.depth > depth) {
+            return false;
+        }
+        for (int i = 0; i < other.depth; i++) {
+            if (hashes[i] != other.hashes[i] || !segments[i].equals(other.segments[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EntityPath other)) return false;
+        return depth == other.depth && startsWith(other);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < depth; i++) {
+            result = 31 * result + hashes[i];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        String result = text;
+        if (result == null) {
+            result = String.join("\\", Arrays.asList(segments).subList(0, depth));
+            text = result;
+        }
+        return result;
+    }
+}
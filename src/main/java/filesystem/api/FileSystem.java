@@ -1,27 +1,498 @@
 package filesystem.api;
 
+import filesystem.containers.ChildTable;
 import filesystem.containers.Container;
+import filesystem.content.Content;
+import filesystem.content.ContentChannel;
+import filesystem.content.ContentEdit;
+import filesystem.content.ContentInputStream;
+import filesystem.content.ContentOutputStream;
+import filesystem.content.ContentPolicy;
+import filesystem.content.ContentStore;
+import filesystem.content.DedupStats;
 import filesystem.entities.Drive;
 import filesystem.entities.Folder;
 import filesystem.entities.TextFile;
 import filesystem.entities.ZipFile;
+import filesystem.metrics.FileSystemMetrics;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 
 public class FileSystem {
-    private final Map<String, Drive> drives = new HashMap<>();
+    // Start time of an operation that is not being timed.
+    private static final long UNTIMED = Long.MIN_VALUE;
+
+    private final ChildTable<Drive> drives = new ChildTable<>();
+    private final LookupCache lookupCache;
+    private volatile NameIndex nameIndex;
+    private volatile TextIndex textIndex;
+    private volatile FileSystemMetrics metrics;
+    private final ContentPolicy contentPolicy;
+    private final ContentStore contentStore = new ContentStore();
+    private final List<FileSystemListener> listeners = new CopyOnWriteArrayList<>();
+    // Changes of the batch being applied, reported only if it succeeds.
+    private List<FileSystemOperation> pendingChanges;
+
+    public FileSystem() {
+        this(ContentPolicy.heap());
+    }
+
+    /**
+     * Creates a file system that stores text file content as {@code contentPolicy} decides, e.g.
+     * {@link ContentPolicy#offHeapAbove(int)} to keep large files out of the heap.
+     */
+    public FileSystem(ContentPolicy contentPolicy) {
+        this.lookupCache = null;
+        this.contentPolicy = contentPolicy;
+    }
+
+    /**
+     * Creates a file system that remembers up to {@code lookupCacheCapacity} resolved paths, evicting
+     * the least recently used. {@link #delete} and {@link #move} invalidate the affected paths; changes
+     * made directly through a {@link Container} bypass the cache.
+     */
+    public FileSystem(int lookupCacheCapacity) {
+        this(lookupCacheCapacity, ContentPolicy.heap());
+    }
+
+    public FileSystem(int lookupCacheCapacity, ContentPolicy contentPolicy) {
+        this.lookupCache = new LookupCache(lookupCacheCapacity);
+        this.contentPolicy = contentPolicy;
+    }
 
     public void create(String type, String name, String parentPath) {
-        if (type.equals("Drive")) {
-            if (drives.containsKey(name)) {
-                throw new IllegalArgumentException("Drive with that name already exists.");
+        long start = startTiming();
+        boolean failed = true;
+        try {
+            if (type.equals("Drive")) {
+                createDrive(name);
+            } else {
+                createEntity(type, name, getContainerAtPath(parentPath), parentPath);
             }
-            drives.put(name, new Drive(name));
-            return;
+            completed();
+            failed = false;
+        } finally {
+            stopTiming(FileSystemMetrics.Operation.CREATE, start, parentPath, 1, failed);
+        }
+    }
+
+    /**
+     * Creates an entity of the given type at {@code path}, whose last segment is the new entity's name.
+     */
+    public void create(String type, EntityPath path) {
+        long start = startTiming();
+        boolean failed = true;
+        try {
+            if (type.equals("Drive")) {
+                if (!path.isDrive()) {
+                    throw new IllegalArgumentException("Drives can only be created at the root: " + path);
+                }
+                createDrive(path.name());
+            } else {
+                if (path.isDrive()) {
+                    throw new IllegalArgumentException("Only drives can be created at the root: " + path);
+                }
+                createEntity(type, path.name(), asContainer(resolve(path, path.depth() - 1)), path.parent());
+            }
+            completed();
+            failed = false;
+        } finally {
+            stopTiming(FileSystemMetrics.Operation.CREATE, start, path, 0, failed);
+        }
+    }
+
+    public void delete(String path) {
+        long start = startTiming();
+        boolean failed = true;
+        try {
+            int lastBackslash = path.lastIndexOf('\\');
+            if (lastBackslash == -1) {
+                deleteDrive(path);
+            } else {
+                Container parent = asContainer(resolve(path, lastBackslash));
+                FileSystemEntity entity = parent == null ? null
+                        : lookupChild(parent, path, lastBackslash + 1, path.length(), ChildTable.hash(path, lastBackslash + 1, path.length()));
+                deleteEntity(parent, entity, path);
+            }
+            completed();
+            failed = false;
+        } finally {
+            stopTiming(FileSystemMetrics.Operation.DELETE, start, path, 0, failed);
+        }
+    }
+
+    public void delete(EntityPath path) {
+        long start = startTiming();
+        boolean failed = true;
+        try {
+            if (path.isDrive()) {
+                deleteDrive(path.name());
+            } else {
+                int depth = path.depth();
+                Container parent = asContainer(resolve(path, depth - 1));
+                FileSystemEntity entity = parent == null ? null : getChild(parent, path, depth - 1);
+                deleteEntity(parent, entity, path);
+            }
+            completed();
+            failed = false;
+        } finally {
+            stopTiming(FileSystemMetrics.Operation.DELETE, start, path, 0, failed);
+        }
+    }
+
+    public void move(String sourcePath, String destPath) {
+        long start = startTiming();
+        boolean failed = true;
+        try {
+            // Cannot move drives
+            if (!sourcePath.contains("\\")) {
+                throw new IllegalArgumentException("Cannot move a drive");
+            }
+            moveEntity(lookup(sourcePath), getContainerAtPath(destPath), sourcePath, destPath);
+            completed();
+            failed = false;
+        } finally {
+            stopTiming(FileSystemMetrics.Operation.MOVE, start, sourcePath, 0, failed);
+        }
+    }
+
+    public void move(EntityPath sourcePath, EntityPath destPath) {
+        long start = startTiming();
+        boolean failed = true;
+        try {
+            if (sourcePath.isDrive()) {
+                throw new IllegalArgumentException("Cannot move a drive");
+            }
+            moveEntity(lookup(sourcePath), asContainer(lookup(destPath)), sourcePath, destPath);
+            completed();
+            failed = false;
+        } finally {
+            stopTiming(FileSystemMetrics.Operation.MOVE, start, sourcePath, 0, failed);
+        }
+    }
+
+    /**
+     * Copies the entity at {@code sourcePath}, with everything below it, into the container at
+     * {@code destPath}, keeping its name. The copy creates only the entities themselves: each copied
+     * text file shares its content with the original until either of them is written, so the cost
+     * does not grow with the amount of content.
+     */
+    public void copy(String sourcePath, String destPath) {
+        if (!sourcePath.contains("\\")) {
+            throw new IllegalArgumentException("Cannot copy a drive");
+        }
+        copyEntity(lookup(sourcePath), getContainerAtPath(destPath), sourcePath, destPath);
+        completed();
+    }
+
+    public void copy(EntityPath sourcePath, EntityPath destPath) {
+        if (sourcePath.isDrive()) {
+            throw new IllegalArgumentException("Cannot copy a drive");
+        }
+        copyEntity(lookup(sourcePath), asContainer(lookup(destPath)), sourcePath, destPath);
+        completed();
+    }
+
+    public void writeToFile(String path, String content) {
+        long start = startTiming();
+        boolean failed = true;
+        try {
+            writeEntity(lookup(path), content, path);
+            completed();
+            failed = false;
+        } finally {
+            stopTiming(FileSystemMetrics.Operation.WRITE, start, path, 0, failed);
+        }
+    }
+
+    public void writeToFile(EntityPath path, String content) {
+        long start = startTiming();
+        boolean failed = true;
+        try {
+            writeEntity(lookup(path), content, path);
+            completed();
+            failed = false;
+        } finally {
+            stopTiming(FileSystemMetrics.Operation.WRITE, start, path, 0, failed);
+        }
+    }
+
+    /**
+     * Appends {@code data}, UTF-8 encoded, to the text file at {@code path}.
+     */
+    public void appendToFile(String path, String data) {
+        edit(lookup(path), new ContentEdit.Append(data.getBytes(StandardCharsets.UTF_8)), path);
+    }
+
+    /**
+     * Overwrites the text file at {@code path} from byte {@code offset} with {@code data}, UTF-8
+     * encoded, extending the file if the data runs past its end.
+     */
+    public void writeAt(String path, int offset, String data) {
+        edit(lookup(path), new ContentEdit.WriteAt(offset, data.getBytes(StandardCharsets.UTF_8)), path);
+    }
+
+    /**
+     * Shortens the text file at {@code path} to its first {@code size} bytes.
+     */
+    public void truncate(String path, int size) {
+        edit(lookup(path), new ContentEdit.Truncate(size), path);
+    }
+
+    /**
+     * Reads {@code length} bytes of the text file at {@code path}, starting at byte {@code offset}.
+     * Offsets are in UTF-8 bytes, so a range may split a multi-byte character.
+     */
+    public byte[] readFromFile(String path, int offset, int length) {
+        Content content = textFileAt(path).getRawContent();
+        int size = content == null ? 0 : content.size();
+        if (offset < 0 || length < 0 || offset > size - length) {
+            throw new IllegalArgumentException("Range out of bounds: " + offset + "+" + length + " (size " + size + ")");
+        }
+        byte[] bytes = new byte[length];
+        if (length > 0) {
+            content.read(offset, bytes, 0, length);
+        }
+        return bytes;
+    }
+
+    /**
+     * Streams the text file at {@code path} as UTF-8 bytes. The stream reads the content the file had
+     * when it was opened.
+     */
+    public InputStream openRead(String path) {
+        return new ContentInputStream(textFileAt(path).getRawContent());
+    }
+
+    /**
+     * Streams UTF-8 bytes into the text file at {@code path}, replacing its content unless
+     * {@code append} is set. Bytes are buffered and appended on {@code flush} and {@code close}, which
+     * throw once the file has been deleted; a moved file is written at its new path.
+     */
+    public OutputStream openWrite(String path, boolean append) {
+        TextFile file = textFileAt(path);
+        if (!append) {
+            edit(file, new ContentEdit.Truncate(0), path);
+        }
+        return new ContentOutputStream(edit -> edit(file, edit, path));
+    }
+
+    /**
+     * Seekable channel over the text file at {@code path}; reads see the file's current content and
+     * writes are applied immediately.
+     */
+    public SeekableByteChannel openChannel(String path) {
+        TextFile file = textFileAt(path);
+        return new ContentChannel(file::getRawContent, edit -> edit(file, edit, path));
+    }
+
+    /**
+     * Reports every change made through this file system to {@code listener}, from now on.
+     */
+    public void addListener(FileSystemListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(FileSystemListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Applies {@code operations} in order, all or nothing. If one fails, the operations before it are
+     * undone in reverse order and its exception is rethrown, leaving the tree as it was.
+     * <p>
+     * Every container path is resolved at most once per batch, so operations sharing a parent or
+     * ancestor pay for the walk once. Resolved containers are forgotten whenever a container is deleted
+     * or moved, since that may change what a path refers to.
+     */
+    public void apply(List<? extends FileSystemOperation> operations) {
+        applyBatch(operations);
+        completed();
+    }
+
+    /**
+     * Does the work of {@link #apply}; subclasses that add synchronization wrap this.
+     */
+    protected void applyBatch(List<? extends FileSystemOperation> operations) {
+        Map<String, Container> containers = new HashMap<>();
+        Deque<Runnable> undo = new ArrayDeque<>();
+        // Shared content that the batch overwrites or deletes stays in the store until the batch
+        // commits; a rollback hands it back to its files.
+        List<Content> pinned = new ArrayList<>();
+        List<FileSystemOperation> changes = listeners.isEmpty() ? null : new ArrayList<>();
+        pendingChanges = changes;
+        try {
+            for (FileSystemOperation operation : operations) {
+                applyOne(operation, containers, undo, pinned);
+            }
+            for (Content content : pinned) {
+                contentStore.release(content);
+            }
+        } catch (RuntimeException e) {
+            while (!undo.isEmpty()) {
+                undo.pop().run();
+            }
+            throw e;
+        } finally {
+            pendingChanges = null;
+        }
+        if (changes != null) {
+            for (FileSystemOperation change : changes) {
+                changed(change);
+            }
+        }
+    }
+
+    private void applyOne(FileSystemOperation operation, Map<String, Container> containers, Deque<Runnable> undo,
+                          List<Content> pinned) {
+        if (operation instanceof FileSystemOperation.Create create) {
+            if (create.type().equals("Drive")) {
+                createDrive(create.name());
+                Drive drive = findDrive(create.name());
+                undo.push(() -> detachEntity(null, drive));
+            } else {
+                Container parent = containerAt(create.parentPath(), containers);
+                createEntity(create.type(), create.name(), parent, create.parentPath());
+                FileSystemEntity created = parent.getEntity(create.name());
+                undo.push(() -> detachEntity(parent, created));
+            }
+        } else if (operation instanceof FileSystemOperation.Delete delete) {
+            String path = delete.path();
+            int lastBackslash = path.lastIndexOf('\\');
+            if (lastBackslash == -1) {
+                Drive drive = findDrive(path);
+                pinContent(drive, pinned);
+                deleteDrive(path);
+                undo.push(() -> attachEntity(null, drive));
+                containers.clear();
+            } else {
+                Container parent = containerAt(path.substring(0, lastBackslash), containers);
+                FileSystemEntity entity = parent == null ? null
+                        : lookupChild(parent, path, lastBackslash + 1, path.length(), ChildTable.hash(path, lastBackslash + 1, path.length()));
+                pinContent(entity, pinned);
+                deleteEntity(parent, entity, path);
+                undo.push(() -> attachEntity(parent, entity));
+                if (entity instanceof Container) {
+                    containers.clear();
+                }
+            }
+        } else if (operation instanceof FileSystemOperation.Move move) {
+            if (!move.sourcePath().contains("\\")) {
+                throw new IllegalArgumentException("Cannot move a drive");
+            }
+            FileSystemEntity source = entityAt(move.sourcePath(), containers);
+            Container destParent = containerAt(move.destPath(), containers);
+            Container sourceParent = source == null ? null : asContainer(source.getParent());
+            moveEntity(source, destParent, move.sourcePath(), move.destPath());
+            undo.push(() -> {
+                ZipFile zipBefore = enclosingZip(source.getParent());
+                detachEntity(destParent, source);
+                attachEntity(sourceParent, source);
+                restoreContentIfZipChanged(source, zipBefore);
+            });
+            if (source instanceof Container) {
+                containers.clear();
+            }
+        } else if (operation instanceof FileSystemOperation.Copy copy) {
+            if (!copy.sourcePath().contains("\\")) {
+                throw new IllegalArgumentException("Cannot copy a drive");
+            }
+            FileSystemEntity source = entityAt(copy.sourcePath(), containers);
+            Container destParent = containerAt(copy.destPath(), containers);
+            copyEntity(source, destParent, copy.sourcePath(), copy.destPath());
+            FileSystemEntity copied = destParent.getEntity(source.getName());
+            undo.push(() -> {
+                detachEntity(destParent, copied);
+                releaseContent(copied);
+            });
+        } else if (operation instanceof FileSystemOperation.Write write) {
+            FileSystemEntity file = entityAt(write.path(), containers);
+            pinContent(file, pinned);
+            Content previous = file instanceof TextFile textFile ? textFile.getRawContent() : null;
+            writeEntity(file, write.content(), write.path());
+            undo.push(() -> restoreContent((TextFile) file, previous));
+        } else if (operation instanceof FileSystemOperation.Edit edit) {
+            FileSystemEntity file = entityAt(edit.path(), containers);
+            pinContent(file, pinned);
+            Content previous = file instanceof TextFile textFile ? textFile.getRawContent() : null;
+            editEntity(file, edit.edit(), edit.path());
+            undo.push(() -> restoreContent((TextFile) file, previous));
+        }
+    }
+
+    private void restoreContent(TextFile file, Content previous) {
+        file.editContent(current -> {
+            contentStore.release(current);
+            return previous;
+        });
+        textChanged(file);
+    }
+
+    /**
+     * Resolves a container path through the batch's already resolved prefixes.
+     */
+    private Container containerAt(String path, Map<String, Container> containers) {
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        Container container = containers.get(path);
+        if (container != null) {
+            return container;
+        }
+        int lastBackslash = path.lastIndexOf('\\');
+        if (lastBackslash <= 0 || lastBackslash == path.length() - 1) {
+            container = getContainerAtPath(path);
+        } else {
+            Container parent = containerAt(path.substring(0, lastBackslash), containers);
+            container = parent == null ? null
+                    : asContainer(lookupChild(parent, path, lastBackslash + 1, path.length(), ChildTable.hash(path, lastBackslash + 1, path.length())));
+        }
+        if (container != null) {
+            containers.put(path, container);
+        }
+        return container;
+    }
+
+    private FileSystemEntity entityAt(String path, Map<String, Container> containers) {
+        if (path == null) {
+            return null;
+        }
+        int lastBackslash = path.lastIndexOf('\\');
+        if (lastBackslash <= 0 || lastBackslash == path.length() - 1) {
+            return lookup(path);
+        }
+        Container parent = containerAt(path.substring(0, lastBackslash), containers);
+        return parent == null ? null
+                : lookupChild(parent, path, lastBackslash + 1, path.length(), ChildTable.hash(path, lastBackslash + 1, path.length()));
+    }
+
+    // Shared by the String and EntityPath overloads; paths are only used for error messages.
+    // Subclasses that add synchronization wrap these and the two lookup methods below.
+    protected void createDrive(String name) {
+        if (drives.contains(name)) {
+            throw new IllegalArgumentException("Drive with that name already exists.");
+        }
+        Drive drive = new Drive(name);
+        drives.add(drive);
+        indexAdded(drive);
+        if (hasListeners()) {
+            changed(new FileSystemOperation.Create("Drive", name, null));
         }
+    }
 
-        Container parent = getContainerAtPath(parentPath);
+    protected void createEntity(String type, String name, Container parent, Object parentPath) {
         if (parent == null) {
             throw new IllegalArgumentException("Parent path not found: " + parentPath);
         }
@@ -38,63 +509,146 @@ public class FileSystem {
         };
 
         parent.addEntity(newEntity);
+        indexAdded(newEntity);
+        if (hasListeners()) {
+            changed(new FileSystemOperation.Create(type, name, newEntity.getParent().getPath()));
+        }
     }
 
-    public void delete(String path) {
-        if (!path.contains("\\")) {
-            // Deleting a drive
-            if (!drives.containsKey(path)) {
-                throw new IllegalArgumentException("Drive not found: " + path);
-            }
-            drives.remove(path);
-            return;
+    protected void deleteDrive(String name) {
+        Drive drive = drives.remove(name);
+        if (drive == null) {
+            throw new IllegalArgumentException("Drive not found: " + name);
         }
+        invalidateCachedPaths(name);
+        indexRemoved(drive);
+        textChanged(drive);
+        releaseContent(drive);
+        if (hasListeners()) {
+            changed(new FileSystemOperation.Delete(name));
+        }
+    }
 
-        String parentPath = getParentPath(path);
-        String name = getNameFromPath(path);
-        Container parent = getContainerAtPath(parentPath);
-
-        if (parent == null || !parent.hasEntity(name)) {
+    protected void deleteEntity(Container parent, FileSystemEntity entity, Object path) {
+        if (entity == null) {
             throw new IllegalArgumentException("Path not found: " + path);
         }
 
-        parent.removeEntity(name);
+        // Writes report a file's path under its monitor, so listeners see each of them wholly before
+        // or after the delete.
+        synchronized (entity) {
+            String deletedPath = hasListeners() ? entity.getPath() : null;
+            invalidateCachedPaths(entity);
+            parent.removeEntity(entity.getName());
+            indexRemoved(entity);
+            textChanged(entity);
+            releaseContent(entity);
+            if (deletedPath != null) {
+                changed(new FileSystemOperation.Delete(deletedPath));
+            }
+        }
     }
 
-    public void move(String sourcePath, String destPath) {
-        // Cannot move drives
-        if (!sourcePath.contains("\\")) {
+    protected void moveEntity(FileSystemEntity source, Container destParent, Object sourcePath, Object destPath) {
+        if (source == null) {
+            throw new IllegalArgumentException("Source path not found: " + sourcePath);
+        }
+        if (source instanceof Drive) {
             throw new IllegalArgumentException("Cannot move a drive");
         }
 
-        FileSystemEntity source = findEntity(sourcePath);
+        if (destParent == null) {
+            throw new IllegalArgumentException("Destination path not found: " + destPath);
+        }
+
+        if (source instanceof Container && destParent instanceof FileSystemEntity dest && isSelfOrAncestor(source, dest)) {
+            throw new IllegalArgumentException("Cannot move an entity into itself or one of its descendants");
+        }
+
+        String sourceName = source.getName();
+        if (destParent.hasEntity(sourceName)) {
+            throw new IllegalArgumentException("Entity with same name already exists at destination");
+        }
+
+        // Held like in deleteEntity, so that no write to the file is reported at its new path first.
+        synchronized (source) {
+            String movedFrom = hasListeners() ? source.getPath() : null;
+            invalidateCachedPaths(source);
+            ZipFile zipBefore = enclosingZip(source.getParent());
+
+            // Remove from old parent
+            if (source.getParent() instanceof Container sourceParent) {
+                sourceParent.removeEntity(sourceName);
+            }
+
+            // Add to new parent
+            destParent.addEntity(source);
+            restoreContentIfZipChanged(source, zipBefore);
+            if (movedFrom != null) {
+                changed(new FileSystemOperation.Move(movedFrom, source.getParent().getPath()));
+            }
+        }
+    }
+
+    protected void copyEntity(FileSystemEntity source, Container destParent, Object sourcePath, Object destPath) {
         if (source == null) {
             throw new IllegalArgumentException("Source path not found: " + sourcePath);
         }
+        if (source instanceof Drive) {
+            throw new IllegalArgumentException("Cannot copy a drive");
+        }
 
-        Container destParent = getContainerAtPath(destPath);
         if (destParent == null) {
             throw new IllegalArgumentException("Destination path not found: " + destPath);
         }
 
-        String sourceName = getNameFromPath(sourcePath);
-        if (destParent.hasEntity(sourceName)) {
+        if (source instanceof Container && destParent instanceof FileSystemEntity dest && isSelfOrAncestor(source, dest)) {
+            throw new IllegalArgumentException("Cannot copy an entity into itself or one of its descendants");
+        }
+
+        if (destParent.hasEntity(source.getName())) {
             throw new IllegalArgumentException("Entity with same name already exists at destination");
         }
 
-        // Remove from old parent
-        String sourceParentPath = getParentPath(sourcePath);
-        Container sourceParent = getContainerAtPath(sourceParentPath);
-        if (sourceParent != null) {
-            sourceParent.removeEntity(sourceName);
+        FileSystemEntity copy = duplicate(source);
+        destParent.addEntity(copy);
+        restoreContentIfZipChanged(copy, enclosingZip(source.getParent()));
+        indexAdded(copy);
+        textChanged(copy);
+        if (hasListeners()) {
+            changed(new FileSystemOperation.Copy(source.getPath(), copy.getParent().getPath()));
         }
+    }
 
-        // Add to new parent
-        destParent.addEntity(source);
+    protected void writeEntity(FileSystemEntity entity, String content, Object path) {
+        if (entity == null) {
+            throw new IllegalArgumentException("File not found: " + path);
+        }
+
+        if (!(entity instanceof TextFile)) {
+            throw new IllegalArgumentException("Entity is not a text file: " + path);
+        }
+
+        TextFile file = (TextFile) entity;
+        Content stored = content == null ? null : contentStore.intern(content, contentPolicyFor(entity));
+        // Held across the report so that listeners see writes to one file in the order they happened.
+        synchronized (file) {
+            if (!isAttached(file)) {
+                contentStore.release(stored);
+                throw new IllegalArgumentException("File not found: " + path);
+            }
+            file.editContent(previous -> {
+                contentStore.release(previous);
+                return stored;
+            });
+            textChanged(file);
+            if (hasListeners()) {
+                changed(new FileSystemOperation.Write(file.getPath(), content));
+            }
+        }
     }
 
-    public void writeToFile(String path, String content) {
-        FileSystemEntity entity = findEntity(path);
+    protected void editEntity(FileSystemEntity entity, ContentEdit edit, Object path) {
         if (entity == null) {
             throw new IllegalArgumentException("File not found: " + path);
         }
@@ -103,53 +657,580 @@ public class FileSystem {
             throw new IllegalArgumentException("Entity is not a text file: " + path);
         }
 
-        ((TextFile) entity).setContent(content);
+        TextFile file = (TextFile) entity;
+        ContentPolicy policy = contentPolicyFor(entity);
+        synchronized (file) {
+            // A stream keeps its file after the file is deleted.
+            if (!isAttached(file)) {
+                throw new IllegalArgumentException("File not found: " + path);
+            }
+            file.editContent(current -> {
+                Content edited = edit.applyTo(current, policy);
+                if (edited != current) {
+                    contentStore.release(current);
+                }
+                return edited;
+            });
+            textChanged(file);
+            if (hasListeners()) {
+                changed(new FileSystemOperation.Edit(file.getPath(), edit));
+            }
+        }
+    }
+
+    /**
+     * Adds back an entity removed by a batch that is being rolled back; {@code parent} is {@code null}
+     * for a drive.
+     */
+    protected void attachEntity(Container parent, FileSystemEntity entity) {
+        if (parent == null) {
+            drives.add((Drive) entity);
+        } else {
+            parent.addEntity(entity);
+        }
+        indexAdded(entity);
+        textChanged(entity);
+    }
+
+    /**
+     * Removes an entity added by a batch that is being rolled back; {@code parent} is {@code null} for
+     * a drive.
+     */
+    protected void detachEntity(Container parent, FileSystemEntity entity) {
+        invalidateCachedPaths(entity);
+        if (parent == null) {
+            drives.remove(entity.getName());
+        } else {
+            parent.removeEntity(entity.getName());
+        }
+        indexRemoved(entity);
+        textChanged(entity);
+    }
+
+    /**
+     * Looks up the drive named by {@code path.substring(from, to)}.
+     */
+    protected Drive lookupDrive(String path, int from, int to, int hash) {
+        return drives.get(path, from, to, hash);
+    }
+
+    /**
+     * Looks up the child of {@code container} named by {@code path.substring(from, to)}.
+     */
+    protected FileSystemEntity lookupChild(Container container, String path, int from, int to, int hash) {
+        return container.getEntity(path, from, to, hash);
     }
 
     // Helper methods
+    public Collection<Drive> getDrives() {
+        return drives.values();
+    }
+
     public Drive findDrive(String name) {
-        return drives.get(name);
+        return name == null ? null : lookupDrive(name, 0, name.length(), name.hashCode());
     }
 
     public FileSystemEntity findEntity(String path) {
+        long start = startTiming();
+        FileSystemEntity entity = lookup(path);
+        stopTiming(FileSystemMetrics.Operation.FIND, start, path, 0, false);
+        return entity;
+    }
+
+    /**
+     * {@link #findEntity(String)} for a pre-parsed path. Not an overload of it so that
+     * {@code findEntity(null)} stays unambiguous.
+     */
+    public FileSystemEntity find(EntityPath path) {
+        long start = startTiming();
+        FileSystemEntity entity = lookup(path);
+        stopTiming(FileSystemMetrics.Operation.FIND, start, path, 0, false);
+        return entity;
+    }
+
+    // The lookups behind findEntity and find, used directly inside this class so that an operation
+    // is not also timed as a lookup.
+    private FileSystemEntity lookup(String path) {
         if (path == null || path.isEmpty()) {
             return null;
         }
-        if (!path.contains("\\")) return drives.get(path);
+        if (lookupCache == null) {
+            return resolve(path, path.length());
+        }
+
+        FileSystemEntity entity = lookupCache.get(path);
+        if (entity == null) {
+            entity = resolve(path, path.length());
+            if (entity != null) {
+                lookupCache.put(path, entity);
+            }
+        }
+        return entity;
+    }
 
-        String[] parts = path.split("\\\\");
-        Drive drive = drives.get(parts[0]);
-        if (drive == null) return null;
+    private FileSystemEntity lookup(EntityPath path) {
+        if (path == null) {
+            return null;
+        }
+        if (lookupCache == null) {
+            return resolve(path, path.depth());
+        }
 
-        FileSystemEntity current = drive;
-        for (int i = 1; i < parts.length; i++) {
-            if (!(current instanceof Container)) {
-                return null;
+        String key = path.toString();
+        FileSystemEntity entity = lookupCache.get(key);
+        if (entity == null) {
+            entity = resolve(path, path.depth());
+            if (entity != null) {
+                lookupCache.put(key, entity);
             }
-            current = ((Container) current).getEntity(parts[i]);
-            if (current == null) return null;
         }
+        return entity;
+    }
 
-        return current;
+    /**
+     * Lazily streams the entities whose path matches {@code pattern}, e.g. {@code C\**\*.txt}; see
+     * {@link Glob} for the syntax. Compile the pattern with {@link Glob#compile} to reuse it.
+     *
+     * @throws IllegalArgumentException if the pattern is malformed
+     */
+    public Stream<FileSystemEntity> glob(String pattern) {
+        return Glob.compile(pattern).stream(this);
+    }
+
+    /**
+     * Lazily streams the entity at {@code path} and every entity below it, parents before their
+     * children. A {@link Stream#parallel() parallel} stream splits the walk by subtree size, so e.g.
+     * totals over millions of entities use every core. The tree must not change meanwhile.
+     *
+     * @throws IllegalArgumentException if nothing exists at {@code path}
+     */
+    public Stream<FileSystemEntity> walk(String path) {
+        return Glob.everything(existing(path));
+    }
+
+    /**
+     * Walks the entity at {@code path} and every entity below it depth first on the calling thread,
+     * calling the visitor's hooks. The tree must not change meanwhile.
+     *
+     * @return {@code false} if the visitor terminated the walk
+     * @throws IllegalArgumentException if nothing exists at {@code path}
+     */
+    public boolean walk(String path, FileSystemVisitor visitor) {
+        FileSystemEntity root = existing(path);
+        // No recursion, so deep trees cannot overflow the stack.
+        Deque<WalkLevel> levels = new ArrayDeque<>();
+        FileSystemEntity entity = root;
+        while (true) {
+            if (entity != null) {
+                FileSystemVisitor.Result result = visitor.preVisit(entity);
+                if (result == FileSystemVisitor.Result.TERMINATE) {
+                    return false;
+                }
+                if (result == FileSystemVisitor.Result.CONTINUE) {
+                    levels.push(new WalkLevel(entity));
+                }
+            }
+            if (levels.isEmpty()) {
+                return true;
+            }
+            WalkLevel level = levels.peek();
+            if (level.next < level.children.length) {
+                entity = level.children[level.next++];
+                continue;
+            }
+            levels.pop();
+            entity = null;
+            if (visitor.postVisit(level.entity) == FileSystemVisitor.Result.TERMINATE) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * An entity being walked: its children, snapshotted on entry, and the next one to visit.
+     */
+    private static final class WalkLevel {
+        final FileSystemEntity entity;
+        final FileSystemEntity[] children;
+        int next;
+
+        WalkLevel(FileSystemEntity entity) {
+            this.entity = entity;
+            this.children = entity instanceof Container container
+                    ? container.getContents().toArray(new FileSystemEntity[0])
+                    : new FileSystemEntity[0];
+        }
+    }
+
+    private FileSystemEntity existing(String path) {
+        FileSystemEntity entity = lookup(path);
+        if (entity == null) {
+            throw new IllegalArgumentException("Path not found: " + path);
+        }
+        return entity;
+    }
+
+    /**
+     * Starts indexing every entity by name and extension, or rebuilds the index, and returns it. The
+     * index is built with one walk of the tree, which must not change meanwhile; from then on
+     * {@link #create}, {@link #delete} and {@link #move} keep it up to date. Changes made directly
+     * through a {@link Container} bypass it; loading a checkpoint rebuilds it.
+     */
+    public NameIndex indexNames() {
+        NameIndex index = new NameIndex();
+        for (Drive drive : getDrives()) {
+            index.addTree(drive);
+        }
+        nameIndex = index;
+        return index;
+    }
+
+    /**
+     * The index started by {@link #indexNames()}, or {@code null} if names are not indexed.
+     */
+    public NameIndex getNameIndex() {
+        return nameIndex;
+    }
+
+    /**
+     * Starts indexing the words in every text file, or re-reads every file into the running index,
+     * and returns it. The files are indexed by a background thread, which writes, deletes and batch
+     * rollbacks from then on only notify; see {@link TextIndex}. Changes made directly through a
+     * {@link Container} bypass it; loading a checkpoint re-reads every file.
+     */
+    public TextIndex indexText() {
+        TextIndex index = textIndex;
+        if (index == null || index.isClosed()) {
+            index = new TextIndex(this);
+            textIndex = index;
+        }
+        index.rebuild();
+        return index;
+    }
+
+    /**
+     * The index started by {@link #indexText()}, or {@code null} if text is not indexed or the index
+     * was closed.
+     */
+    public TextIndex getTextIndex() {
+        TextIndex index = textIndex;
+        return index == null || index.isClosed() ? null : index;
+    }
+
+    public LookupCacheStats getLookupCacheStats() {
+        return lookupCache == null ? new LookupCacheStats(0, 0, 0, 0, 0, 0) : lookupCache.stats();
+    }
+
+    /**
+     * Sharing of text file content: {@link #writeToFile} stores each distinct content once per
+     * {@link ContentPolicy} and files written with the same text share it. Content changed by
+     * appends, ranged writes or streams, or moved into or out of a zip file, is stored unshared.
+     */
+    public DedupStats getDedupStats() {
+        return contentStore.stats();
+    }
+
+    /**
+     * Starts counting and timing {@code create}, {@code delete}, {@code move}, {@code writeToFile} and
+     * {@code findEntity} calls, and returns the metrics; later calls return the same metrics.
+     *
+     * @throws IllegalStateException if metrics are compiled out with {@code -Dfilesystem.metrics=false}
+     */
+    public synchronized FileSystemMetrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new FileSystemMetrics(this);
+        }
+        return metrics;
+    }
+
+    /**
+     * The metrics started by {@link #enableMetrics()}, or {@code null} if operations are not timed.
+     */
+    public FileSystemMetrics getMetrics() {
+        return metrics;
+    }
+
+    // With FileSystemMetrics.ENABLED off, startTiming always returns UNTIMED and the JIT drops the
+    // timing code from every operation.
+    private long startTiming() {
+        return FileSystemMetrics.ENABLED && metrics != null ? System.nanoTime() : UNTIMED;
+    }
+
+    private void stopTiming(FileSystemMetrics.Operation operation, long start, Object path, int extraDepth, boolean failed) {
+        if (start != UNTIMED) {
+            metrics.record(operation, depthOf(path) + extraDepth, System.nanoTime() - start, failed);
+        }
+    }
+
+    private static int depthOf(Object path) {
+        if (path instanceof EntityPath entityPath) {
+            return entityPath.depth();
+        }
+        if (!(path instanceof String text) || text.isEmpty()) {
+            return 0;
+        }
+        int depth = 1;
+        for (int i = text.indexOf('\\'); i != -1; i = text.indexOf('\\', i + 1)) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private void edit(FileSystemEntity entity, ContentEdit edit, String path) {
+        editEntity(entity, edit, path);
+        completed();
+    }
+
+    protected boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    private void changed(FileSystemOperation change) {
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+            return;
+        }
+        for (FileSystemListener listener : listeners) {
+            listener.applied(change);
+        }
+    }
+
+    private void completed() {
+        for (FileSystemListener listener : listeners) {
+            listener.completed();
+        }
+    }
+
+    /**
+     * Policy for content written to {@code entity}: its innermost enclosing zip file's, or this file
+     * system's.
+     */
+    private ContentPolicy contentPolicyFor(FileSystemEntity entity) {
+        ZipFile zip = entity == null ? null : enclosingZip(entity.getParent());
+        return zip == null ? contentPolicy : zip.getContentPolicy();
+    }
+
+    private static ZipFile enclosingZip(FileSystemEntity entity) {
+        for (FileSystemEntity current = entity; current != null; current = current.getParent()) {
+            if (current instanceof ZipFile zip) {
+                return zip;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Re-stores the content under a moved entity when it entered, left or changed zip files, so that
+     * content in a zip is always compressed and content outside is not.
+     */
+    private void restoreContentIfZipChanged(FileSystemEntity moved, ZipFile zipBefore) {
+        ZipFile zipAfter = enclosingZip(moved.getParent());
+        if (zipAfter != zipBefore) {
+            restoreContent(moved, zipAfter == null ? contentPolicy : zipAfter.getContentPolicy());
+        }
+    }
+
+    // Zip files, including a moved one, keep their own policy for everything inside them.
+    private void restoreContent(FileSystemEntity entity, ContentPolicy policy) {
+        if (entity instanceof TextFile file) {
+            file.editContent(content -> {
+                contentStore.release(content);
+                return content.restore(policy);
+            });
+        } else if (entity instanceof Container container && !(entity instanceof ZipFile)) {
+            for (FileSystemEntity child : container.getContents()) {
+                restoreContent(child, policy);
+            }
+        }
+    }
+
+    /**
+     * A detached copy of {@code entity} and everything below it. Text files take another reference to
+     * the original's content instead of copying it. Each subtree is complete before it is added to its
+     * copied parent, so adding it only updates the aggregates of that parent.
+     */
+    private FileSystemEntity duplicate(FileSystemEntity entity) {
+        if (entity instanceof TextFile file) {
+            TextFile copy = new TextFile(file.getName());
+            // Locked like a write, so the content cannot be released between reading and retaining it.
+            synchronized (file) {
+                Content content = file.getRawContent();
+                contentStore.retain(content);
+                copy.setRawContent(content);
+            }
+            return copy;
+        }
+        Container copy = switch (entity.getType()) {
+            case "Folder" -> new Folder(entity.getName());
+            case "ZipFile" -> new ZipFile(entity.getName());
+            default -> throw new IllegalArgumentException("Cannot copy a " + entity.getType());
+        };
+        for (FileSystemEntity child : ((Container) entity).getContents()) {
+            copy.addEntity(duplicate(child));
+        }
+        return (FileSystemEntity) copy;
+    }
+
+    /**
+     * Gives up the shared content of every text file under a deleted entity.
+     */
+    private void releaseContent(FileSystemEntity entity) {
+        if (contentStore.isEmpty()) {
+            return;
+        }
+        if (entity instanceof TextFile file) {
+            // Waits out a write that found the file still attached, so its content is released once.
+            synchronized (file) {
+                contentStore.release(file.getRawContent());
+            }
+        } else if (entity instanceof Container container) {
+            for (FileSystemEntity child : container.getContents()) {
+                releaseContent(child);
+            }
+        }
+    }
+
+    private void pinContent(FileSystemEntity entity, List<Content> pinned) {
+        if (contentStore.isEmpty()) {
+            return;
+        }
+        if (entity instanceof TextFile file) {
+            Content content = file.getRawContent();
+            contentStore.retain(content);
+            pinned.add(content);
+        } else if (entity instanceof Container container) {
+            for (FileSystemEntity child : container.getContents()) {
+                pinContent(child, pinned);
+            }
+        }
+    }
+
+    private TextFile textFileAt(String path) {
+        FileSystemEntity entity = lookup(path);
+        if (entity == null) {
+            throw new IllegalArgumentException("File not found: " + path);
+        }
+        if (!(entity instanceof TextFile file)) {
+            throw new IllegalArgumentException("Entity is not a text file: " + path);
+        }
+        return file;
     }
 
     private Container getContainerAtPath(String path) {
         if (path == null) return null;
 
-        FileSystemEntity entity = findEntity(path);
-        if (entity instanceof Container) {
-            return (Container) entity;
+        return asContainer(lookup(path));
+    }
+
+    /**
+     * Walks {@code path.substring(0, end)} one segment at a time, probing each container with the
+     * segment's offsets instead of splitting the path. Trailing separators are ignored.
+     */
+    private FileSystemEntity resolve(String path, int end) {
+        while (end > 0 && path.charAt(end - 1) == '\\') {
+            end--;
         }
-        return null;
+        if (end == 0) {
+            return null;
+        }
+
+        int to = segmentEnd(path, 0, end);
+        FileSystemEntity current = lookupDrive(path, 0, to, ChildTable.hash(path, 0, to));
+        while (current != null && to < end) {
+            if (!(current instanceof Container container)) {
+                return null;
+            }
+            int from = to + 1;
+            to = segmentEnd(path, from, end);
+            current = lookupChild(container, path, from, to, ChildTable.hash(path, from, to));
+        }
+        return current;
     }
 
-    private String getParentPath(String path) {
-        int lastBackslash = path.lastIndexOf('\\');
-        return lastBackslash == -1 ? null : path.substring(0, lastBackslash);
+    /**
+     * Resolves the first {@code depth} segments of a pre-parsed path using its precomputed hashes.
+     */
+    private FileSystemEntity resolve(EntityPath path, int depth) {
+        String driveName = path.segment(0);
+        FileSystemEntity current = lookupDrive(driveName, 0, driveName.length(), path.segmentHash(0));
+        for (int i = 1; i < depth && current != null; i++) {
+            if (!(current instanceof Container container)) {
+                return null;
+            }
+            current = getChild(container, path, i);
+        }
+        return current;
     }
 
-    private String getNameFromPath(String path) {
-        int lastBackslash = path.lastIndexOf('\\');
-        return lastBackslash == -1 ? path : path.substring(lastBackslash + 1);
+    private FileSystemEntity getChild(Container container, EntityPath path, int index) {
+        String name = path.segment(index);
+        return lookupChild(container, name, 0, name.length(), path.segmentHash(index));
+    }
+
+    /**
+     * Whether {@code entity} can still be reached from one of the drives, as opposed to having been
+     * deleted, or having had an ancestor deleted, since it was looked up.
+     */
+    protected boolean isAttached(FileSystemEntity entity) {
+        FileSystemEntity root = entity;
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        return root instanceof Drive && findDrive(root.getName()) == root;
+    }
+
+    private static boolean isSelfOrAncestor(FileSystemEntity ancestor, FileSystemEntity entity) {
+        for (FileSystemEntity current = entity; current != null; current = current.getParent()) {
+            if (current == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void indexAdded(FileSystemEntity entity) {
+        NameIndex index = nameIndex;
+        if (index != null) {
+            index.addTree(entity);
+        }
+    }
+
+    private void indexRemoved(FileSystemEntity entity) {
+        NameIndex index = nameIndex;
+        if (index != null) {
+            index.removeTree(entity);
+        }
+    }
+
+    /**
+     * Queues a text file whose content changed, or the root of a removed or re-added subtree, for the
+     * text index.
+     */
+    private void textChanged(FileSystemEntity entity) {
+        TextIndex index = textIndex;
+        if (index != null) {
+            index.changed(entity);
+        }
+    }
+
+    private void invalidateCachedPaths(FileSystemEntity entity) {
+        if (lookupCache != null) {
+            lookupCache.invalidate(entity.getPath());
+        }
+    }
+
+    private void invalidateCachedPaths(String path) {
+        if (lookupCache != null) {
+            lookupCache.invalidate(path);
+        }
+    }
+
+    private static int segmentEnd(String path, int from, int end) {
+        int backslash = path.indexOf('\\', from);
+        return backslash == -1 || backslash > end ? end : backslash;
+    }
+
+    protected static Container asContainer(FileSystemEntity entity) {
+        return entity instanceof Container ? (Container) entity : null;
     }
 }
\ No newline at end of file
@@ -1,18 +1,44 @@
 package filesystem.api;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.regex.Pattern;
+
 public abstract class FileSystemEntity {
+    private static final Pattern VALID_NAME = Pattern.compile("^[a-zA-Z0-9]+(\\.[a-zA-Z0-9]+)?$");
+
+    // Changes since the last incremental checkpoint, see filesystem.durable.CheckpointStore.
+    public static final byte ADDED = 1;
+    public static final byte CHANGED = 2;
+    public static final byte CHANGED_BELOW = 4;
+    private static final VarHandle CHECKPOINT_STATE;
+
+    static {
+        try {
+            CHECKPOINT_STATE = MethodHandles.lookup().findVarHandle(FileSystemEntity.class, "checkpointState", byte.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final String name;
     private final String type;
-    protected FileSystemEntity parent;
+    protected volatile FileSystemEntity parent;
+    // A new entity is in no checkpoint yet.
+    private volatile byte checkpointState = ADDED;
 
     public FileSystemEntity(String name, String type) {
-        if (!name.matches("^[a-zA-Z0-9]+(\\.[a-zA-Z0-9]+)?$")) {
-            throw new IllegalArgumentException("Name must be alphanumeric with optional extension");
-        }
+        validateName(name);
         this.name = name;
         this.type = type;
     }
 
+    public static void validateName(String name) {
+        if (!VALID_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Name must be alphanumeric with optional extension");
+        }
+    }
+
     public String getName() {
         return name;
     }
@@ -28,6 +54,28 @@ public abstract class FileSystemEntity {
         return parent.getPath() + "\\" + name;
     }
 
+    /**
+     * Number of entities below this one, at any depth.
+     */
+    public int getDescendantCount() {
+        return 0;
+    }
+
+    /**
+     * Content size in UTF-8 bytes of this entity and every text file below it.
+     */
+    public long getTotalBytes() {
+        return 0;
+    }
+
+    /**
+     * Levels below this entity down to its deepest descendant: 0 without children, 1 if none of its
+     * children has children, and so on.
+     */
+    public int getMaxDepth() {
+        return 0;
+    }
+
     public FileSystemEntity getParent() {
         return parent;
     }
@@ -35,4 +83,72 @@ public abstract class FileSystemEntity {
     public void setParent(FileSystemEntity parent) {
         this.parent = parent;
     }
-}
\ No newline at end of file
+
+    /**
+     * Records that this entity was added to its parent, so the next incremental checkpoint writes it
+     * whole.
+     */
+    public void markAdded() {
+        setCheckpointState(ADDED);
+    }
+
+    /**
+     * Records that a file's content or a container's set of children changed. Ancestors are marked
+     * up to the first one that already knows of changes below it, so this is amortized constant time.
+     */
+    public void markChanged() {
+        setCheckpointState(CHANGED);
+        for (FileSystemEntity ancestor = parent; ancestor != null && (ancestor.checkpointState & CHANGED_BELOW) == 0;
+             ancestor = ancestor.parent) {
+            ancestor.setCheckpointState(CHANGED_BELOW);
+        }
+    }
+
+    /**
+     * Forgets recorded changes once a checkpoint holds this entity as it is now.
+     */
+    public void markClean() {
+        checkpointState = 0;
+    }
+
+    /**
+     * Forgets recorded changes and returns them, in one step, for a checkpoint that is about to write
+     * this entity as it is now. A change made from then on is recorded afresh.
+     *
+     * @return {@link #ADDED}, {@link #CHANGED} and {@link #CHANGED_BELOW} bits
+     */
+    public byte takeChanges() {
+        return (byte) CHECKPOINT_STATE.getAndSet(this, (byte) 0);
+    }
+
+    /**
+     * Records again the changes returned by {@link #takeChanges()}, for a checkpoint that could not be
+     * written.
+     */
+    public void restoreChanges(byte changes) {
+        if (changes != 0) {
+            setCheckpointState(changes);
+        }
+    }
+
+    public boolean isAdded() {
+        return (checkpointState & ADDED) != 0;
+    }
+
+    public boolean isChanged() {
+        return (checkpointState & CHANGED) != 0;
+    }
+
+    /**
+     * Whether anything in this entity or below it changed since it was last marked clean.
+     */
+    public boolean hasChanges() {
+        return checkpointState != 0;
+    }
+
+    private void setCheckpointState(byte bits) {
+        if ((checkpointState & bits) != bits) {
+            CHECKPOINT_STATE.getAndBitwiseOr(this, bits);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package filesystem.api;
+
+/**
+ * Observes the changes made through a {@link FileSystem}, e.g. to log them or keep an index up to date.
+ * <p>
+ * {@link #applied} receives each change after it is made, with absolute paths as they were at that
+ * moment: a {@code Create} carries the parent's path ({@code null} for a drive), a {@code Delete} or
+ * {@code Move} the path before the change. Changes to the same container or file arrive in the order
+ * they were made, so replaying them in order rebuilds the tree. The changes of an
+ * {@link FileSystem#apply} batch arrive only once the whole batch has succeeded.
+ */
+public interface FileSystemListener {
+
+    /**
+     * Called while the change still holds its locks, so it should only record the change.
+     */
+    void applied(FileSystemOperation operation);
+
+    /**
+     * Called once per public call that made changes, after its locks are released and on the calling
+     * thread, e.g. to wait until the changes are durable.
+     */
+    default void completed() {
+    }
+}
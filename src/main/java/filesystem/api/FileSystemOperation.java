@@ -0,0 +1,36 @@
+package filesystem.api;
+
+import filesystem.content.ContentEdit;
+
+/**
+ * One step of a batch passed to {@link FileSystem#apply(java.util.List)}. Each record takes the same
+ * arguments as the corresponding single-operation method. A {@link FileSystemListener} receives every
+ * applied change as one of these records.
+ */
+public sealed interface FileSystemOperation {
+
+    record Create(String type, String name, String parentPath) implements FileSystemOperation {
+    }
+
+    record Delete(String path) implements FileSystemOperation {
+    }
+
+    record Move(String sourcePath, String destPath) implements FileSystemOperation {
+    }
+
+    /**
+     * Copies the entity at {@code sourcePath}, with everything below it, into the container at
+     * {@code destPath}.
+     */
+    record Copy(String sourcePath, String destPath) implements FileSystemOperation {
+    }
+
+    record Write(String path, String content) implements FileSystemOperation {
+    }
+
+    /**
+     * Appends to, overwrites part of or truncates the text file at {@code path}.
+     */
+    record Edit(String path, ContentEdit edit) implements FileSystemOperation {
+    }
+}
@@ -0,0 +1,31 @@
+package filesystem.api;
+
+/**
+ * Receives the entities of a subtree from {@link FileSystem#walk(String, FileSystemVisitor)}, each
+ * before and after its children, and steers the walk through what it returns.
+ */
+public interface FileSystemVisitor {
+
+    enum Result {
+        /** Go on with the walk. */
+        CONTINUE,
+        /** From {@link #preVisit}: skip the entity's children and its {@link #postVisit}. */
+        SKIP_CHILDREN,
+        /** Stop the walk at once. */
+        TERMINATE
+    }
+
+    /**
+     * Called for each entity before any of its children.
+     */
+    default Result preVisit(FileSystemEntity entity) {
+        return Result.CONTINUE;
+    }
+
+    /**
+     * Called for each entity after all of its children, e.g. to total up a folder.
+     */
+    default Result postVisit(FileSystemEntity entity) {
+        return Result.CONTINUE;
+    }
+}
@@ -0,0 +1,277 @@
+package filesystem.api;
+
+import filesystem.containers.Container;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A compiled wildcard pattern over full paths, e.g. {@code C\Projects\*\build\*.txt} or
+ * {@code C\**\*.log}. Compile once with {@link #compile} and reuse it.
+ * <p>
+ * Each segment matches one path segment: {@code *} any run of characters, {@code ?} one character,
+ * {@code [abc]} or {@code [a-z]} one character of a set, {@code [!abc]} one character not in it.
+ * A segment that is exactly {@code **} matches any number of segments, including none. Matching is
+ * case-sensitive, like lookups.
+ * <p>
+ * Matching runs as a small automaton: every entity carries the set of pattern positions reached by
+ * its path, so a subtree is never entered once no position can progress, segments without wildcards
+ * are looked up by name instead of scanned, and each entity is reported once however many ways it
+ * matches.
+ */
+public final class Glob {
+    /** Positions are kept in a {@code long}, one of them for a complete match. */
+    public static final int MAX_SEGMENTS = 63;
+
+    private final String pattern;
+    private final Segment[] segments;
+    // Positions reachable from each position without consuming a segment, i.e. by skipping "**".
+    private final long[] closure;
+    private final long accept;
+
+    private Glob(String pattern, Segment[] segments) {
+        this.pattern = pattern;
+        this.segments = segments;
+        int n = segments.length;
+        this.accept = 1L << n;
+        this.closure = new long[n + 1];
+        closure[n] = accept;
+        for (int i = n - 1; i >= 0; i--) {
+            closure[i] = (1L << i) | (segments[i].anyDepth ? closure[i + 1] : 0);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the pattern is empty, has an empty segment or an unclosed
+     *                                  {@code [}, or more than {@value #MAX_SEGMENTS} segments
+     */
+    public static Glob compile(String pattern) {
+        if (pattern == null || pattern.isEmpty()) {
+            throw new IllegalArgumentException("Pattern must not be empty");
+        }
+        String[] parts = pattern.split("\\\\", -1);
+        if (parts.length > MAX_SEGMENTS) {
+            throw new IllegalArgumentException("Pattern has more than " + MAX_SEGMENTS + " segments: " + pattern);
+        }
+        List<Segment> segments = new ArrayList<>();
+        for (String part : parts) {
+            if (part.isEmpty()) {
+                throw new IllegalArgumentException("Empty segment in pattern: " + pattern);
+            }
+            Segment segment = Segment.of(part, pattern);
+            // Consecutive "**" match the same paths as one.
+            if (!(segment.anyDepth && !segments.isEmpty() && segments.get(segments.size() - 1).anyDepth)) {
+                segments.add(segment);
+            }
+        }
+        return new Glob(pattern, segments.toArray(new Segment[0]));
+    }
+
+    /**
+     * Whether {@code path}, a full path such as {@code C\Documents\note.txt}, matches.
+     */
+    public boolean matches(String path) {
+        long states = closure[0];
+        for (String name : path.split("\\\\")) {
+            states = step(states, name);
+            if (states == 0) {
+                return false;
+            }
+        }
+        return (states & accept) != 0;
+    }
+
+    /**
+     * Lazily streams the entities of {@code fileSystem} matching this pattern, in no particular order.
+     * Subtrees are only walked as results are consumed, so e.g. {@code findFirst()} stops early. A
+     * {@link Stream#parallel() parallel} stream splits the walk by subtree size and fans the large
+     * subtrees out over the fork-join pool.
+     * <p>
+     * On a {@code ConcurrentFileSystem}, the tree must not change while the stream is consumed.
+     */
+    public Stream<FileSystemEntity> stream(FileSystem fileSystem) {
+        return StreamSupport.stream(new TreeSpliterator(this, fileSystem.getDrives(), closure[0]), false);
+    }
+
+    /**
+     * Streams {@code root} and every entity below it; {@code **} matches all of them.
+     */
+    static Stream<FileSystemEntity> everything(FileSystemEntity root) {
+        Glob all = compile("**");
+        return StreamSupport.stream(new TreeSpliterator(all, List.of(root), all.closure[0]), false);
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    /**
+     * Positions reached from {@code states} by a child named {@code name}; 0 if none, so that the
+     * child and its subtree can be skipped.
+     */
+    long step(long states, String name) {
+        long next = 0;
+        for (long remaining = states & ~accept; remaining != 0; remaining &= remaining - 1) {
+            int i = Long.numberOfTrailingZeros(remaining);
+            Segment segment = segments[i];
+            if (segment.anyDepth) {
+                next |= closure[i];
+            } else if (segment.matches(name)) {
+                next |= closure[i + 1];
+            }
+        }
+        return next;
+    }
+
+    boolean accepts(long states) {
+        return (states & accept) != 0;
+    }
+
+    /**
+     * Whether a child of an entity at {@code states} can match anything.
+     */
+    boolean descends(long states) {
+        return (states & ~accept) != 0;
+    }
+
+    /**
+     * The children of {@code container} that may match from {@code states}: looked up by name when
+     * every pending segment is a plain name, all of them otherwise.
+     */
+    FileSystemEntity[] candidates(Container container, long states) {
+        long pending = states & ~accept;
+        List<FileSystemEntity> named = null;
+        for (long remaining = pending; remaining != 0; remaining &= remaining - 1) {
+            Segment segment = segments[Long.numberOfTrailingZeros(remaining)];
+            if (segment.literal == null) {
+                return container.getContents().toArray(new FileSystemEntity[0]);
+            }
+            FileSystemEntity child = container.getEntity(segment.literal);
+            if (child != null) {
+                if (named == null) {
+                    named = new ArrayList<>(1);
+                }
+                if (!named.contains(child)) {
+                    named.add(child);
+                }
+            }
+        }
+        return named == null ? new FileSystemEntity[0] : named.toArray(new FileSystemEntity[0]);
+    }
+
+    /**
+     * One segment of the pattern: a plain name, a wildcard expression, or {@code **}.
+     */
+    private static final class Segment {
+        final String literal;
+        final boolean anyDepth;
+        private final String expression;
+
+        private Segment(String literal, boolean anyDepth, String expression) {
+            this.literal = literal;
+            this.anyDepth = anyDepth;
+            this.expression = expression;
+        }
+
+        static Segment of(String part, String pattern) {
+            if (part.equals("**")) {
+                return new Segment(null, true, part);
+            }
+            if (part.indexOf('*') == -1 && part.indexOf('?') == -1 && part.indexOf('[') == -1) {
+                return new Segment(part, false, part);
+            }
+            for (int i = part.indexOf('['); i != -1; i = part.indexOf('[', i + 1)) {
+                int close = setEnd(part, i);
+                if (close == -1) {
+                    throw new IllegalArgumentException("Unclosed [ in pattern: " + pattern);
+                }
+                i = close;
+            }
+            return new Segment(null, false, part);
+        }
+
+        /**
+         * Position of the {@code ]} closing the set opened at {@code open}, or -1. The first character
+         * of a set, after an optional {@code !} or {@code ^}, is taken literally, so {@code "[]]"}
+         * matches {@code ']'} and {@code "[!]"} is unclosed.
+         */
+        static int setEnd(String expression, int open) {
+            int first = open + 1;
+            if (first < expression.length() && (expression.charAt(first) == '!' || expression.charAt(first) == '^')) {
+                first++;
+            }
+            return first < expression.length() ? expression.indexOf(']', first + 1) : -1;
+        }
+
+        boolean matches(String name) {
+            return literal != null ? literal.equals(name) : matches(name, 0, 0);
+        }
+
+        /**
+         * Matches {@code name} from {@code n} against the expression from {@code p}. A {@code *}
+         * remembers where to resume, so only the last one ever backtracks.
+         */
+        private boolean matches(String name, int n, int p) {
+            int starP = -1;
+            int starN = -1;
+            while (n < name.length()) {
+                if (p < expression.length() && expression.charAt(p) == '*') {
+                    starP = ++p;
+                    starN = n;
+                    continue;
+                }
+                int next = p < expression.length() ? matchOne(name.charAt(n), p) : -1;
+                if (next != -1) {
+                    p = next;
+                    n++;
+                } else if (starP != -1) {
+                    p = starP;
+                    n = ++starN;
+                } else {
+                    return false;
+                }
+            }
+            while (p < expression.length() && expression.charAt(p) == '*') {
+                p++;
+            }
+            return p == expression.length();
+        }
+
+        /**
+         * Matches one character against the element at {@code p}, returning the position after the
+         * element, or -1.
+         */
+        private int matchOne(char c, int p) {
+            char e = expression.charAt(p);
+            if (e == '?') {
+                return p + 1;
+            }
+            if (e != '[') {
+                return e == c ? p + 1 : -1;
+            }
+            int i = p + 1;
+            boolean negated = expression.charAt(i) == '!' || expression.charAt(i) == '^';
+            if (negated) {
+                i++;
+            }
+            boolean found = false;
+            int end = setEnd(expression, p);
+            while (i < end) {
+                char low = expression.charAt(i);
+                char high = low;
+                if (i + 2 < expression.length() && expression.charAt(i + 1) == '-' && expression.charAt(i + 2) != ']') {
+                    high = expression.charAt(i + 2);
+                    i += 2;
+                }
+                if (low <= c && c <= high) {
+                    found = true;
+                }
+                i++;
+            }
+            return found != negated ? i + 1 : -1;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package filesystem.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Bounded LRU map from full path to the entity it resolved to.
+ * <p>
+ * Keys are also kept sorted so that removing an entity can drop every cached path beneath it with a
+ * single range query: all paths under {@code P} sort between {@code P\} and {@code P]}, because
+ * {@code ']'} is the character right after {@code '\'}.
+ */
+final class LookupCache {
+    private final int capacity;
+    private final NavigableSet<String> sortedKeys = new TreeSet<>();
+    private final LinkedHashMap<String, FileSystemEntity> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    LookupCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FileSystemEntity> eldest) {
+                if (size() <= LookupCache.this.capacity) {
+                    return false;
+                }
+                sortedKeys.remove(eldest.getKey());
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    FileSystemEntity get(String path) {
+        FileSystemEntity entity = entries.get(path);
+        if (entity == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return entity;
+    }
+
+    void put(String path, FileSystemEntity entity) {
+        if (entries.put(path, entity) == null) {
+            sortedKeys.add(path);
+        }
+    }
+
+    /**
+     * Drops {@code path} and every cached path beneath it.
+     */
+    void invalidate(String path) {
+        if (entries.remove(path) != null) {
+            sortedKeys.remove(path);
+            invalidations++;
+        }
+        NavigableSet<String> descendants = sortedKeys.subSet(path + "\\", true, path + "]", false);
+        for (String key : descendants) {
+            entries.remove(key);
+            invalidations++;
+        }
+        descendants.clear();
+    }
+
+    LookupCacheStats stats() {
+        return new LookupCacheStats(hits, misses, evictions, invalidations, entries.size(), capacity);
+    }
+}
@@ -0,0 +1,13 @@
+package filesystem.api;
+
+/**
+ * Point-in-time counters of a {@link FileSystem}'s path lookup cache. All zero when the cache is
+ * disabled.
+ */
+public record LookupCacheStats(long hits, long misses, long evictions, long invalidations, int size, int capacity) {
+
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
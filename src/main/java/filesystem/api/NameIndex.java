@@ -0,0 +1,154 @@
+package filesystem.api;
+
+import filesystem.containers.Container;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Every entity of a {@link FileSystem} by name and by extension, kept up to date by its
+ * {@code create}, {@code delete} and {@code move} once {@link FileSystem#indexNames()} has been called.
+ * <p>
+ * Entries point at the entities themselves rather than their paths, so a move, which keeps names,
+ * changes nothing here and paths are built only for the results asked for. Queries cost time in
+ * proportion to their results: an exact name or extension is one hash lookup, and a name prefix is one
+ * range of the sorted distinct names, since all names starting with {@code P} sort between {@code P}
+ * and {@code P} followed by the highest {@code char}.
+ * <p>
+ * Updates are safe from several threads, as on a {@code ConcurrentFileSystem}; a query running
+ * alongside them may or may not see each of them.
+ */
+public final class NameIndex {
+    // A name maps to its only entity or, once it is shared, to a set of them.
+    private final ConcurrentHashMap<String, Object> byName = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<FileSystemEntity>> byExtension = new ConcurrentHashMap<>();
+    // The keys of byName, sorted for prefix queries; maintained under the same per-key lock.
+    private final NavigableSet<String> sortedNames = new ConcurrentSkipListSet<>();
+
+    NameIndex() {
+    }
+
+    /**
+     * Entities named exactly {@code name}.
+     */
+    public List<FileSystemEntity> named(String name) {
+        List<FileSystemEntity> result = new ArrayList<>();
+        collect(byName.get(name), result);
+        return result;
+    }
+
+    /**
+     * Entities whose name ends in {@code "." + extension}, e.g. {@code withExtension("log")}.
+     */
+    public List<FileSystemEntity> withExtension(String extension) {
+        Set<FileSystemEntity> entities = byExtension.get(extension);
+        return entities == null ? Collections.emptyList() : new ArrayList<>(entities);
+    }
+
+    /**
+     * Entities whose name starts with {@code prefix}, grouped by name in name order.
+     */
+    public List<FileSystemEntity> withNamePrefix(String prefix) {
+        List<FileSystemEntity> result = new ArrayList<>();
+        for (String name : sortedNames.subSet(prefix, true, prefix + Character.MAX_VALUE, false)) {
+            collect(byName.get(name), result);
+        }
+        return result;
+    }
+
+    /**
+     * Number of distinct names indexed.
+     */
+    public int nameCount() {
+        return byName.size();
+    }
+
+    /**
+     * Indexes {@code entity} and everything below it.
+     */
+    void addTree(FileSystemEntity entity) {
+        add(entity);
+        if (entity instanceof Container container) {
+            for (FileSystemEntity child : container.getContents()) {
+                addTree(child);
+            }
+        }
+    }
+
+    /**
+     * Forgets {@code entity} and everything below it.
+     */
+    void removeTree(FileSystemEntity entity) {
+        remove(entity);
+        if (entity instanceof Container container) {
+            for (FileSystemEntity child : container.getContents()) {
+                removeTree(child);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void add(FileSystemEntity entity) {
+        String name = entity.getName();
+        byName.compute(name, (key, current) -> {
+            if (current == null) {
+                sortedNames.add(key);
+                return entity;
+            }
+            if (current == entity) {
+                return current;
+            }
+            Set<FileSystemEntity> entities;
+            if (current instanceof FileSystemEntity only) {
+                entities = ConcurrentHashMap.newKeySet();
+                entities.add(only);
+            } else {
+                entities = (Set<FileSystemEntity>) current;
+            }
+            entities.add(entity);
+            return entities;
+        });
+        String extension = extensionOf(name);
+        if (extension != null) {
+            byExtension.compute(extension, (key, entities) -> {
+                Set<FileSystemEntity> result = entities == null ? ConcurrentHashMap.newKeySet() : entities;
+                result.add(entity);
+                return result;
+            });
+        }
+    }
+
+    private void remove(FileSystemEntity entity) {
+        String name = entity.getName();
+        byName.computeIfPresent(name, (key, current) -> {
+            if (current == entity || (current instanceof Set<?> entities && entities.remove(entity) && entities.isEmpty())) {
+                sortedNames.remove(key);
+                return null;
+            }
+            return current;
+        });
+        String extension = extensionOf(name);
+        if (extension != null) {
+            byExtension.computeIfPresent(extension, (key, entities) -> entities.remove(entity) && entities.isEmpty() ? null : entities);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collect(Object entry, List<FileSystemEntity> result) {
+        if (entry instanceof FileSystemEntity entity) {
+            result.add(entity);
+        } else if (entry != null) {
+            result.addAll((Set<FileSystemEntity>) entry);
+        }
+    }
+
+    private static String extensionOf(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot == -1 ? null : name.substring(dot + 1);
+    }
+}
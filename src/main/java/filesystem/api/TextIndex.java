@@ -0,0 +1,569 @@
+package filesystem.api;
+
+import filesystem.containers.Container;
+import filesystem.entities.Drive;
+import filesystem.entities.TextFile;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Inverted index from words to the text files containing them, with the word positions needed for
+ * phrase queries, kept up to date once {@link FileSystem#indexText()} has been called.
+ * <p>
+ * Writers never index anything themselves: a write, delete or rollback only queues the changed entity,
+ * and a background thread takes everything queued at once, re-reads each changed file a single time
+ * however often it was written, and updates its postings. Searches therefore see the index as of a
+ * moment ago; pass {@code readYourWrites} to first wait until everything changed before the call is
+ * indexed. Postings
+ * refer to files rather than paths, so moves cost the index nothing.
+ * <p>
+ * Words are maximal runs of letters and digits, compared case-insensitively. A query is a list of
+ * words and quoted phrases that must all occur, and {@code OR} separates alternatives:
+ * {@code error disk OR "out of memory"} finds files containing both {@code error} and {@code disk}, or
+ * the phrase {@code out of memory}.
+ */
+public final class TextIndex implements Closeable {
+    private final FileSystem fileSystem;
+    private final Thread indexer;
+
+    // Entities to look at again: text files whose content changed, and roots of removed or re-added
+    // subtrees. queued counts them, and is incremented only after the entity is in the queue.
+    private final ConcurrentLinkedQueue<FileSystemEntity> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong queued = new AtomicLong();
+    private final Object progress = new Object();
+    private long indexed;
+    private volatile boolean idle;
+    private final AtomicBoolean resetRequested = new AtomicBoolean();
+    private volatile boolean closed;
+
+    // Written by the indexer thread only, under the write lock.
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<TextFile, Integer> ids = new IdentityHashMap<>();
+    private TextFile[] files = new TextFile[16];
+    private String[][] termsOf = new String[16][];
+    private int[] freeIds = new int[16];
+    private int freeCount;
+    private int nextId;
+
+    TextIndex(FileSystem fileSystem) {
+        this.fileSystem = fileSystem;
+        this.indexer = new Thread(this::run, "text-indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    /**
+     * {@link #search(String, boolean)} without waiting for recent changes.
+     */
+    public List<FileSystemEntity> search(String query) {
+        return search(query, false);
+    }
+
+    /**
+     * Text files matching {@code query}, in no particular order.
+     *
+     * @param readYourWrites first wait until every change made before this call is indexed
+     */
+    public List<FileSystemEntity> search(String query, boolean readYourWrites) {
+        List<List<List<String>>> alternatives = parse(query);
+        if (readYourWrites) {
+            awaitIndexed();
+        }
+        List<FileSystemEntity> result = new ArrayList<>();
+        ReentrantReadWriteLock.ReadLock read = lock.readLock();
+        read.lock();
+        try {
+            boolean[] seen = alternatives.size() > 1 ? new boolean[nextId] : null;
+            for (List<List<String>> clause : alternatives) {
+                for (int id : matchAll(clause)) {
+                    if (seen == null || !seen[id]) {
+                        if (seen != null) {
+                            seen[id] = true;
+                        }
+                        result.add(files[id]);
+                    }
+                }
+            }
+        } finally {
+            read.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Waits until every change queued before this call has been indexed.
+     */
+    public void awaitIndexed() {
+        long target = queued.get();
+        synchronized (progress) {
+            while (indexed < target && !closed) {
+                try {
+                    progress.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the text index", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of text files with at least one word indexed.
+     */
+    public int fileCount() {
+        ReentrantReadWriteLock.ReadLock read = lock.readLock();
+        read.lock();
+        try {
+            return ids.size();
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Stops the indexing thread. The file system stops updating this index; searches keep working on
+     * what was indexed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(indexer);
+        try {
+            indexer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (progress) {
+            progress.notifyAll();
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Queues {@code entity}, a changed text file or the root of a subtree that was removed or added.
+     */
+    void changed(FileSystemEntity entity) {
+        if (closed) {
+            return;
+        }
+        queue.offer(entity);
+        queued.incrementAndGet();
+        if (idle) {
+            LockSupport.unpark(indexer);
+        }
+    }
+
+    /**
+     * Forgets everything indexed and queues every drive, e.g. after entities were added past the file
+     * system.
+     */
+    void rebuild() {
+        resetRequested.set(true);
+        for (Drive drive : fileSystem.getDrives()) {
+            changed(drive);
+        }
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                // Everything counted in target is in the queue already, so this pass covers it.
+                long target = queued.get();
+                Set<FileSystemEntity> batch = Collections.newSetFromMap(new IdentityHashMap<>());
+                FileSystemEntity entity;
+                while ((entity = queue.poll()) != null) {
+                    batch.add(entity);
+                }
+                // Checked after the polls, so the drives queued by a rebuild never miss their reset.
+                indexBatch(batch, resetRequested.getAndSet(false));
+                synchronized (progress) {
+                    indexed = target;
+                    progress.notifyAll();
+                }
+                idle = true;
+                if (queue.isEmpty() && !closed) {
+                    LockSupport.park(this);
+                }
+                idle = false;
+            }
+        } finally {
+            // Also if indexing failed, so that nobody waits for it forever.
+            closed = true;
+            synchronized (progress) {
+                progress.notifyAll();
+            }
+        }
+    }
+
+    private void indexBatch(Set<FileSystemEntity> batch, boolean reset) {
+        ReentrantReadWriteLock.WriteLock write = lock.writeLock();
+        if (reset) {
+            write.lock();
+            try {
+                reset();
+            } finally {
+                write.unlock();
+            }
+        }
+        // One entity at a time, so that searches are never held up by a whole batch.
+        for (FileSystemEntity entity : batch) {
+            if (closed) {
+                return;
+            }
+            boolean attached = isAttached(entity);
+            write.lock();
+            try {
+                update(entity, attached);
+            } finally {
+                write.unlock();
+            }
+        }
+    }
+
+    private boolean isAttached(FileSystemEntity entity) {
+        FileSystemEntity root = entity;
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        return root instanceof Drive drive && fileSystem.findDrive(drive.getName()) == drive;
+    }
+
+    private void update(FileSystemEntity entity, boolean attached) {
+        if (entity instanceof TextFile file) {
+            if (attached) {
+                index(file);
+            } else {
+                forget(file);
+            }
+        } else if (entity instanceof Container container) {
+            for (FileSystemEntity child : container.getContents()) {
+                update(child, attached);
+            }
+        }
+    }
+
+    private void index(TextFile file) {
+        Map<String, int[]> positions = new HashMap<>();
+        String content = file.getContent();
+        if (content != null) {
+            int[] position = {0};
+            forEachWord(content, word -> {
+                int[] list = positions.get(word);
+                if (list == null) {
+                    list = new int[]{0, 0, 0, 0};
+                } else if (list[0] + 1 == list.length) {
+                    list = Arrays.copyOf(list, list.length * 2);
+                }
+                // Slot 0 holds the count.
+                list[++list[0]] = position[0]++;
+                positions.put(word, list);
+            });
+        }
+        forget(file);
+        if (positions.isEmpty()) {
+            return;
+        }
+
+        int id = allocateId(file);
+        String[] terms = positions.keySet().toArray(new String[0]);
+        termsOf[id] = terms;
+        for (String term : terms) {
+            int[] list = positions.get(term);
+            postings.computeIfAbsent(term, key -> new Postings()).put(id, Arrays.copyOfRange(list, 1, list[0] + 1));
+        }
+    }
+
+    private void forget(TextFile file) {
+        Integer id = ids.remove(file);
+        if (id == null) {
+            return;
+        }
+        for (String term : termsOf[id]) {
+            Postings list = postings.get(term);
+            list.remove(id);
+            if (list.size() == 0) {
+                postings.remove(term);
+            }
+        }
+        files[id] = null;
+        termsOf[id] = null;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    private int allocateId(TextFile file) {
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            id = nextId++;
+            if (id == files.length) {
+                files = Arrays.copyOf(files, id * 2);
+                termsOf = Arrays.copyOf(termsOf, id * 2);
+            }
+        }
+        files[id] = file;
+        ids.put(file, id);
+        return id;
+    }
+
+    private void reset() {
+        postings.clear();
+        ids.clear();
+        files = new TextFile[16];
+        termsOf = new String[16][];
+        freeIds = new int[16];
+        freeCount = 0;
+        nextId = 0;
+    }
+
+    /**
+     * Ids of the files containing every word and phrase of {@code clause}, each phrase given as its
+     * words. Walks the shortest posting list and probes the others.
+     */
+    private int[] matchAll(List<List<String>> clause) {
+        List<Postings> lists = new ArrayList<>();
+        for (List<String> phrase : clause) {
+            for (String word : phrase) {
+                Postings list = postings.get(word);
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+        }
+        if (lists.isEmpty()) {
+            return new int[0];
+        }
+        Postings shortest = lists.get(0);
+        for (Postings list : lists) {
+            if (list.size() < shortest.size()) {
+                shortest = list;
+            }
+        }
+
+        int[] candidates = shortest.ids();
+        int count = 0;
+        for (int id : candidates) {
+            if (containsAll(id, lists) && containsPhrases(id, clause)) {
+                candidates[count++] = id;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    private static boolean containsAll(int id, List<Postings> lists) {
+        for (Postings list : lists) {
+            if (list.get(id) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean containsPhrases(int id, List<List<String>> clause) {
+        for (List<String> phrase : clause) {
+            if (phrase.size() > 1 && !containsPhrase(id, phrase)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean containsPhrase(int id, List<String> phrase) {
+        int[] first = postings.get(phrase.get(0)).get(id);
+        for (int start : first) {
+            boolean match = true;
+            for (int i = 1; i < phrase.size() && match; i++) {
+                match = Arrays.binarySearch(postings.get(phrase.get(i)).get(id), start + i) >= 0;
+            }
+            if (match) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Splits a query into alternatives, each a list of phrases that must all occur, each phrase a list
+     * of words; a single word is a phrase of one.
+     */
+    static List<List<List<String>>> parse(String query) {
+        List<List<List<String>>> alternatives = new ArrayList<>();
+        List<List<String>> clause = new ArrayList<>();
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            int end;
+            String text;
+            if (c == '"') {
+                end = query.indexOf('"', i + 1);
+                if (end == -1) {
+                    throw new IllegalArgumentException("Unterminated phrase in query: " + query);
+                }
+                text = query.substring(i + 1, end);
+                end++;
+            } else {
+                end = i;
+                while (end < query.length() && !Character.isWhitespace(query.charAt(end)) && query.charAt(end) != '"') {
+                    end++;
+                }
+                text = query.substring(i, end);
+                if (text.equals("OR")) {
+                    if (clause.isEmpty()) {
+                        throw new IllegalArgumentException("OR needs a term on each side: " + query);
+                    }
+                    alternatives.add(clause);
+                    clause = new ArrayList<>();
+                    i = end;
+                    continue;
+                }
+                if (text.equals("AND")) {
+                    i = end;
+                    continue;
+                }
+            }
+            List<String> words = new ArrayList<>();
+            forEachWord(text, words::add);
+            if (!words.isEmpty()) {
+                clause.add(words);
+            }
+            i = end;
+        }
+        if (clause.isEmpty()) {
+            throw new IllegalArgumentException(alternatives.isEmpty() ? "Empty query" : "OR needs a term on each side: " + query);
+        }
+        alternatives.add(clause);
+        return alternatives;
+    }
+
+    private static void forEachWord(String text, Consumer<String> action) {
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start == -1) {
+                start = i;
+            } else if (!word && start != -1) {
+                action.accept(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * Files containing one word, each with the word's positions in it: open addressing from file id
+     * to positions, with linear probing.
+     */
+    private static final class Postings {
+        private int[] keys = new int[4];
+        private int[][] values = new int[4][];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int[] get(int id) {
+            int mask = keys.length - 1;
+            for (int slot = hash(id) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == id) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+
+        void put(int id, int[] positions) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = hash(id) & mask;
+            while (values[slot] != null && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            if (values[slot] == null) {
+                size++;
+            }
+            keys[slot] = id;
+            values[slot] = positions;
+        }
+
+        void remove(int id) {
+            int mask = keys.length - 1;
+            int slot = hash(id) & mask;
+            while (values[slot] != null && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            if (values[slot] == null) {
+                return;
+            }
+            size--;
+            // Shift later entries of the probe run back so that no lookup stops early at the hole.
+            int hole = slot;
+            for (slot = (slot + 1) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+                int home = hash(keys[slot]) & mask;
+                if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                    keys[hole] = keys[slot];
+                    values[hole] = values[slot];
+                    hole = slot;
+                }
+            }
+            values[hole] = null;
+        }
+
+        int[] ids() {
+            int[] result = new int[size];
+            int count = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (values[slot] != null) {
+                    result[count++] = keys[slot];
+                }
+            }
+            return result;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[][] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2][];
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldValues[slot] != null) {
+                    put(oldKeys[slot], oldValues[slot]);
+                }
+            }
+        }
+
+        private static int hash(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package filesystem.api;
+
+import filesystem.containers.Container;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Walks the entities below some roots that match a {@link Glob}, depth first; {@link FileSystem#walk}
+ * uses a pattern that matches everything. Pending work is a stack of frames, each a
+ * run of not yet visited siblings plus the pattern positions their parent reached; since frames are
+ * independent, a split hands off half of the siblings of the shallowest frame by subtree size, so the
+ * large subtrees are what gets shared out.
+ */
+final class TreeSpliterator implements Spliterator<FileSystemEntity> {
+    /** Below this many entities a split costs more than walking them. */
+    static final long SPLIT_THRESHOLD = 4096;
+    /** How far a split steps down a chain of single children, e.g. a deep folder chain, before giving up. */
+    static final int MAX_EXPANSIONS = 64;
+
+    private final Glob glob;
+    private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+    // Matches found while expanding a frame for a split, reported before anything else.
+    private final ArrayDeque<FileSystemEntity> buffered = new ArrayDeque<>();
+    private long estimate;
+
+    TreeSpliterator(Glob glob, Collection<? extends FileSystemEntity> roots, long states) {
+        this.glob = glob;
+        Frame frame = new Frame(roots.toArray(new FileSystemEntity[0]), 0, roots.size(), states);
+        frames.push(frame);
+        estimate = frame.weight();
+    }
+
+    private TreeSpliterator(Glob glob, Frame frame) {
+        this.glob = glob;
+        frames.push(frame);
+        estimate = frame.weight();
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super FileSystemEntity> action) {
+        if (!buffered.isEmpty()) {
+            action.accept(buffered.poll());
+            return true;
+        }
+        while (!frames.isEmpty()) {
+            Frame frame = frames.peek();
+            if (frame.next == frame.end) {
+                frames.pop();
+                continue;
+            }
+            FileSystemEntity child = frame.children[frame.next++];
+            long states = visit(child, frame.states);
+            if (glob.accepts(states)) {
+                action.accept(child);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Spliterator<FileSystemEntity> trySplit() {
+        for (int expansions = 0; estimate >= SPLIT_THRESHOLD && expansions < MAX_EXPANSIONS; expansions++) {
+            Frame bottom = null;
+            int open = 0;
+            for (Iterator<Frame> it = frames.descendingIterator(); it.hasNext(); ) {
+                Frame frame = it.next();
+                if (frame.next < frame.end) {
+                    bottom = bottom == null ? frame : bottom;
+                    open++;
+                }
+            }
+            if (bottom == null) {
+                return null;
+            }
+            if (bottom.end - bottom.next >= 2) {
+                Frame half = bottom.splitHalf();
+                estimate -= half.weight();
+                return new TreeSpliterator(glob, half);
+            }
+            if (open >= 2) {
+                frames.remove(bottom);
+                estimate -= bottom.weight();
+                return new TreeSpliterator(glob, bottom);
+            }
+            // A single subtree is left, e.g. one drive: step into it and split its children instead.
+            FileSystemEntity child = bottom.children[bottom.next++];
+            long states = visit(child, bottom.states);
+            if (glob.accepts(states)) {
+                buffered.add(child);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Steps into {@code child}, pushing a frame for its children if any of them can match, and
+     * returns the positions it reached.
+     */
+    private long visit(FileSystemEntity child, long parentStates) {
+        long states = glob.step(parentStates, child.getName());
+        if (states != 0 && glob.descends(states) && child instanceof Container container) {
+            FileSystemEntity[] children = glob.candidates(container, states);
+            estimate -= 1 + child.getDescendantCount() - weight(children, 0, children.length);
+            frames.push(new Frame(children, 0, children.length, states));
+        } else {
+            estimate -= 1 + child.getDescendantCount();
+        }
+        estimate = Math.max(estimate, 0);
+        return states;
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimate + buffered.size();
+    }
+
+    @Override
+    public int characteristics() {
+        return NONNULL | DISTINCT;
+    }
+
+    private static long weight(FileSystemEntity[] children, int from, int to) {
+        long weight = 0;
+        for (int i = from; i < to; i++) {
+            weight += 1 + children[i].getDescendantCount();
+        }
+        return weight;
+    }
+
+    private static final class Frame {
+        final FileSystemEntity[] children;
+        final long states;
+        int next;
+        final int end;
+
+        Frame(FileSystemEntity[] children, int next, int end, long states) {
+            this.children = children;
+            this.next = next;
+            this.end = end;
+            this.states = states;
+        }
+
+        long weight() {
+            return TreeSpliterator.weight(children, next, end);
+        }
+
+        /**
+         * Gives away the first remaining children holding about half of the remaining entities,
+         * always at least one and leaving at least one.
+         */
+        Frame splitHalf() {
+            long half = weight() / 2;
+            int mid = next + 1;
+            long taken = 1 + children[next].getDescendantCount();
+            while (mid < end - 1 && taken < half) {
+                taken += 1 + children[mid++].getDescendantCount();
+            }
+            Frame prefix = new Frame(children, next, mid, states);
+            next = mid;
+            return prefix;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package filesystem.concurrent;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import filesystem.api.FileSystemOperation;
+import filesystem.containers.AbstractContainer;
+import filesystem.containers.Container;
+import filesystem.content.ContentEdit;
+import filesystem.content.ContentPolicy;
+import filesystem.entities.Drive;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe {@link FileSystem} that locks individual containers instead of the whole tree.
+ * <p>
+ * Every container carries its own {@link StampedLock}. Lookups walk the path with optimistic reads
+ * and only fall back to a read lock on a container that is being written at that moment, so readers
+ * never block each other. A write holds the write lock of the one container it changes; {@code move}
+ * locks the source and destination parents in a fixed order.
+ * <p>
+ * {@link #apply} batches are isolated from other writers: every write holds the shared side of a
+ * batch lock and a batch holds the exclusive side, so no other write interleaves with a batch or its
+ * rollback. Lock-free readers may still observe a batch half-applied; use
+ * {@link filesystem.persistent.PersistentFileSystem} when readers need to see batches atomically.
+ * <p>
+ * Deleting or moving a container also takes the exclusive side, so that no concurrent write below it
+ * updates the subtree aggregates of {@link AbstractContainer} or reports a path that is changing
+ * under it, and two concurrent moves can never create a cycle. Copying a container takes it too, so
+ * that the subtree being copied does not change. Deleting, moving or copying a text file, like every
+ * other write, takes the shared side. A write therefore only has to check once, under its locks,
+ * that the containers it looked up are still reachable from a drive.
+ * <p>
+ * Only operations going through this class are synchronized. Iterating
+ * {@link Container#getContents()} while other threads write to that container is not safe, and the
+ * lookup cache is not available.
+ */
+public class ConcurrentFileSystem extends FileSystem {
+    private final StampedLock drivesLock = new StampedLock();
+    private final ReentrantLock tieLock = new ReentrantLock();
+    private final ReentrantReadWriteLock batchLock = new ReentrantReadWriteLock();
+
+    public ConcurrentFileSystem() {
+    }
+
+    public ConcurrentFileSystem(ContentPolicy contentPolicy) {
+        super(contentPolicy);
+    }
+
+    @Override
+    protected void applyBatch(List<? extends FileSystemOperation> operations) {
+        Lock lock = batchLock.writeLock();
+        lock.lock();
+        try {
+            super.applyBatch(operations);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected Drive lookupDrive(String path, int from, int to, int hash) {
+        long stamp = drivesLock.tryOptimisticRead();
+        Drive drive = super.lookupDrive(path, from, to, hash);
+        if (drivesLock.validate(stamp)) {
+            return drive;
+        }
+        stamp = drivesLock.readLock();
+        try {
+            return super.lookupDrive(path, from, to, hash);
+        } finally {
+            drivesLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    protected FileSystemEntity lookupChild(Container container, String path, int from, int to, int hash) {
+        if (!(container instanceof AbstractContainer abstractContainer)) {
+            return super.lookupChild(container, path, from, to, hash);
+        }
+        StampedLock lock = abstractContainer.lock();
+        long stamp = lock.tryOptimisticRead();
+        FileSystemEntity child = super.lookupChild(container, path, from, to, hash);
+        if (lock.validate(stamp)) {
+            return child;
+        }
+        stamp = lock.readLock();
+        try {
+            return super.lookupChild(container, path, from, to, hash);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    protected void createDrive(String name) {
+        Lock batch = batchLock.readLock();
+        batch.lock();
+        long stamp = drivesLock.writeLock();
+        try {
+            super.createDrive(name);
+        } finally {
+            drivesLock.unlockWrite(stamp);
+            batch.unlock();
+        }
+    }
+
+    @Override
+    protected void deleteDrive(String name) {
+        Lock batch = batchLock.writeLock();
+        batch.lock();
+        long stamp = drivesLock.writeLock();
+        try {
+            super.deleteDrive(name);
+        } finally {
+            drivesLock.unlockWrite(stamp);
+            batch.unlock();
+        }
+    }
+
+    @Override
+    protected void createEntity(String type, String name, Container parent, Object parentPath) {
+        if (!(parent instanceof AbstractContainer container)) {
+            super.createEntity(type, name, parent, parentPath);
+            return;
+        }
+        Lock batch = batchLock.readLock();
+        batch.lock();
+        StampedLock lock = container.lock();
+        long stamp = lock.writeLock();
+        try {
+            // Another thread may have deleted the parent or one of its ancestors since it was looked up.
+            if (!isAttached(container)) {
+                throw new IllegalArgumentException("Parent path not found: " + parentPath);
+            }
+            super.createEntity(type, name, parent, parentPath);
+        } finally {
+            lock.unlockWrite(stamp);
+            batch.unlock();
+        }
+    }
+
+    @Override
+    protected void deleteEntity(Container parent, FileSystemEntity entity, Object path) {
+        if (entity == null || !(parent instanceof AbstractContainer container)) {
+            super.deleteEntity(parent, entity, path);
+            return;
+        }
+        Lock batch = batchLockFor(entity);
+        batch.lock();
+        StampedLock lock = container.lock();
+        long stamp = lock.writeLock();
+        try {
+            // Another thread may have removed or replaced the entity since it was looked up.
+            if (container.getEntity(entity.getName()) != entity || !isAttached(container)) {
+                throw new IllegalArgumentException("Path not found: " + path);
+            }
+            super.deleteEntity(parent, entity, path);
+        } finally {
+            lock.unlockWrite(stamp);
+            batch.unlock();
+        }
+    }
+
+    @Override
+    protected void moveEntity(FileSystemEntity source, Container destParent, Object sourcePath, Object destPath) {
+        if (source == null || source instanceof Drive || !(destParent instanceof AbstractContainer dest)) {
+            super.moveEntity(source, destParent, sourcePath, destPath);
+            return;
+        }
+
+        Lock batch = batchLockFor(source);
+        batch.lock();
+        try {
+            while (true) {
+                if (!(source.getParent() instanceof AbstractContainer sourceParent)) {
+                    throw new IllegalArgumentException("Source path not found: " + sourcePath);
+                }
+                if (moveLocked(source, sourceParent, dest, sourcePath, destPath)) {
+                    return;
+                }
+            }
+        } finally {
+            batch.unlock();
+        }
+    }
+
+    @Override
+    protected void copyEntity(FileSystemEntity source, Container destParent, Object sourcePath, Object destPath) {
+        if (source == null || source instanceof Drive || !(destParent instanceof AbstractContainer dest)) {
+            super.copyEntity(source, destParent, sourcePath, destPath);
+            return;
+        }
+
+        // Copying a container reads its whole subtree, which no write may change meanwhile.
+        Lock batch = batchLockFor(source);
+        batch.lock();
+        StampedLock lock = dest.lock();
+        long stamp = lock.writeLock();
+        try {
+            if (!(source.getParent() instanceof Container sourceParent) || sourceParent.getEntity(source.getName()) != source
+                    || !isAttached(source)) {
+                throw new IllegalArgumentException("Source path not found: " + sourcePath);
+            }
+            if (!isAttached(dest)) {
+                throw new IllegalArgumentException("Destination path not found: " + destPath);
+            }
+            super.copyEntity(source, destParent, sourcePath, destPath);
+        } finally {
+            lock.unlockWrite(stamp);
+            batch.unlock();
+        }
+    }
+
+    @Override
+    protected void writeEntity(FileSystemEntity entity, String content, Object path) {
+        Lock batch = batchLock.readLock();
+        batch.lock();
+        try {
+            // Checks under the file's monitor that the file is still attached.
+            super.writeEntity(entity, content, path);
+        } finally {
+            batch.unlock();
+        }
+    }
+
+    @Override
+    protected void editEntity(FileSystemEntity entity, ContentEdit edit, Object path) {
+        Lock batch = batchLock.readLock();
+        batch.lock();
+        try {
+            super.editEntity(entity, edit, path);
+        } finally {
+            batch.unlock();
+        }
+    }
+
+    @Override
+    protected void attachEntity(Container parent, FileSystemEntity entity) {
+        StampedLock lock = parent instanceof AbstractContainer container ? container.lock() : drivesLock;
+        long stamp = lock.writeLock();
+        try {
+            super.attachEntity(parent, entity);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    protected void detachEntity(Container parent, FileSystemEntity entity) {
+        StampedLock lock = parent instanceof AbstractContainer container ? container.lock() : drivesLock;
+        long stamp = lock.writeLock();
+        try {
+            super.detachEntity(parent, entity);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * The exclusive side of the batch lock for deleting or moving a container, the shared side
+     * otherwise.
+     */
+    private Lock batchLockFor(FileSystemEntity entity) {
+        return entity instanceof Container ? batchLock.writeLock() : batchLock.readLock();
+    }
+
+    private void checkAttached(AbstractContainer sourceParent, AbstractContainer dest, Object sourcePath, Object destPath) {
+        if (!isAttached(sourceParent)) {
+            throw new IllegalArgumentException("Source path not found: " + sourcePath);
+        }
+        if (!isAttached(dest)) {
+            throw new IllegalArgumentException("Destination path not found: " + destPath);
+        }
+    }
+
+    /**
+     * Performs the move with both parents write-locked.
+     *
+     * @return {@code false} if the source left {@code sourceParent} before the locks were taken
+     */
+    private boolean moveLocked(FileSystemEntity source, AbstractContainer sourceParent, AbstractContainer dest,
+                               Object sourcePath, Object destPath) {
+        if (sourceParent == dest) {
+            StampedLock lock = dest.lock();
+            long stamp = lock.writeLock();
+            try {
+                if (sourceParent.getEntity(source.getName()) != source) {
+                    return false;
+                }
+                checkAttached(sourceParent, dest, sourcePath, destPath);
+                super.moveEntity(source, dest, sourcePath, destPath);
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        StampedLock sourceLock = sourceParent.lock();
+        StampedLock destLock = dest.lock();
+        int sourceOrder = System.identityHashCode(sourceLock);
+        int destOrder = System.identityHashCode(destLock);
+        StampedLock first = sourceOrder < destOrder ? sourceLock : destLock;
+        StampedLock second = first == sourceLock ? destLock : sourceLock;
+
+        boolean tie = sourceOrder == destOrder;
+        if (tie) {
+            tieLock.lock();
+        }
+        long firstStamp = first.writeLock();
+        long secondStamp = second.writeLock();
+        try {
+            if (sourceParent.getEntity(source.getName()) != source) {
+                return false;
+            }
+            checkAttached(sourceParent, dest, sourcePath, destPath);
+            super.moveEntity(source, dest, sourcePath, destPath);
+            return true;
+        } finally {
+            second.unlockWrite(secondStamp);
+            first.unlockWrite(firstStamp);
+            if (tie) {
+                tieLock.unlock();
+            }
+        }
+    }
+}
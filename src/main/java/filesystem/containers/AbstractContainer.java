@@ -2,12 +2,42 @@ package filesystem.containers;
 
 import filesystem.api.FileSystemEntity;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractCollection;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.locks.StampedLock;
 
 public abstract class AbstractContainer extends FileSystemEntity implements Container {
-    protected final Map<String, FileSystemEntity> contents = new HashMap<>();
+    // Marks a max depth that a removal may have lowered; it is recomputed from the children when asked for.
+    private static final int STALE = -1;
+    private static final VarHandle DESCENDANT_COUNT;
+    private static final VarHandle TOTAL_BYTES;
+    private static final VarHandle MAX_DEPTH;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            DESCENDANT_COUNT = lookup.findVarHandle(AbstractContainer.class, "descendantCount", int.class);
+            TOTAL_BYTES = lookup.findVarHandle(AbstractContainer.class, "totalBytes", long.class);
+            MAX_DEPTH = lookup.findVarHandle(AbstractContainer.class, "maxDepth", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Allocated by the first add, so empty folders and zip files carry no table at all.
+    protected ChildTable<FileSystemEntity> contents;
+    private volatile StampedLock lock;
+    // The path as built from the parent's path object; a move of this container or an ancestor gives
+    // the parent a new path object, which invalidates it.
+    private volatile CachedPath cachedPath;
+    // Aggregates over everything below, kept up to date by each change below this container.
+    private volatile int descendantCount;
+    private volatile long totalBytes;
+    private volatile int maxDepth;
 
     public AbstractContainer(String name, String type) {
         super(name, type);
@@ -15,33 +45,189 @@ public abstract class AbstractContainer extends FileSystemEntity implements Cont
 
     @Override
     public void addEntity(FileSystemEntity entity) {
-        if (contents.containsKey(entity.getName())) {
+        ChildTable<FileSystemEntity> table = contents;
+        if (table == null) {
+            table = new ChildTable<>();
+            contents = table;
+        }
+        if (!table.add(entity)) {
             throw new IllegalArgumentException("Entity with name " + entity.getName() + " already exists");
         }
-        contents.put(entity.getName(), entity);
-        entity.setParent(this);
+        // Locked like a content write, so a text file's size cannot change between being counted and attached.
+        synchronized (entity) {
+            entity.setParent(this);
+            adjustAggregates(entity.getDescendantCount() + 1, entity.getTotalBytes());
+        }
+        raiseMaxDepth(entity.getMaxDepth() + 1);
+        entity.markAdded();
+        markChanged();
     }
 
     @Override
     public void removeEntity(String name) {
-        FileSystemEntity removed = contents.remove(name);
+        ChildTable<FileSystemEntity> table = contents;
+        FileSystemEntity removed = table == null ? null : table.remove(name);
         if (removed != null) {
-            removed.setParent(null);
+            synchronized (removed) {
+                removed.setParent(null);
+                adjustAggregates(-removed.getDescendantCount() - 1, -removed.getTotalBytes());
+            }
+            lowerMaxDepth(removed.getMaxDepth() + 1);
+            markChanged();
+        }
+    }
+
+    /**
+     * Built once and then returned as is until this container or one of its ancestors moves, so
+     * asking for a path does not concatenate the whole chain again.
+     */
+    @Override
+    public String getPath() {
+        FileSystemEntity parent = getParent();
+        if (parent == null) {
+            return getName();
+        }
+        String parentPath = parent.getPath();
+        CachedPath cached = cachedPath;
+        if (cached == null || cached.parentPath() != parentPath) {
+            cached = new CachedPath(parentPath, parentPath + "\\" + getName());
+            cachedPath = cached;
+        }
+        return cached.path();
+    }
+
+    @Override
+    public int getDescendantCount() {
+        return descendantCount;
+    }
+
+    @Override
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Constant time unless a removal below this container may have lowered it; then the affected
+     * containers recompute it from their children once. Iterates children, so on a
+     * {@code ConcurrentFileSystem} that first query must not race with changes to the same subtree.
+     */
+    @Override
+    public int getMaxDepth() {
+        int depth = maxDepth;
+        if (depth != STALE) {
+            return depth;
+        }
+        int computed = 0;
+        for (FileSystemEntity child : getContents()) {
+            computed = Math.max(computed, child.getMaxDepth() + 1);
+        }
+        MAX_DEPTH.compareAndSet(this, STALE, computed);
+        return computed;
+    }
+
+    /**
+     * Adds {@code entities} to the descendant count and {@code bytes} to the total size of this
+     * container and each of its ancestors. Text files call this when their size changes.
+     */
+    public void adjustAggregates(int entities, long bytes) {
+        for (FileSystemEntity current = this; current instanceof AbstractContainer container; current = container.getParent()) {
+            if (entities != 0) {
+                DESCENDANT_COUNT.getAndAdd(container, entities);
+            }
+            if (bytes != 0) {
+                TOTAL_BYTES.getAndAdd(container, bytes);
+            }
+        }
+    }
+
+    /**
+     * Raises the max depth of this container and its ancestors for a new child subtree {@code depth}
+     * levels deep, stopping at the first ancestor that is already at least as deep.
+     */
+    private void raiseMaxDepth(int depth) {
+        for (FileSystemEntity current = this; current instanceof AbstractContainer container;
+             current = container.getParent(), depth++) {
+            int known;
+            do {
+                known = container.maxDepth;
+                // A stale container rescans its children anyway, but its ancestors may still need raising.
+            } while (known != STALE && known < depth && !MAX_DEPTH.compareAndSet(container, known, depth));
+            if (known != STALE && known >= depth) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Marks the max depth of this container and its ancestors stale where the removed child subtree,
+     * {@code depth} levels deep, may have been the deepest.
+     */
+    private void lowerMaxDepth(int depth) {
+        for (FileSystemEntity current = this; current instanceof AbstractContainer container;
+             current = container.getParent()) {
+            int known = container.maxDepth;
+            if (known == STALE || known > depth || !MAX_DEPTH.compareAndSet(container, known, STALE)) {
+                return;
+            }
+            depth = known + 1;
         }
     }
 
     @Override
     public FileSystemEntity getEntity(String name) {
-        return contents.get(name);
+        ChildTable<FileSystemEntity> table = contents;
+        return table == null ? null : table.get(name);
     }
 
+    @Override
+    public FileSystemEntity getEntity(String path, int from, int to, int hash) {
+        ChildTable<FileSystemEntity> table = contents;
+        return table == null ? null : table.get(path, from, to, hash);
+    }
+
+    /**
+     * Live view of the children, including ones added after the view was created.
+     */
     @Override
     public Collection<FileSystemEntity> getContents() {
-        return contents.values();
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<FileSystemEntity> iterator() {
+                ChildTable<FileSystemEntity> table = contents;
+                return table == null ? Collections.emptyIterator() : table.values().iterator();
+            }
+
+            @Override
+            public int size() {
+                ChildTable<FileSystemEntity> table = contents;
+                return table == null ? 0 : table.size();
+            }
+        };
     }
 
     @Override
     public boolean hasEntity(String name) {
-        return contents.containsKey(name);
+        return getEntity(name) != null;
+    }
+
+    /**
+     * Lock guarding {@link #contents} for thread-safe file systems. Created on first use, so
+     * containers that are only accessed from one thread never allocate it.
+     */
+    public StampedLock lock() {
+        StampedLock result = lock;
+        if (result == null) {
+            synchronized (this) {
+                result = lock;
+                if (result == null) {
+                    result = new StampedLock();
+                    lock = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private record CachedPath(String parentPath, String path) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,321 @@
+package filesystem.containers;
+
+import filesystem.api.FileSystemEntity;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Table of entities keyed by their name, stored in one of three layouts depending on its size:
+ * <ul>
+ *     <li>empty: a shared zero-length array;</li>
+ *     <li>up to {@value #SMALL_MAX} entries: an exactly sized array sorted by name and binary searched;</li>
+ *     <li>more: an open-addressing hash table with linear probing, at most half full.</li>
+ * </ul>
+ * Most containers hold only a few entities, so they never pay for empty hash slots. A hash table that
+ * shrinks to {@value #DEMOTE_AT} entries is turned back into a sorted array.
+ * <p>
+ * Unlike a {@code HashMap<String, E>} it can be probed with a slice of a larger string, so a path can
+ * be resolved segment by segment without allocating a substring for every segment.
+ */
+public final class ChildTable<E extends FileSystemEntity> {
+    private static final FileSystemEntity[] EMPTY = new FileSystemEntity[0];
+    private static final int SMALL_MAX = 8;
+    private static final int DEMOTE_AT = SMALL_MAX / 2;
+    private static final int HASHED_CAPACITY = 32;
+    private static final Comparator<FileSystemEntity> BY_NAME = Comparator.comparing(FileSystemEntity::getName);
+
+    private FileSystemEntity[] entries = EMPTY;
+    private int size;
+
+    public E get(String name) {
+        return name == null ? null : get(name, 0, name.length());
+    }
+
+    /**
+     * Looks up the entity whose name equals {@code path.substring(from, to)} without creating that
+     * substring.
+     */
+    public E get(String path, int from, int to) {
+        return get(path, from, to, hash(path, from, to));
+    }
+
+    /**
+     * Same as {@link #get(String, int, int)} for callers that already know the
+     * {@link String#hashCode()} of the slice.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(String path, int from, int to, int hash) {
+        FileSystemEntity[] table = entries;
+        if (table == null) {
+            // A racy reader may see a newly published table before its fields; it retries under a lock.
+            return null;
+        }
+        if (table.length > SMALL_MAX) {
+            return (E) probe(table, path, from, to, hash);
+        }
+        int index = search(table, path, from, to);
+        return index >= 0 ? (E) table[index] : null;
+    }
+
+    public boolean contains(String name) {
+        return get(name) != null;
+    }
+
+    /**
+     * Adds the entity unless one with the same name is already present.
+     *
+     * @return {@code true} if the entity was added
+     */
+    public boolean add(E entity) {
+        String name = entity.getName();
+        if (entries.length > SMALL_MAX) {
+            if ((size + 1) * 2 > entries.length) {
+                rehash(entries.length * 2);
+            }
+            if (!insert(entries, entity)) {
+                return false;
+            }
+        } else {
+            int index = search(entries, name, 0, name.length());
+            if (index >= 0) {
+                return false;
+            }
+            if (size == SMALL_MAX) {
+                rehash(HASHED_CAPACITY);
+                insert(entries, entity);
+            } else {
+                // Copy-on-write, so a racy reader never sees a half-shifted array.
+                int at = -index - 1;
+                FileSystemEntity[] grown = new FileSystemEntity[size + 1];
+                System.arraycopy(entries, 0, grown, 0, at);
+                grown[at] = entity;
+                System.arraycopy(entries, at, grown, at + 1, size - at);
+                entries = grown;
+            }
+        }
+        size++;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E remove(String name) {
+        if (name == null || size == 0) {
+            return null;
+        }
+        if (entries.length <= SMALL_MAX) {
+            int index = search(entries, name, 0, name.length());
+            if (index < 0) {
+                return null;
+            }
+            E removed = (E) entries[index];
+            if (size == 1) {
+                entries = EMPTY;
+            } else {
+                FileSystemEntity[] shrunk = new FileSystemEntity[size - 1];
+                System.arraycopy(entries, 0, shrunk, 0, index);
+                System.arraycopy(entries, index + 1, shrunk, index, size - index - 1);
+                entries = shrunk;
+            }
+            size--;
+            return removed;
+        }
+
+        int mask = entries.length - 1;
+        int i = spread(name.hashCode()) & mask;
+        while (entries[i] != null) {
+            if (entries[i].getName().equals(name)) {
+                E removed = (E) entries[i];
+                deleteSlot(i);
+                size--;
+                if (size == DEMOTE_AT) {
+                    demote();
+                }
+                return removed;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Live, unmodifiable view of the entities in the table.
+     */
+    public Collection<E> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<E> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static FileSystemEntity probe(FileSystemEntity[] table, String path, int from, int to, int hash) {
+        int length = to - from;
+        int mask = table.length - 1;
+        // Bounded by the table length so that a racy optimistic read can never spin forever.
+        for (int i = spread(hash) & mask, probes = 0; probes < table.length; i = (i + 1) & mask, probes++) {
+            FileSystemEntity entry = table[i];
+            if (entry == null) {
+                return null;
+            }
+            String name = entry.getName();
+            if (name.length() == length && name.hashCode() == hash && name.regionMatches(0, path, from, length)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Binary search of a sorted array for {@code path.substring(from, to)}.
+     *
+     * @return the index of the match, or {@code -(insertion point) - 1}
+     */
+    private static int search(FileSystemEntity[] sorted, String path, int from, int to) {
+        int low = 0;
+        int high = sorted.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            FileSystemEntity entry = sorted[mid];
+            if (entry == null) {
+                // Only seen by a racy reader; it retries under a lock.
+                return -1;
+            }
+            int cmp = compare(entry.getName(), path, from, to);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * {@link String#compareTo} of {@code name} and {@code path.substring(from, to)}.
+     */
+    private static int compare(String name, String path, int from, int to) {
+        int length = to - from;
+        int common = Math.min(name.length(), length);
+        for (int i = 0; i < common; i++) {
+            int diff = name.charAt(i) - path.charAt(from + i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return name.length() - length;
+    }
+
+    private static boolean insert(FileSystemEntity[] table, FileSystemEntity entity) {
+        String name = entity.getName();
+        int mask = table.length - 1;
+        int i = spread(name.hashCode()) & mask;
+        while (table[i] != null) {
+            if (table[i].getName().equals(name)) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        table[i] = entity;
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        FileSystemEntity[] table = new FileSystemEntity[capacity];
+        for (FileSystemEntity entry : entries) {
+            if (entry != null) {
+                insert(table, entry);
+            }
+        }
+        entries = table;
+    }
+
+    private void demote() {
+        FileSystemEntity[] sorted = new FileSystemEntity[size];
+        int count = 0;
+        for (FileSystemEntity entry : entries) {
+            if (entry != null) {
+                sorted[count++] = entry;
+            }
+        }
+        Arrays.sort(sorted, BY_NAME);
+        entries = sorted;
+    }
+
+    // Backward-shift deletion keeps every probe chain contiguous without tombstones.
+    private void deleteSlot(int hole) {
+        int mask = entries.length - 1;
+        entries[hole] = null;
+        for (int i = (hole + 1) & mask; entries[i] != null; i = (i + 1) & mask) {
+            int home = spread(entries[i].getName().hashCode()) & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                entries[hole] = entries[i];
+                entries[i] = null;
+                hole = i;
+            }
+        }
+    }
+
+    /**
+     * {@link String#hashCode()} of {@code path.substring(from, to)}, computed in place.
+     */
+    public static int hash(String path, int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + path.charAt(i);
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private final class EntryIterator implements Iterator<E> {
+        private final FileSystemEntity[] table = entries;
+        private int index = advance(0);
+
+        private int advance(int from) {
+            while (from < table.length && table[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < table.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E next = (E) table[index];
+            index = advance(index + 1);
+            return next;
+        }
+    }
+}
@@ -11,7 +11,19 @@ public interface Container {
 
     FileSystemEntity getEntity(String name);
 
+    /**
+     * Looks up the child named by {@code path.substring(from, to)} without allocating the substring.
+     */
+    default FileSystemEntity getEntity(String path, int from, int to) {
+        return getEntity(path, from, to, ChildTable.hash(path, from, to));
+    }
+
+    /**
+     * Same as {@link #getEntity(String, int, int)} with the slice's precomputed {@link String#hashCode()}.
+     */
+    FileSystemEntity getEntity(String path, int from, int to, int hash);
+
     Collection<FileSystemEntity> getContents();
 
     boolean hasEntity(String name);
-}
\ No newline at end of file
+}
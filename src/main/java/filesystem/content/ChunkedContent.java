@@ -0,0 +1,160 @@
+package filesystem.content;
+
+/**
+ * Content split into {@value #CHUNK_SIZE}-byte chunks, each stored by the {@link ContentPolicy}. Every
+ * chunk but the last is full.
+ * <p>
+ * Chunks are immutable and shared between versions, so an edit copies only the chunks it touches plus
+ * the array of chunk references: appending a line to a 50 MB file copies at most one chunk and an
+ * 800-element array instead of 50 MB.
+ */
+final class ChunkedContent implements Content {
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private final Content[] chunks;
+    private final int size;
+
+    private ChunkedContent(Content[] chunks, int size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    /**
+     * Stores {@code utf8} as a single piece if it fits in one chunk and chunked otherwise.
+     */
+    static Content of(byte[] utf8, ContentPolicy policy) {
+        if (utf8.length <= CHUNK_SIZE) {
+            return policy.store(utf8);
+        }
+        Content[] chunks = new Content[chunkCount(utf8.length)];
+        for (int i = 0; i < chunks.length; i++) {
+            int from = i * CHUNK_SIZE;
+            byte[] chunk = new byte[Math.min(CHUNK_SIZE, utf8.length - from)];
+            System.arraycopy(utf8, from, chunk, 0, chunk.length);
+            chunks[i] = policy.store(chunk);
+        }
+        return new ChunkedContent(chunks, utf8.length);
+    }
+
+    static Content writeAt(Content base, int offset, byte[] data, ContentPolicy policy) {
+        int oldSize = base.size();
+        if (offset < 0 || offset > oldSize) {
+            throw new IllegalArgumentException("Offset out of range: " + offset + " (size " + oldSize + ")");
+        }
+        if (data.length == 0) {
+            return base;
+        }
+        int end = offset + data.length;
+        if (end < 0) {
+            throw new IllegalArgumentException("Content would exceed " + Integer.MAX_VALUE + " bytes");
+        }
+        int newSize = Math.max(oldSize, end);
+
+        Content[] old = chunksOf(base, policy);
+        Content[] chunks = new Content[chunkCount(newSize)];
+        System.arraycopy(old, 0, chunks, 0, Math.min(old.length, chunks.length));
+        for (int i = offset / CHUNK_SIZE; i <= (end - 1) / CHUNK_SIZE; i++) {
+            int chunkStart = i * CHUNK_SIZE;
+            byte[] bytes = new byte[Math.min(CHUNK_SIZE, newSize - chunkStart)];
+            if (i < old.length) {
+                old[i].read(0, bytes, 0, old[i].size());
+            }
+            int from = Math.max(offset, chunkStart);
+            int to = Math.min(end, chunkStart + bytes.length);
+            System.arraycopy(data, from - offset, bytes, from - chunkStart, to - from);
+            chunks[i] = policy.store(bytes);
+        }
+        return chunks.length == 1 ? chunks[0] : new ChunkedContent(chunks, newSize);
+    }
+
+    static Content truncate(Content base, int newSize, ContentPolicy policy) {
+        int oldSize = base.size();
+        if (newSize < 0 || newSize > oldSize) {
+            throw new IllegalArgumentException("Size out of range: " + newSize + " (size " + oldSize + ")");
+        }
+        if (newSize == oldSize) {
+            return base;
+        }
+        if (newSize == 0) {
+            return Content.EMPTY;
+        }
+
+        Content[] old = chunksOf(base, policy);
+        Content[] chunks = new Content[chunkCount(newSize)];
+        System.arraycopy(old, 0, chunks, 0, chunks.length);
+        int last = chunks.length - 1;
+        int lastSize = newSize - last * CHUNK_SIZE;
+        if (lastSize < chunks[last].size()) {
+            byte[] bytes = new byte[lastSize];
+            chunks[last].read(0, bytes, 0, lastSize);
+            chunks[last] = policy.store(bytes);
+        }
+        return chunks.length == 1 ? chunks[0] : new ChunkedContent(chunks, newSize);
+    }
+
+    /**
+     * Re-stores one chunk at a time, so the whole content is never materialized.
+     */
+    @Override
+    public Content restore(ContentPolicy policy) {
+        Content[] restored = new Content[chunks.length];
+        for (int i = 0; i < chunks.length; i++) {
+            restored[i] = chunks[i].restore(policy);
+        }
+        return new ChunkedContent(restored, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int storedSize() {
+        int stored = 0;
+        for (Content chunk : chunks) {
+            stored += chunk.storedSize();
+        }
+        return stored;
+    }
+
+    @Override
+    public void read(int offset, byte[] target, int targetOffset, int length) {
+        while (length > 0) {
+            Content chunk = chunks[offset / CHUNK_SIZE];
+            int within = offset % CHUNK_SIZE;
+            int count = Math.min(length, chunk.size() - within);
+            chunk.read(within, target, targetOffset, count);
+            offset += count;
+            targetOffset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Where the first, full chunk is stored; with {@link ContentPolicy#offHeapAbove(int)} a short last
+     * chunk may be on the heap.
+     */
+    @Override
+    public boolean isOffHeap() {
+        return chunks[0].isOffHeap();
+    }
+
+    private static Content[] chunksOf(Content content, ContentPolicy policy) {
+        if (content instanceof ChunkedContent chunked) {
+            return chunked.chunks;
+        }
+        if (content.size() == 0) {
+            return new Content[0];
+        }
+        if (content.size() <= CHUNK_SIZE) {
+            return new Content[]{content};
+        }
+        // Content stored whole, e.g. through TextFile.setRawContent; split it once.
+        return ((ChunkedContent) of(content.toByteArray(), policy)).chunks;
+    }
+
+    private static int chunkCount(int size) {
+        return (int) (((long) size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    }
+}
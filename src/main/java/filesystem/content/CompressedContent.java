@@ -0,0 +1,106 @@
+package filesystem.content;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflated content, inflated on access through a {@link DecompressionCache}.
+ */
+final class CompressedContent implements Content {
+    private final byte[] compressed;
+    private final int size;
+    private final DecompressionCache cache;
+
+    private CompressedContent(byte[] compressed, int size, DecompressionCache cache) {
+        this.compressed = compressed;
+        this.size = size;
+        this.cache = cache;
+    }
+
+    /**
+     * Deflates {@code utf8}, or keeps it as is on the heap if it does not get smaller.
+     */
+    static Content deflate(byte[] utf8, DecompressionCache cache) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(utf8);
+            deflater.finish();
+            byte[] buffer = new byte[utf8.length];
+            int length = 0;
+            while (!deflater.finished() && length < buffer.length) {
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            if (!deflater.finished()) {
+                return new HeapContent(utf8);
+            }
+            byte[] compressed = new byte[length];
+            System.arraycopy(buffer, 0, compressed, 0, length);
+            return new CompressedContent(compressed, utf8.length, cache);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * The same compressed bytes, inflated through another cache.
+     */
+    CompressedContent withCache(DecompressionCache cache) {
+        return cache == this.cache ? this : new CompressedContent(compressed, size, cache);
+    }
+
+    DecompressionCache cache() {
+        return cache;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void read(int offset, byte[] target, int targetOffset, int length) {
+        System.arraycopy(inflated(), offset, target, targetOffset, length);
+    }
+
+    @Override
+    public boolean isOffHeap() {
+        return false;
+    }
+
+    @Override
+    public Content restore(ContentPolicy policy) {
+        return policy instanceof CompressingPolicy compressing ? withCache(compressing.cache()) : policy.store(inflated());
+    }
+
+    @Override
+    public int storedSize() {
+        return compressed.length;
+    }
+
+    private byte[] inflated() {
+        byte[] bytes = cache.get(this);
+        if (bytes != null) {
+            return bytes;
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            bytes = new byte[size];
+            int length = 0;
+            while (length < size) {
+                int count = inflater.inflate(bytes, length, size - length);
+                if (count == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IllegalStateException("Compressed content is truncated");
+                }
+                length += count;
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Compressed content is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+        cache.put(this, bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,12 @@
+package filesystem.content;
+
+/**
+ * Policy of {@link ContentPolicy#compressed(DecompressionCache)}.
+ */
+record CompressingPolicy(DecompressionCache cache) implements ContentPolicy {
+
+    @Override
+    public Content store(byte[] utf8) {
+        return CompressedContent.deflate(utf8, cache);
+    }
+}
@@ -0,0 +1,83 @@
+package filesystem.content;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Immutable, UTF-8 encoded content of a text file. A write replaces the whole value; where the bytes
+ * live is decided by a {@link ContentPolicy}.
+ */
+public interface Content {
+    Content EMPTY = new HeapContent(new byte[0]);
+
+    /**
+     * Content backed by the remaining bytes of {@code buffer} without copying them, e.g. a region of a
+     * memory-mapped file. The bytes must not change afterwards.
+     */
+    static Content wrap(ByteBuffer buffer) {
+        return buffer.hasRemaining() ? new DirectContent(buffer) : EMPTY;
+    }
+
+    /**
+     * Length in bytes.
+     */
+    int size();
+
+    /**
+     * Bytes actually held for this content, e.g. after compression.
+     */
+    default int storedSize() {
+        return size();
+    }
+
+    /**
+     * Copies {@code length} bytes starting at {@code offset} into {@code target}.
+     */
+    void read(int offset, byte[] target, int targetOffset, int length);
+
+    /**
+     * Whether the bytes are stored outside the Java heap.
+     */
+    boolean isOffHeap();
+
+    /**
+     * Content with {@code data} written over the bytes from {@code offset}, extending it if the data
+     * runs past the end. New or changed bytes are stored by {@code policy}; the cost is proportional to
+     * the size of {@code data}, not of the content.
+     *
+     * @throws IllegalArgumentException if {@code offset} is negative or past the end
+     */
+    default Content writeAt(int offset, byte[] data, ContentPolicy policy) {
+        return ChunkedContent.writeAt(this, offset, data, policy);
+    }
+
+    default Content append(byte[] data, ContentPolicy policy) {
+        return writeAt(size(), data, policy);
+    }
+
+    /**
+     * The first {@code size} bytes of this content.
+     *
+     * @throws IllegalArgumentException if {@code size} is negative or larger than the content
+     */
+    default Content truncate(int size, ContentPolicy policy) {
+        return ChunkedContent.truncate(this, size, policy);
+    }
+
+    /**
+     * The same bytes stored by {@code policy}, e.g. to compress content moved into a zip file.
+     */
+    default Content restore(ContentPolicy policy) {
+        return size() == 0 ? EMPTY : ChunkedContent.of(toByteArray(), policy);
+    }
+
+    default byte[] toByteArray() {
+        byte[] bytes = new byte[size()];
+        read(0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    default String asString() {
+        return new String(toByteArray(), StandardCharsets.UTF_8);
+    }
+}
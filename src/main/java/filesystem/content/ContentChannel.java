@@ -0,0 +1,131 @@
+package filesystem.content;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Seekable view of a text file. Unlike {@link ContentInputStream} it always works on the file's current
+ * content; every write is applied to the file immediately as a positional edit. Writes past the end
+ * and truncation check the size first, so they assume no other thread shrinks the file meanwhile.
+ */
+public final class ContentChannel implements SeekableByteChannel {
+    private final Supplier<Content> reader;
+    private final Consumer<ContentEdit> editor;
+    private long position;
+    private boolean open = true;
+
+    /**
+     * @param reader returns the file's current content
+     * @param editor applies an edit to the file's content
+     */
+    public ContentChannel(Supplier<Content> reader, Consumer<ContentEdit> editor) {
+        this.reader = reader;
+        this.editor = editor;
+    }
+
+    @Override
+    public int read(ByteBuffer target) throws IOException {
+        ensureOpen();
+        Content content = content();
+        if (position >= content.size()) {
+            return -1;
+        }
+        int offset = (int) position;
+        int count = Math.min(target.remaining(), content.size() - offset);
+        if (target.hasArray()) {
+            content.read(offset, target.array(), target.arrayOffset() + target.position(), count);
+            target.position(target.position() + count);
+        } else {
+            byte[] bytes = new byte[count];
+            content.read(offset, bytes, 0, count);
+            target.put(bytes);
+        }
+        position += count;
+        return count;
+    }
+
+    /**
+     * Writes at the current position. Writing past the end fills the gap with zero bytes.
+     */
+    @Override
+    public int write(ByteBuffer source) throws IOException {
+        ensureOpen();
+        int count = source.remaining();
+        if (position + count > Integer.MAX_VALUE) {
+            throw new IOException("Content would exceed " + Integer.MAX_VALUE + " bytes");
+        }
+        byte[] data = new byte[count];
+        source.get(data);
+        int offset = (int) position;
+        int size = content().size();
+        if (offset <= size) {
+            editor.accept(new ContentEdit.WriteAt(offset, data));
+        } else {
+            byte[] padded = new byte[offset - size + count];
+            System.arraycopy(data, 0, padded, padded.length - count, count);
+            editor.accept(new ContentEdit.Append(padded));
+        }
+        position += count;
+        return count;
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position: " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return content().size();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) throws IOException {
+        ensureOpen();
+        if (size < 0) {
+            throw new IllegalArgumentException("Negative size: " + size);
+        }
+        if (size < content().size()) {
+            editor.accept(new ContentEdit.Truncate((int) size));
+        }
+        position = Math.min(position, size);
+        return this;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    private Content content() {
+        Content content = reader.get();
+        return content == null ? Content.EMPTY : content;
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
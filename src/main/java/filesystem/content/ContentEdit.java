@@ -0,0 +1,42 @@
+package filesystem.content;
+
+/**
+ * A change to a text file's content short of replacing it, described as data so that it can be
+ * recorded, e.g. by a {@link filesystem.durable.WriteAheadLog}, and replayed.
+ */
+public sealed interface ContentEdit {
+
+    /**
+     * The edited content, with new or changed bytes stored by {@code policy}.
+     *
+     * @throws IllegalArgumentException if the edit does not fit the content
+     */
+    Content applyTo(Content content, ContentPolicy policy);
+
+    record Append(byte[] data) implements ContentEdit {
+        @Override
+        public Content applyTo(Content content, ContentPolicy policy) {
+            return content.append(data, policy);
+        }
+    }
+
+    /**
+     * Overwrites from {@code offset}, which must not be past the end; see {@link Content#writeAt}.
+     */
+    record WriteAt(int offset, byte[] data) implements ContentEdit {
+        @Override
+        public Content applyTo(Content content, ContentPolicy policy) {
+            return content.writeAt(offset, data, policy);
+        }
+    }
+
+    /**
+     * Keeps the first {@code size} bytes, which must not be more than the content has.
+     */
+    record Truncate(int size) implements ContentEdit {
+        @Override
+        public Content applyTo(Content content, ContentPolicy policy) {
+            return content.truncate(size, policy);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package filesystem.content;
+
+import java.io.InputStream;
+
+/**
+ * Reads one {@link Content} value. Since content is immutable, the stream keeps returning the bytes
+ * the file held when it was opened, whatever is written to the file meanwhile.
+ */
+public final class ContentInputStream extends InputStream {
+    private final Content content;
+    private int position;
+    private int mark;
+
+    public ContentInputStream(Content content) {
+        this.content = content == null ? Content.EMPTY : content;
+    }
+
+    @Override
+    public int read() {
+        if (position >= content.size()) {
+            return -1;
+        }
+        byte[] single = new byte[1];
+        content.read(position++, single, 0, 1);
+        return single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        int count = Math.min(length, content.size() - position);
+        if (count <= 0) {
+            return -1;
+        }
+        content.read(position, target, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public long skip(long n) {
+        int skipped = (int) Math.max(0, Math.min(n, content.size() - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return content.size() - position;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public void mark(int readLimit) {
+        mark = position;
+    }
+
+    @Override
+    public void reset() {
+        position = mark;
+    }
+}
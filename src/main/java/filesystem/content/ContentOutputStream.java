@@ -0,0 +1,76 @@
+package filesystem.content;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Appends to a file through a bounded buffer. Each {@link #flush()} appends the buffered bytes with one
+ * edit, so the content is never rebuilt as a whole.
+ */
+public final class ContentOutputStream extends OutputStream {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Consumer<ContentEdit> editor;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+    private boolean closed;
+
+    /**
+     * @param editor applies an edit to the file's content
+     */
+    public ContentOutputStream(Consumer<ContentEdit> editor) {
+        this.editor = editor;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (count == buffer.length) {
+            flush();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] source, int offset, int length) throws IOException {
+        ensureOpen();
+        if (length > buffer.length - count) {
+            flush();
+        }
+        if (length >= buffer.length) {
+            append(Arrays.copyOfRange(source, offset, offset + length));
+            return;
+        }
+        System.arraycopy(source, offset, buffer, count, length);
+        count += length;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (count > 0) {
+            append(Arrays.copyOf(buffer, count));
+            count = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            flush();
+            closed = true;
+        }
+    }
+
+    private void append(byte[] data) {
+        editor.accept(new ContentEdit.Append(data));
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package filesystem.content;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decides where the bytes of each written text file are stored.
+ */
+@FunctionalInterface
+public interface ContentPolicy {
+
+    /**
+     * Wraps {@code utf8}, which the caller must not modify afterwards.
+     */
+    Content store(byte[] utf8);
+
+    /**
+     * Encodes {@code text}, splitting it into chunks if it is large so that later edits stay cheap.
+     */
+    default Content store(String text) {
+        return text.isEmpty() ? Content.EMPTY : ChunkedContent.of(text.getBytes(StandardCharsets.UTF_8), this);
+    }
+
+    /**
+     * Keeps content in UTF-8 byte arrays on the heap. This is the default.
+     */
+    static ContentPolicy heap() {
+        return HeapContent::new;
+    }
+
+    /**
+     * Keeps all content in direct buffers, outside the heap and invisible to the garbage collector.
+     */
+    static ContentPolicy offHeap() {
+        return DirectContent::new;
+    }
+
+    /**
+     * Deflates content, inflating it on access through {@code cache}. Large content is compressed one
+     * chunk at a time, so a read or edit only inflates the chunks it touches.
+     */
+    static ContentPolicy compressed(DecompressionCache cache) {
+        return new CompressingPolicy(cache);
+    }
+
+    /**
+     * Keeps content of at least {@code thresholdBytes} bytes off the heap and smaller content on it,
+     * since a direct buffer costs more than a small array.
+     */
+    static ContentPolicy offHeapAbove(int thresholdBytes) {
+        if (thresholdBytes < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative: " + thresholdBytes);
+        }
+        return utf8 -> utf8.length >= thresholdBytes ? new DirectContent(utf8) : new HeapContent(utf8);
+    }
+}
@@ -0,0 +1,178 @@
+package filesystem.content;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Content-addressed store that lets text files with identical content share one stored blob.
+ * <p>
+ * Content is keyed by a 64-bit hash of its UTF-8 bytes and by the policy that stored it, so content
+ * compressed inside a zip file is never shared with uncompressed content. Content is only shared once
+ * its bytes compare equal, so hash collisions cost sharing, never correctness. Each blob counts
+ * the files holding it and is dropped from the store when the last of them releases it. Since
+ * content is immutable, a miscount only costs sharing: a dropped blob stays valid for every file
+ * that still holds it.
+ */
+public final class ContentStore {
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final Map<Key, Blob> blobs = new HashMap<>();
+    private final Map<Content, Blob> byContent = new IdentityHashMap<>();
+    private long references;
+    private long uniqueBytes;
+    private long savedBytes;
+
+    /**
+     * Stored content of {@code text}, shared with every other file holding the same text under the
+     * same policy. The caller holds one reference to the result until it calls {@link #release}.
+     */
+    public Content intern(String text, ContentPolicy policy) {
+        if (text.isEmpty()) {
+            return Content.EMPTY;
+        }
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        Key key = new Key(policy, utf8.length, hash(utf8));
+        Blob candidate;
+        synchronized (this) {
+            candidate = blobs.get(key);
+        }
+        // Compared outside the lock, since reading compressed content inflates it.
+        if (candidate != null && sameBytes(candidate.content, utf8)) {
+            synchronized (this) {
+                if (blobs.get(key) == candidate) {
+                    acquire(candidate);
+                    return candidate.content;
+                }
+            }
+        }
+
+        Content content = ChunkedContent.of(utf8, policy);
+        synchronized (this) {
+            if (blobs.containsKey(key)) {
+                // A different text with the same hash, or the same text stored meanwhile by another
+                // thread; either way this copy stays unshared.
+                return content;
+            }
+            Blob blob = new Blob(key, content, content.storedSize());
+            blobs.put(key, blob);
+            byContent.put(content, blob);
+            references++;
+            uniqueBytes += blob.bytes;
+            return content;
+        }
+    }
+
+    /**
+     * Takes another reference to {@code content}, e.g. to keep it while a batch that may roll back
+     * overwrites it. Does nothing for content that is not in the store.
+     */
+    public synchronized void retain(Content content) {
+        Blob blob = content == null ? null : byContent.get(content);
+        if (blob != null) {
+            acquire(blob);
+        }
+    }
+
+    /**
+     * Gives up one reference to {@code content}. Does nothing for content that is not in the store.
+     */
+    public synchronized void release(Content content) {
+        Blob blob = content == null ? null : byContent.get(content);
+        if (blob == null) {
+            return;
+        }
+        references--;
+        if (--blob.references == 0) {
+            blobs.remove(blob.key);
+            byContent.remove(content);
+            uniqueBytes -= blob.bytes;
+        } else {
+            savedBytes -= blob.bytes;
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return blobs.isEmpty();
+    }
+
+    public synchronized DedupStats stats() {
+        return new DedupStats(blobs.size(), references, uniqueBytes, savedBytes);
+    }
+
+    private void acquire(Blob blob) {
+        blob.references++;
+        references++;
+        savedBytes += blob.bytes;
+    }
+
+    private static boolean sameBytes(Content content, byte[] bytes) {
+        if (content.size() != bytes.length) {
+            return false;
+        }
+        byte[] buffer = new byte[Math.min(bytes.length, ChunkedContent.CHUNK_SIZE)];
+        for (int offset = 0; offset < bytes.length; offset += buffer.length) {
+            int length = Math.min(buffer.length, bytes.length - offset);
+            content.read(offset, buffer, 0, length);
+            if (!Arrays.equals(buffer, 0, length, bytes, offset, offset + length)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hashes eight bytes at a time in four independent lanes, several times faster than a
+     * cryptographic digest; equal hashes are confirmed by comparing the bytes.
+     */
+    static long hash(byte[] bytes) {
+        long h0 = PRIME_1;
+        long h1 = PRIME_2;
+        long h2 = 0;
+        long h3 = -PRIME_1;
+        int i = 0;
+        for (; i + 32 <= bytes.length; i += 32) {
+            h0 = round(h0, (long) LONGS.get(bytes, i));
+            h1 = round(h1, (long) LONGS.get(bytes, i + 8));
+            h2 = round(h2, (long) LONGS.get(bytes, i + 16));
+            h3 = round(h3, (long) LONGS.get(bytes, i + 24));
+        }
+        long hash = Long.rotateLeft(h0, 1) + Long.rotateLeft(h1, 7) + Long.rotateLeft(h2, 12) + Long.rotateLeft(h3, 18);
+        for (; i + 8 <= bytes.length; i += 8) {
+            hash = round(hash, (long) LONGS.get(bytes, i));
+        }
+        for (; i < bytes.length; i++) {
+            hash = round(hash, bytes[i]);
+        }
+        hash ^= bytes.length;
+        hash = (hash ^ (hash >>> 33)) * PRIME_2;
+        return hash ^ (hash >>> 29);
+    }
+
+    private static long round(long hash, long input) {
+        return Long.rotateLeft(hash + input * PRIME_2, 31) * PRIME_1;
+    }
+
+    private record Key(ContentPolicy policy, int length, long hash) {
+    }
+
+    private static final class Blob {
+        private final Key key;
+        private final Content content;
+        private final int bytes;
+        private int references = 1;
+
+        private Blob(Key key, Content content, int bytes) {
+            this.key = key;
+            this.content = content;
+            this.bytes = bytes;
+        }
+    }
+}
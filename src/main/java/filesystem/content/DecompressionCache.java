@@ -0,0 +1,62 @@
+package filesystem.content;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used inflated content, bounded by total bytes. Shared by all compressed content
+ * stored with the same {@link ContentPolicy#compressed(DecompressionCache)} policy.
+ */
+public final class DecompressionCache {
+    private final int capacityBytes;
+    private final LinkedHashMap<CompressedContent, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int sizeBytes;
+    private long hits;
+    private long misses;
+
+    public DecompressionCache(int capacityBytes) {
+        if (capacityBytes < 0) {
+            throw new IllegalArgumentException("Cache capacity must not be negative: " + capacityBytes);
+        }
+        this.capacityBytes = capacityBytes;
+    }
+
+    synchronized byte[] get(CompressedContent content) {
+        byte[] bytes = entries.get(content);
+        if (bytes != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return bytes;
+    }
+
+    synchronized void put(CompressedContent content, byte[] bytes) {
+        if (bytes.length > capacityBytes || entries.containsKey(content)) {
+            return;
+        }
+        entries.put(content, bytes);
+        sizeBytes += bytes.length;
+        Iterator<Map.Entry<CompressedContent, byte[]>> eldest = entries.entrySet().iterator();
+        while (sizeBytes > capacityBytes) {
+            sizeBytes -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * Bytes of inflated content currently held.
+     */
+    public synchronized int sizeBytes() {
+        return sizeBytes;
+    }
+}
@@ -0,0 +1,15 @@
+package filesystem.content;
+
+/**
+ * Point-in-time counters of a {@link ContentStore}: how many distinct blobs it holds, how many files
+ * reference them, and the stored bytes they take and save.
+ */
+public record DedupStats(int uniqueBlobs, long references, long uniqueBytes, long savedBytes) {
+
+    /**
+     * Stored bytes the referencing files would take without sharing.
+     */
+    public long logicalBytes() {
+        return uniqueBytes + savedBytes;
+    }
+}
@@ -0,0 +1,36 @@
+package filesystem.content;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Content in a direct buffer. Only the small buffer object is on the heap; the memory is released
+ * when the buffer is collected, and its total is capped by {@code -XX:MaxDirectMemorySize}. A buffer
+ * passed to {@link Content#wrap} may also be a region of a memory-mapped file.
+ */
+final class DirectContent implements Content {
+    private final ByteBuffer buffer;
+
+    DirectContent(byte[] bytes) {
+        this.buffer = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    }
+
+    DirectContent(ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+    @Override
+    public int size() {
+        return buffer.limit();
+    }
+
+    @Override
+    public void read(int offset, byte[] target, int targetOffset, int length) {
+        // Absolute get: never touches the shared position, so concurrent readers are safe.
+        buffer.get(offset, target, targetOffset, length);
+    }
+
+    @Override
+    public boolean isOffHeap() {
+        return buffer.isDirect();
+    }
+}
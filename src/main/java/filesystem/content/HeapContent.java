@@ -0,0 +1,31 @@
+package filesystem.content;
+
+import java.nio.charset.StandardCharsets;
+
+final class HeapContent implements Content {
+    private final byte[] bytes;
+
+    HeapContent(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    @Override
+    public int size() {
+        return bytes.length;
+    }
+
+    @Override
+    public void read(int offset, byte[] target, int targetOffset, int length) {
+        System.arraycopy(bytes, offset, target, targetOffset, length);
+    }
+
+    @Override
+    public boolean isOffHeap() {
+        return false;
+    }
+
+    @Override
+    public String asString() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,671 @@
+package filesystem.durable;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import filesystem.containers.AbstractContainer;
+import filesystem.containers.Container;
+import filesystem.content.Content;
+import filesystem.entities.Drive;
+import filesystem.entities.Folder;
+import filesystem.entities.TextFile;
+import filesystem.entities.ZipFile;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32;
+
+/**
+ * The whole tree of a {@link FileSystem} in one file, for restarting without replaying every change.
+ * <p>
+ * The file holds, with big-endian integers:
+ * <ul>
+ *     <li>a header: magic, CRC-32 of the string table and node region, number of names and drives,
+ *     and where the node and content regions start;</li>
+ *     <li>a string table: the offset of each distinct entity name, then the names in UTF-8;</li>
+ *     <li>a node region: every entity in depth-first pre-order, as its type and name index followed,
+ *     for a container, by its number of children and the length of its descendants' records or, for a
+ *     text file, by the offset and length of its content;</li>
+ *     <li>a content region: the bytes of every distinct content.</li>
+ * </ul>
+ * {@link #load} maps the file and builds the tree straight from the mapping, building large subtrees
+ * in parallel since each container's record says where the next one starts. Content is not read at
+ * all: each text file's content is a view of the mapping, paged in by the operating system on first
+ * read and only copied to the heap when the file is edited.
+ */
+public final class Checkpoint {
+    private static final byte[] MAGIC = "IMFSCKP1".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DELTA_MAGIC = "IMFSDLT1".getBytes(StandardCharsets.US_ASCII);
+    // Magic, checksum, name count, drive count, node region offset, content region offset.
+    private static final int HEADER_SIZE = MAGIC.length + 3 * Integer.BYTES + 2 * Long.BYTES;
+    private static final int SEGMENT_SIZE = 1 << 30;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    // Node bytes below which a subtree is built by the task that reached it; about 4000 entities.
+    private static final int FORK_THRESHOLD = 64 * 1024;
+    private static final long NO_CONTENT = -1;
+
+    private static final byte DRIVE = 1;
+    private static final byte FOLDER = 2;
+    private static final byte ZIP_FILE = 3;
+    private static final byte TEXT_FILE = 4;
+    // Delta records for an entity that is in the checkpoint before: unchanged, changed below, or a file
+    // with new content.
+    private static final byte KEEP = 5;
+    private static final byte PATCH = 6;
+    private static final byte CONTENT = 7;
+    // Type, name index, child count, descendants' length.
+    private static final int CONTAINER_RECORD = 1 + 3 * Integer.BYTES;
+    // Type, name index, content offset, content length.
+    private static final int FILE_RECORD = 1 + Integer.BYTES + Long.BYTES + Integer.BYTES;
+    // Kind, name index.
+    private static final int KEEP_RECORD = 1 + Integer.BYTES;
+    // Kind, name index, whether every child is listed, child count, descendants' length.
+    private static final int PATCH_RECORD = 2 + 3 * Integer.BYTES;
+
+    private Checkpoint() {
+    }
+
+    /**
+     * Writes every drive of {@code fileSystem} to {@code file}. The checkpoint is written next to it and
+     * renamed over it once on disk, so a crash leaves the previous checkpoint intact and file systems
+     * loaded from that one keep their content. Content shared by several files is written once.
+     * <p>
+     * The tree must not change while it is written.
+     */
+    public static void write(FileSystem fileSystem, Path file) throws IOException {
+        write(fileSystem, file, new Writer(false, false));
+    }
+
+    /**
+     * {@link #write} that also marks every entity clean, as the base of later deltas. Changes made
+     * while the file is written are left for the next delta.
+     */
+    static void writeBase(FileSystem fileSystem, Path file) throws IOException {
+        write(fileSystem, file, new Writer(false, true));
+    }
+
+    /**
+     * Writes what changed since the last {@link #writeBase} or {@code writeDelta}. Each entity's changes
+     * are taken as it is visited, so a change made after that is left for the next delta, and are
+     * recorded again if the file cannot be written.
+     * Only changed paths are visited: a container with changes below it lists just the children that
+     * have them, and lists every child only if its own set of children changed.
+     */
+    static void writeDelta(FileSystem fileSystem, Path file) throws IOException {
+        write(fileSystem, file, new Writer(true, true));
+    }
+
+    private static void write(FileSystem fileSystem, Path file, Writer writer) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            for (Drive drive : fileSystem.getDrives()) {
+                writer.add(drive);
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                writer.writeTo(channel);
+                channel.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            // No checkpoint holds the changes, so the next delta must include them.
+            writer.restoreChanges();
+            throw e;
+        }
+    }
+
+    /**
+     * Builds the tree saved in {@code file} into {@code fileSystem}, which must be empty and not yet in
+     * use by other threads. Drives are created through the file system, so listeners see them, but
+     * nothing below them is reported. Loaded content is not shared through
+     * {@link FileSystem#getDedupStats() deduplication} and files inside zip files stay uncompressed
+     * until they are next written.
+     *
+     * @throws IOException if the file cannot be read or is not an intact checkpoint
+     */
+    public static void load(Path file, FileSystem fileSystem) throws IOException {
+        if (!fileSystem.getDrives().isEmpty()) {
+            throw new IllegalArgumentException("File system must be empty");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            new Loader(channel, file, MAGIC).build(fileSystem);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        reindex(fileSystem);
+    }
+
+    /**
+     * Applies a delta written by {@link #writeDelta} to the tree it was written against, leaving the
+     * changed entities clean. Entities it removes are deleted through the file system, so listeners see
+     * those deletions.
+     */
+    static void applyDelta(Path file, FileSystem fileSystem) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            new Loader(channel, file, DELTA_MAGIC).apply(fileSystem);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        reindex(fileSystem);
+    }
+
+    // Loading adds entities to their containers directly, past the file system's indexes.
+    private static void reindex(FileSystem fileSystem) {
+        if (fileSystem.getNameIndex() != null) {
+            fileSystem.indexNames();
+        }
+        if (fileSystem.getTextIndex() != null) {
+            fileSystem.indexText();
+        }
+    }
+
+    private static byte typeOf(FileSystemEntity entity) {
+        return switch (entity.getType()) {
+            case "Drive" -> DRIVE;
+            case "Folder" -> FOLDER;
+            case "ZipFile" -> ZIP_FILE;
+            case "TextFile" -> TEXT_FILE;
+            default -> throw new IllegalArgumentException("Unknown entity type: " + entity.getType());
+        };
+    }
+
+    private static final class Writer {
+        private final Map<String, Integer> nameIndexes = new HashMap<>();
+        private final List<byte[]> names = new ArrayList<>();
+        private int namesLength;
+        private final Map<Content, Long> contentOffsets = new IdentityHashMap<>();
+        private final List<Content> contents = new ArrayList<>();
+        private long contentLength;
+        private ByteBuffer nodes = ByteBuffer.allocate(64 * 1024);
+        private int drives;
+        private final boolean delta;
+        private final boolean markClean;
+        // Changes taken from the entities written, to record again if the checkpoint is not written.
+        private final Map<FileSystemEntity, Byte> taken = new IdentityHashMap<>();
+
+        Writer(boolean delta, boolean markClean) {
+            this.delta = delta;
+            this.markClean = markClean;
+        }
+
+        void add(Drive drive) {
+            if (delta) {
+                addDelta(drive);
+            } else {
+                addNode(drive);
+            }
+            drives++;
+        }
+
+        private void addNode(FileSystemEntity entity) {
+            if (markClean) {
+                take(entity);
+            }
+            addRecord(entity);
+        }
+
+        /**
+         * The record of {@code entity}, whose changes are already taken, and of everything below it.
+         */
+        private void addRecord(FileSystemEntity entity) {
+            byte type = typeOf(entity);
+            if (entity instanceof TextFile file) {
+                Content content = file.getRawContent();
+                reserve(FILE_RECORD);
+                nodes.put(type).putInt(nameIndex(file.getName()));
+                nodes.putLong(content == null ? NO_CONTENT : offsetOf(content)).putInt(content == null ? 0 : content.size());
+                return;
+            }
+
+            reserve(CONTAINER_RECORD);
+            nodes.put(type).putInt(nameIndex(entity.getName()));
+            int countAt = nodes.position();
+            nodes.putInt(0).putInt(0);
+            int start = nodes.position();
+            int count = 0;
+            for (FileSystemEntity child : ((Container) entity).getContents()) {
+                addNode(child);
+                count++;
+            }
+            nodes.putInt(countAt, count).putInt(countAt + Integer.BYTES, nodes.position() - start);
+        }
+
+        private void addDelta(FileSystemEntity entity) {
+            byte changes = take(entity);
+            if ((changes & FileSystemEntity.ADDED) != 0) {
+                addRecord(entity);
+                return;
+            }
+            if (changes == 0) {
+                reserve(KEEP_RECORD);
+                nodes.put(KEEP).putInt(nameIndex(entity.getName()));
+                return;
+            }
+            if (entity instanceof TextFile file) {
+                Content content = file.getRawContent();
+                reserve(FILE_RECORD);
+                nodes.put(CONTENT).putInt(nameIndex(file.getName()));
+                nodes.putLong(content == null ? NO_CONTENT : offsetOf(content)).putInt(content == null ? 0 : content.size());
+                return;
+            }
+
+            boolean listsAll = (changes & FileSystemEntity.CHANGED) != 0;
+            reserve(PATCH_RECORD);
+            nodes.put(PATCH).putInt(nameIndex(entity.getName())).put((byte) (listsAll ? 1 : 0));
+            int countAt = nodes.position();
+            nodes.putInt(0).putInt(0);
+            int start = nodes.position();
+            int count = 0;
+            for (FileSystemEntity child : ((Container) entity).getContents()) {
+                if (listsAll || child.hasChanges()) {
+                    addDelta(child);
+                    count++;
+                }
+            }
+            nodes.putInt(countAt, count).putInt(countAt + Integer.BYTES, nodes.position() - start);
+        }
+
+        /**
+         * Takes the changes of an entity about to be written, before reading anything else of it.
+         */
+        private byte take(FileSystemEntity entity) {
+            byte changes = entity.takeChanges();
+            if (changes != 0) {
+                taken.put(entity, changes);
+            }
+            return changes;
+        }
+
+        /**
+         * Records again every change taken; called if the checkpoint could not be written.
+         */
+        void restoreChanges() {
+            taken.forEach(FileSystemEntity::restoreChanges);
+        }
+
+        private int nameIndex(String name) {
+            Integer index = nameIndexes.get(name);
+            if (index == null) {
+                byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+                index = names.size();
+                nameIndexes.put(name, index);
+                names.add(utf8);
+                namesLength += utf8.length;
+            }
+            return index;
+        }
+
+        private long offsetOf(Content content) {
+            if (content.size() == 0) {
+                return 0;
+            }
+            Long offset = contentOffsets.get(content);
+            if (offset == null) {
+                offset = contentLength;
+                contentOffsets.put(content, offset);
+                contents.add(content);
+                contentLength += content.size();
+            }
+            return offset;
+        }
+
+        private void reserve(int bytes) {
+            if (nodes.remaining() < bytes) {
+                int capacity = Math.max(nodes.capacity() * 2, nodes.position() + bytes);
+                if (capacity < 0 || capacity > Integer.MAX_VALUE - HEADER_SIZE) {
+                    throw new IllegalStateException("Tree is too large for a checkpoint");
+                }
+                nodes = ByteBuffer.wrap(Arrays.copyOf(nodes.array(), capacity)).position(nodes.position());
+            }
+        }
+
+        void writeTo(FileChannel channel) throws IOException {
+            ByteBuffer strings = ByteBuffer.allocate((names.size() + 1) * Integer.BYTES + namesLength);
+            int offset = 0;
+            for (byte[] name : names) {
+                strings.putInt(offset);
+                offset += name.length;
+            }
+            strings.putInt(offset);
+            for (byte[] name : names) {
+                strings.put(name);
+            }
+            strings.flip();
+            nodes.flip();
+
+            long nodesOffset = HEADER_SIZE + (long) strings.remaining();
+            long contentOffset = nodesOffset + nodes.remaining();
+            if (contentOffset > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Tree is too large for a checkpoint");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(strings.duplicate());
+            crc.update(nodes.duplicate());
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .put(delta ? DELTA_MAGIC : MAGIC)
+                    .putInt((int) crc.getValue())
+                    .putInt(names.size())
+                    .putInt(drives)
+                    .putLong(nodesOffset)
+                    .putLong(contentOffset)
+                    .flip();
+
+            ByteBuffer[] metadata = {header, strings, nodes};
+            long remaining = contentOffset;
+            while (remaining > 0) {
+                remaining -= channel.write(metadata);
+            }
+
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), COPY_BUFFER_SIZE);
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            for (Content content : contents) {
+                for (int from = 0; from < content.size(); from += buffer.length) {
+                    int length = Math.min(buffer.length, content.size() - from);
+                    content.read(from, buffer, 0, length);
+                    out.write(buffer, 0, length);
+                }
+            }
+            out.flush();
+        }
+    }
+
+    private static final class Loader {
+        private final FileChannel channel;
+        private final int driveCount;
+        private final int nodesOffset;
+        private final long contentOffset;
+        private final long contentLength;
+        private final MappedByteBuffer metadata;
+        private final MappedByteBuffer[] segments;
+        // Decoded on first use; a race only decodes a name twice.
+        private final String[] names;
+        private final int namesOffset;
+
+        Loader(FileChannel channel, Path file, byte[] expectedMagic) throws IOException {
+            this.channel = channel;
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not a checkpoint: " + file);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new EOFException("Checkpoint truncated: " + file);
+                }
+            }
+            byte[] magic = new byte[MAGIC.length];
+            header.flip().get(magic);
+            if (!Arrays.equals(magic, expectedMagic)) {
+                throw new IOException("Not a checkpoint: " + file);
+            }
+            int checksum = header.getInt();
+            int nameCount = header.getInt();
+            this.driveCount = header.getInt();
+            long nodes = header.getLong();
+            this.contentOffset = header.getLong();
+            long namesAt = HEADER_SIZE + (nameCount + 1L) * Integer.BYTES;
+            if (nameCount < 0 || driveCount < 0 || nodes < namesAt || contentOffset < nodes
+                    || contentOffset > Math.min(size, Integer.MAX_VALUE)) {
+                throw new IOException("Corrupt checkpoint: " + file);
+            }
+            this.nodesOffset = (int) nodes;
+            this.namesOffset = (int) namesAt;
+            this.contentLength = size - contentOffset;
+
+            this.metadata = channel.map(FileChannel.MapMode.READ_ONLY, 0, contentOffset);
+            CRC32 crc = new CRC32();
+            crc.update(metadata.slice(HEADER_SIZE, (int) contentOffset - HEADER_SIZE));
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Corrupt checkpoint: " + file);
+            }
+            this.names = new String[nameCount];
+
+            this.segments = new MappedByteBuffer[(int) ((contentLength + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; i++) {
+                long from = (long) i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, contentOffset + from,
+                        Math.min(SEGMENT_SIZE, contentLength - from));
+            }
+        }
+
+        void build(FileSystem fileSystem) {
+            List<BuildTask> tasks = new ArrayList<>(driveCount);
+            int position = nodesOffset;
+            for (int i = 0; i < driveCount; i++) {
+                if (metadata.get(position) != DRIVE) {
+                    throw new IllegalStateException("Corrupt checkpoint: expected a drive");
+                }
+                String name = name(metadata.getInt(position + 1));
+                fileSystem.create("Drive", name, null);
+                tasks.add(new BuildTask(this, fileSystem.findDrive(name), position));
+                position += recordLength(position);
+            }
+            ForkJoinTask.invokeAll(tasks);
+        }
+
+        void apply(FileSystem fileSystem) {
+            Set<String> listed = new HashSet<>();
+            int position = nodesOffset;
+            for (int i = 0; i < driveCount; i++) {
+                listed.add(name(metadata.getInt(position + 1)));
+                position += recordLength(position);
+            }
+            for (Drive drive : List.copyOf(fileSystem.getDrives())) {
+                if (!listed.contains(drive.getName())) {
+                    fileSystem.delete(drive.getName());
+                }
+            }
+
+            position = nodesOffset;
+            for (int i = 0; i < driveCount; i++) {
+                byte kind = metadata.get(position);
+                String name = name(metadata.getInt(position + 1));
+                if (kind == DRIVE) {
+                    if (fileSystem.findDrive(name) != null) {
+                        fileSystem.delete(name);
+                    }
+                    fileSystem.create("Drive", name, null);
+                    new BuildTask(this, fileSystem.findDrive(name), position).invoke();
+                } else if (kind == PATCH) {
+                    patch(fileSystem, existing(fileSystem.findDrive(name), name), position);
+                } else if (kind != KEEP) {
+                    throw new IllegalStateException("Corrupt checkpoint: expected a drive");
+                }
+                position += recordLength(position);
+            }
+        }
+
+        private void patch(FileSystem fileSystem, AbstractContainer container, int position) {
+            boolean listsAll = metadata.get(position + 1 + Integer.BYTES) != 0;
+            int count = metadata.getInt(position + 2 + Integer.BYTES);
+            int first = position + PATCH_RECORD;
+            if (listsAll) {
+                Set<String> listed = new HashSet<>();
+                for (int i = 0, child = first; i < count; i++, child += recordLength(child)) {
+                    listed.add(name(metadata.getInt(child + 1)));
+                }
+                // Deleted through the file system, which releases their content and forgets them in its
+                // indexes and lookup cache.
+                for (FileSystemEntity entity : List.copyOf(container.getContents())) {
+                    if (!listed.contains(entity.getName())) {
+                        fileSystem.delete(entity.getPath());
+                    }
+                }
+            }
+
+            for (int i = 0, child = first; i < count; i++, child += recordLength(child)) {
+                byte kind = metadata.get(child);
+                String name = name(metadata.getInt(child + 1));
+                switch (kind) {
+                    case KEEP -> {
+                    }
+                    case PATCH -> patch(fileSystem, (AbstractContainer) existing(container.getEntity(name), name), child);
+                    case CONTENT -> {
+                        FileSystemEntity file = existing(container.getEntity(name), name);
+                        ((TextFile) file).setRawContent(contentAt(child));
+                        file.markClean();
+                    }
+                    default -> {
+                        FileSystemEntity replaced = container.getEntity(name);
+                        if (replaced != null) {
+                            fileSystem.delete(replaced.getPath());
+                        }
+                        FileSystemEntity entity = entityAt(child);
+                        container.addEntity(entity);
+                        if (entity instanceof AbstractContainer added) {
+                            new BuildTask(this, added, child).invoke();
+                        } else {
+                            entity.markClean();
+                        }
+                    }
+                }
+            }
+            container.markClean();
+        }
+
+        private static <T extends FileSystemEntity> T existing(T entity, String name) {
+            if (entity == null) {
+                throw new IllegalStateException("Delta does not match its base: no entity " + name);
+            }
+            return entity;
+        }
+
+        /**
+         * Creates the entity whose full record is at {@code position}, without its children.
+         */
+        FileSystemEntity entityAt(int position) {
+            byte type = metadata.get(position);
+            String name = name(metadata.getInt(position + 1));
+            return switch (type) {
+                case FOLDER -> new Folder(name);
+                case ZIP_FILE -> new ZipFile(name);
+                case TEXT_FILE -> {
+                    TextFile file = new TextFile(name);
+                    file.setRawContent(contentAt(position));
+                    yield file;
+                }
+                default -> throw new IllegalStateException("Corrupt checkpoint: entity type " + type);
+            };
+        }
+
+        /**
+         * Length of the record at {@code position} including its descendants'.
+         */
+        int recordLength(int position) {
+            return switch (metadata.get(position)) {
+                case TEXT_FILE, CONTENT -> FILE_RECORD;
+                case KEEP -> KEEP_RECORD;
+                case PATCH -> PATCH_RECORD + metadata.getInt(position + 2 + 2 * Integer.BYTES);
+                default -> CONTAINER_RECORD + metadata.getInt(position + 1 + 2 * Integer.BYTES);
+            };
+        }
+
+        private Content contentAt(int position) {
+            long offset = metadata.getLong(position + 1 + Integer.BYTES);
+            int length = metadata.getInt(position + 1 + Integer.BYTES + Long.BYTES);
+            return offset == NO_CONTENT ? null : content(offset, length);
+        }
+
+        String name(int index) {
+            String name = names[index];
+            if (name == null) {
+                int at = HEADER_SIZE + index * Integer.BYTES;
+                int from = metadata.getInt(at);
+                byte[] utf8 = new byte[metadata.getInt(at + Integer.BYTES) - from];
+                metadata.get(namesOffset + from, utf8);
+                name = new String(utf8, StandardCharsets.UTF_8);
+                names[index] = name;
+            }
+            return name;
+        }
+
+        Content content(long offset, int length) {
+            if (length == 0) {
+                return Content.EMPTY;
+            }
+            if (offset < 0 || offset + length > contentLength) {
+                throw new IllegalStateException("Corrupt checkpoint: content out of range");
+            }
+            MappedByteBuffer segment = segments[(int) (offset / SEGMENT_SIZE)];
+            int within = (int) (offset % SEGMENT_SIZE);
+            if (within + length <= segment.capacity()) {
+                return Content.wrap(segment.slice(within, length));
+            }
+            // Straddles two segments: give it a mapping of its own.
+            try {
+                return Content.wrap(channel.map(FileChannel.MapMode.READ_ONLY, contentOffset + offset, length));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Adds the children of the container whose record is at {@code position}, forking a task for each
+     * child container with a large subtree, and leaves them all clean.
+     */
+    private static final class BuildTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Loader loader;
+        private final AbstractContainer container;
+        private final int position;
+
+        BuildTask(Loader loader, AbstractContainer container, int position) {
+            this.loader = loader;
+            this.container = container;
+            this.position = position;
+        }
+
+        @Override
+        protected void compute() {
+            ByteBuffer nodes = loader.metadata;
+            int count = nodes.getInt(position + 1 + Integer.BYTES);
+            int child = position + CONTAINER_RECORD;
+            List<BuildTask> forked = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                FileSystemEntity entity = loader.entityAt(child);
+                container.addEntity(entity);
+                int length = loader.recordLength(child);
+                if (entity instanceof AbstractContainer childContainer) {
+                    BuildTask task = new BuildTask(loader, childContainer, child);
+                    if (length - CONTAINER_RECORD >= FORK_THRESHOLD) {
+                        forked.add(task);
+                        task.fork();
+                    } else {
+                        task.compute();
+                    }
+                } else {
+                    entity.markClean();
+                }
+                child += length;
+            }
+            for (BuildTask task : forked) {
+                task.join();
+            }
+            // After the joins, so no descendant marks this container again.
+            container.markClean();
+        }
+    }
+}
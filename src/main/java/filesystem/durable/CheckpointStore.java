@@ -0,0 +1,242 @@
+package filesystem.durable;
+
+import filesystem.api.FileSystem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Incremental checkpoints of a {@link FileSystem}: a full {@link Checkpoint} as the base, followed by
+ * deltas holding only what changed since the checkpoint before them.
+ * <p>
+ * Entities record their own changes as they are mutated (see
+ * {@link filesystem.api.FileSystemEntity#markChanged}), and every changed entity marks its ancestors, so
+ * writing a delta only visits the changed paths: its cost follows the size of the change, not of the
+ * tree. Once {@code compactAfter} deltas have piled up, a background thread merges them and their base
+ * into a new base, reading only the files, so opening the store never applies many deltas.
+ * <p>
+ * Files are named by a sequence number, {@code base-N.ckpt} covering everything up to delta {@code N}.
+ * Each is written to a temporary file and renamed into place, so a crash at any point leaves a
+ * loadable store.
+ * <p>
+ * Only one store may track a file system. The tree must not change while a checkpoint walks it to
+ * collect what to write; a change made once the walk has passed an entity, including while the file is
+ * written, goes into the next delta.
+ */
+public final class CheckpointStore implements Closeable {
+    public static final int DEFAULT_COMPACT_AFTER = 8;
+
+    private static final String BASE_PREFIX = "base-";
+    private static final String DELTA_PREFIX = "delta-";
+    private static final String SUFFIX = ".ckpt";
+
+    private final FileSystem fileSystem;
+    private final Path directory;
+    private final int compactAfter;
+    private final ExecutorService compactor;
+
+    // Guarded by this. base is 0 while there is none; deltas are the ones on top of it, in order.
+    private long base;
+    private final List<Long> deltas = new ArrayList<>();
+    private long next;
+    private Future<Long> compaction;
+
+    private CheckpointStore(FileSystem fileSystem, Path directory, int compactAfter) {
+        this.fileSystem = fileSystem;
+        this.directory = directory;
+        this.compactAfter = compactAfter;
+        this.compactor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "checkpoint-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * {@link #open(FileSystem, Path, int)} compacting after {@value #DEFAULT_COMPACT_AFTER} deltas.
+     */
+    public static CheckpointStore open(FileSystem fileSystem, Path directory) throws IOException {
+        return open(fileSystem, directory, DEFAULT_COMPACT_AFTER);
+    }
+
+    /**
+     * Loads the newest base in {@code directory} and the deltas written after it into
+     * {@code fileSystem}, which must be empty, then tracks its changes. Creates the directory if it does
+     * not exist and removes files left behind by an interrupted compaction.
+     *
+     * @throws IOException if the directory cannot be read or holds a damaged checkpoint
+     */
+    public static CheckpointStore open(FileSystem fileSystem, Path directory, int compactAfter) throws IOException {
+        if (compactAfter < 1) {
+            throw new IllegalArgumentException("compactAfter must be positive: " + compactAfter);
+        }
+        if (!fileSystem.getDrives().isEmpty()) {
+            throw new IllegalArgumentException("File system must be empty");
+        }
+        Files.createDirectories(directory);
+        CheckpointStore store = new CheckpointStore(fileSystem, directory, compactAfter);
+        store.restore();
+        return store;
+    }
+
+    private void restore() throws IOException {
+        List<Long> bases = new ArrayList<>();
+        List<Long> found = new ArrayList<>();
+        List<Path> stale = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SUFFIX + ".tmp")) {
+                    stale.add(file);
+                } else if (name.endsWith(SUFFIX) && name.startsWith(BASE_PREFIX)) {
+                    bases.add(sequence(name, BASE_PREFIX));
+                } else if (name.endsWith(SUFFIX) && name.startsWith(DELTA_PREFIX)) {
+                    found.add(sequence(name, DELTA_PREFIX));
+                }
+            }
+        }
+        if (bases.isEmpty() && !found.isEmpty()) {
+            throw new IOException("Checkpoint deltas without a base in " + directory);
+        }
+
+        base = bases.stream().mapToLong(Long::longValue).max().orElse(0);
+        found.sort(null);
+        for (long delta : found) {
+            if (delta > base) {
+                deltas.add(delta);
+            } else {
+                stale.add(path(DELTA_PREFIX, delta));
+            }
+        }
+        for (long older : bases) {
+            if (older != base) {
+                stale.add(path(BASE_PREFIX, older));
+            }
+        }
+        next = Math.max(base, deltas.isEmpty() ? 0 : deltas.get(deltas.size() - 1)) + 1;
+
+        if (base != 0) {
+            Checkpoint.load(path(BASE_PREFIX, base), fileSystem);
+            for (long delta : deltas) {
+                Checkpoint.applyDelta(path(DELTA_PREFIX, delta), fileSystem);
+            }
+        }
+        for (Path file : stale) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Writes everything changed since the last checkpoint as a delta, or the whole tree if there is no
+     * base yet, and starts a compaction in the background once enough deltas have piled up.
+     *
+     * @throws IOException if the checkpoint, or the last compaction, could not be written
+     */
+    public synchronized void checkpoint() throws IOException {
+        finishCompaction(false);
+        long sequence = next++;
+        if (base == 0) {
+            Checkpoint.writeBase(fileSystem, path(BASE_PREFIX, sequence));
+            base = sequence;
+        } else {
+            Checkpoint.writeDelta(fileSystem, path(DELTA_PREFIX, sequence));
+            deltas.add(sequence);
+        }
+        if (deltas.size() >= compactAfter && compaction == null) {
+            long compactedBase = base;
+            List<Long> compacted = List.copyOf(deltas);
+            compaction = compactor.submit(() -> compact(compactedBase, compacted));
+        }
+    }
+
+    /**
+     * Number of deltas on top of the current base, as of the last checkpoint.
+     */
+    public synchronized int deltaCount() {
+        return deltas.size();
+    }
+
+    /**
+     * Waits for a running compaction and stops compacting. Does not write a checkpoint.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        compactor.shutdown();
+        finishCompaction(true);
+    }
+
+    /**
+     * Merges {@code compactedBase} and {@code compacted} into a new base named after the last delta, in
+     * a scratch file system whose content stays mapped from the files being merged. Touches no state
+     * of the store; the caller of {@link #finishCompaction} switches to the new base.
+     *
+     * @return the sequence number of the new base
+     */
+    private long compact(long compactedBase, List<Long> compacted) throws IOException {
+        FileSystem merged = new FileSystem();
+        Checkpoint.load(path(BASE_PREFIX, compactedBase), merged);
+        for (long delta : compacted) {
+            Checkpoint.applyDelta(path(DELTA_PREFIX, delta), merged);
+        }
+        long last = compacted.get(compacted.size() - 1);
+        Checkpoint.write(merged, path(BASE_PREFIX, last));
+
+        Files.deleteIfExists(path(BASE_PREFIX, compactedBase));
+        for (long delta : compacted) {
+            Files.deleteIfExists(path(DELTA_PREFIX, delta));
+        }
+        return last;
+    }
+
+    /**
+     * Switches to the base written by a finished compaction, or rethrows its failure; with
+     * {@code wait}, first waits for a running one.
+     */
+    private void finishCompaction(boolean wait) throws IOException {
+        if (compaction == null || (!wait && !compaction.isDone())) {
+            return;
+        }
+        Future<Long> finished = compaction;
+        compaction = null;
+        long compactedTo;
+        try {
+            compactedTo = finished.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a compaction");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IllegalStateException("Compaction failed", e.getCause());
+        }
+        base = compactedTo;
+        deltas.removeIf(delta -> delta <= compactedTo);
+    }
+
+    private Path path(String prefix, long sequence) {
+        return directory.resolve(prefix + sequence + SUFFIX);
+    }
+
+    private static long sequence(String name, String prefix) throws IOException {
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IOException("Unexpected checkpoint file: " + name);
+        }
+    }
+}
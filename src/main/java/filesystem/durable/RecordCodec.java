@@ -0,0 +1,246 @@
+package filesystem.durable;
+
+import filesystem.api.FileSystemOperation;
+import filesystem.content.ContentEdit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Binary form of the records in a {@link WriteAheadLog}. A record is its payload length as a varint,
+ * the CRC-32 of the payload and the payload: an opcode followed by the operation's fields. Integers
+ * are varints and strings are UTF-8 prefixed with their length plus one, zero standing for
+ * {@code null}.
+ */
+final class RecordCodec {
+    private static final int CREATE = 1;
+    private static final int DELETE = 2;
+    private static final int MOVE = 3;
+    private static final int WRITE = 4;
+    private static final int APPEND = 5;
+    private static final int WRITE_AT = 6;
+    private static final int TRUNCATE = 7;
+    private static final int COPY = 8;
+
+    private RecordCodec() {
+    }
+
+    static byte[] encode(FileSystemOperation operation) {
+        Buffer payload = new Buffer();
+        if (operation instanceof FileSystemOperation.Create create) {
+            payload.write(CREATE);
+            payload.writeString(create.type());
+            payload.writeString(create.name());
+            payload.writeString(create.parentPath());
+        } else if (operation instanceof FileSystemOperation.Delete delete) {
+            payload.write(DELETE);
+            payload.writeString(delete.path());
+        } else if (operation instanceof FileSystemOperation.Move move) {
+            payload.write(MOVE);
+            payload.writeString(move.sourcePath());
+            payload.writeString(move.destPath());
+        } else if (operation instanceof FileSystemOperation.Copy copy) {
+            payload.write(COPY);
+            payload.writeString(copy.sourcePath());
+            payload.writeString(copy.destPath());
+        } else if (operation instanceof FileSystemOperation.Write write) {
+            payload.write(WRITE);
+            payload.writeString(write.path());
+            payload.writeString(write.content());
+        } else if (operation instanceof FileSystemOperation.Edit edit) {
+            encodeEdit(edit, payload);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.array(), 0, payload.size());
+        Buffer record = new Buffer();
+        record.writeVarint(payload.size());
+        record.writeInt((int) crc.getValue());
+        record.write(payload.array(), 0, payload.size());
+        return record.toByteArray();
+    }
+
+    private static void encodeEdit(FileSystemOperation.Edit edit, Buffer payload) {
+        ContentEdit contentEdit = edit.edit();
+        if (contentEdit instanceof ContentEdit.Append append) {
+            payload.write(APPEND);
+            payload.writeString(edit.path());
+            payload.writeByteArray(append.data());
+        } else if (contentEdit instanceof ContentEdit.WriteAt writeAt) {
+            payload.write(WRITE_AT);
+            payload.writeString(edit.path());
+            payload.writeVarint(writeAt.offset());
+            payload.writeByteArray(writeAt.data());
+        } else if (contentEdit instanceof ContentEdit.Truncate truncate) {
+            payload.write(TRUNCATE);
+            payload.writeString(edit.path());
+            payload.writeVarint(truncate.size());
+        }
+    }
+
+    /**
+     * Reads the payload of the next record, which starts {@code available} bytes before the end of
+     * the log.
+     *
+     * @return {@code null} at a clean end of the log
+     * @throws EOFException if the log ends inside a record
+     * @throws IOException  if the record fails its checksum
+     */
+    static byte[] readPayload(DataInputStream in, long available) throws IOException {
+        int first = in.read();
+        if (first == -1) {
+            return null;
+        }
+        int length = readVarint(in, first);
+        if (length > available) {
+            // A torn length; do not allocate for it.
+            throw new EOFException("Record runs past the end of the log");
+        }
+        int checksum = in.readInt();
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Record checksum mismatch");
+        }
+        return payload;
+    }
+
+    static int recordLength(byte[] payload) {
+        return varintLength(payload.length) + Integer.BYTES + payload.length;
+    }
+
+    static FileSystemOperation decode(byte[] payload) throws IOException {
+        Reader in = new Reader(payload);
+        int opcode = in.read();
+        return switch (opcode) {
+            case CREATE -> new FileSystemOperation.Create(in.readString(), in.readString(), in.readString());
+            case DELETE -> new FileSystemOperation.Delete(in.readString());
+            case MOVE -> new FileSystemOperation.Move(in.readString(), in.readString());
+            case COPY -> new FileSystemOperation.Copy(in.readString(), in.readString());
+            case WRITE -> new FileSystemOperation.Write(in.readString(), in.readString());
+            case APPEND -> new FileSystemOperation.Edit(in.readString(), new ContentEdit.Append(in.readBytes()));
+            case WRITE_AT -> {
+                String path = in.readString();
+                int offset = in.readVarint();
+                yield new FileSystemOperation.Edit(path, new ContentEdit.WriteAt(offset, in.readBytes()));
+            }
+            case TRUNCATE -> new FileSystemOperation.Edit(in.readString(), new ContentEdit.Truncate(in.readVarint()));
+            default -> throw new IOException("Unknown record type: " + opcode);
+        };
+    }
+
+    private static int readVarint(DataInputStream in, int first) throws IOException {
+        int value = first & 0x7F;
+        int b = first;
+        for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+            if (shift > 28) {
+                throw new IOException("Malformed record length");
+            }
+            b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+        }
+        return value;
+    }
+
+    private static int varintLength(int value) {
+        int length = 1;
+        while ((value >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        byte[] array() {
+            return buf;
+        }
+
+        void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        void writeByteArray(byte[] bytes) {
+            writeVarint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(utf8.length + 1);
+            write(utf8, 0, utf8.length);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int read() throws IOException {
+            if (position == bytes.length) {
+                throw new IOException("Truncated record");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = read();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        byte[] readBytes() throws IOException {
+            int length = readVarint();
+            if (length > bytes.length - position) {
+                throw new IOException("Truncated record");
+            }
+            byte[] value = new byte[length];
+            System.arraycopy(bytes, position, value, 0, length);
+            position += length;
+            return value;
+        }
+
+        String readString() throws IOException {
+            int length = readVarint();
+            if (length == 0) {
+                return null;
+            }
+            if (length - 1 > bytes.length - position) {
+                throw new IOException("Truncated record");
+            }
+            String value = new String(bytes, position, length - 1, StandardCharsets.UTF_8);
+            position += length - 1;
+            return value;
+        }
+    }
+}
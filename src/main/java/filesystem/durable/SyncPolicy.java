@@ -0,0 +1,47 @@
+package filesystem.durable;
+
+import java.time.Duration;
+
+/**
+ * When a {@link WriteAheadLog} forces its records to disk, trading latency against how much a crash
+ * can lose.
+ */
+public sealed interface SyncPolicy {
+
+    /**
+     * Every record is forced on its own and each call returns once its records are on disk. Nothing
+     * acknowledged is lost, but concurrent writers wait for each other's syncs.
+     */
+    static SyncPolicy perOperation() {
+        return new PerOperation();
+    }
+
+    /**
+     * Group commit: the records queued while the previous sync ran are written and forced together,
+     * and each call returns once its records are on disk. Nothing acknowledged is lost, and concurrent
+     * writers share syncs.
+     */
+    static SyncPolicy perBatch() {
+        return new PerBatch();
+    }
+
+    /**
+     * Records are written as they arrive and forced at most every {@code interval}; calls never wait.
+     * A crash loses at most the last interval.
+     */
+    static SyncPolicy interval(Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Interval must be positive: " + interval);
+        }
+        return new Interval(interval);
+    }
+
+    record PerOperation() implements SyncPolicy {
+    }
+
+    record PerBatch() implements SyncPolicy {
+    }
+
+    record Interval(Duration interval) implements SyncPolicy {
+    }
+}
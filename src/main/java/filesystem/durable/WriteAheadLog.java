@@ -0,0 +1,346 @@
+package filesystem.durable;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemListener;
+import filesystem.api.FileSystemOperation;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Makes a {@link FileSystem} durable by appending every change to a log file, which is replayed the
+ * next time the log is opened.
+ * <p>
+ * Changes are encoded on the writing thread and handed to a background writer, so the file system's
+ * locks are never held across disk I/O and readers are never delayed. The {@link SyncPolicy} decides
+ * when records are forced to disk and whether a call waits for that. Records carry a checksum; a record
+ * torn by a crash is cut off when the log is next opened.
+ * <p>
+ * If the log cannot be written, the change that failed stays applied in memory and the call throws an
+ * {@link UncheckedIOException}, as does every later change until the log is closed.
+ */
+public final class WriteAheadLog implements FileSystemListener, Closeable {
+    private static final byte[] HEADER = "IMFSWAL1".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_PENDING_BYTES = 8 * 1024 * 1024;
+
+    private final FileSystem fileSystem;
+    private final FileChannel channel;
+    private final SyncPolicy policy;
+    private final boolean callersWait;
+    private final long intervalNanos;
+    private final Thread writer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition queued = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+    private List<byte[]> pending = new ArrayList<>();
+    private long pendingBytes;
+    private long appendedRecords;
+    private long syncedRecords;
+    private long syncs;
+    private IOException failure;
+    private boolean closed;
+
+    private WriteAheadLog(FileSystem fileSystem, FileChannel channel, SyncPolicy policy) {
+        this.fileSystem = fileSystem;
+        this.channel = channel;
+        this.policy = policy;
+        this.callersWait = !(policy instanceof SyncPolicy.Interval);
+        this.intervalNanos = policy instanceof SyncPolicy.Interval interval ? interval.interval().toNanos() : 0;
+        this.writer = new Thread(this::writeLoop, "write-ahead-log");
+        writer.setDaemon(true);
+    }
+
+    /**
+     * Replays the log at {@code file} into {@code fileSystem}, which should be empty, then logs every
+     * further change to it. Creates the file if it does not exist.
+     * <p>
+     * Every logged change applied when it was made, since changes are logged in the order they were
+     * made to each container and file. One that does not apply during replay means that
+     * {@code fileSystem} was not empty or the log was damaged without breaking a checksum; replay then
+     * stops there, leaving the changes before it applied.
+     *
+     * @throws IOException if the file cannot be read or written, is not a write-ahead log, or holds a
+     *                     change that does not apply
+     */
+    public static WriteAheadLog open(FileSystem fileSystem, Path file, SyncPolicy policy) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                channel.write(ByteBuffer.wrap(HEADER));
+                channel.force(false);
+            } else {
+                long end = replay(channel, fileSystem, file);
+                if (end < channel.size()) {
+                    channel.truncate(end);
+                    channel.force(false);
+                }
+            }
+            channel.position(channel.size());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        WriteAheadLog log = new WriteAheadLog(fileSystem, channel, policy);
+        log.writer.start();
+        fileSystem.addListener(log);
+        return log;
+    }
+
+    /**
+     * @return the offset just past the last intact record
+     */
+    private static long replay(FileChannel channel, FileSystem fileSystem, Path file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+        byte[] header = new byte[HEADER.length];
+        try {
+            in.readFully(header);
+        } catch (EOFException e) {
+            header = null;
+        }
+        if (!Arrays.equals(header, HEADER)) {
+            throw new IOException("Not a write-ahead log: " + file);
+        }
+
+        long end = HEADER.length;
+        while (true) {
+            byte[] payload;
+            try {
+                payload = RecordCodec.readPayload(in, channel.size() - end);
+            } catch (IOException e) {
+                // Torn or corrupt tail left by a crash; everything after it is discarded.
+                return end;
+            }
+            if (payload == null) {
+                return end;
+            }
+            FileSystemOperation operation = RecordCodec.decode(payload);
+            try {
+                fileSystem.apply(List.of(operation));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Record at offset " + end + " of " + file + " does not apply: " + operation, e);
+            }
+            end += RecordCodec.recordLength(payload);
+        }
+    }
+
+    @Override
+    public void applied(FileSystemOperation operation) {
+        byte[] record = RecordCodec.encode(operation);
+        lock.lock();
+        try {
+            checkUsable();
+            pending.add(record);
+            pendingBytes += record.length;
+            appendedRecords++;
+            queued.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the caller's changes are on disk. With {@link SyncPolicy#interval} it only waits while
+     * the writer is more than {@value #MAX_PENDING_BYTES} bytes behind, so memory stays bounded.
+     */
+    @Override
+    public void completed() {
+        lock.lock();
+        try {
+            if (!callersWait) {
+                while (pendingBytes > MAX_PENDING_BYTES && failure == null && !closed) {
+                    drained.awaitUninterruptibly();
+                }
+                return;
+            }
+            long target = appendedRecords;
+            while (syncedRecords < target && failure == null) {
+                synced.awaitUninterruptibly();
+            }
+            if (syncedRecords < target) {
+                checkUsable();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of records logged since this log was opened.
+     */
+    public long records() {
+        lock.lock();
+        try {
+            return appendedRecords;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of times the log was forced to disk since it was opened.
+     */
+    public long syncs() {
+        lock.lock();
+        try {
+            return syncs;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops logging, forces every queued record to disk and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        fileSystem.removeListener(this);
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queued.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while flushing the write-ahead log");
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void writeLoop() {
+        long lastSync = System.nanoTime();
+        long unsynced = 0;
+        try {
+            while (true) {
+                List<byte[]> batch;
+                boolean stopping;
+                lock.lock();
+                try {
+                    while (pending.isEmpty() && !closed) {
+                        if (unsynced == 0) {
+                            queued.awaitUninterruptibly();
+                        } else {
+                            long remaining = intervalNanos - (System.nanoTime() - lastSync);
+                            if (remaining <= 0) {
+                                break;
+                            }
+                            queued.awaitNanos(remaining);
+                        }
+                    }
+                    batch = pending;
+                    pending = new ArrayList<>();
+                    pendingBytes = 0;
+                    drained.signalAll();
+                    stopping = closed;
+                } finally {
+                    lock.unlock();
+                }
+
+                if (policy instanceof SyncPolicy.PerOperation) {
+                    for (byte[] record : batch) {
+                        write(List.of(record));
+                        sync(1);
+                    }
+                } else {
+                    write(batch);
+                    unsynced += batch.size();
+                    if (callersWait || stopping || System.nanoTime() - lastSync >= intervalNanos) {
+                        sync(unsynced);
+                        unsynced = 0;
+                        lastSync = System.nanoTime();
+                    }
+                }
+                if (stopping) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(new InterruptedIOException("Write-ahead log writer was interrupted"));
+        } catch (RuntimeException e) {
+            fail(new IOException("Write-ahead log writer failed", e));
+        }
+    }
+
+    /**
+     * Records why the writer stopped and wakes every caller waiting on it, so that they and every later
+     * change fail instead of waiting for records that will never be written.
+     */
+    private void fail(IOException e) {
+        lock.lock();
+        try {
+            failure = e;
+            synced.signalAll();
+            drained.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(List<byte[]> records) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[records.size()];
+        long remaining = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(records.get(i));
+            remaining += buffers[i].remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+
+    private void sync(long records) throws IOException {
+        if (records == 0) {
+            return;
+        }
+        channel.force(false);
+        lock.lock();
+        try {
+            syncedRecords += records;
+            syncs++;
+            synced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkUsable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log failed", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+    }
+}
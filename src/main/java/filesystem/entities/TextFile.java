@@ -1,20 +1,79 @@
 package filesystem.entities;
 
 import filesystem.api.FileSystemEntity;
+import filesystem.containers.AbstractContainer;
+import filesystem.content.Content;
+import filesystem.content.ContentPolicy;
+
+import java.util.function.UnaryOperator;
 
 public class TextFile extends FileSystemEntity {
-    private String content;
+    private volatile Content content;
 
     public TextFile(String name) {
         super(name, "TextFile");
-        this.content = "";
+        this.content = Content.EMPTY;
     }
 
     public String getContent() {
+        Content current = content;
+        return current == null ? null : current.asString();
+    }
+
+    /**
+     * Replaces the content, keeping it on the heap. {@link filesystem.api.FileSystem#writeToFile} uses
+     * the file system's {@link ContentPolicy} instead.
+     */
+    public synchronized void setContent(String content) {
+        replace(content == null ? null : ContentPolicy.heap().store(content));
+    }
+
+    /**
+     * The stored UTF-8 bytes, or {@code null} if the content was set to {@code null}.
+     */
+    public Content getRawContent() {
         return content;
     }
 
-    public void setContent(String content) {
-        this.content = content;
+    public synchronized void setRawContent(Content content) {
+        replace(content);
+    }
+
+    /**
+     * Replaces the content with {@code edit} applied to it, atomically with respect to other writes to
+     * this file. Readers never block; they see the old or the new content.
+     */
+    public synchronized void editContent(UnaryOperator<Content> edit) {
+        Content current = content;
+        Content edited = edit.apply(current == null ? Content.EMPTY : current);
+        if (edited != current) {
+            replace(edited);
+        }
+    }
+
+    /**
+     * Content length in UTF-8 bytes.
+     */
+    public int getSize() {
+        return size(content);
+    }
+
+    @Override
+    public long getTotalBytes() {
+        return getSize();
+    }
+
+    // Callers hold the lock, which AbstractContainer also takes while attaching or detaching this file.
+    private void replace(Content replacement) {
+        int resized = size(replacement) - size(content);
+        this.content = replacement;
+        if (resized != 0 && getParent() instanceof AbstractContainer container) {
+            container.adjustAggregates(0, resized);
+        }
+        markChanged();
+    }
+
+    private static int size(Content content) {
+        return content == null ? 0 : content.size();
     }
-}
\ No newline at end of file
+}
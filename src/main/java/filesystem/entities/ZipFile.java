@@ -1,9 +1,32 @@
 package filesystem.entities;
 
 import filesystem.containers.AbstractContainer;
+import filesystem.content.ContentPolicy;
+import filesystem.content.DecompressionCache;
 
+/**
+ * Container whose text files, at any depth, are stored deflated. Content is inflated on access, one
+ * chunk at a time, and the most recently inflated chunks are kept in a small per-zip cache.
+ */
 public class ZipFile extends AbstractContainer {
+    /** Four full content chunks. */
+    public static final int DEFAULT_CACHE_BYTES = 256 * 1024;
+
+    private final DecompressionCache cache = new DecompressionCache(DEFAULT_CACHE_BYTES);
+    private final ContentPolicy contentPolicy = ContentPolicy.compressed(cache);
+
     public ZipFile(String name) {
         super(name, "ZipFile");
     }
-}
\ No newline at end of file
+
+    /**
+     * Policy that stores content written to files inside this zip.
+     */
+    public ContentPolicy getContentPolicy() {
+        return contentPolicy;
+    }
+
+    public DecompressionCache getDecompressionCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,215 @@
+package filesystem.metrics;
+
+import filesystem.api.FileSystem;
+import filesystem.entities.Drive;
+import jdk.jfr.EventType;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToLongFunction;
+
+/**
+ * Counters and latency histograms for the operations of one {@link FileSystem}, started with
+ * {@link FileSystem#enableMetrics()}, plus gauges of the entities and bytes on each drive.
+ * <p>
+ * Recording an operation costs two {@link System#nanoTime()} calls and a few array increments, and
+ * does not allocate. Each operation is also reported as a {@code filesystem.Operation} JFR event
+ * when a recording enables it, which allocates the event. Running with {@code -Dfilesystem.metrics=false} turns {@link #ENABLED} off, so
+ * the JIT compiles the instrumentation out of {@code FileSystem} altogether.
+ */
+public final class FileSystemMetrics implements FileSystemMetricsMXBean {
+    /** Read once at startup; when {@code false}, {@link FileSystem#enableMetrics()} is rejected. */
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("filesystem.metrics", "true"));
+    /** Paths at least this deep share the last depth bucket. */
+    public static final int MAX_TRACKED_DEPTH = 64;
+
+    public enum Operation {
+        CREATE, DELETE, MOVE, WRITE, FIND
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final FileSystem fileSystem;
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length];
+    private final AtomicLongArray failures = new AtomicLongArray(OPERATIONS.length);
+    private final AtomicLongArray depths = new AtomicLongArray(MAX_TRACKED_DEPTH + 1);
+    private volatile ObjectName registeredName;
+
+    /**
+     * Use {@link FileSystem#enableMetrics()}.
+     */
+    public FileSystemMetrics(FileSystem fileSystem) {
+        if (!ENABLED) {
+            throw new IllegalStateException("Metrics are disabled by -Dfilesystem.metrics=false");
+        }
+        this.fileSystem = fileSystem;
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Records one operation on a path {@code depth} segments deep that took {@code nanos}. Called by
+     * {@link FileSystem}.
+     */
+    public void record(Operation operation, int depth, long nanos, boolean failed) {
+        if (failed) {
+            failures.incrementAndGet(operation.ordinal());
+        } else {
+            latencies[operation.ordinal()].record(nanos);
+        }
+        depths.incrementAndGet(Math.min(Math.max(depth, 0), MAX_TRACKED_DEPTH));
+        if (Jfr.OPERATION.isEnabled()) {
+            FileSystemOperationEvent event = new FileSystemOperationEvent();
+            event.operation = operation.name();
+            event.depth = depth;
+            event.latency = nanos;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Latencies of the successful calls of {@code operation}; failed calls are only counted.
+     */
+    public LatencyHistogram latency(Operation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    /**
+     * Successful calls of {@code operation}.
+     */
+    public long count(Operation operation) {
+        return latencies[operation.ordinal()].count();
+    }
+
+    public long failures(Operation operation) {
+        return failures.get(operation.ordinal());
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        return byOperation(this::count);
+    }
+
+    @Override
+    public Map<String, Long> getFailures() {
+        return byOperation(this::failures);
+    }
+
+    @Override
+    public Map<String, Long> getP50Nanos() {
+        return byOperation(operation -> latency(operation).valueAtPercentile(50));
+    }
+
+    @Override
+    public Map<String, Long> getP99Nanos() {
+        return byOperation(operation -> latency(operation).valueAtPercentile(99));
+    }
+
+    @Override
+    public Map<String, Long> getP999Nanos() {
+        return byOperation(operation -> latency(operation).valueAtPercentile(99.9));
+    }
+
+    @Override
+    public Map<String, Long> getMaxNanos() {
+        return byOperation(operation -> latency(operation).max());
+    }
+
+    @Override
+    public long[] getPathDepthCounts() {
+        long[] counts = new long[depths.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = depths.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * Entities below each drive, read from the counts every container keeps, so this does not walk
+     * the tree.
+     */
+    @Override
+    public Map<String, Long> getDriveEntityCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Drive drive : fileSystem.getDrives()) {
+            counts.put(drive.getName(), (long) drive.getDescendantCount());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getDriveBytes() {
+        Map<String, Long> bytes = new TreeMap<>();
+        for (Drive drive : fileSystem.getDrives()) {
+            bytes.put(drive.getName(), drive.getTotalBytes());
+        }
+        return bytes;
+    }
+
+    /**
+     * Clears the counters and histograms; the drive gauges always reflect the tree.
+     */
+    @Override
+    public void reset() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i].reset();
+            failures.set(i, 0);
+        }
+        for (int i = 0; i < depths.length(); i++) {
+            depths.set(i, 0);
+        }
+    }
+
+    /**
+     * Publishes these metrics on the platform MBean server as
+     * {@code filesystem:type=FileSystemMetrics,name=<name>}.
+     *
+     * @throws IllegalArgumentException if the name is malformed or already registered
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            ObjectName objectName = ObjectName.getInstance("filesystem:type=FileSystemMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            registeredName = objectName;
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Cannot register metrics as " + name, e);
+        }
+    }
+
+    public void unregisterMBean() {
+        ObjectName name = registeredName;
+        if (name == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(name);
+        } catch (JMException e) {
+            // Already gone.
+        }
+        registeredName = null;
+    }
+
+    private static Map<String, Long> byOperation(ToLongFunction<Operation> value) {
+        Map<String, Long> values = new TreeMap<>();
+        for (Operation operation : OPERATIONS) {
+            values.put(operation.name(), value.applyAsLong(operation));
+        }
+        return values;
+    }
+
+    /**
+     * Registers the event type on first use, so that only file systems with metrics touch JFR.
+     */
+    private static final class Jfr {
+        static final EventType OPERATION = EventType.getEventType(FileSystemOperationEvent.class);
+    }
+}
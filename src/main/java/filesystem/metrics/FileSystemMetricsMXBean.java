@@ -0,0 +1,35 @@
+package filesystem.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link FileSystemMetrics}, registered with
+ * {@link FileSystemMetrics#registerMBean(String)}. Maps are keyed by operation or drive name;
+ * latencies are in nanoseconds.
+ */
+public interface FileSystemMetricsMXBean {
+
+    Map<String, Long> getCounts();
+
+    Map<String, Long> getFailures();
+
+    Map<String, Long> getP50Nanos();
+
+    Map<String, Long> getP99Nanos();
+
+    Map<String, Long> getP999Nanos();
+
+    Map<String, Long> getMaxNanos();
+
+    /**
+     * Operations by the depth of their path: index 1 counts drives, the last index everything at
+     * least that deep.
+     */
+    long[] getPathDepthCounts();
+
+    Map<String, Long> getDriveEntityCounts();
+
+    Map<String, Long> getDriveBytes();
+
+    void reset();
+}
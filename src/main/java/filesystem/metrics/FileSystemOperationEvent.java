@@ -0,0 +1,37 @@
+package filesystem.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One timed {@code FileSystem} operation in a Java Flight Recorder recording. Off by default, since
+ * lookups are frequent; a recording has to enable {@value #NAME}, e.g. with
+ * {@code Recording.enable(NAME)} or a {@code .jfc} settings file.
+ */
+@Name(FileSystemOperationEvent.NAME)
+@Label("File System Operation")
+@Category("File System")
+@Description("A create, delete, move, write or lookup on an in-memory file system")
+@StackTrace(false)
+@Enabled(false)
+final class FileSystemOperationEvent extends jdk.jfr.Event {
+    static final String NAME = "filesystem.Operation";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Path Depth")
+    int depth;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,45 @@
+package filesystem.persistent;
+
+/**
+ * Immutable drive, folder or zip file.
+ */
+public final class DirectoryNode extends Node {
+    private final PersistentMap<Node> children;
+
+    DirectoryNode(String name, String type, PersistentMap<Node> children) {
+        super(name, type);
+        this.children = children;
+    }
+
+    public Node getChild(String name) {
+        return children.get(name);
+    }
+
+    public boolean hasChild(String name) {
+        return children.containsKey(name);
+    }
+
+    public Iterable<Node> getChildren() {
+        return children;
+    }
+
+    public int size() {
+        return children.size();
+    }
+
+    PersistentMap<Node> children() {
+        return children;
+    }
+
+    DirectoryNode withChildren(PersistentMap<Node> newChildren) {
+        return newChildren == children ? this : new DirectoryNode(getName(), getType(), newChildren);
+    }
+
+    DirectoryNode withChild(Node child) {
+        return withChildren(children.with(child.getName(), child));
+    }
+
+    DirectoryNode withoutChild(String name) {
+        return withChildren(children.without(name));
+    }
+}
@@ -0,0 +1,21 @@
+package filesystem.persistent;
+
+/**
+ * Immutable text file.
+ */
+public final class FileNode extends Node {
+    private final String content;
+
+    FileNode(String name, String content) {
+        super(name, "TextFile");
+        this.content = content;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    FileNode withContent(String newContent) {
+        return new FileNode(getName(), newContent);
+    }
+}
@@ -0,0 +1,23 @@
+package filesystem.persistent;
+
+/**
+ * Immutable entity in a {@link PersistentFileSystem} tree. Nodes have no parent pointer, which is what
+ * lets one node be shared by many versions of the tree.
+ */
+public abstract sealed class Node permits DirectoryNode, FileNode {
+    private final String name;
+    private final String type;
+
+    Node(String name, String type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+}
@@ -0,0 +1,457 @@
+package filesystem.persistent;
+
+import filesystem.api.EntityPath;
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import filesystem.api.FileSystemOperation;
+import filesystem.containers.Container;
+import filesystem.content.Content;
+import filesystem.content.ContentEdit;
+import filesystem.content.ContentPolicy;
+import filesystem.entities.Drive;
+import filesystem.entities.TextFile;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * File system mode backed by a persistent tree: drives and folders are immutable {@link Node}s whose
+ * children live in a {@link PersistentMap}.
+ * <p>
+ * A write copies only the nodes on the path from the drive to the changed entity and then publishes
+ * the new root with a single volatile write. Readers never take a lock; they read whichever
+ * {@link Version} was published last and traverse it without interference, so a reader always sees
+ * a consistent tree even while {@code move} rewires subtrees. Writers are serialized by a lock that
+ * readers never touch.
+ * <p>
+ * Mutations validate their arguments and fail with the same messages as
+ * {@link filesystem.api.FileSystem}.
+ */
+public class PersistentFileSystem {
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Version current;
+
+    public PersistentFileSystem() {
+        this(new Version(PersistentMap.empty(), 0));
+    }
+
+    PersistentFileSystem(Version initial) {
+        this.current = initial;
+    }
+
+    /**
+     * Imports a mutable {@link FileSystem}: every drive, folder, zip file and text file content. This walks
+     * the whole tree once; snapshots and forks of the result are constant-time afterwards.
+     */
+    public static PersistentFileSystem copyOf(FileSystem source) {
+        PersistentMap<Node> drives = PersistentMap.empty();
+        for (Drive drive : source.getDrives()) {
+            drives = drives.with(drive.getName(), toNode(drive));
+        }
+        return new PersistentFileSystem(new Version(drives, 0));
+    }
+
+    /**
+     * Consistent copy of the whole tree as it is now. Costs constant time and memory: the snapshot
+     * shares every node with the live tree, and later writes copy only what they change.
+     */
+    public Version snapshot() {
+        return current;
+    }
+
+    /**
+     * Independent file system that starts out identical to this one. Creating the fork costs constant
+     * time; the two share structure until either side writes, and neither sees the other's writes.
+     */
+    public PersistentFileSystem fork() {
+        return current.fork();
+    }
+
+    /**
+     * Runs {@code reader} against the latest published version. Every lookup the reader makes sees the
+     * same point-in-time tree.
+     */
+    public <T> T read(Function<Version, T> reader) {
+        return reader.apply(current);
+    }
+
+    public Node findNode(String path) {
+        return current.findNode(path);
+    }
+
+    public Node find(EntityPath path) {
+        return current.find(path);
+    }
+
+    public DirectoryNode findDrive(String name) {
+        return current.findDrive(name);
+    }
+
+    public String readFile(String path) {
+        return current.readFile(path);
+    }
+
+    /**
+     * Number of the latest published version.
+     */
+    public long getVersion() {
+        return current.getNumber();
+    }
+
+    public void create(String type, String name, String parentPath) {
+        writeLock.lock();
+        try {
+            if (type.equals("Drive")) {
+                publish(createDrive(current.drives(), name));
+            } else {
+                publish(createEntity(current.drives(), type, name, parseOrNull(parentPath), parentPath));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Creates an entity of the given type at {@code path}, whose last segment is the new entity's name.
+     */
+    public void create(String type, EntityPath path) {
+        writeLock.lock();
+        try {
+            if (type.equals("Drive")) {
+                if (!path.isDrive()) {
+                    throw new IllegalArgumentException("Drives can only be created at the root: " + path);
+                }
+                publish(createDrive(current.drives(), path.name()));
+            } else if (path.isDrive()) {
+                throw new IllegalArgumentException("Only drives can be created at the root: " + path);
+            } else {
+                publish(createEntity(current.drives(), type, path.name(), path.parent(), path.parent()));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void delete(String path) {
+        writeLock.lock();
+        try {
+            publish(delete(current.drives(), path));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void delete(EntityPath path) {
+        writeLock.lock();
+        try {
+            if (path.isDrive()) {
+                publish(deleteDrive(current.drives(), path.name()));
+            } else {
+                publish(deleteEntity(current.drives(), path, path));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void move(String sourcePath, String destPath) {
+        if (!sourcePath.contains("\\")) {
+            throw new IllegalArgumentException("Cannot move a drive");
+        }
+        writeLock.lock();
+        try {
+            publish(moveEntity(current.drives(), parseOrNull(sourcePath), parseOrNull(destPath), sourcePath, destPath));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void move(EntityPath sourcePath, EntityPath destPath) {
+        writeLock.lock();
+        try {
+            publish(moveEntity(current.drives(), sourcePath, destPath, sourcePath, destPath));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Copies the entity at {@code sourcePath} into the directory at {@code destPath}. Costs the same as
+     * any other write: the copy shares its whole subtree with the original, and later writes to either
+     * side copy only what they change.
+     */
+    public void copy(String sourcePath, String destPath) {
+        if (!sourcePath.contains("\\")) {
+            throw new IllegalArgumentException("Cannot copy a drive");
+        }
+        writeLock.lock();
+        try {
+            publish(copyEntity(current.drives(), parseOrNull(sourcePath), parseOrNull(destPath), sourcePath, destPath));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void copy(EntityPath sourcePath, EntityPath destPath) {
+        writeLock.lock();
+        try {
+            publish(copyEntity(current.drives(), sourcePath, destPath, sourcePath, destPath));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void writeToFile(String path, String content) {
+        writeLock.lock();
+        try {
+            publish(writeEntity(current.drives(), parseOrNull(path), content, path));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void writeToFile(EntityPath path, String content) {
+        writeLock.lock();
+        try {
+            publish(writeEntity(current.drives(), path, content, path));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Applies {@code operations} in order and publishes the result as a single version, so readers see
+     * either none or all of them. If one fails nothing is published and its exception is rethrown.
+     */
+    public void apply(List<? extends FileSystemOperation> operations) {
+        writeLock.lock();
+        try {
+            PersistentMap<Node> drives = current.drives();
+            for (FileSystemOperation operation : operations) {
+                drives = applyOne(drives, operation);
+            }
+            publish(drives);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // The methods below run under the write lock and return the updated drive map without publishing
+    // it; paths typed Object are only used for error messages.
+    private static PersistentMap<Node> applyOne(PersistentMap<Node> drives, FileSystemOperation operation) {
+        if (operation instanceof FileSystemOperation.Create create) {
+            return create.type().equals("Drive") ? createDrive(drives, create.name())
+                    : createEntity(drives, create.type(), create.name(), parseOrNull(create.parentPath()), create.parentPath());
+        }
+        if (operation instanceof FileSystemOperation.Delete delete) {
+            return delete(drives, delete.path());
+        }
+        if (operation instanceof FileSystemOperation.Move move) {
+            if (!move.sourcePath().contains("\\")) {
+                throw new IllegalArgumentException("Cannot move a drive");
+            }
+            return moveEntity(drives, parseOrNull(move.sourcePath()), parseOrNull(move.destPath()), move.sourcePath(), move.destPath());
+        }
+        if (operation instanceof FileSystemOperation.Copy copy) {
+            if (!copy.sourcePath().contains("\\")) {
+                throw new IllegalArgumentException("Cannot copy a drive");
+            }
+            return copyEntity(drives, parseOrNull(copy.sourcePath()), parseOrNull(copy.destPath()), copy.sourcePath(), copy.destPath());
+        }
+        if (operation instanceof FileSystemOperation.Edit edit) {
+            return editEntity(drives, parseOrNull(edit.path()), edit.edit(), edit.path());
+        }
+        if (operation instanceof FileSystemOperation.Write write) {
+            return writeEntity(drives, parseOrNull(write.path()), write.content(), write.path());
+        }
+        throw new IllegalArgumentException("Unknown operation: " + operation);
+    }
+
+    private static PersistentMap<Node> delete(PersistentMap<Node> drives, String path) {
+        if (path.indexOf('\\') == -1) {
+            return deleteDrive(drives, path);
+        }
+        // As in FileSystem, a trailing separator names an empty child, which never exists.
+        EntityPath parsed = path.endsWith("\\") ? null : parseOrNull(path);
+        return deleteEntity(drives, parsed == null || parsed.isDrive() ? null : parsed, path);
+    }
+
+    private static PersistentMap<Node> createDrive(PersistentMap<Node> drives, String name) {
+        if (drives.containsKey(name)) {
+            throw new IllegalArgumentException("Drive with that name already exists.");
+        }
+        FileSystemEntity.validateName(name);
+        return drives.with(name, new DirectoryNode(name, "Drive", PersistentMap.empty()));
+    }
+
+    private static PersistentMap<Node> createEntity(PersistentMap<Node> drives, String type, String name,
+                                                    EntityPath parentPath, Object parentText) {
+        DirectoryNode parent = directoryAt(drives, parentPath);
+        if (parent == null) {
+            throw new IllegalArgumentException("Parent path not found: " + parentText);
+        }
+        if (parent.hasChild(name)) {
+            throw new IllegalArgumentException("Entity with that name already exists in " + parentText);
+        }
+
+        Node node = switch (type) {
+            case "Folder", "ZipFile" -> new DirectoryNode(validName(name), type, PersistentMap.empty());
+            case "TextFile" -> new FileNode(validName(name), "");
+            default -> throw new IllegalArgumentException("Unknown entity type: " + type);
+        };
+        return replace(drives, parentPath, parentPath.depth(), parent.withChild(node));
+    }
+
+    private static PersistentMap<Node> deleteDrive(PersistentMap<Node> drives, String name) {
+        if (!drives.containsKey(name)) {
+            throw new IllegalArgumentException("Drive not found: " + name);
+        }
+        return drives.without(name);
+    }
+
+    private static PersistentMap<Node> deleteEntity(PersistentMap<Node> drives, EntityPath path, Object pathText) {
+        EntityPath parentPath = path == null ? null : path.parent();
+        DirectoryNode parent = directoryAt(drives, parentPath);
+        if (parent == null || !parent.hasChild(path.name())) {
+            throw new IllegalArgumentException("Path not found: " + pathText);
+        }
+        return replace(drives, parentPath, parentPath.depth(), parent.withoutChild(path.name()));
+    }
+
+    private static PersistentMap<Node> moveEntity(PersistentMap<Node> drives, EntityPath sourcePath, EntityPath destPath,
+                                                  Object sourceText, Object destText) {
+        Node source = sourcePath == null ? null : Version.resolve(drives, sourcePath, sourcePath.depth());
+        if (source == null) {
+            throw new IllegalArgumentException("Source path not found: " + sourceText);
+        }
+        if (sourcePath.isDrive()) {
+            throw new IllegalArgumentException("Cannot move a drive");
+        }
+
+        DirectoryNode dest = directoryAt(drives, destPath);
+        if (dest == null) {
+            throw new IllegalArgumentException("Destination path not found: " + destText);
+        }
+        if (source instanceof DirectoryNode && destPath.startsWith(sourcePath)) {
+            throw new IllegalArgumentException("Cannot move an entity into itself or one of its descendants");
+        }
+        if (dest.hasChild(source.getName())) {
+            throw new IllegalArgumentException("Entity with same name already exists at destination");
+        }
+
+        EntityPath sourceParentPath = sourcePath.parent();
+        DirectoryNode sourceParent = directoryAt(drives, sourceParentPath);
+        PersistentMap<Node> detached = replace(drives, sourceParentPath, sourceParentPath.depth(),
+                sourceParent.withoutChild(source.getName()));
+        // Re-resolve the destination: removing the source may have copied one of its ancestors.
+        DirectoryNode newDest = directoryAt(detached, destPath);
+        return replace(detached, destPath, destPath.depth(), newDest.withChild(source));
+    }
+
+    private static PersistentMap<Node> copyEntity(PersistentMap<Node> drives, EntityPath sourcePath, EntityPath destPath,
+                                                  Object sourceText, Object destText) {
+        Node source = sourcePath == null ? null : Version.resolve(drives, sourcePath, sourcePath.depth());
+        if (source == null) {
+            throw new IllegalArgumentException("Source path not found: " + sourceText);
+        }
+        if (sourcePath.isDrive()) {
+            throw new IllegalArgumentException("Cannot copy a drive");
+        }
+
+        DirectoryNode dest = directoryAt(drives, destPath);
+        if (dest == null) {
+            throw new IllegalArgumentException("Destination path not found: " + destText);
+        }
+        if (source instanceof DirectoryNode && destPath.startsWith(sourcePath)) {
+            throw new IllegalArgumentException("Cannot copy an entity into itself or one of its descendants");
+        }
+        if (dest.hasChild(source.getName())) {
+            throw new IllegalArgumentException("Entity with same name already exists at destination");
+        }
+        // Nodes are immutable, so the same subtree can simply appear in two places.
+        return replace(drives, destPath, destPath.depth(), dest.withChild(source));
+    }
+
+    private static PersistentMap<Node> writeEntity(PersistentMap<Node> drives, EntityPath path, String content,
+                                                   Object pathText) {
+        FileNode file = fileAt(drives, path, pathText);
+        return replace(drives, path, path.depth(), file.withContent(content));
+    }
+
+    private static PersistentMap<Node> editEntity(PersistentMap<Node> drives, EntityPath path, ContentEdit edit,
+                                                  Object pathText) {
+        FileNode file = fileAt(drives, path, pathText);
+        // File nodes hold plain strings, so the edit works on a heap copy of the content.
+        ContentPolicy policy = ContentPolicy.heap();
+        Content content = file.getContent() == null ? Content.EMPTY : policy.store(file.getContent());
+        return replace(drives, path, path.depth(), file.withContent(edit.applyTo(content, policy).asString()));
+    }
+
+    private static FileNode fileAt(PersistentMap<Node> drives, EntityPath path, Object pathText) {
+        Node node = path == null ? null : Version.resolve(drives, path, path.depth());
+        if (node == null) {
+            throw new IllegalArgumentException("File not found: " + pathText);
+        }
+        if (!(node instanceof FileNode file)) {
+            throw new IllegalArgumentException("Entity is not a text file: " + pathText);
+        }
+        return file;
+    }
+
+    private void publish(PersistentMap<Node> drives) {
+        current = new Version(drives, current.getNumber() + 1);
+    }
+
+    /**
+     * Path-copies the drive map so that the node at the first {@code depth} segments of {@code path} is
+     * {@code replacement}. Every node off that path is shared with the input map.
+     */
+    static PersistentMap<Node> replace(PersistentMap<Node> drives, EntityPath path, int depth, Node replacement) {
+        return replace(drives, path, 0, depth, replacement);
+    }
+
+    private static PersistentMap<Node> replace(PersistentMap<Node> children, EntityPath path, int index, int depth,
+                                               Node replacement) {
+        String name = path.segment(index);
+        if (index == depth - 1) {
+            return children.with(name, replacement);
+        }
+        DirectoryNode directory = (DirectoryNode) children.get(name);
+        return children.with(name, directory.withChildren(replace(directory.children(), path, index + 1, depth, replacement)));
+    }
+
+    private static Node toNode(FileSystemEntity entity) {
+        if (entity instanceof TextFile file) {
+            return new FileNode(file.getName(), file.getContent());
+        }
+        PersistentMap<Node> children = PersistentMap.empty();
+        for (FileSystemEntity child : ((Container) entity).getContents()) {
+            children = children.with(child.getName(), toNode(child));
+        }
+        return new DirectoryNode(entity.getName(), entity.getType(), children);
+    }
+
+    private static DirectoryNode directoryAt(PersistentMap<Node> drives, EntityPath path) {
+        if (path == null) {
+            return null;
+        }
+        return Version.resolve(drives, path, path.depth()) instanceof DirectoryNode directory ? directory : null;
+    }
+
+    private static EntityPath parseOrNull(String path) {
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        try {
+            return EntityPath.parse(path);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String validName(String name) {
+        FileSystemEntity.validateName(name);
+        return name;
+    }
+}
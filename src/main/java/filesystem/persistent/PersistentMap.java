@@ -0,0 +1,362 @@
+package filesystem.persistent;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable hash array mapped trie from name to value.
+ * <p>
+ * Updates copy only the trie nodes on the path to the changed key, so a new version shares all other
+ * nodes with the old one and both stay valid. Like
+ * {@link filesystem.containers.ChildTable ChildTable}, lookups accept a slice of a larger string so a
+ * path can be resolved without allocating substrings.
+ */
+public final class PersistentMap<V> implements Iterable<V> {
+    private static final PersistentMap<?> EMPTY = new PersistentMap<>(null, 0);
+
+    private final TrieNode root;
+    private final int size;
+
+    private PersistentMap(TrieNode root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentMap<V> empty() {
+        return (PersistentMap<V>) EMPTY;
+    }
+
+    public V get(String key) {
+        return key == null ? null : get(key, 0, key.length(), key.hashCode());
+    }
+
+    /**
+     * Looks up {@code path.substring(from, to)}, whose {@link String#hashCode()} is {@code hash}, without
+     * creating the substring.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(String path, int from, int to, int hash) {
+        return root == null ? null : (V) root.find(0, spread(hash), path, from, to);
+    }
+
+    public boolean containsKey(String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns a map with {@code key} bound to {@code value}, replacing any previous binding.
+     */
+    public PersistentMap<V> with(String key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value must not be null");
+        }
+        Box added = new Box();
+        TrieNode base = root == null ? BitmapNode.EMPTY : root;
+        TrieNode newRoot = base.put(0, spread(key.hashCode()), key, value, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentMap<>(newRoot, added.value ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without {@code key}, or this map if the key is absent.
+     */
+    public PersistentMap<V> without(String key) {
+        if (root == null) {
+            return this;
+        }
+        TrieNode newRoot = root.remove(0, spread(key.hashCode()), key);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() : new PersistentMap<>(newRoot, size - 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new ValueIterator<>(root);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String key, String path, int from, int to) {
+        int length = to - from;
+        return key.length() == length && key.regionMatches(0, path, from, length);
+    }
+
+    private static final class Box {
+        boolean value;
+    }
+
+    private interface TrieNode {
+        Object find(int shift, int hash, String path, int from, int to);
+
+        TrieNode put(int shift, int hash, String key, Object value, Box added);
+
+        /**
+         * @return this node if the key is absent, {@code null} if the node became empty
+         */
+        TrieNode remove(int shift, int hash, String key);
+
+        /**
+         * Flat {@code [key, value, key, value, ...]} array; a {@code null} key marks a child node.
+         */
+        Object[] array();
+    }
+
+    private static final class BitmapNode implements TrieNode {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final int bitmap;
+        final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        @Override
+        public Object[] array() {
+            return array;
+        }
+
+        @Override
+        public Object find(int shift, int hash, String path, int from, int to) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int index = 2 * index(bit);
+            Object key = array[index];
+            Object value = array[index + 1];
+            if (key == null) {
+                return ((TrieNode) value).find(shift + 5, hash, path, from, to);
+            }
+            return matches((String) key, path, from, to) ? value : null;
+        }
+
+        @Override
+        public TrieNode put(int shift, int hash, String key, Object value, Box added) {
+            int bit = bitpos(hash, shift);
+            int index = 2 * index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] grown = new Object[array.length + 2];
+                System.arraycopy(array, 0, grown, 0, index);
+                grown[index] = key;
+                grown[index + 1] = value;
+                System.arraycopy(array, index, grown, index + 2, array.length - index);
+                added.value = true;
+                return new BitmapNode(bitmap | bit, grown);
+            }
+
+            Object existingKey = array[index];
+            Object existingValue = array[index + 1];
+            if (existingKey == null) {
+                TrieNode child = ((TrieNode) existingValue).put(shift + 5, hash, key, value, added);
+                return child == existingValue ? this : new BitmapNode(bitmap, with(array, index + 1, child));
+            }
+            if (key.equals(existingKey)) {
+                return value == existingValue ? this : new BitmapNode(bitmap, with(array, index + 1, value));
+            }
+
+            added.value = true;
+            TrieNode child = split(shift + 5, (String) existingKey, existingValue, hash, key, value);
+            Object[] copy = with(array, index + 1, child);
+            copy[index] = null;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        @Override
+        public TrieNode remove(int shift, int hash, String key) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = 2 * index(bit);
+            Object existingKey = array[index];
+            Object existingValue = array[index + 1];
+            if (existingKey == null) {
+                TrieNode child = ((TrieNode) existingValue).remove(shift + 5, hash, key);
+                if (child == existingValue) {
+                    return this;
+                }
+                if (child != null) {
+                    return new BitmapNode(bitmap, with(array, index + 1, child));
+                }
+            } else if (!key.equals(existingKey)) {
+                return this;
+            }
+
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, index);
+            System.arraycopy(array, index + 2, shrunk, index, array.length - index - 2);
+            return new BitmapNode(bitmap ^ bit, shrunk);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private static int bitpos(int hash, int shift) {
+            return 1 << ((hash >>> shift) & 0x1f);
+        }
+
+        private static TrieNode split(int shift, String key1, Object value1, int hash2, String key2, Object value2) {
+            int hash1 = spread(key1.hashCode());
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+            }
+            Box ignored = new Box();
+            return EMPTY.put(shift, hash1, key1, value1, ignored).put(shift, hash2, key2, value2, ignored);
+        }
+    }
+
+    /**
+     * Keys whose spread hashes are identical, searched linearly.
+     */
+    private static final class CollisionNode implements TrieNode {
+        final int hash;
+        final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        @Override
+        public Object[] array() {
+            return array;
+        }
+
+        @Override
+        public Object find(int shift, int hash, String path, int from, int to) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (matches((String) array[i], path, from, to)) {
+                    return array[i + 1];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public TrieNode put(int shift, int hash, String key, Object value, Box added) {
+            if (hash != this.hash) {
+                BitmapNode wrapper = new BitmapNode(BitmapNode.bitpos(this.hash, shift), new Object[]{null, this});
+                return wrapper.put(shift, hash, key, value, added);
+            }
+            int index = indexOf(key);
+            if (index != -1) {
+                return array[index + 1] == value ? this : new CollisionNode(hash, with(array, index + 1, value));
+            }
+            Object[] grown = Arrays.copyOf(array, array.length + 2);
+            grown[array.length] = key;
+            grown[array.length + 1] = value;
+            added.value = true;
+            return new CollisionNode(hash, grown);
+        }
+
+        @Override
+        public TrieNode remove(int shift, int hash, String key) {
+            int index = indexOf(key);
+            if (index == -1) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, index);
+            System.arraycopy(array, index + 2, shrunk, index, array.length - index - 2);
+            return new CollisionNode(hash, shrunk);
+        }
+
+        private int indexOf(String key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static Object[] with(Object[] array, int index, Object value) {
+        Object[] copy = array.clone();
+        copy[index] = value;
+        return copy;
+    }
+
+    /**
+     * Depth-first iterator over the values, keeping one array cursor per trie level.
+     */
+    private static final class ValueIterator<V> implements Iterator<V> {
+        private final Object[][] arrays = new Object[8][];
+        private final int[] positions = new int[8];
+        private int depth = -1;
+        private Object next;
+
+        ValueIterator(TrieNode root) {
+            if (root != null) {
+                push(root.array());
+                advance();
+            }
+        }
+
+        private void push(Object[] array) {
+            depth++;
+            arrays[depth] = array;
+            positions[depth] = 0;
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int position = positions[depth];
+                if (position >= array.length) {
+                    arrays[depth--] = null;
+                    continue;
+                }
+                positions[depth] = position + 2;
+                if (array[position] == null) {
+                    push(((TrieNode) array[position + 1]).array());
+                } else {
+                    next = array[position + 1];
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            V result = (V) next;
+            advance();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package filesystem.persistent;
+
+import filesystem.api.EntityPath;
+import filesystem.api.FileSystem;
+import filesystem.containers.ChildTable;
+
+/**
+ * One immutable, published state of a {@link PersistentFileSystem}. Everything read through a version
+ * reflects the tree exactly as it was when the version was published, however the file system changes
+ * afterwards.
+ */
+public final class Version {
+    private final PersistentMap<Node> drives;
+    private final long number;
+
+    Version(PersistentMap<Node> drives, long number) {
+        this.drives = drives;
+        this.number = number;
+    }
+
+    /**
+     * Sequence number of this version; every successful write publishes the next one.
+     */
+    public long getNumber() {
+        return number;
+    }
+
+    public Iterable<Node> getDrives() {
+        return drives;
+    }
+
+    public DirectoryNode findDrive(String name) {
+        return (DirectoryNode) drives.get(name);
+    }
+
+    /**
+     * Resolves a backslash-delimited path in place, without splitting it. Trailing separators are
+     * ignored, as in {@link filesystem.api.FileSystem#findEntity(String)}.
+     */
+    public Node findNode(String path) {
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        int end = path.length();
+        while (end > 0 && path.charAt(end - 1) == '\\') {
+            end--;
+        }
+        if (end == 0) {
+            return null;
+        }
+
+        int to = segmentEnd(path, 0, end);
+        Node current = drives.get(path, 0, to, ChildTable.hash(path, 0, to));
+        while (current != null && to < end) {
+            if (!(current instanceof DirectoryNode directory)) {
+                return null;
+            }
+            int from = to + 1;
+            to = segmentEnd(path, from, end);
+            current = directory.children().get(path, from, to, ChildTable.hash(path, from, to));
+        }
+        return current;
+    }
+
+    public Node find(EntityPath path) {
+        return path == null ? null : resolve(drives, path, path.depth());
+    }
+
+    /**
+     * Content of the text file at {@code path}.
+     *
+     * @throws IllegalArgumentException if there is no text file at that path
+     */
+    public String readFile(String path) {
+        Node node = findNode(path);
+        if (node == null) {
+            throw new IllegalArgumentException("File not found: " + path);
+        }
+        if (!(node instanceof FileNode file)) {
+            throw new IllegalArgumentException("Entity is not a text file: " + path);
+        }
+        return file.getContent();
+    }
+
+    /**
+     * New file system whose tree starts at this version, e.g. to try out changes against an older
+     * snapshot. Constant time; see {@link PersistentFileSystem#fork()}.
+     */
+    public PersistentFileSystem fork() {
+        return new PersistentFileSystem(this);
+    }
+
+    /**
+     * Rebuilds this version as a mutable {@link FileSystem}, e.g. for a test fixture. Walks the whole tree.
+     */
+    public FileSystem toFileSystem() {
+        FileSystem fileSystem = new FileSystem();
+        for (Node drive : drives) {
+            fileSystem.create("Drive", drive.getName(), null);
+            copyChildren((DirectoryNode) drive, drive.getName(), fileSystem);
+        }
+        return fileSystem;
+    }
+
+    private static void copyChildren(DirectoryNode directory, String path, FileSystem target) {
+        for (Node child : directory.getChildren()) {
+            target.create(child.getType(), child.getName(), path);
+            String childPath = path + "\\" + child.getName();
+            if (child instanceof FileNode file) {
+                target.writeToFile(childPath, file.getContent());
+            } else {
+                copyChildren((DirectoryNode) child, childPath, target);
+            }
+        }
+    }
+
+    PersistentMap<Node> drives() {
+        return drives;
+    }
+
+    /**
+     * Resolves the first {@code depth} segments of {@code path} in the given drive map.
+     */
+    static Node resolve(PersistentMap<Node> drives, EntityPath path, int depth) {
+        String driveName = path.segment(0);
+        Node current = drives.get(driveName, 0, driveName.length(), path.segmentHash(0));
+        for (int i = 1; i < depth && current != null; i++) {
+            if (!(current instanceof DirectoryNode directory)) {
+                return null;
+            }
+            String name = path.segment(i);
+            current = directory.children().get(name, 0, name.length(), path.segmentHash(i));
+        }
+        return current;
+    }
+
+    private static int segmentEnd(String path, int from, int end) {
+        int backslash = path.indexOf('\\', from);
+        return backslash == -1 || backslash > end ? end : backslash;
+    }
+}
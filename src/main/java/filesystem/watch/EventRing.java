@@ -0,0 +1,70 @@
+package filesystem.watch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. A producer claims a slot with one
+ * compare-and-set on the tail and publishes it by storing its sequence number, so {@link #offer} never
+ * blocks or allocates.
+ */
+final class EventRing<E> {
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    // sequences[i] == n + 1 once the element with sequence n is in slot i.
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    EventRing(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two of at least 2: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * @return {@code false} if the ring is full
+     */
+    boolean offer(E element) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head > mask) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        int index = (int) sequence & mask;
+        slots.lazySet(index, element);
+        sequences.set(index, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Called by the consumer only.
+     *
+     * @return the oldest element, or {@code null} if there is none or it is still being published
+     */
+    E poll() {
+        long sequence = head;
+        int index = (int) sequence & mask;
+        if (sequences.get(index) != sequence + 1) {
+            return null;
+        }
+        E element = slots.get(index);
+        slots.lazySet(index, null);
+        head = sequence + 1;
+        return element;
+    }
+
+    boolean isEmpty() {
+        return tail.get() == head;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,20 @@
+package filesystem.watch;
+
+/**
+ * What a {@link WatchService} does with a change when its buffer is full because the watchers are not
+ * keeping up.
+ */
+public enum OverflowPolicy {
+    /**
+     * Discard the change; only {@link WatchService#dropped()} records it.
+     */
+    DROP,
+    /**
+     * Make the writing thread wait, with its locks held, until the dispatcher frees a slot.
+     */
+    BLOCK,
+    /**
+     * Discard the change and deliver a {@link WatchEvent.Kind#OVERFLOW} event to every watch.
+     */
+    SIGNAL
+}
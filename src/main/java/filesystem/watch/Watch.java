@@ -0,0 +1,55 @@
+package filesystem.watch;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A subscription made with {@link WatchService#watch}. Closing it stops delivery; a batch already
+ * being delivered may still arrive.
+ */
+public final class Watch implements Closeable {
+    private final WatchService service;
+    private final String prefix;
+    private final Consumer<List<WatchEvent>> consumer;
+
+    Watch(WatchService service, String prefix, Consumer<List<WatchEvent>> consumer) {
+        this.service = service;
+        this.prefix = prefix;
+        this.consumer = consumer;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Whether {@code event} concerns the prefix or something below it. Deleting or moving an ancestor
+     * of the prefix counts too, since the watched entity goes with it.
+     */
+    boolean matches(WatchEvent event) {
+        return switch (event.kind()) {
+            case OVERFLOW -> true;
+            case CREATE, WRITE -> within(event.path());
+            case DELETE -> within(event.path()) || above(event.path());
+            case MOVE -> within(event.path()) || above(event.path()) || within(event.newPath());
+        };
+    }
+
+    void deliver(List<WatchEvent> events) {
+        consumer.accept(events);
+    }
+
+    @Override
+    public void close() {
+        service.remove(this);
+    }
+
+    private boolean within(String path) {
+        return path.startsWith(prefix) && (path.length() == prefix.length() || path.charAt(prefix.length()) == '\\');
+    }
+
+    private boolean above(String path) {
+        return prefix.length() > path.length() && prefix.startsWith(path) && prefix.charAt(path.length()) == '\\';
+    }
+}
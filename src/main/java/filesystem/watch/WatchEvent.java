@@ -0,0 +1,23 @@
+package filesystem.watch;
+
+/**
+ * A change delivered to a {@link Watch}. {@code path} is the absolute path of the entity as it was
+ * when the change was made; {@code newPath} is where a {@link Kind#MOVE} put it, and {@code null}
+ * otherwise. An {@link Kind#OVERFLOW} has neither.
+ */
+public record WatchEvent(Kind kind, String path, String newPath) {
+
+    public enum Kind {
+        CREATE,
+        DELETE,
+        MOVE,
+        /**
+         * The content of a text file changed, by a write or an edit.
+         */
+        WRITE,
+        /**
+         * Events were lost because the buffer was full; watchers should re-read the tree.
+         */
+        OVERFLOW
+    }
+}
@@ -0,0 +1,277 @@
+package filesystem.watch;
+
+import filesystem.api.EntityPath;
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemListener;
+import filesystem.api.FileSystemOperation;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Tells subscribers which entities below a path were created, deleted, moved or written, so they need
+ * not poll the tree.
+ * <p>
+ * A writing thread only puts the change it made into a bounded ring buffer, which takes one
+ * compare-and-set and never allocates. A dispatcher thread turns the changes into {@link WatchEvent}s
+ * and delivers them in batches, each one {@code window} after its first change. Repeated writes to a
+ * file within a batch arrive as one {@link WatchEvent.Kind#WRITE}, unless another kind of change came
+ * between them. Consumers run on the dispatcher thread one after another, so a slow consumer delays
+ * every watch; once the buffer fills up, the {@link OverflowPolicy} decides what happens to further
+ * changes.
+ */
+public final class WatchService implements FileSystemListener, Closeable {
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final Duration DEFAULT_WINDOW = Duration.ofMillis(10);
+
+    private final FileSystem fileSystem;
+    private final EventRing<FileSystemOperation> ring;
+    private final long windowNanos;
+    private final OverflowPolicy policy;
+    private final Thread dispatcher;
+    private final List<Watch> watches = new CopyOnWriteArrayList<>();
+
+    private final AtomicBoolean sleeping = new AtomicBoolean();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private volatile boolean closed;
+
+    private WatchService(FileSystem fileSystem, int capacity, Duration window, OverflowPolicy policy) {
+        this.fileSystem = fileSystem;
+        this.ring = new EventRing<>(capacity);
+        this.windowNanos = window.toNanos();
+        this.policy = policy;
+        this.dispatcher = new Thread(this::dispatchLoop, "watch-dispatcher");
+        dispatcher.setDaemon(true);
+    }
+
+    /**
+     * Opens a service with room for {@value #DEFAULT_CAPACITY} changes, a 10 ms window and
+     * {@link OverflowPolicy#SIGNAL}.
+     */
+    public static WatchService open(FileSystem fileSystem) {
+        return open(fileSystem, DEFAULT_CAPACITY, DEFAULT_WINDOW, OverflowPolicy.SIGNAL);
+    }
+
+    /**
+     * Starts reporting the changes made to {@code fileSystem} from now on.
+     *
+     * @param capacity changes buffered before {@code policy} applies; a power of two
+     * @param window   how long a batch collects changes before it is delivered; zero delivers as soon as
+     *                 the dispatcher sees a change
+     */
+    public static WatchService open(FileSystem fileSystem, int capacity, Duration window, OverflowPolicy policy) {
+        if (window.isNegative()) {
+            throw new IllegalArgumentException("Window must not be negative: " + window);
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Overflow policy must not be null");
+        }
+        WatchService service = new WatchService(fileSystem, capacity, window, policy);
+        service.dispatcher.start();
+        fileSystem.addListener(service);
+        return service;
+    }
+
+    /**
+     * Delivers the changes to {@code prefix} and everything below it to {@code consumer}, in the order
+     * they were made, until the returned watch is closed. Deleting or moving an ancestor of
+     * {@code prefix} is delivered too, and so is every {@link WatchEvent.Kind#OVERFLOW}.
+     *
+     * @throws IllegalArgumentException if the prefix is not a valid path
+     */
+    public Watch watch(String prefix, Consumer<List<WatchEvent>> consumer) {
+        if (closed) {
+            throw new IllegalStateException("Watch service is closed");
+        }
+        Watch watch = new Watch(this, EntityPath.parse(prefix).toString(), consumer);
+        watches.add(watch);
+        return watch;
+    }
+
+    /**
+     * Changes discarded because the buffer was full.
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes folded into an earlier write to the same file.
+     */
+    public long coalesced() {
+        return coalesced.get();
+    }
+
+    @Override
+    public void applied(FileSystemOperation operation) {
+        if (!ring.offer(operation)) {
+            overflow(operation);
+            return;
+        }
+        wakeDispatcher();
+    }
+
+    /**
+     * Stops watching, delivers the changes already buffered and stops the dispatcher.
+     */
+    @Override
+    public void close() {
+        fileSystem.removeListener(this);
+        closed = true;
+        LockSupport.unpark(dispatcher);
+        if (Thread.currentThread() == dispatcher) {
+            return;
+        }
+        boolean interrupted = false;
+        while (dispatcher.isAlive()) {
+            try {
+                dispatcher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void remove(Watch watch) {
+        watches.remove(watch);
+    }
+
+    private void overflow(FileSystemOperation operation) {
+        // A consumer writing to the file system would wait for itself.
+        if (policy == OverflowPolicy.BLOCK && Thread.currentThread() != dispatcher) {
+            do {
+                wakeDispatcher();
+                if (closed) {
+                    break;
+                }
+                LockSupport.parkNanos(10_000);
+                if (ring.offer(operation)) {
+                    wakeDispatcher();
+                    return;
+                }
+            } while (true);
+        }
+        dropped.incrementAndGet();
+        if (policy != OverflowPolicy.DROP) {
+            overflowed.set(true);
+        }
+        wakeDispatcher();
+    }
+
+    private void wakeDispatcher() {
+        if (sleeping.get() && sleeping.compareAndSet(true, false)) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    private void dispatchLoop() {
+        List<WatchEvent> batch = new ArrayList<>();
+        Set<String> written = new HashSet<>();
+        long batchStart = 0;
+        while (true) {
+            // Read before draining, so everything published before close() is delivered.
+            boolean closing = closed;
+            FileSystemOperation operation;
+            while ((operation = ring.poll()) != null) {
+                if (batch.isEmpty()) {
+                    batchStart = System.nanoTime();
+                }
+                add(batch, written, toEvent(operation));
+            }
+            if (overflowed.getAndSet(false)) {
+                if (batch.isEmpty()) {
+                    batchStart = System.nanoTime();
+                }
+                batch.add(new WatchEvent(WatchEvent.Kind.OVERFLOW, null, null));
+                written.clear();
+            }
+
+            long waited = System.nanoTime() - batchStart;
+            if (!batch.isEmpty() && (closing || waited >= windowNanos)) {
+                deliver(Collections.unmodifiableList(batch));
+                batch = new ArrayList<>();
+                written.clear();
+            }
+            if (closing) {
+                return;
+            }
+            if (!batch.isEmpty()) {
+                LockSupport.parkNanos(this, windowNanos - waited);
+            } else {
+                sleeping.set(true);
+                if (ring.isEmpty() && !overflowed.get() && !closed) {
+                    LockSupport.park(this);
+                }
+                sleeping.set(false);
+            }
+        }
+    }
+
+    private void add(List<WatchEvent> batch, Set<String> written, WatchEvent event) {
+        if (event.kind() != WatchEvent.Kind.WRITE) {
+            // Anything else may change what a path refers to, so later writes start afresh.
+            written.clear();
+        } else if (!written.add(event.path())) {
+            coalesced.incrementAndGet();
+            return;
+        }
+        batch.add(event);
+    }
+
+    private void deliver(List<WatchEvent> batch) {
+        for (Watch watch : watches) {
+            List<WatchEvent> matching = new ArrayList<>();
+            for (WatchEvent event : batch) {
+                if (watch.matches(event)) {
+                    matching.add(event);
+                }
+            }
+            if (matching.isEmpty()) {
+                continue;
+            }
+            try {
+                watch.deliver(matching.size() == batch.size() ? batch : Collections.unmodifiableList(matching));
+            } catch (RuntimeException e) {
+                // One failing consumer must not stop delivery to the others.
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+    }
+
+    private static WatchEvent toEvent(FileSystemOperation operation) {
+        if (operation instanceof FileSystemOperation.Create create) {
+            String path = create.parentPath() == null ? create.name() : create.parentPath() + "\\" + create.name();
+            return new WatchEvent(WatchEvent.Kind.CREATE, path, null);
+        } else if (operation instanceof FileSystemOperation.Delete delete) {
+            return new WatchEvent(WatchEvent.Kind.DELETE, delete.path(), null);
+        } else if (operation instanceof FileSystemOperation.Move move) {
+            return new WatchEvent(WatchEvent.Kind.MOVE, move.sourcePath(), childPath(move.destPath(), move.sourcePath()));
+        } else if (operation instanceof FileSystemOperation.Copy copy) {
+            return new WatchEvent(WatchEvent.Kind.CREATE, childPath(copy.destPath(), copy.sourcePath()), null);
+        } else if (operation instanceof FileSystemOperation.Write write) {
+            return new WatchEvent(WatchEvent.Kind.WRITE, write.path(), null);
+        } else {
+            return new WatchEvent(WatchEvent.Kind.WRITE, ((FileSystemOperation.Edit) operation).path(), null);
+        }
+    }
+
+    private static String childPath(String parentPath, String sourcePath) {
+        return parentPath + "\\" + sourcePath.substring(sourcePath.lastIndexOf('\\') + 1);
+    }
+}
@@ -0,0 +1,61 @@
+package filesystem;
+
+import filesystem.containers.ChildTable;
+import filesystem.entities.TextFile;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChildTableTest {
+
+    @Test
+    void smallTable_shouldIterateInNameOrder() {
+        ChildTable<TextFile> table = new ChildTable<>();
+        for (String name : new String[]{"c.txt", "a.txt", "b.txt"}) {
+            assertTrue(table.add(new TextFile(name)));
+        }
+
+        List<String> names = new ArrayList<>();
+        table.values().forEach(file -> names.add(file.getName()));
+
+        assertEquals(List.of("a.txt", "b.txt", "c.txt"), names);
+        assertFalse(table.add(new TextFile("b.txt")));
+    }
+
+    @Test
+    void growAndShrinkAcrossLayouts_shouldKeepEveryEntryReachable() {
+        ChildTable<TextFile> table = new ChildTable<>();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(table.add(new TextFile("f" + i)));
+            assertEquals(i + 1, table.size());
+            for (int j = 0; j <= i; j++) {
+                assertNotNull(table.get("f" + j), "f" + j + " after adding f" + i);
+            }
+        }
+        for (int i = 99; i >= 0; i--) {
+            assertNotNull(table.remove("f" + i));
+            assertNull(table.get("f" + i));
+            for (int j = 0; j < i; j++) {
+                assertNotNull(table.get("f" + j), "f" + j + " after removing f" + i);
+            }
+        }
+        assertTrue(table.isEmpty());
+        assertFalse(table.values().iterator().hasNext());
+    }
+
+    @Test
+    void getBySlice_shouldMatchOnlyThatSegment() {
+        ChildTable<TextFile> table = new ChildTable<>();
+        table.add(new TextFile("Docs"));
+        table.add(new TextFile("Doc"));
+
+        String path = "C\\Doc\\Docs";
+
+        assertSame(table.get("Doc"), table.get(path, 2, 5));
+        assertSame(table.get("Docs"), table.get(path, 6, 10));
+        assertNull(table.get(path, 0, 1));
+    }
+}
@@ -0,0 +1,303 @@
+package filesystem;
+
+import filesystem.api.FileSystemEntity;
+import filesystem.api.FileSystemOperation;
+import filesystem.api.NameIndex;
+import filesystem.concurrent.ConcurrentFileSystem;
+import filesystem.containers.Container;
+import filesystem.entities.Folder;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentFileSystemStressTest {
+    private static final int DRIVES = 8;
+    private static final int FOLDERS = 50;
+    private static final int FILES = 20;
+
+    private final ConcurrentFileSystem fs = new ConcurrentFileSystem();
+
+    @Test
+    void readers_whileOtherDrivesChange_shouldFindEveryFile() throws Exception {
+        buildTree();
+
+        // Even threads read from their own drive while odd threads create and delete in theirs.
+        long completed = runFor(4, Duration.ofMillis(300), thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String folder = "D" + thread + "\\f" + random.nextInt(FOLDERS);
+            if (thread % 2 == 0) {
+                assertNotNull(fs.findEntity(folder + "\\t" + random.nextInt(FILES) + ".txt"));
+            } else {
+                fs.create("TextFile", "scratch.txt", folder);
+                fs.delete(folder + "\\scratch.txt");
+            }
+        });
+
+        assertTrue(completed > 0);
+        for (int d = 0; d < 4; d++) {
+            assertEquals(FOLDERS * (FILES + 1), fs.findDrive("D" + d).getDescendantCount());
+            assertConsistent(fs.findDrive("D" + d));
+        }
+    }
+
+    @Test
+    void mixedOperations_shouldKeepTreeConsistent() throws Exception {
+        buildTree();
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+        runFor(threads, Duration.ofMillis(500), thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String folder = "D" + random.nextInt(DRIVES) + "\\f" + random.nextInt(FOLDERS);
+            String other = "D" + random.nextInt(DRIVES) + "\\f" + random.nextInt(FOLDERS);
+            String name = "x" + random.nextInt(8) + ".txt";
+            try {
+                switch (random.nextInt(5)) {
+                    case 0 -> fs.create("TextFile", name, folder);
+                    case 1 -> fs.delete(folder + "\\" + name);
+                    case 2 -> fs.move(folder + "\\" + name, other);
+                    case 3 -> fs.writeToFile(folder + "\\" + name, "thread " + thread);
+                    default -> fs.findEntity(folder + "\\" + name);
+                }
+            } catch (IllegalArgumentException expected) {
+                // Racing operations on the same names are expected to fail validation.
+            }
+        });
+
+        for (int d = 0; d < DRIVES; d++) {
+            assertConsistent(fs.findDrive("D" + d));
+        }
+    }
+
+    @Test
+    void oppositeMoves_shouldNotDeadlock() {
+        fs.create("Drive", "C", null);
+        fs.create("Folder", "A", "C");
+        fs.create("Folder", "B", "C");
+        for (int i = 0; i < 16; i++) {
+            fs.create("TextFile", "a" + i + ".txt", "C\\A");
+            fs.create("TextFile", "b" + i + ".txt", "C\\B");
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> runFor(4, Duration.ofMillis(500), thread -> {
+            int i = ThreadLocalRandom.current().nextInt(16);
+            try {
+                if (thread % 2 == 0) {
+                    fs.move("C\\A\\a" + i + ".txt", "C\\B");
+                    fs.move("C\\B\\a" + i + ".txt", "C\\A");
+                } else {
+                    fs.move("C\\B\\b" + i + ".txt", "C\\A");
+                    fs.move("C\\A\\b" + i + ".txt", "C\\B");
+                }
+            } catch (IllegalArgumentException expected) {
+                // Another thread of the same parity already moved this file.
+            }
+        }));
+
+        Folder a = (Folder) fs.findEntity("C\\A");
+        Folder b = (Folder) fs.findEntity("C\\B");
+        assertEquals(32, a.getContents().size() + b.getContents().size());
+    }
+
+    @Test
+    void crossingFolderMoves_shouldNeverCreateCycle() throws Exception {
+        fs.create("Drive", "C", null);
+        for (int round = 0; round < 200; round++) {
+            fs.create("Folder", "P" + round, "C");
+            fs.create("Folder", "Q" + round, "C");
+            String p = "C\\P" + round;
+            String q = "C\\Q" + round;
+
+            CountDownLatch start = new CountDownLatch(1);
+            Thread first = new Thread(() -> moveQuietly(start, p, q));
+            Thread second = new Thread(() -> moveQuietly(start, q, p));
+            first.start();
+            second.start();
+            start.countDown();
+            first.join();
+            second.join();
+
+            boolean pAtRoot = fs.findEntity(p) != null;
+            boolean qAtRoot = fs.findEntity(q) != null;
+            assertTrue(pAtRoot ^ qAtRoot, "exactly one folder must stay attached to the drive");
+        }
+    }
+
+    @Test
+    void createInFolder_whileAncestorIsDeleted_shouldNeverLeaveAnOrphan() throws Exception {
+        fs.create("Drive", "C", null);
+        NameIndex index = fs.indexNames();
+        for (int round = 0; round < 200; round++) {
+            fs.create("Folder", "P" + round, "C");
+            fs.create("Folder", "Q", "C\\P" + round);
+            String p = "C\\P" + round;
+
+            CountDownLatch start = new CountDownLatch(1);
+            Thread creator = new Thread(() -> runQuietly(start, () -> fs.create("TextFile", "x.txt", p + "\\Q")));
+            Thread deleter = new Thread(() -> runQuietly(start, () -> fs.delete(p)));
+            creator.start();
+            deleter.start();
+            start.countDown();
+            creator.join();
+            deleter.join();
+
+            assertNull(fs.findEntity(p));
+            assertEquals(List.of(), index.named("x.txt"), "a file created into a deleted folder stays indexed");
+        }
+    }
+
+    @Test
+    void createInFolder_afterItWasLookedUpAndDeleted_shouldFail() throws Exception {
+        fs.create("Drive", "C", null);
+        fs.create("Folder", "P", "C");
+        fs.create("Folder", "R", "C\\P");
+        fs.create("Drive", "D", null);
+        fs.create("Folder", "A", "D");
+        fs.create("Folder", "B", "D");
+        NameIndex index = fs.indexNames();
+        // A folder move on another drive holds the exclusive side of the batch lock until released, so
+        // the delete queues first and the create, having already looked up its parent, runs after it.
+        CountDownLatch moving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        fs.addListener(operation -> {
+            if (operation instanceof FileSystemOperation.Move) {
+                moving.countDown();
+                awaitQuietly(release);
+            }
+        });
+        Thread mover = new Thread(() -> fs.move("D\\A", "D\\B"));
+        mover.start();
+        assertTrue(moving.await(10, TimeUnit.SECONDS));
+
+        Thread deleter = new Thread(() -> fs.delete("C\\P"));
+        deleter.start();
+        awaitWaiting(deleter);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread creator = new Thread(() -> {
+            try {
+                fs.create("TextFile", "x.txt", "C\\P\\R");
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        creator.start();
+        awaitWaiting(creator);
+        release.countDown();
+        mover.join();
+        deleter.join();
+        creator.join();
+
+        assertInstanceOf(IllegalArgumentException.class, failure.get());
+        assertEquals("Parent path not found: C\\P\\R", failure.get().getMessage());
+        assertEquals(List.of(), index.named("x.txt"));
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runQuietly(CountDownLatch start, Runnable action) {
+        try {
+            start.await();
+            action.run();
+        } catch (IllegalArgumentException | InterruptedException expected) {
+            // The delete came first.
+        }
+    }
+
+    private void moveQuietly(CountDownLatch start, String source, String dest) {
+        try {
+            start.await();
+            fs.move(source, dest);
+        } catch (IllegalArgumentException | InterruptedException expected) {
+            // The other move won.
+        }
+    }
+
+    private void buildTree() {
+        for (int d = 0; d < DRIVES; d++) {
+            fs.create("Drive", "D" + d, null);
+            for (int f = 0; f < FOLDERS; f++) {
+                fs.create("Folder", "f" + f, "D" + d);
+                for (int t = 0; t < FILES; t++) {
+                    fs.create("TextFile", "t" + t + ".txt", "D" + d + "\\f" + f);
+                }
+            }
+        }
+    }
+
+    private void assertConsistent(Container container) {
+        for (FileSystemEntity child : container.getContents()) {
+            assertSame(container, child.getParent());
+            assertSame(child, fs.findEntity(child.getPath()));
+            if (child instanceof Container nested) {
+                assertConsistent(nested);
+            }
+        }
+    }
+
+    private interface Operation {
+        void run(int thread);
+    }
+
+    /**
+     * Runs the operation in a loop on each thread until the duration elapses and returns the total
+     * number of completed operations. Rethrows the first failure from any thread.
+     */
+    private static long runFor(int threads, Duration duration, Operation operation) throws Exception {
+        AtomicLong completed = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            Thread worker = new Thread(() -> {
+                long count = 0;
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline) {
+                        operation.run(thread);
+                        count++;
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+                completed.addAndGet(count);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        if (failure.get() instanceof Exception e) {
+            throw e;
+        }
+        if (failure.get() instanceof Error e) {
+            throw e;
+        }
+        return completed.get();
+    }
+}
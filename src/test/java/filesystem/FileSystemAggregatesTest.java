@@ -0,0 +1,230 @@
+package filesystem;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import filesystem.api.FileSystemOperation;
+import filesystem.concurrent.ConcurrentFileSystem;
+import filesystem.containers.Container;
+import filesystem.entities.TextFile;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemAggregatesTest extends BaseFileSystemTest {
+
+    @Test
+    void getPath_repeatedCalls_shouldReuseCachedPath() {
+        createBasicStructure();
+        fs.create("Folder", "Work", "C\\Documents");
+        FileSystemEntity work = fs.findEntity("C\\Documents\\Work");
+
+        assertEquals("C\\Documents\\Work", work.getPath());
+        assertSame(work.getPath(), work.getPath());
+    }
+
+    @Test
+    void getPath_afterMovingAncestor_shouldReflectNewLocation() {
+        createBasicStructure();
+        fs.create("Folder", "Archive", "C");
+        fs.create("Folder", "Work", "C\\Documents");
+        fs.create("TextFile", "note.txt", "C\\Documents\\Work");
+        FileSystemEntity work = fs.findEntity("C\\Documents\\Work");
+        FileSystemEntity note = fs.findEntity("C\\Documents\\Work\\note.txt");
+        assertEquals("C\\Documents\\Work\\note.txt", note.getPath());
+
+        fs.move("C\\Documents", "C\\Archive");
+
+        assertEquals("C\\Archive\\Documents\\Work", work.getPath());
+        assertEquals("C\\Archive\\Documents\\Work\\note.txt", note.getPath());
+    }
+
+    @Test
+    void aggregates_createWriteAndDelete_shouldTrackCountAndBytes() {
+        createBasicStructure();
+        fs.create("TextFile", "a.txt", "C\\Documents");
+        fs.create("Folder", "Sub", "C\\Documents");
+        fs.create("TextFile", "b.txt", "C\\Documents\\Sub");
+        fs.writeToFile("C\\Documents\\a.txt", "Hello");
+        fs.writeToFile("C\\Documents\\Sub\\b.txt", "Grüße");
+        FileSystemEntity drive = fs.findDrive("C");
+
+        assertEquals(4, drive.getDescendantCount());
+        assertEquals(5 + 7, drive.getTotalBytes());
+        assertEquals(3, drive.getMaxDepth());
+        assertEquals(7, fs.findEntity("C\\Documents\\Sub").getTotalBytes());
+
+        fs.appendToFile("C\\Documents\\a.txt", ", world");
+        fs.writeToFile("C\\Documents\\Sub\\b.txt", null);
+        assertEquals(12, drive.getTotalBytes());
+
+        fs.delete("C\\Documents\\Sub");
+        assertEquals(2, drive.getDescendantCount());
+        assertEquals(12, drive.getTotalBytes());
+        assertEquals(2, drive.getMaxDepth());
+    }
+
+    @Test
+    void aggregates_move_shouldShiftBetweenSubtrees() {
+        createBasicStructure();
+        fs.create("ZipFile", "backup.zip", "C");
+        fs.create("Folder", "Work", "C\\Documents");
+        fs.create("TextFile", "note.txt", "C\\Documents\\Work");
+        fs.writeToFile("C\\Documents\\Work\\note.txt", "x".repeat(10_000));
+
+        fs.move("C\\Documents\\Work", "C\\backup.zip");
+
+        assertEquals(0, fs.findEntity("C\\Documents").getDescendantCount());
+        assertEquals(0, fs.findEntity("C\\Documents").getTotalBytes());
+        assertEquals(0, fs.findEntity("C\\Documents").getMaxDepth());
+        FileSystemEntity zip = fs.findEntity("C\\backup.zip");
+        assertEquals(2, zip.getDescendantCount());
+        assertEquals(10_000, zip.getTotalBytes());
+        assertEquals(2, zip.getMaxDepth());
+        assertEquals(4, fs.findDrive("C").getDescendantCount());
+    }
+
+    @Test
+    void aggregates_rolledBackBatch_shouldBeRestored() {
+        createBasicStructure();
+        fs.create("TextFile", "a.txt", "C\\Documents");
+        fs.writeToFile("C\\Documents\\a.txt", "Hello");
+
+        assertThrows(IllegalArgumentException.class, () -> fs.apply(List.of(
+                new FileSystemOperation.Create("Folder", "Sub", "C\\Documents"),
+                new FileSystemOperation.Create("TextFile", "b.txt", "C\\Documents\\Sub"),
+                new FileSystemOperation.Write("C\\Documents\\Sub\\b.txt", "World"),
+                new FileSystemOperation.Delete("C\\Missing"))));
+
+        assertEquals(expected(fs.findDrive("C")), actual(fs.findDrive("C")));
+        assertEquals(2, fs.findDrive("C").getDescendantCount());
+    }
+
+    @Test
+    void randomChanges_shouldMatchFullWalk() {
+        Random random = new Random(7);
+        List<String> containers = new ArrayList<>(List.of("C"));
+        fs.create("Drive", "C", null);
+        for (int i = 0; i < 3000; i++) {
+            randomChange(fs, random, containers);
+            if (i % 100 == 0) {
+                assertEquals(expected(fs.findDrive("C")), actual(fs.findDrive("C")));
+            }
+        }
+        assertEquals(expected(fs.findDrive("C")), actual(fs.findDrive("C")));
+    }
+
+    @Test
+    void concurrentChanges_shouldMatchFullWalk() throws Exception {
+        FileSystem concurrent = new ConcurrentFileSystem();
+        concurrent.create("Drive", "C", null);
+        int threads = 4;
+        for (int t = 0; t < threads; t++) {
+            concurrent.create("Folder", "t" + t, "C");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    List<String> containers = new ArrayList<>(List.of("C\\t" + seed));
+                    for (int i = 0; i < 2000; i++) {
+                        randomChange(concurrent, random, containers);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(expected(concurrent.findDrive("C")), actual(concurrent.findDrive("C")));
+    }
+
+    /**
+     * Creates, writes, moves or deletes something below {@code containers}, which lists the
+     * containers this caller owns and is kept up to date.
+     */
+    private static void randomChange(FileSystem fileSystem, Random random, List<String> containers) {
+        String parent = containers.get(random.nextInt(containers.size()));
+        String name = "e" + random.nextInt(20);
+        String path = parent + "\\" + name;
+        FileSystemEntity existing = fileSystem.findEntity(path);
+        if (existing == null) {
+            String type = random.nextInt(3) == 0 ? "Folder" : random.nextInt(4) == 0 ? "ZipFile" : "TextFile";
+            fileSystem.create(type, name, parent);
+            if (!type.equals("TextFile")) {
+                containers.add(path);
+            }
+        } else if (random.nextInt(4) == 0) {
+            String dest = containers.get(random.nextInt(containers.size()));
+            if (!dest.equals(parent) && !dest.equals(path) && !dest.startsWith(path + "\\")
+                    && fileSystem.findEntity(dest + "\\" + name) == null) {
+                fileSystem.move(path, dest);
+                containers.replaceAll(container -> container.equals(path) || container.startsWith(path + "\\")
+                        ? dest + "\\" + name + container.substring(path.length()) : container);
+            }
+        } else if (existing instanceof TextFile) {
+            if (random.nextBoolean()) {
+                fileSystem.writeToFile(path, "v".repeat(random.nextInt(50)));
+            } else {
+                fileSystem.appendToFile(path, "+" + random.nextInt(1000));
+            }
+        } else if (random.nextInt(5) == 0) {
+            fileSystem.delete(path);
+            containers.removeIf(container -> container.equals(path) || container.startsWith(path + "\\"));
+        }
+    }
+
+    /**
+     * Descendant count, total bytes and max depth of every container below {@code entity}, by walking.
+     */
+    private static List<String> expected(FileSystemEntity entity) {
+        List<String> lines = new ArrayList<>();
+        walk(entity, lines);
+        return lines;
+    }
+
+    private static long[] walk(FileSystemEntity entity, List<String> lines) {
+        long count = 0;
+        long bytes = entity instanceof TextFile file ? file.getSize() : 0;
+        long depth = 0;
+        if (entity instanceof Container container) {
+            for (FileSystemEntity child : container.getContents()) {
+                long[] below = walk(child, lines);
+                count += below[0] + 1;
+                bytes += below[1];
+                depth = Math.max(depth, below[2] + 1);
+            }
+            lines.add(entity.getPath() + " " + count + " " + bytes + " " + depth);
+        }
+        return new long[]{count, bytes, depth};
+    }
+
+    private static List<String> actual(FileSystemEntity entity) {
+        List<String> lines = new ArrayList<>();
+        collect(entity, lines);
+        return lines;
+    }
+
+    private static void collect(FileSystemEntity entity, List<String> lines) {
+        if (entity instanceof Container container) {
+            for (FileSystemEntity child : container.getContents()) {
+                collect(child, lines);
+            }
+            lines.add(entity.getPath() + " " + entity.getDescendantCount() + " " + entity.getTotalBytes()
+                    + " " + entity.getMaxDepth());
+        }
+    }
+}
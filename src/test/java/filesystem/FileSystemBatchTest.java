@@ -0,0 +1,122 @@
+package filesystem;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemOperation;
+import filesystem.api.FileSystemOperation.Create;
+import filesystem.api.FileSystemOperation.Delete;
+import filesystem.api.FileSystemOperation.Move;
+import filesystem.api.FileSystemOperation.Write;
+import filesystem.concurrent.ConcurrentFileSystem;
+import filesystem.entities.TextFile;
+import filesystem.persistent.PersistentFileSystem;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemBatchTest extends BaseFileSystemTest {
+
+    @Test
+    void apply_validBatch_shouldApplyEveryOperation() {
+        createBasicStructure();
+
+        fs.apply(List.of(
+                new Create("Folder", "Work", "C\\Documents"),
+                new Create("TextFile", "a.txt", "C\\Documents\\Work"),
+                new Write("C\\Documents\\Work\\a.txt", "Hello"),
+                new Create("Drive", "D", null),
+                new Move("C\\Documents\\Work", "D"),
+                new Delete("C\\Documents")));
+
+        assertNull(fs.findEntity("C\\Documents"));
+        assertEquals("Hello", ((TextFile) fs.findEntity("D\\Work\\a.txt")).getContent());
+    }
+
+    @Test
+    void apply_failingOperation_shouldRollBackEarlierOperations() {
+        createBasicStructure();
+        fs.create("TextFile", "note.txt", "C\\Documents");
+        fs.writeToFile("C\\Documents\\note.txt", "Original");
+        fs.create("Folder", "Old", "C");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> fs.apply(List.of(
+                new Create("Drive", "D", null),
+                new Create("Folder", "Work", "C\\Documents"),
+                new Write("C\\Documents\\note.txt", "Changed"),
+                new Move("C\\Documents\\note.txt", "C\\Documents\\Work"),
+                new Delete("C\\Old"),
+                new Create("Folder", "x", "C\\Missing"))));
+
+        assertEquals("Parent path not found: C\\Missing", e.getMessage());
+        assertNull(fs.findDrive("D"));
+        assertNull(fs.findEntity("C\\Documents\\Work"));
+        assertNotNull(fs.findEntity("C\\Old"));
+        TextFile note = (TextFile) fs.findEntity("C\\Documents\\note.txt");
+        assertEquals("Original", note.getContent());
+        assertSame(fs.findEntity("C\\Documents"), note.getParent());
+    }
+
+    @Test
+    void apply_pathReusedAfterDelete_shouldResolveNewEntity() {
+        createBasicStructure();
+
+        fs.apply(List.of(
+                new Create("TextFile", "a.txt", "C\\Documents"),
+                new Delete("C\\Documents"),
+                new Create("Folder", "Documents", "C"),
+                new Create("TextFile", "b.txt", "C\\Documents")));
+
+        assertNull(fs.findEntity("C\\Documents\\a.txt"));
+        assertNotNull(fs.findEntity("C\\Documents\\b.txt"));
+    }
+
+    @Test
+    void apply_withLookupCache_shouldNotLeaveRolledBackPathsCached() {
+        fs = new FileSystem(16);
+        createBasicStructure();
+
+        assertThrows(IllegalArgumentException.class, () -> fs.apply(List.of(
+                new Create("Folder", "Work", "C\\Documents"),
+                new Create("TextFile", "a.txt", "C\\Documents\\Work"),
+                new Move("C\\Documents", "C\\Documents\\Work"))));
+
+        assertNull(fs.findEntity("C\\Documents\\Work"));
+        assertNull(fs.findEntity("C\\Documents\\Work\\a.txt"));
+    }
+
+    @Test
+    void apply_concurrentFileSystem_shouldRollBack() {
+        fs = new ConcurrentFileSystem();
+        createBasicStructure();
+
+        assertThrows(IllegalArgumentException.class, () -> fs.apply(List.of(
+                new Create("TextFile", "a.txt", "C\\Documents"),
+                new Delete("C\\Documents\\missing.txt"))));
+
+        assertNull(fs.findEntity("C\\Documents\\a.txt"));
+        fs.create("TextFile", "a.txt", "C\\Documents");
+    }
+
+    @Test
+    void apply_persistentFileSystem_shouldPublishOneVersion() {
+        PersistentFileSystem pfs = new PersistentFileSystem();
+        pfs.create("Drive", "C", null);
+        long before = pfs.getVersion();
+        List<FileSystemOperation> failing = List.of(
+                new Create("Folder", "Work", "C"),
+                new Write("C\\Work", "Hello"));
+
+        assertThrows(IllegalArgumentException.class, () -> pfs.apply(failing));
+        assertEquals(before, pfs.getVersion());
+        assertNull(pfs.findNode("C\\Work"));
+
+        pfs.apply(List.of(
+                new Create("Folder", "Work", "C"),
+                new Create("TextFile", "a.txt", "C\\Work"),
+                new Write("C\\Work\\a.txt", "Hello")));
+
+        assertEquals(before + 1, pfs.getVersion());
+        assertEquals("Hello", pfs.readFile("C\\Work\\a.txt"));
+    }
+}
@@ -0,0 +1,144 @@
+package filesystem;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import filesystem.concurrent.ConcurrentFileSystem;
+import filesystem.durable.Checkpoint;
+import filesystem.entities.Folder;
+import filesystem.entities.TextFile;
+import filesystem.entities.ZipFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemCheckpointTest extends BaseFileSystemTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void load_shouldRestoreEveryEntityAndContent() throws IOException {
+        createBasicStructure();
+        fs.create("Drive", "D", null);
+        fs.create("ZipFile", "archive.zip", "C\\Documents");
+        fs.create("Folder", "Inner", "C\\Documents\\archive.zip");
+        fs.create("TextFile", "note.txt", "C\\Documents");
+        fs.create("TextFile", "packed.txt", "C\\Documents\\archive.zip\\Inner");
+        fs.create("TextFile", "empty.txt", "D");
+        fs.create("TextFile", "none.txt", "D");
+        fs.writeToFile("C\\Documents\\note.txt", "Grüße from C");
+        fs.writeToFile("C\\Documents\\archive.zip\\Inner\\packed.txt", "packed ".repeat(1000));
+        fs.writeToFile("D\\none.txt", null);
+        Path file = dir.resolve("fs.checkpoint");
+        Checkpoint.write(fs, file);
+
+        FileSystem restored = new FileSystem();
+        Checkpoint.load(file, restored);
+
+        assertEquals(2, restored.getDrives().size());
+        assertInstanceOf(ZipFile.class, restored.findEntity("C\\Documents\\archive.zip"));
+        assertInstanceOf(Folder.class, restored.findEntity("C\\Documents\\archive.zip\\Inner"));
+        assertEquals("Grüße from C", ((TextFile) restored.findEntity("C\\Documents\\note.txt")).getContent());
+        assertEquals("packed ".repeat(1000), ((TextFile) restored.findEntity("C\\Documents\\archive.zip\\Inner\\packed.txt")).getContent());
+        assertEquals("", ((TextFile) restored.findEntity("D\\empty.txt")).getContent());
+        assertNull(((TextFile) restored.findEntity("D\\none.txt")).getContent());
+        assertEquals("C\\Documents\\archive.zip\\Inner\\packed.txt", restored.findEntity("C\\Documents\\archive.zip\\Inner\\packed.txt").getPath());
+    }
+
+    @Test
+    void load_largeTree_shouldBuildEverySubtree() throws IOException {
+        fs.create("Drive", "C", null);
+        for (int f = 0; f < 8; f++) {
+            fs.create("Folder", "f" + f, "C");
+            for (int i = 0; i < 2000; i++) {
+                fs.create("TextFile", "t" + i + ".txt", "C\\f" + f);
+            }
+        }
+        fs.writeToFile("C\\f7\\t1999.txt", "last");
+        Path file = dir.resolve("fs.checkpoint");
+        Checkpoint.write(fs, file);
+
+        FileSystem restored = new ConcurrentFileSystem();
+        Checkpoint.load(file, restored);
+
+        for (int f = 0; f < 8; f++) {
+            Folder folder = (Folder) restored.findEntity("C\\f" + f);
+            assertEquals(2000, folder.getContents().size());
+            for (FileSystemEntity child : folder.getContents()) {
+                assertSame(folder, child.getParent());
+            }
+        }
+        assertEquals("last", ((TextFile) restored.findEntity("C\\f7\\t1999.txt")).getContent());
+    }
+
+    @Test
+    void write_sharedContent_shouldBeStoredOnce() throws IOException {
+        createBasicStructure();
+        String text = "x".repeat(100_000);
+        for (int i = 0; i < 10; i++) {
+            fs.create("TextFile", "copy" + i + ".txt", "C\\Documents");
+            fs.writeToFile("C\\Documents\\copy" + i + ".txt", text);
+        }
+        Path file = dir.resolve("fs.checkpoint");
+        Checkpoint.write(fs, file);
+
+        assertTrue(Files.size(file) < 2 * text.length());
+        FileSystem restored = new FileSystem();
+        Checkpoint.load(file, restored);
+        assertEquals(text, ((TextFile) restored.findEntity("C\\Documents\\copy9.txt")).getContent());
+    }
+
+    @Test
+    void loadedContent_shouldSurviveEditsAndNewCheckpoints() throws IOException {
+        createBasicStructure();
+        fs.create("TextFile", "note.txt", "C\\Documents");
+        fs.writeToFile("C\\Documents\\note.txt", "Hello");
+        Path file = dir.resolve("fs.checkpoint");
+        Checkpoint.write(fs, file);
+        FileSystem restored = new FileSystem();
+        Checkpoint.load(file, restored);
+
+        restored.appendToFile("C\\Documents\\note.txt", ", world");
+        fs.writeToFile("C\\Documents\\note.txt", "Replaced");
+        Checkpoint.write(fs, file);
+        fs.create("TextFile", "other.txt", "C\\Documents");
+        fs.writeToFile("C\\Documents\\other.txt", "Untouched");
+        FileSystem untouched = new FileSystem();
+        Checkpoint.load(file, untouched);
+        Checkpoint.write(fs, file);
+
+        assertEquals("Hello, world", ((TextFile) restored.findEntity("C\\Documents\\note.txt")).getContent());
+        assertEquals("Replaced", ((TextFile) untouched.findEntity("C\\Documents\\note.txt")).getContent());
+    }
+
+    @Test
+    void load_corruptOrForeignFile_shouldThrow() throws IOException {
+        createBasicStructure();
+        Path file = dir.resolve("fs.checkpoint");
+        Checkpoint.write(fs, file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), channel.size() - 1);
+        }
+        Path other = dir.resolve("notes.txt");
+        Files.writeString(other, "not a checkpoint");
+
+        assertThrows(IOException.class, () -> Checkpoint.load(file, new FileSystem()));
+        assertThrows(IOException.class, () -> Checkpoint.load(other, new FileSystem()));
+    }
+
+    @Test
+    void load_nonEmptyFileSystem_shouldThrow() throws IOException {
+        createBasicStructure();
+        Path file = dir.resolve("fs.checkpoint");
+        Checkpoint.write(fs, file);
+
+        assertThrows(IllegalArgumentException.class, () -> Checkpoint.load(file, fs));
+    }
+}
@@ -0,0 +1,121 @@
+package filesystem;
+
+import filesystem.api.FileSystem;
+import filesystem.content.ContentPolicy;
+import filesystem.entities.TextFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemContentEditTest extends BaseFileSystemTest {
+    private static final String NOTE = "C\\Documents\\note.txt";
+
+    @BeforeEach
+    void createNote() {
+        createBasicStructure();
+        fs.create("TextFile", "note.txt", "C\\Documents");
+    }
+
+    @Test
+    void appendToFile_shouldAddToEnd() {
+        fs.writeToFile(NOTE, "Hello");
+
+        fs.appendToFile(NOTE, ", World");
+        fs.appendToFile(NOTE, "!");
+
+        assertEquals("Hello, World!", content());
+    }
+
+    @Test
+    void writeAt_shouldOverwriteAndExtend() {
+        fs.writeToFile(NOTE, "Hello, World");
+
+        fs.writeAt(NOTE, 7, "There");
+        assertEquals("Hello, There", content());
+
+        fs.writeAt(NOTE, 12, "!");
+        fs.writeAt(NOTE, 12, ", friend");
+        assertEquals("Hello, There, friend", content());
+    }
+
+    @Test
+    void writeAt_offsetPastEnd_shouldThrow() {
+        fs.writeToFile(NOTE, "Hello");
+
+        assertThrows(IllegalArgumentException.class, () -> fs.writeAt(NOTE, 6, "x"));
+        assertThrows(IllegalArgumentException.class, () -> fs.writeAt(NOTE, -1, "x"));
+        assertEquals("Hello", content());
+    }
+
+    @Test
+    void truncate_shouldKeepPrefix() {
+        fs.writeToFile(NOTE, "Hello, World");
+
+        fs.truncate(NOTE, 5);
+        assertEquals("Hello", content());
+
+        fs.truncate(NOTE, 0);
+        assertEquals("", content());
+        assertThrows(IllegalArgumentException.class, () -> fs.truncate(NOTE, 1));
+    }
+
+    @Test
+    void readFromFile_shouldReturnByteRange() {
+        fs.writeToFile(NOTE, "Hello, World");
+
+        assertEquals("World", new String(fs.readFromFile(NOTE, 7, 5), StandardCharsets.UTF_8));
+        assertEquals(0, fs.readFromFile(NOTE, 12, 0).length);
+        assertThrows(IllegalArgumentException.class, () -> fs.readFromFile(NOTE, 8, 5));
+        assertThrows(IllegalArgumentException.class, () -> fs.readFromFile("C\\Documents", 0, 1));
+    }
+
+    @Test
+    void editsAcrossChunks_shouldMatchWholeStringEdits() {
+        for (ContentPolicy policy : new ContentPolicy[]{ContentPolicy.heap(), ContentPolicy.offHeap()}) {
+            fs = new FileSystem(policy);
+            createNote();
+            StringBuilder expected = new StringBuilder();
+            for (int i = 0; i < 30_000; i++) {
+                expected.append("line ").append(i).append('\n');
+            }
+            fs.writeToFile(NOTE, expected.toString());
+
+            fs.appendToFile(NOTE, "tail\n");
+            expected.append("tail\n");
+            int offset = 64 * 1024 - 3;
+            fs.writeAt(NOTE, offset, "ACROSS-A-CHUNK-BOUNDARY");
+            expected.replace(offset, offset + 23, "ACROSS-A-CHUNK-BOUNDARY");
+            fs.truncate(NOTE, 3 * 64 * 1024 + 17);
+            expected.setLength(3 * 64 * 1024 + 17);
+
+            assertEquals(expected.toString(), content());
+            assertEquals(expected.substring(offset - 10, offset + 40),
+                    new String(fs.readFromFile(NOTE, offset - 10, 50), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void appendToFile_concurrentWriters_shouldNotLoseAppends() throws InterruptedException {
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    fs.appendToFile(NOTE, "x");
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(4000, ((TextFile) fs.findEntity(NOTE)).getSize());
+    }
+
+    private String content() {
+        return ((TextFile) fs.findEntity(NOTE)).getContent();
+    }
+}
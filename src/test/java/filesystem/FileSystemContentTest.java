@@ -0,0 +1,71 @@
+package filesystem;
+
+import filesystem.api.FileSystem;
+import filesystem.content.Content;
+import filesystem.content.ContentPolicy;
+import filesystem.entities.TextFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemContentTest extends BaseFileSystemTest {
+
+    @Test
+    void writeToFile_defaultPolicy_shouldStoreUtf8OnHeap() {
+        createBasicStructure();
+        fs.create("TextFile", "note.txt", "C\\Documents");
+
+        fs.writeToFile("C\\Documents\\note.txt", "Grüße, 世界");
+
+        TextFile file = (TextFile) fs.findEntity("C\\Documents\\note.txt");
+        assertEquals("Grüße, 世界", file.getContent());
+        assertEquals("Grüße, 世界".getBytes(StandardCharsets.UTF_8).length, file.getSize());
+        assertFalse(file.getRawContent().isOffHeap());
+    }
+
+    @Test
+    void writeToFile_offHeapPolicy_shouldStoreOutsideHeap() {
+        fs = new FileSystem(ContentPolicy.offHeap());
+        createBasicStructure();
+        fs.create("TextFile", "note.txt", "C\\Documents");
+
+        fs.writeToFile("C\\Documents\\note.txt", "Hello");
+
+        TextFile file = (TextFile) fs.findEntity("C\\Documents\\note.txt");
+        assertTrue(file.getRawContent().isOffHeap());
+        assertEquals("Hello", file.getContent());
+    }
+
+    @Test
+    void writeToFile_thresholdPolicy_shouldOnlyMoveLargeContentOffHeap() {
+        fs = new FileSystem(ContentPolicy.offHeapAbove(8));
+        createBasicStructure();
+        fs.create("TextFile", "small.txt", "C");
+        fs.create("TextFile", "large.txt", "C");
+
+        fs.writeToFile("C\\small.txt", "tiny");
+        fs.writeToFile("C\\large.txt", "well over eight bytes");
+
+        assertFalse(((TextFile) fs.findEntity("C\\small.txt")).getRawContent().isOffHeap());
+        assertTrue(((TextFile) fs.findEntity("C\\large.txt")).getRawContent().isOffHeap());
+        assertEquals("well over eight bytes", ((TextFile) fs.findEntity("C\\large.txt")).getContent());
+    }
+
+    @Test
+    void content_read_shouldCopyRequestedRange() {
+        Content content = ContentPolicy.offHeap().store("abcdef");
+        byte[] target = new byte[3];
+
+        content.read(2, target, 0, 3);
+
+        assertArrayEquals("cde".getBytes(StandardCharsets.UTF_8), target);
+        assertSame(Content.EMPTY, ContentPolicy.offHeap().store(""));
+    }
+
+    @Test
+    void offHeapAbove_negativeThreshold_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> ContentPolicy.offHeapAbove(-1));
+    }
+}
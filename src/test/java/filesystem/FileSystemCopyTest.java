@@ -0,0 +1,198 @@
+package filesystem;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import filesystem.api.FileSystemOperation;
+import filesystem.api.NameIndex;
+import filesystem.concurrent.ConcurrentFileSystem;
+import filesystem.durable.SyncPolicy;
+import filesystem.durable.WriteAheadLog;
+import filesystem.entities.TextFile;
+import filesystem.persistent.PersistentFileSystem;
+import filesystem.persistent.Version;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemCopyTest extends BaseFileSystemTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void copy_folder_shouldCopySubtreeAndShareContent() {
+        createBasicStructure();
+        fs.create("Folder", "Backup", "C");
+        fs.create("Folder", "Drafts", "C\\Documents");
+        fs.create("TextFile", "a.txt", "C\\Documents");
+        fs.create("TextFile", "b.txt", "C\\Documents\\Drafts");
+        fs.writeToFile("C\\Documents\\a.txt", "alpha");
+        fs.writeToFile("C\\Documents\\Drafts\\b.txt", "beta");
+
+        fs.copy("C\\Documents", "C\\Backup");
+
+        TextFile original = (TextFile) fs.findEntity("C\\Documents\\a.txt");
+        TextFile copy = (TextFile) fs.findEntity("C\\Backup\\Documents\\a.txt");
+        assertNotSame(original, copy);
+        assertSame(original.getRawContent(), copy.getRawContent());
+        assertEquals("beta", ((TextFile) fs.findEntity("C\\Backup\\Documents\\Drafts\\b.txt")).getContent());
+        assertEquals("C\\Backup\\Documents\\Drafts\\b.txt", fs.findEntity("C\\Backup\\Documents\\Drafts\\b.txt").getPath());
+        assertEquals(4, fs.findEntity("C\\Backup").getDescendantCount());
+        assertEquals(9, fs.findEntity("C\\Backup").getTotalBytes());
+        assertEquals(18, fs.findDrive("C").getTotalBytes());
+    }
+
+    @Test
+    void copy_thenWriteEitherSide_shouldLeaveTheOtherUnchanged() {
+        createBasicStructure();
+        fs.create("TextFile", "a.txt", "C\\Documents");
+        fs.writeToFile("C\\Documents\\a.txt", "shared");
+        fs.copy("C\\Documents\\a.txt", "C");
+
+        fs.writeToFile("C\\a.txt", "changed copy");
+        fs.appendToFile("C\\Documents\\a.txt", " original");
+
+        assertEquals("changed copy", ((TextFile) fs.findEntity("C\\a.txt")).getContent());
+        assertEquals("shared original", ((TextFile) fs.findEntity("C\\Documents\\a.txt")).getContent());
+        fs.delete("C\\Documents");
+        assertEquals("changed copy", ((TextFile) fs.findEntity("C\\a.txt")).getContent());
+    }
+
+    @Test
+    void copy_intoAndOutOfZip_shouldStoreContentForItsPlace() {
+        createBasicStructure();
+        fs.create("ZipFile", "archive.zip", "C");
+        fs.create("TextFile", "a.txt", "C\\Documents");
+        fs.writeToFile("C\\Documents\\a.txt", "compress me ".repeat(100));
+
+        fs.copy("C\\Documents\\a.txt", "C\\archive.zip");
+        fs.copy("C\\archive.zip", "C\\Documents");
+        fs.copy("C\\archive.zip\\a.txt", "C");
+
+        TextFile original = (TextFile) fs.findEntity("C\\Documents\\a.txt");
+        TextFile zipped = (TextFile) fs.findEntity("C\\archive.zip\\a.txt");
+        TextFile unzipped = (TextFile) fs.findEntity("C\\a.txt");
+        assertNotSame(original.getRawContent(), zipped.getRawContent());
+        assertTrue(zipped.getRawContent().storedSize() < original.getRawContent().storedSize());
+        assertEquals(original.getRawContent().storedSize(), unzipped.getRawContent().storedSize());
+        assertEquals(original.getContent(), ((TextFile) fs.findEntity("C\\Documents\\archive.zip\\a.txt")).getContent());
+        assertEquals(original.getContent(), unzipped.getContent());
+    }
+
+    @Test
+    void copy_invalidArguments_shouldThrow() {
+        createBasicStructure();
+        fs.create("Folder", "Inner", "C\\Documents");
+        fs.create("TextFile", "a.txt", "C");
+        fs.create("TextFile", "a.txt", "C\\Documents");
+
+        assertThrows(IllegalArgumentException.class, () -> fs.copy("C", "C\\Documents"));
+        assertThrows(IllegalArgumentException.class, () -> fs.copy("C\\Missing", "C"));
+        assertThrows(IllegalArgumentException.class, () -> fs.copy("C\\a.txt", "C\\Missing"));
+        assertThrows(IllegalArgumentException.class, () -> fs.copy("C\\a.txt", "C\\Documents"));
+        assertThrows(IllegalArgumentException.class, () -> fs.copy("C\\Documents", "C\\Documents\\Inner"));
+        assertThrows(IllegalArgumentException.class, () -> fs.copy("C\\Documents", "C\\Documents"));
+    }
+
+    @Test
+    void copy_rolledBackInBatch_shouldRemoveCopyAndKeepDedupCounts() {
+        createBasicStructure();
+        fs.create("Folder", "Backup", "C");
+        fs.create("TextFile", "a.txt", "C\\Documents");
+        fs.writeToFile("C\\Documents\\a.txt", "content");
+        long references = fs.getDedupStats().references();
+
+        assertThrows(IllegalArgumentException.class, () -> fs.apply(List.of(
+                new FileSystemOperation.Copy("C\\Documents", "C\\Backup"),
+                new FileSystemOperation.Delete("C\\Missing"))));
+
+        assertNull(fs.findEntity("C\\Backup\\Documents"));
+        assertEquals(0, fs.findEntity("C\\Backup").getDescendantCount());
+        assertEquals(references, fs.getDedupStats().references());
+
+        fs.apply(List.of(new FileSystemOperation.Copy("C\\Documents", "C\\Backup")));
+        assertEquals(references + 1, fs.getDedupStats().references());
+    }
+
+    @Test
+    void copy_shouldBeLoggedAndIndexed() throws IOException {
+        Path file = dir.resolve("fs.wal");
+        FileSystem logged = new FileSystem();
+        NameIndex index = logged.indexNames();
+        WriteAheadLog log = WriteAheadLog.open(logged, file, SyncPolicy.perOperation());
+        try {
+            logged.create("Drive", "C", null);
+            logged.create("Folder", "Documents", "C");
+            logged.create("TextFile", "a.txt", "C\\Documents");
+            logged.writeToFile("C\\Documents\\a.txt", "logged");
+            logged.create("Drive", "D", null);
+            logged.copy("C\\Documents", "D");
+        } finally {
+            log.close();
+        }
+        assertEquals(2, index.named("a.txt").size());
+
+        FileSystem restored = new FileSystem();
+        WriteAheadLog restoredLog = WriteAheadLog.open(restored, file, SyncPolicy.perOperation());
+        try {
+            assertEquals("logged", ((TextFile) restored.findEntity("D\\Documents\\a.txt")).getContent());
+        } finally {
+            restoredLog.close();
+        }
+    }
+
+    @Test
+    void copy_concurrentFileSystem_shouldCopyWhileOthersWrite() throws Exception {
+        FileSystem concurrent = new ConcurrentFileSystem();
+        concurrent.create("Drive", "C", null);
+        concurrent.create("Folder", "src", "C");
+        for (int i = 0; i < 200; i++) {
+            concurrent.create("TextFile", "f" + i, "C\\src");
+        }
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                concurrent.writeToFile("C\\src\\f" + (i % 200), "v" + i);
+            }
+        });
+        writer.start();
+        for (int c = 0; c < 20; c++) {
+            concurrent.create("Folder", "copy" + c, "C");
+            concurrent.copy("C\\src", "C\\copy" + c);
+        }
+        writer.join();
+
+        for (int c = 0; c < 20; c++) {
+            FileSystemEntity copy = concurrent.findEntity("C\\copy" + c + "\\src");
+            long bytes = 0;
+            for (int i = 0; i < 200; i++) {
+                bytes += ((TextFile) concurrent.findEntity("C\\copy" + c + "\\src\\f" + i)).getSize();
+            }
+            assertEquals(200, copy.getDescendantCount());
+            assertEquals(bytes, copy.getTotalBytes());
+        }
+    }
+
+    @Test
+    void copy_persistentFileSystem_shouldShareSubtreeUntilWritten() {
+        PersistentFileSystem persistent = new PersistentFileSystem();
+        persistent.create("Drive", "C", null);
+        persistent.create("Folder", "Documents", "C");
+        persistent.create("Folder", "Backup", "C");
+        persistent.create("TextFile", "a.txt", "C\\Documents");
+        persistent.writeToFile("C\\Documents\\a.txt", "alpha");
+
+        persistent.copy("C\\Documents", "C\\Backup");
+        Version copied = persistent.snapshot();
+        assertSame(persistent.findNode("C\\Documents"), persistent.findNode("C\\Backup\\Documents"));
+
+        persistent.writeToFile("C\\Backup\\Documents\\a.txt", "beta");
+        assertEquals("alpha", persistent.readFile("C\\Documents\\a.txt"));
+        assertEquals("beta", persistent.readFile("C\\Backup\\Documents\\a.txt"));
+        assertEquals("alpha", copied.readFile("C\\Backup\\Documents\\a.txt"));
+        assertThrows(IllegalArgumentException.class, () -> persistent.copy("C\\Documents", "C\\Documents"));
+    }
+}
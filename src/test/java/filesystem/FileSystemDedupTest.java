@@ -0,0 +1,117 @@
+package filesystem;
+
+import filesystem.api.FileSystemOperation;
+import filesystem.content.DedupStats;
+import filesystem.entities.TextFile;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemDedupTest extends BaseFileSystemTest {
+    private static final String TEMPLATE = "name = example\nversion = 1\n";
+    private static final int TEMPLATE_BYTES = TEMPLATE.length();
+
+    @Test
+    void writeToFile_sameContent_shouldShareOneBlob() {
+        createBasicStructure();
+        fs.create("TextFile", "a.conf", "C\\Documents");
+        fs.create("TextFile", "b.conf", "C\\Documents");
+        fs.create("TextFile", "c.conf", "C");
+
+        fs.writeToFile("C\\Documents\\a.conf", TEMPLATE);
+        fs.writeToFile("C\\Documents\\b.conf", TEMPLATE);
+        fs.writeToFile("C\\c.conf", TEMPLATE);
+
+        assertSame(content("C\\Documents\\a.conf"), content("C\\c.conf"));
+        assertEquals(new DedupStats(1, 3, TEMPLATE_BYTES, 2L * TEMPLATE_BYTES), fs.getDedupStats());
+        assertEquals(3L * TEMPLATE_BYTES, fs.getDedupStats().logicalBytes());
+    }
+
+    @Test
+    void writeToFile_overwrite_shouldReleaseBlobWithLastReference() {
+        createBasicStructure();
+        fs.create("TextFile", "a.conf", "C\\Documents");
+        fs.create("TextFile", "b.conf", "C\\Documents");
+        fs.writeToFile("C\\Documents\\a.conf", TEMPLATE);
+        fs.writeToFile("C\\Documents\\b.conf", TEMPLATE);
+
+        fs.writeToFile("C\\Documents\\a.conf", "changed");
+        assertEquals(new DedupStats(2, 2, TEMPLATE_BYTES + 7, 0), fs.getDedupStats());
+
+        fs.writeToFile("C\\Documents\\b.conf", "changed");
+        assertEquals(new DedupStats(1, 2, 7, 7), fs.getDedupStats());
+        assertEquals("changed", ((TextFile) fs.findEntity("C\\Documents\\b.conf")).getContent());
+    }
+
+    @Test
+    void delete_folder_shouldReleaseEveryFileUnderIt() {
+        createBasicStructure();
+        fs.create("Folder", "Work", "C\\Documents");
+        fs.create("TextFile", "a.conf", "C\\Documents\\Work");
+        fs.create("TextFile", "b.conf", "C");
+        fs.writeToFile("C\\Documents\\Work\\a.conf", TEMPLATE);
+        fs.writeToFile("C\\b.conf", TEMPLATE);
+
+        fs.delete("C\\Documents");
+        assertEquals(new DedupStats(1, 1, TEMPLATE_BYTES, 0), fs.getDedupStats());
+
+        fs.delete("C");
+        assertEquals(new DedupStats(0, 0, 0, 0), fs.getDedupStats());
+    }
+
+    @Test
+    void edit_sharedFile_shouldLeaveOtherFilesUnchanged() {
+        createBasicStructure();
+        fs.create("TextFile", "a.conf", "C\\Documents");
+        fs.create("TextFile", "b.conf", "C\\Documents");
+        fs.writeToFile("C\\Documents\\a.conf", TEMPLATE);
+        fs.writeToFile("C\\Documents\\b.conf", TEMPLATE);
+
+        fs.appendToFile("C\\Documents\\a.conf", "debug = true\n");
+
+        assertEquals(TEMPLATE + "debug = true\n", ((TextFile) fs.findEntity("C\\Documents\\a.conf")).getContent());
+        assertEquals(TEMPLATE, ((TextFile) fs.findEntity("C\\Documents\\b.conf")).getContent());
+        assertEquals(new DedupStats(1, 1, TEMPLATE_BYTES, 0), fs.getDedupStats());
+    }
+
+    @Test
+    void writeToFile_emptyOrInZip_shouldNotShareAcrossPolicies() {
+        createBasicStructure();
+        fs.create("ZipFile", "archive.zip", "C");
+        fs.create("TextFile", "a.conf", "C\\Documents");
+        fs.create("TextFile", "b.conf", "C\\archive.zip");
+        fs.create("TextFile", "empty.txt", "C");
+
+        fs.writeToFile("C\\Documents\\a.conf", TEMPLATE);
+        fs.writeToFile("C\\archive.zip\\b.conf", TEMPLATE);
+        fs.writeToFile("C\\empty.txt", "");
+
+        assertNotSame(content("C\\Documents\\a.conf"), content("C\\archive.zip\\b.conf"));
+        assertEquals(2, fs.getDedupStats().uniqueBlobs());
+        assertEquals(0, fs.getDedupStats().savedBytes());
+    }
+
+    @Test
+    void apply_rollback_shouldRestoreReferenceCounts() {
+        createBasicStructure();
+        fs.create("TextFile", "a.conf", "C\\Documents");
+        fs.create("TextFile", "b.conf", "C\\Documents");
+        fs.writeToFile("C\\Documents\\a.conf", TEMPLATE);
+        fs.writeToFile("C\\Documents\\b.conf", TEMPLATE);
+        DedupStats before = fs.getDedupStats();
+
+        assertThrows(IllegalArgumentException.class, () -> fs.apply(List.of(
+                new FileSystemOperation.Write("C\\Documents\\a.conf", "changed"),
+                new FileSystemOperation.Delete("C\\Documents\\b.conf"),
+                new FileSystemOperation.Delete("C\\Missing"))));
+
+        assertEquals(before, fs.getDedupStats());
+        assertSame(content("C\\Documents\\a.conf"), content("C\\Documents\\b.conf"));
+    }
+
+    private Object content(String path) {
+        return ((TextFile) fs.findEntity(path)).getRawContent();
+    }
+}
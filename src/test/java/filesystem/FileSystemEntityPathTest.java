@@ -0,0 +1,87 @@
+package filesystem;
+
+import filesystem.api.EntityPath;
+import filesystem.entities.TextFile;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemEntityPathTest extends BaseFileSystemTest {
+
+    @Test
+    void parse_shouldSplitIntoSegments() {
+        EntityPath path = EntityPath.parse("C\\Documents\\note.txt");
+
+        assertEquals(3, path.depth());
+        assertEquals("C", path.segment(0));
+        assertEquals("note.txt", path.name());
+        assertEquals("Documents".hashCode(), path.segmentHash(1));
+        assertEquals("C\\Documents\\note.txt", path.toString());
+    }
+
+    @Test
+    void parse_withTrailingBackslash_shouldIgnoreIt() {
+        assertEquals(EntityPath.parse("C\\Documents"), EntityPath.parse("C\\Documents\\"));
+    }
+
+    @Test
+    void parse_invalidPaths_shouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> EntityPath.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> EntityPath.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> EntityPath.parse("C\\\\Documents"));
+    }
+
+    @Test
+    void parentAndChild_shouldDeriveEqualPaths() {
+        EntityPath path = EntityPath.parse("C\\Documents\\note.txt");
+
+        assertEquals(EntityPath.parse("C\\Documents"), path.parent());
+        assertEquals("C\\Documents", path.parent().toString());
+        assertEquals(path, path.parent().child("note.txt"));
+        assertEquals(path.hashCode(), path.parent().child("note.txt").hashCode());
+        assertNull(path.parent().parent().parent());
+        assertTrue(path.startsWith(path.parent()));
+        assertFalse(path.parent().startsWith(path));
+    }
+
+    @Test
+    void overloads_shouldBehaveLikeStringPaths() {
+        createBasicStructure();
+        fs.create("Drive", "D", null);
+        EntityPath documents = EntityPath.parse("C\\Documents");
+        EntityPath note = documents.child("note.txt");
+
+        fs.create("TextFile", note);
+        fs.writeToFile(note, "Hello");
+        assertEquals("Hello", ((TextFile) fs.find(note)).getContent());
+
+        fs.move(note, EntityPath.parse("D"));
+        assertNull(fs.find(note));
+        assertNotNull(fs.findEntity("D\\note.txt"));
+
+        fs.delete(EntityPath.parse("D\\note.txt"));
+        assertNull(fs.findEntity("D\\note.txt"));
+
+        fs.delete(EntityPath.parse("D"));
+        assertNull(fs.findDrive("D"));
+
+        fs.create("Drive", EntityPath.parse("E"));
+        assertNotNull(fs.findDrive("E"));
+    }
+
+    @Test
+    void overloads_withMissingPaths_shouldThrowException() {
+        createBasicStructure();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> fs.create("TextFile", EntityPath.parse("C\\Missing\\note.txt")));
+        assertThrows(IllegalArgumentException.class,
+                () -> fs.create("Drive", EntityPath.parse("C\\Documents\\D")));
+        assertThrows(IllegalArgumentException.class,
+                () -> fs.delete(EntityPath.parse("C\\Missing")));
+        assertThrows(IllegalArgumentException.class,
+                () -> fs.move(EntityPath.parse("C"), EntityPath.parse("C\\Documents")));
+        assertThrows(IllegalArgumentException.class,
+                () -> fs.writeToFile(EntityPath.parse("C\\Documents"), "Hello"));
+    }
+}
@@ -0,0 +1,97 @@
+package filesystem;
+
+import filesystem.api.FileSystemEntity;
+import filesystem.entities.Folder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemFindOperationsTest extends BaseFileSystemTest {
+
+    @Test
+    void findEntity_nestedPath_shouldResolveEverySegment() {
+        createBasicStructure();
+        fs.create("ZipFile", "archive.zip", "C\\Documents");
+        fs.create("Folder", "Work", "C\\Documents\\archive.zip");
+        fs.create("TextFile", "note.txt", "C\\Documents\\archive.zip\\Work");
+
+        FileSystemEntity file = fs.findEntity("C\\Documents\\archive.zip\\Work\\note.txt");
+
+        assertNotNull(file);
+        assertEquals("note.txt", file.getName());
+    }
+
+    @Test
+    void findEntity_withTrailingBackslash_shouldIgnoreIt() {
+        createBasicStructure();
+
+        assertEquals(fs.findEntity("C\\Documents"), fs.findEntity("C\\Documents\\"));
+        assertEquals(fs.findDrive("C"), fs.findEntity("C\\"));
+    }
+
+    @Test
+    void findEntity_withEmptySegment_shouldReturnNull() {
+        createBasicStructure();
+
+        assertNull(fs.findEntity("C\\\\Documents"));
+        assertNull(fs.findEntity("\\C"));
+    }
+
+    @Test
+    void findEntity_throughTextFile_shouldReturnNull() {
+        createBasicStructure();
+        fs.create("TextFile", "note.txt", "C\\Documents");
+
+        assertNull(fs.findEntity("C\\Documents\\note.txt\\more"));
+    }
+
+    @Test
+    void findEntity_prefixOfExistingName_shouldReturnNull() {
+        createBasicStructure();
+
+        assertNull(fs.findEntity("C\\Doc"));
+        assertNull(fs.findEntity("C\\Documents2"));
+    }
+
+    @Test
+    void findEntity_inWideFolder_afterDeletes_shouldFindRemainingEntities() {
+        createBasicStructure();
+        for (int i = 0; i < 1000; i++) {
+            fs.create("TextFile", "f" + i + ".txt", "C\\Documents");
+        }
+        for (int i = 0; i < 1000; i += 3) {
+            fs.delete("C\\Documents\\f" + i + ".txt");
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            FileSystemEntity entity = fs.findEntity("C\\Documents\\f" + i + ".txt");
+            if (i % 3 == 0) {
+                assertNull(entity);
+            } else {
+                assertNotNull(entity);
+            }
+        }
+        Folder documents = (Folder) fs.findEntity("C\\Documents");
+        assertEquals(666, documents.getContents().size());
+    }
+
+    @Test
+    void moveWithTrailingBackslash_shouldMoveTheNamedEntity() {
+        createBasicStructure();
+        fs.create("Folder", "Backup", "C");
+
+        fs.move("C\\Documents\\", "C\\Backup");
+
+        assertNull(fs.findEntity("C\\Documents"));
+        assertNotNull(fs.findEntity("C\\Backup\\Documents"));
+    }
+
+    @Test
+    void moveDrive_withTrailingBackslash_shouldThrowException() {
+        createBasicStructure();
+        fs.create("Drive", "D", null);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> fs.move("C\\", "D"));
+    }
+}
@@ -0,0 +1,151 @@
+package filesystem;
+
+import filesystem.api.FileSystemEntity;
+import filesystem.api.Glob;
+import filesystem.containers.Container;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemGlobTest extends BaseFileSystemTest {
+
+    @Test
+    void glob_wildcardsInOneSegment_shouldMatchNames() {
+        createBasicStructure();
+        fs.create("TextFile", "a.txt", "C\\Documents");
+        fs.create("TextFile", "b.txt", "C\\Documents");
+        fs.create("TextFile", "ab.log", "C\\Documents");
+        fs.create("TextFile", "z.txt", "C\\Documents");
+
+        assertEquals(List.of("C\\Documents\\a.txt", "C\\Documents\\b.txt", "C\\Documents\\z.txt"),
+                paths(fs.glob("C\\Documents\\*.txt")));
+        assertEquals(List.of("C\\Documents\\a.txt", "C\\Documents\\b.txt"), paths(fs.glob("C\\Documents\\[a-c].txt")));
+        assertEquals(List.of("C\\Documents\\z.txt"), paths(fs.glob("C\\Documents\\[!ab].txt")));
+        assertEquals(List.of("C\\Documents\\ab.log"), paths(fs.glob("C\\Documents\\a?.*")));
+        assertEquals(List.of("C\\Documents\\a.txt"), paths(fs.glob("C\\Documents\\a.txt")));
+        assertTrue(paths(fs.glob("C\\Documents\\*.csv")).isEmpty());
+    }
+
+    @Test
+    void glob_anyDepth_shouldMatchZeroOrMoreLevels() {
+        createBasicStructure();
+        fs.create("Folder", "Projects", "C");
+        fs.create("Folder", "app", "C\\Projects");
+        fs.create("Folder", "build", "C\\Projects\\app");
+        fs.create("TextFile", "out.txt", "C\\Projects\\app\\build");
+        fs.create("TextFile", "top.txt", "C");
+        fs.create("ZipFile", "old.zip", "C\\Documents");
+        fs.create("TextFile", "inner.txt", "C\\Documents\\old.zip");
+
+        assertEquals(List.of("C\\Documents\\old.zip\\inner.txt", "C\\Projects\\app\\build\\out.txt", "C\\top.txt"),
+                paths(fs.glob("C\\**\\*.txt")));
+        assertEquals(List.of("C\\Projects\\app\\build\\out.txt"), paths(fs.glob("C\\Projects\\*\\build\\*.txt")));
+        assertEquals(List.of("C\\Projects\\app\\build"), paths(fs.glob("**\\build")));
+        assertEquals(List.of("C\\Projects\\app\\build\\out.txt"), paths(fs.glob("C\\**\\**\\build\\**\\out.txt")));
+    }
+
+    @Test
+    void glob_driveWildcard_shouldMatchEveryDrive() {
+        createBasicStructure();
+        fs.create("Drive", "D", null);
+        fs.create("Folder", "Documents", "D");
+        fs.create("Drive", "E", null);
+
+        assertEquals(List.of("C\\Documents", "D\\Documents"), paths(fs.glob("*\\Documents")));
+        assertEquals(List.of("C", "D", "E"), paths(fs.glob("?")));
+    }
+
+    @Test
+    void matches_shouldMatchFullPaths() {
+        Glob glob = Glob.compile("C\\**\\f[0-4]*.txt");
+
+        assertTrue(glob.matches("C\\f1.txt"));
+        assertTrue(glob.matches("C\\a\\b\\f42.txt"));
+        assertFalse(glob.matches("C\\a\\f5.txt"));
+        assertFalse(glob.matches("D\\f1.txt"));
+        assertEquals("C\\**\\f[0-4]*.txt", glob.toString());
+    }
+
+    @Test
+    void glob_parallelOnLargeTree_shouldMatchSequentialAndMatches() {
+        fs.create("Drive", "C", null);
+        List<String> containers = new ArrayList<>(List.of("C"));
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            String parent = containers.get(random.nextInt(containers.size()));
+            if (random.nextInt(4) == 0) {
+                fs.create("Folder", "d" + i, parent);
+                containers.add(parent + "\\d" + i);
+            } else {
+                fs.create("TextFile", "f" + i + (i % 3 == 0 ? ".log" : ".txt"), parent);
+            }
+        }
+        Glob glob = Glob.compile("C\\**\\d*\\f*1.log");
+
+        List<String> sequential = paths(glob.stream(fs));
+        List<String> parallel = paths(glob.stream(fs).parallel());
+        List<String> expected = new ArrayList<>();
+        collect(fs.findDrive("C"), glob, expected);
+        expected.sort(null);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, sequential);
+        assertEquals(expected, parallel);
+        Spliterator<FileSystemEntity> spliterator = glob.stream(fs).spliterator();
+        assertNotNull(spliterator.trySplit());
+    }
+
+    @Test
+    void glob_shouldBeLazy() {
+        createBasicStructure();
+        for (int i = 0; i < 100; i++) {
+            fs.create("TextFile", "f" + i + ".txt", "C\\Documents");
+        }
+        AtomicInteger seen = new AtomicInteger();
+
+        assertTrue(fs.glob("C\\**").peek(entity -> seen.incrementAndGet()).findFirst().isPresent());
+        assertEquals(1, seen.get());
+    }
+
+    @Test
+    void bracketSet_shouldTakeFirstCharacterLiterally() {
+        assertTrue(Glob.compile("C\\[]]x").matches("C\\]x"));
+        assertTrue(Glob.compile("C\\[!]]").matches("C\\a"));
+        assertFalse(Glob.compile("C\\[!]]").matches("C\\]"));
+        assertTrue(Glob.compile("C\\[^]a-c]").matches("C\\d"));
+        assertFalse(Glob.compile("C\\[^]a-c]").matches("C\\b"));
+    }
+
+    @Test
+    void compile_malformedPattern_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> Glob.compile(""));
+        assertThrows(IllegalArgumentException.class, () -> Glob.compile("C\\\\x"));
+        assertThrows(IllegalArgumentException.class, () -> Glob.compile("C\\[ab"));
+        assertThrows(IllegalArgumentException.class, () -> Glob.compile("C\\[!]"));
+        assertThrows(IllegalArgumentException.class, () -> Glob.compile("C\\[^]"));
+        assertThrows(IllegalArgumentException.class, () -> Glob.compile("C\\x["));
+        assertThrows(IllegalArgumentException.class, () -> Glob.compile("a\\".repeat(Glob.MAX_SEGMENTS) + "a"));
+    }
+
+    private static void collect(FileSystemEntity entity, Glob glob, List<String> result) {
+        if (glob.matches(entity.getPath())) {
+            result.add(entity.getPath());
+        }
+        if (entity instanceof Container container) {
+            for (FileSystemEntity child : container.getContents()) {
+                collect(child, glob, result);
+            }
+        }
+    }
+
+    private static List<String> paths(Stream<FileSystemEntity> entities) {
+        return entities.map(FileSystemEntity::getPath).sorted().toList();
+    }
+}
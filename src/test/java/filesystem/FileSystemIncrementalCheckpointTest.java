@@ -0,0 +1,292 @@
+package filesystem;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import filesystem.api.FileSystemOperation;
+import filesystem.containers.Container;
+import filesystem.durable.CheckpointStore;
+import filesystem.entities.TextFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemIncrementalCheckpointTest extends BaseFileSystemTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void markChanged_shouldMarkAncestorsButNotSiblings() throws IOException {
+        try (CheckpointStore store = CheckpointStore.open(fs, dir)) {
+            createBasicStructure();
+            fs.create("Folder", "Music", "C");
+            fs.create("TextFile", "note.txt", "C\\Documents");
+            assertTrue(fs.findEntity("C\\Documents\\note.txt").isAdded());
+            store.checkpoint();
+            assertFalse(fs.findDrive("C").hasChanges());
+
+            fs.writeToFile("C\\Documents\\note.txt", "Hello");
+
+            assertTrue(fs.findEntity("C\\Documents\\note.txt").isChanged());
+            assertTrue(fs.findEntity("C\\Documents").hasChanges());
+            assertFalse(fs.findEntity("C\\Documents").isChanged());
+            assertTrue(fs.findDrive("C").hasChanges());
+            assertFalse(fs.findEntity("C\\Music").hasChanges());
+        }
+    }
+
+    @Test
+    void checkpoint_fewChanges_shouldWriteSmallDelta() throws IOException {
+        FileSystem tracked = new FileSystem();
+        try (CheckpointStore store = CheckpointStore.open(tracked, dir)) {
+            tracked.create("Drive", "C", null);
+            for (int f = 0; f < 20; f++) {
+                tracked.create("Folder", "f" + f, "C");
+                for (int i = 0; i < 100; i++) {
+                    tracked.create("TextFile", "t" + i + ".txt", "C\\f" + f);
+                    tracked.writeToFile("C\\f" + f + "\\t" + i + ".txt", "content " + f + " " + i);
+                }
+            }
+            store.checkpoint();
+            tracked.writeToFile("C\\f3\\t7.txt", "changed");
+            store.checkpoint();
+            assertEquals(1, store.deltaCount());
+        }
+
+        assertTrue(Files.size(dir.resolve("delta-2.ckpt")) * 50 < Files.size(dir.resolve("base-1.ckpt")));
+        FileSystem restored = new FileSystem();
+        CheckpointStore restoredStore = CheckpointStore.open(restored, dir);
+        try {
+            assertEquals(dump(tracked), dump(restored));
+            assertEquals("changed", ((TextFile) restored.findEntity("C\\f3\\t7.txt")).getContent());
+        } finally {
+            restoredStore.close();
+        }
+    }
+
+    @Test
+    void delta_shouldCaptureDeletesMovesAndReplacements() throws IOException {
+        FileSystem tracked = new FileSystem();
+        try (CheckpointStore store = CheckpointStore.open(tracked, dir)) {
+            tracked.create("Drive", "C", null);
+            tracked.create("Drive", "D", null);
+            tracked.create("Folder", "Documents", "C");
+            tracked.create("Folder", "Old", "C");
+            tracked.create("ZipFile", "archive.zip", "C");
+            tracked.create("TextFile", "note.txt", "C\\Documents");
+            tracked.create("TextFile", "keep.txt", "C\\Documents");
+            tracked.writeToFile("C\\Documents\\note.txt", "first");
+            store.checkpoint();
+
+            tracked.move("C\\Documents\\note.txt", "C\\archive.zip");
+            tracked.create("TextFile", "note.txt", "C\\Documents");
+            tracked.writeToFile("C\\Documents\\note.txt", "second");
+            tracked.delete("C\\Old");
+            tracked.create("Folder", "Old", "C");
+            tracked.delete("D");
+            tracked.create("Drive", "E", null);
+            tracked.create("Folder", "New", "E");
+            store.checkpoint();
+
+            tracked.appendToFile("C\\archive.zip\\note.txt", " and more");
+            tracked.writeToFile("C\\Documents\\keep.txt", null);
+            store.checkpoint();
+        }
+
+        FileSystem restored = new FileSystem();
+        CheckpointStore restoredStore = CheckpointStore.open(restored, dir);
+        try {
+            assertEquals(dump(tracked), dump(restored));
+            assertNull(restored.findDrive("D"));
+            assertEquals("first and more", ((TextFile) restored.findEntity("C\\archive.zip\\note.txt")).getContent());
+        } finally {
+            restoredStore.close();
+        }
+    }
+
+    @Test
+    void failedDelta_shouldLeaveChangesForTheNextDelta() throws IOException {
+        try (CheckpointStore store = CheckpointStore.open(fs, dir)) {
+            createBasicStructure();
+            fs.create("TextFile", "note.txt", "C\\Documents");
+            store.checkpoint();
+            fs.writeToFile("C\\Documents\\note.txt", "Hello");
+            fs.create("Folder", "Music", "C");
+
+            // A non-empty directory where the next delta goes makes renaming it into place fail.
+            Path blocked = Files.createDirectory(dir.resolve("delta-2.ckpt"));
+            Files.createFile(blocked.resolve("occupied"));
+            assertThrows(IOException.class, store::checkpoint);
+            assertTrue(fs.findEntity("C\\Documents\\note.txt").isChanged());
+            assertTrue(fs.findEntity("C\\Music").isAdded());
+
+            store.checkpoint();
+            assertFalse(fs.findDrive("C").hasChanges());
+            Files.delete(blocked.resolve("occupied"));
+            Files.delete(blocked);
+        }
+
+        FileSystem restored = new FileSystem();
+        CheckpointStore restoredStore = CheckpointStore.open(restored, dir);
+        try {
+            assertEquals("Hello", ((TextFile) restored.findEntity("C\\Documents\\note.txt")).getContent());
+            assertNotNull(restored.findEntity("C\\Music"));
+        } finally {
+            restoredStore.close();
+        }
+    }
+
+    @Test
+    void changeAfterTheWalkTookAnEntity_shouldGoIntoTheNextDelta() throws IOException {
+        String note = "C\\Documents\\note.txt";
+        try (CheckpointStore store = CheckpointStore.open(fs, dir)) {
+            createBasicStructure();
+            fs.create("TextFile", "note.txt", "C\\Documents");
+            store.checkpoint();
+            fs.writeToFile(note, "first");
+
+            // What a delta takes on its walk, before the file is written.
+            for (String path : List.of("C", "C\\Documents", note)) {
+                assertNotEquals(0, fs.findEntity(path).takeChanges());
+            }
+            fs.writeToFile(note, "second");
+
+            assertTrue(fs.findDrive("C").hasChanges());
+            assertTrue(fs.findEntity(note).isChanged());
+            store.checkpoint();
+        }
+
+        FileSystem restored = new FileSystem();
+        CheckpointStore restoredStore = CheckpointStore.open(restored, dir);
+        try {
+            assertEquals("second", ((TextFile) restored.findEntity(note)).getContent());
+        } finally {
+            restoredStore.close();
+        }
+    }
+
+    @Test
+    void delta_removingAnEntity_shouldDeleteItThroughTheFileSystem() throws IOException {
+        FileSystem tracked = new FileSystem();
+        try (CheckpointStore store = CheckpointStore.open(tracked, dir)) {
+            tracked.create("Drive", "C", null);
+            tracked.create("Folder", "Documents", "C");
+            tracked.create("TextFile", "note.txt", "C\\Documents");
+            tracked.create("TextFile", "keep.txt", "C\\Documents");
+            store.checkpoint();
+            tracked.delete("C\\Documents\\note.txt");
+            store.checkpoint();
+        }
+
+        FileSystem restored = new FileSystem();
+        List<FileSystemOperation> changes = new ArrayList<>();
+        restored.addListener(changes::add);
+        CheckpointStore restoredStore = CheckpointStore.open(restored, dir);
+        try {
+            assertTrue(changes.contains(new FileSystemOperation.Delete("C\\Documents\\note.txt")), changes.toString());
+            assertNull(restored.findEntity("C\\Documents\\note.txt"));
+            assertNotNull(restored.findEntity("C\\Documents\\keep.txt"));
+        } finally {
+            restoredStore.close();
+        }
+    }
+
+    @Test
+    void compaction_shouldMergeDeltasIntoNewBase() throws IOException {
+        FileSystem tracked = new FileSystem();
+        try (CheckpointStore store = CheckpointStore.open(tracked, dir, 2)) {
+            tracked.create("Drive", "C", null);
+            store.checkpoint();
+            for (int i = 0; i < 5; i++) {
+                tracked.create("TextFile", "t" + i + ".txt", "C");
+                tracked.writeToFile("C\\t" + i + ".txt", "round " + i);
+                store.checkpoint();
+            }
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            List<String> bases = files.map(file -> file.getFileName().toString()).filter(name -> name.startsWith("base-")).toList();
+            assertEquals(1, bases.size());
+            assertNotEquals("base-1.ckpt", bases.get(0));
+        }
+        FileSystem restored = new FileSystem();
+        try (CheckpointStore store = CheckpointStore.open(restored, dir, 2)) {
+            assertTrue(store.deltaCount() < 5);
+            assertEquals(dump(tracked), dump(restored));
+        }
+    }
+
+    @Test
+    void randomChanges_shouldRoundTripThroughDeltasAndCompactions() throws IOException {
+        Random random = new Random(42);
+        FileSystem tracked = new FileSystem();
+        List<String> containers = new ArrayList<>(List.of("C"));
+        try (CheckpointStore store = CheckpointStore.open(tracked, dir, 3)) {
+            tracked.create("Drive", "C", null);
+            for (int round = 0; round < 10; round++) {
+                for (int i = 0; i < 30; i++) {
+                    String parent = containers.get(random.nextInt(containers.size()));
+                    String name = "e" + random.nextInt(40);
+                    String path = parent + "\\" + name;
+                    FileSystemEntity existing = tracked.findEntity(path);
+                    if (existing == null) {
+                        String type = random.nextBoolean() ? "TextFile" : random.nextBoolean() ? "Folder" : "ZipFile";
+                        tracked.create(type, name, parent);
+                        if (!type.equals("TextFile")) {
+                            containers.add(path);
+                        }
+                    } else if (random.nextInt(3) == 0) {
+                        String dest = containers.get(random.nextInt(containers.size()));
+                        if (!dest.equals(parent) && !dest.equals(path) && !dest.startsWith(path + "\\")
+                                && tracked.findEntity(dest + "\\" + name) == null) {
+                            tracked.move(path, dest);
+                            containers.replaceAll(container -> container.equals(path) || container.startsWith(path + "\\")
+                                    ? dest + "\\" + name + container.substring(path.length()) : container);
+                        }
+                    } else if (existing instanceof TextFile) {
+                        tracked.writeToFile(path, "v" + random.nextInt(1000));
+                    } else if (random.nextInt(4) == 0) {
+                        tracked.delete(path);
+                        containers.removeIf(container -> container.equals(path) || container.startsWith(path + "\\"));
+                    }
+                }
+                store.checkpoint();
+            }
+        }
+
+        FileSystem restored = new FileSystem();
+        CheckpointStore restoredStore = CheckpointStore.open(restored, dir, 3);
+        try {
+            assertEquals(dump(tracked), dump(restored));
+        } finally {
+            restoredStore.close();
+        }
+    }
+
+    private static List<String> dump(FileSystem fileSystem) {
+        List<String> lines = new ArrayList<>();
+        for (FileSystemEntity drive : fileSystem.getDrives()) {
+            dump(drive, lines);
+        }
+        lines.sort(null);
+        return lines;
+    }
+
+    private static void dump(FileSystemEntity entity, List<String> lines) {
+        String content = entity instanceof TextFile file ? " " + file.getContent() : "";
+        lines.add(entity.getPath() + " " + entity.getType() + content);
+        if (entity instanceof Container container) {
+            for (FileSystemEntity child : container.getContents()) {
+                dump(child, lines);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package filesystem;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import filesystem.api.LookupCacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemLookupCacheTest extends BaseFileSystemTest {
+
+    @BeforeEach
+    void enableCache() {
+        fs = new FileSystem(4);
+    }
+
+    @Test
+    void findEntity_repeatedLookup_shouldHitCache() {
+        createBasicStructure();
+        fs.create("TextFile", "note.txt", "C\\Documents");
+
+        LookupCacheStats before = fs.getLookupCacheStats();
+
+        FileSystemEntity first = fs.findEntity("C\\Documents\\note.txt");
+        FileSystemEntity second = fs.findEntity("C\\Documents\\note.txt");
+
+        assertSame(first, second);
+        LookupCacheStats after = fs.getLookupCacheStats();
+        assertEquals(before.misses() + 1, after.misses());
+        assertEquals(before.hits() + 1, after.hits());
+    }
+
+    @Test
+    void deleteFolder_shouldInvalidateDescendants() {
+        createBasicStructure();
+        fs.create("Folder", "Work", "C\\Documents");
+        fs.create("TextFile", "note.txt", "C\\Documents\\Work");
+        assertNotNull(fs.findEntity("C\\Documents\\Work\\note.txt"));
+        assertNotNull(fs.findEntity("C\\Documents\\Work\\"));
+
+        fs.delete("C\\Documents");
+
+        assertNull(fs.findEntity("C\\Documents\\Work\\note.txt"));
+        assertNull(fs.findEntity("C\\Documents\\Work\\"));
+        assertTrue(fs.getLookupCacheStats().invalidations() >= 2);
+    }
+
+    @Test
+    void moveFolder_shouldInvalidateOldPathsOfDescendants() {
+        createBasicStructure();
+        fs.create("Folder", "Backup", "C");
+        fs.create("TextFile", "note.txt", "C\\Documents");
+        FileSystemEntity note = fs.findEntity("C\\Documents\\note.txt");
+
+        fs.move("C\\Documents", "C\\Backup");
+
+        assertNull(fs.findEntity("C\\Documents\\note.txt"));
+        assertSame(note, fs.findEntity("C\\Backup\\Documents\\note.txt"));
+    }
+
+    @Test
+    void deleteAndRecreate_shouldNotReturnStaleEntity() {
+        createBasicStructure();
+        fs.create("TextFile", "note.txt", "C\\Documents");
+        FileSystemEntity original = fs.findEntity("C\\Documents\\note.txt");
+
+        fs.delete("C\\Documents\\note.txt");
+        fs.create("TextFile", "note.txt", "C\\Documents");
+
+        assertNotSame(original, fs.findEntity("C\\Documents\\note.txt"));
+    }
+
+    @Test
+    void deleteDrive_shouldInvalidateEverythingOnIt() {
+        createBasicStructure();
+        fs.create("Drive", "CD", null);
+        fs.create("Folder", "Music", "CD");
+        assertNotNull(fs.findEntity("C\\Documents"));
+        assertNotNull(fs.findEntity("CD\\Music"));
+
+        fs.delete("C");
+        fs.create("Drive", "C", null);
+
+        assertNull(fs.findEntity("C\\Documents"));
+        assertNotNull(fs.findEntity("CD\\Music"));
+    }
+
+    @Test
+    void lookupsBeyondCapacity_shouldEvictLeastRecentlyUsed() {
+        createBasicStructure();
+        for (int i = 0; i < 5; i++) {
+            fs.create("Folder", "f" + i, "C");
+            fs.findEntity("C\\f" + i);
+        }
+
+        LookupCacheStats stats = fs.getLookupCacheStats();
+        assertEquals(4, stats.size());
+        assertTrue(stats.evictions() > 0);
+
+        fs.findEntity("C\\f0");
+        assertEquals(stats.hits(), fs.getLookupCacheStats().hits());
+    }
+
+    @Test
+    void stats_withoutCache_shouldBeZero() {
+        FileSystem uncached = new FileSystem();
+        uncached.create("Drive", "C", null);
+        uncached.findEntity("C");
+
+        assertEquals(new LookupCacheStats(0, 0, 0, 0, 0, 0), uncached.getLookupCacheStats());
+    }
+}
@@ -0,0 +1,168 @@
+package filesystem;
+
+import filesystem.api.EntityPath;
+import filesystem.metrics.FileSystemMetrics;
+import filesystem.metrics.FileSystemMetrics.Operation;
+import filesystem.metrics.LatencyHistogram;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemMetricsTest extends BaseFileSystemTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void enableMetrics_shouldCountEachOperationAndFailure() {
+        assertNull(fs.getMetrics());
+        FileSystemMetrics metrics = fs.enableMetrics();
+        assertSame(metrics, fs.enableMetrics());
+
+        createBasicStructure();
+        fs.create("TextFile", EntityPath.parse("C\\Documents\\a.txt"));
+        fs.writeToFile("C\\Documents\\a.txt", "hello");
+        fs.move("C\\Documents\\a.txt", "C");
+        fs.findEntity("C\\a.txt");
+        fs.find(EntityPath.parse("C\\Missing"));
+        fs.delete("C\\a.txt");
+        assertThrows(IllegalArgumentException.class, () -> fs.delete("C\\a.txt"));
+        assertThrows(IllegalArgumentException.class, () -> fs.writeToFile("C\\Missing", "x"));
+
+        assertEquals(3, metrics.count(Operation.CREATE));
+        assertEquals(1, metrics.count(Operation.WRITE));
+        assertEquals(1, metrics.count(Operation.MOVE));
+        assertEquals(2, metrics.count(Operation.FIND));
+        assertEquals(1, metrics.count(Operation.DELETE));
+        assertEquals(1, metrics.failures(Operation.DELETE));
+        assertEquals(1, metrics.failures(Operation.WRITE));
+        assertEquals(0, metrics.failures(Operation.CREATE));
+        assertTrue(metrics.latency(Operation.WRITE).max() > 0);
+        assertEquals(Map.of("CREATE", 3L, "DELETE", 1L, "FIND", 2L, "MOVE", 1L, "WRITE", 1L), metrics.getCounts());
+    }
+
+    @Test
+    void pathDepthCounts_shouldBucketOperationsByDepth() {
+        FileSystemMetrics metrics = fs.enableMetrics();
+        createBasicStructure();
+        fs.findEntity("C\\Documents");
+        fs.findEntity("C\\Documents\\x\\y");
+        fs.findEntity("C" + "\\d".repeat(100));
+
+        long[] depths = metrics.getPathDepthCounts();
+
+        assertEquals(FileSystemMetrics.MAX_TRACKED_DEPTH + 1, depths.length);
+        assertEquals(1, depths[1]);
+        assertEquals(2, depths[2]);
+        assertEquals(1, depths[4]);
+        assertEquals(1, depths[FileSystemMetrics.MAX_TRACKED_DEPTH]);
+
+        metrics.reset();
+        assertEquals(0, metrics.count(Operation.FIND));
+        assertEquals(0, metrics.getPathDepthCounts()[2]);
+    }
+
+    @Test
+    void latencyHistogram_percentilesShouldBeWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 10);
+        }
+
+        assertEquals(100_000, histogram.count());
+        assertEquals(1_000_000, histogram.max());
+        assertEquals(500_000, histogram.valueAtPercentile(50), 500_000 * 0.035);
+        assertEquals(990_000, histogram.valueAtPercentile(99), 990_000 * 0.035);
+        assertEquals(999_000, histogram.valueAtPercentile(99.9), 999_000 * 0.035);
+        assertEquals(1_000_000, histogram.valueAtPercentile(100));
+        assertEquals(0, new LatencyHistogram().valueAtPercentile(50));
+        assertThrows(IllegalArgumentException.class, () -> histogram.valueAtPercentile(101));
+    }
+
+    @Test
+    void driveGauges_shouldReportEntitiesAndBytesPerDrive() {
+        FileSystemMetrics metrics = fs.enableMetrics();
+        createBasicStructure();
+        fs.create("Drive", "D", null);
+        fs.create("TextFile", "a.txt", "C\\Documents");
+        fs.writeToFile("C\\Documents\\a.txt", "12345");
+
+        assertEquals(Map.of("C", 2L, "D", 0L), metrics.getDriveEntityCounts());
+        assertEquals(Map.of("C", 5L, "D", 0L), metrics.getDriveBytes());
+    }
+
+    @Test
+    void registerMBean_shouldPublishAttributes() throws Exception {
+        FileSystemMetrics metrics = fs.enableMetrics();
+        createBasicStructure();
+        ObjectName name = metrics.registerMBean("metrics-test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            TabularData counts = (TabularData) server.getAttribute(name, "Counts");
+            CompositeData create = counts.get(new Object[]{"CREATE"});
+            long[] depths = (long[]) server.getAttribute(name, "PathDepthCounts");
+
+            assertEquals(2L, create.get("value"));
+            assertEquals(2, depths[1] + depths[2]);
+            assertThrows(IllegalArgumentException.class, () -> metrics.registerMBean("metrics-test"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0, metrics.count(Operation.CREATE));
+        } finally {
+            metrics.unregisterMBean();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    @Test
+    void jfrRecording_shouldReceiveOperationEvents() throws IOException {
+        fs.enableMetrics();
+        Path file = dir.resolve("ops.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("filesystem.Operation");
+            recording.start();
+            createBasicStructure();
+            fs.findEntity("C\\Documents");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("filesystem.Operation"))
+                .toList();
+        assertEquals(3, events.size());
+        assertEquals(List.of("CREATE", "CREATE", "FIND"), events.stream().map(event -> event.getString("operation")).toList());
+        assertEquals(2, events.get(2).getInt("depth"));
+    }
+
+    @Test
+    void recording_shouldNotAllocate() {
+        FileSystemMetrics metrics = fs.enableMetrics();
+        createBasicStructure();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 10_000; i++) {
+            fs.findEntity("C\\Documents");
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            fs.findEntity("C\\Documents");
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(110_000, metrics.count(Operation.FIND));
+        assertTrue(allocated < 100_000, "allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,200 @@
+package filesystem;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import filesystem.api.FileSystemOperation;
+import filesystem.api.NameIndex;
+import filesystem.concurrent.ConcurrentFileSystem;
+import filesystem.containers.Container;
+import filesystem.durable.Checkpoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemNameIndexTest extends BaseFileSystemTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void named_shouldFindEntitiesOnEveryDrive() {
+        NameIndex index = fs.indexNames();
+        createBasicStructure();
+        fs.create("Drive", "D", null);
+        fs.create("Folder", "config", "C\\Documents");
+        fs.create("TextFile", "config", "D");
+        fs.create("TextFile", "config.txt", "D");
+
+        assertEquals(List.of("C\\Documents\\config", "D\\config"), sortedPaths(index.named("config")));
+        assertEquals(List.of("C\\Documents"), sortedPaths(index.named("Documents")));
+        assertTrue(index.named("missing").isEmpty());
+    }
+
+    @Test
+    void withExtension_shouldFindFilesByExtension() {
+        createBasicStructure();
+        fs.create("TextFile", "app.log", "C\\Documents");
+        fs.create("TextFile", "db.log", "C");
+        fs.create("TextFile", "notes.txt", "C");
+        fs.create("ZipFile", "old.log", "C");
+        NameIndex index = fs.indexNames();
+
+        assertEquals(List.of("C\\Documents\\app.log", "C\\db.log", "C\\old.log"), sortedPaths(index.withExtension("log")));
+        assertEquals(List.of("C\\notes.txt"), sortedPaths(index.withExtension("txt")));
+        assertTrue(index.withExtension("csv").isEmpty());
+    }
+
+    @Test
+    void withNamePrefix_shouldReturnNamesStartingWithPrefix() {
+        NameIndex index = fs.indexNames();
+        createBasicStructure();
+        fs.create("TextFile", "report1.txt", "C\\Documents");
+        fs.create("TextFile", "report2.txt", "C\\Documents");
+        fs.create("Folder", "reports", "C");
+        fs.create("TextFile", "report1.txt", "C\\reports");
+        fs.create("TextFile", "repo.txt", "C");
+
+        assertEquals(List.of("C\\Documents\\report1.txt", "C\\Documents\\report2.txt", "C\\reports",
+                "C\\reports\\report1.txt"), sortedPaths(index.withNamePrefix("report")));
+        assertEquals(5, index.withNamePrefix("rep").size());
+        assertTrue(index.withNamePrefix("x").isEmpty());
+    }
+
+    @Test
+    void deleteAndMove_shouldKeepIndexUpToDate() {
+        NameIndex index = fs.indexNames();
+        createBasicStructure();
+        fs.create("Folder", "Archive", "C");
+        fs.create("Folder", "Work", "C\\Documents");
+        fs.create("TextFile", "plan.txt", "C\\Documents\\Work");
+
+        fs.move("C\\Documents\\Work", "C\\Archive");
+        assertEquals(List.of("C\\Archive\\Work\\plan.txt"), sortedPaths(index.named("plan.txt")));
+
+        fs.delete("C\\Archive");
+        assertTrue(index.named("plan.txt").isEmpty());
+        assertTrue(index.named("Work").isEmpty());
+        assertTrue(index.withExtension("txt").isEmpty());
+
+        fs.delete("C");
+        assertEquals(0, index.nameCount());
+    }
+
+    @Test
+    void rolledBackBatch_shouldLeaveIndexUnchanged() {
+        createBasicStructure();
+        fs.create("TextFile", "keep.txt", "C\\Documents");
+        NameIndex index = fs.indexNames();
+
+        assertThrows(IllegalArgumentException.class, () -> fs.apply(List.of(
+                new FileSystemOperation.Create("TextFile", "new.txt", "C\\Documents"),
+                new FileSystemOperation.Delete("C\\Documents\\keep.txt"),
+                new FileSystemOperation.Move("C\\Documents", "C\\Missing"))));
+
+        assertTrue(index.named("new.txt").isEmpty());
+        assertEquals(List.of("C\\Documents\\keep.txt"), sortedPaths(index.withExtension("txt")));
+    }
+
+    @Test
+    void checkpointLoad_shouldRebuildIndex() throws IOException {
+        createBasicStructure();
+        fs.create("TextFile", "note.txt", "C\\Documents");
+        Path file = dir.resolve("fs.checkpoint");
+        Checkpoint.write(fs, file);
+
+        FileSystem restored = new FileSystem();
+        restored.indexNames();
+        Checkpoint.load(file, restored);
+
+        assertEquals(List.of("C\\Documents\\note.txt"), sortedPaths(restored.getNameIndex().withExtension("txt")));
+    }
+
+    @Test
+    void concurrentChanges_shouldMatchFullWalk() throws Exception {
+        FileSystem concurrent = new ConcurrentFileSystem();
+        NameIndex index = concurrent.indexNames();
+        concurrent.create("Drive", "C", null);
+        int threads = 4;
+        for (int t = 0; t < threads; t++) {
+            concurrent.create("Folder", "t" + t, "C");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    List<String> containers = new ArrayList<>(List.of("C\\t" + seed));
+                    for (int i = 0; i < 2000; i++) {
+                        randomChange(concurrent, random, containers);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<String> walked = new ArrayList<>();
+        walk(concurrent.findDrive("C"), walked);
+        walked.sort(null);
+        assertEquals(walked, sortedPaths(index.withNamePrefix("")));
+        assertEquals(walked.stream().filter(path -> path.endsWith(".txt")).toList(), sortedPaths(index.withExtension("txt")));
+    }
+
+    private static void randomChange(FileSystem fileSystem, Random random, List<String> containers) {
+        String parent = containers.get(random.nextInt(containers.size()));
+        String name = random.nextBoolean() ? "e" + random.nextInt(10) : "e" + random.nextInt(10) + ".txt";
+        String path = parent + "\\" + name;
+        FileSystemEntity existing = fileSystem.findEntity(path);
+        if (existing == null) {
+            String type = name.endsWith(".txt") ? "TextFile" : "Folder";
+            fileSystem.create(type, name, parent);
+            if (type.equals("Folder")) {
+                containers.add(path);
+            }
+        } else if (random.nextInt(3) == 0) {
+            String dest = containers.get(random.nextInt(containers.size()));
+            if (!dest.equals(parent) && !dest.equals(path) && !dest.startsWith(path + "\\")
+                    && fileSystem.findEntity(dest + "\\" + name) == null) {
+                fileSystem.move(path, dest);
+                containers.replaceAll(container -> container.equals(path) || container.startsWith(path + "\\")
+                        ? dest + "\\" + name + container.substring(path.length()) : container);
+            }
+        } else if (random.nextInt(3) == 0) {
+            fileSystem.delete(path);
+            containers.removeIf(container -> container.equals(path) || container.startsWith(path + "\\"));
+        }
+    }
+
+    private static void walk(FileSystemEntity entity, List<String> paths) {
+        paths.add(entity.getPath());
+        if (entity instanceof Container container) {
+            for (FileSystemEntity child : container.getContents()) {
+                walk(child, paths);
+            }
+        }
+    }
+
+    private static List<String> sortedPaths(List<FileSystemEntity> entities) {
+        List<String> paths = new ArrayList<>();
+        for (FileSystemEntity entity : entities) {
+            paths.add(entity.getPath());
+        }
+        paths.sort(null);
+        return paths;
+    }
+}
@@ -0,0 +1,156 @@
+package filesystem;
+
+import filesystem.api.FileSystemOperation;
+import filesystem.content.DedupStats;
+import filesystem.entities.TextFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemStreamTest extends BaseFileSystemTest {
+    private static final String NOTE = "C\\Documents\\note.txt";
+
+    @BeforeEach
+    void createNote() {
+        createBasicStructure();
+        fs.create("TextFile", "note.txt", "C\\Documents");
+    }
+
+    @Test
+    void openRead_shouldStreamContentAsOfOpen() throws IOException {
+        fs.writeToFile(NOTE, "Hello, World");
+
+        try (InputStream in = fs.openRead(NOTE)) {
+            fs.writeToFile(NOTE, "Changed");
+            assertEquals("Hello, World", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    void openWrite_shouldReplaceOrAppend() throws IOException {
+        fs.writeToFile(NOTE, "Old");
+
+        try (OutputStream out = fs.openWrite(NOTE, false)) {
+            out.write("Hello".getBytes(StandardCharsets.UTF_8));
+        }
+        try (OutputStream out = fs.openWrite(NOTE, true)) {
+            out.write(", World".getBytes(StandardCharsets.UTF_8));
+            out.write('!');
+        }
+
+        assertEquals("Hello, World!", content());
+    }
+
+    @Test
+    void openWrite_largeStream_shouldRoundTrip() throws IOException {
+        byte[] chunk = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+        try (OutputStream out = fs.openWrite(NOTE, false)) {
+            for (int i = 0; i < 20_000; i++) {
+                out.write(chunk);
+            }
+        }
+
+        assertEquals(20_000 * chunk.length, ((TextFile) fs.findEntity(NOTE)).getSize());
+        try (InputStream in = fs.openRead(NOTE)) {
+            byte[] buffer = new byte[chunk.length];
+            in.skip(12_345L * chunk.length);
+            assertEquals(chunk.length, in.readNBytes(buffer, 0, buffer.length));
+            assertArrayEquals(chunk, buffer);
+        }
+    }
+
+    @Test
+    void openWrite_afterClose_shouldThrow() throws IOException {
+        OutputStream out = fs.openWrite(NOTE, true);
+        out.close();
+
+        assertThrows(IOException.class, () -> out.write('x'));
+    }
+
+    @Test
+    void write_afterFileDeleted_shouldThrowAndKeepSharedContent() throws IOException {
+        fs.create("TextFile", "copy.txt", "C");
+        fs.writeToFile(NOTE, "Shared");
+        fs.writeToFile("C\\copy.txt", "Shared");
+        OutputStream out = fs.openWrite(NOTE, true);
+        SeekableByteChannel channel = fs.openChannel(NOTE);
+        fs.delete(NOTE);
+
+        out.write('x');
+        assertThrows(IllegalArgumentException.class, out::flush);
+        assertThrows(IllegalArgumentException.class, () -> channel.write(ByteBuffer.wrap(new byte[]{'x'})));
+        assertEquals(new DedupStats(1, 1, 6, 0), fs.getDedupStats());
+        assertEquals("Shared", ((TextFile) fs.findEntity("C\\copy.txt")).getContent());
+    }
+
+    @Test
+    void write_afterFileMoved_shouldEditItAtItsNewPath() throws IOException {
+        fs.writeToFile(NOTE, "Hello");
+        List<FileSystemOperation> changes = new ArrayList<>();
+        OutputStream out = fs.openWrite(NOTE, true);
+        fs.move(NOTE, "C");
+        fs.addListener(changes::add);
+
+        out.write('!');
+        out.close();
+
+        assertEquals("Hello!", ((TextFile) fs.findEntity("C\\note.txt")).getContent());
+        assertEquals(1, changes.size());
+        assertEquals("C\\note.txt", ((FileSystemOperation.Edit) changes.get(0)).path());
+    }
+
+    @Test
+    void openChannel_shouldSeekReadWriteAndTruncate() throws IOException {
+        fs.writeToFile(NOTE, "Hello, World");
+
+        try (SeekableByteChannel channel = fs.openChannel(NOTE)) {
+            assertEquals(12, channel.size());
+
+            channel.position(7);
+            ByteBuffer buffer = ByteBuffer.allocate(5);
+            assertEquals(5, channel.read(buffer));
+            assertEquals("World", new String(buffer.array(), StandardCharsets.UTF_8));
+            assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+
+            channel.position(0).write(ByteBuffer.wrap("J".getBytes(StandardCharsets.UTF_8)));
+            channel.position(14).write(ByteBuffer.wrap("!".getBytes(StandardCharsets.UTF_8)));
+            assertEquals("Jello, World\0\0!", content());
+
+            channel.truncate(5);
+            assertEquals("Jello", content());
+            assertEquals(5, channel.position());
+        }
+    }
+
+    @Test
+    void openChannel_afterClose_shouldThrow() throws IOException {
+        SeekableByteChannel channel = fs.openChannel(NOTE);
+        channel.close();
+
+        assertFalse(channel.isOpen());
+        assertThrows(ClosedChannelException.class, () -> channel.read(ByteBuffer.allocate(1)));
+    }
+
+    @Test
+    void open_missingOrNonFile_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> fs.openRead("C\\missing.txt"));
+        assertThrows(IllegalArgumentException.class, () -> fs.openWrite("C\\Documents", true));
+        assertThrows(IllegalArgumentException.class, () -> fs.openChannel("C\\Documents"));
+    }
+
+    private String content() {
+        return ((TextFile) fs.findEntity(NOTE)).getContent();
+    }
+}
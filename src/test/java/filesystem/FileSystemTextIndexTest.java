@@ -0,0 +1,225 @@
+package filesystem;
+
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemEntity;
+import filesystem.api.FileSystemOperation;
+import filesystem.api.TextIndex;
+import filesystem.concurrent.ConcurrentFileSystem;
+import filesystem.durable.Checkpoint;
+import filesystem.entities.TextFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemTextIndexTest extends BaseFileSystemTest {
+    @TempDir
+    Path dir;
+
+    private final List<TextIndex> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeIndexes() {
+        opened.forEach(TextIndex::close);
+    }
+
+    @Test
+    void search_shouldMatchWordsCaseInsensitively() {
+        TextIndex index = open(fs);
+        createBasicStructure();
+        fs.create("TextFile", "a.txt", "C\\Documents");
+        fs.create("TextFile", "b.txt", "C\\Documents");
+        fs.writeToFile("C\\Documents\\a.txt", "Disk error: out of memory!");
+        fs.writeToFile("C\\Documents\\b.txt", "All good, no ERRORS here");
+
+        assertEquals(List.of("C\\Documents\\a.txt"), paths(index.search("error", true)));
+        assertEquals(List.of("C\\Documents\\b.txt"), paths(index.search("Errors")));
+        assertTrue(index.search("missing").isEmpty());
+    }
+
+    @Test
+    void search_shouldFoldCaseIndependentlyOfDefaultLocale() {
+        TextIndex index = open(fs);
+        createBasicStructure();
+        fs.create("TextFile", "a.txt", "C\\Documents");
+        fs.writeToFile("C\\Documents\\a.txt", "Title of the INDEX");
+        index.search("title", true);
+
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            assertEquals(List.of("C\\Documents\\a.txt"), paths(index.search("TITLE index")));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void search_andOrAndPhraseQueries() {
+        TextIndex index = open(fs);
+        createBasicStructure();
+        write("a.txt", "disk error on drive one");
+        write("b.txt", "memory error, out of memory");
+        write("c.txt", "out of disk, memory of the past");
+
+        assertEquals(List.of("C\\Documents\\a.txt"), paths(index.search("error disk", true)));
+        assertEquals(List.of("C\\Documents\\a.txt"), paths(index.search("error AND disk")));
+        assertEquals(List.of("C\\Documents\\a.txt", "C\\Documents\\b.txt"), paths(index.search("drive OR \"out of memory\"")));
+        assertEquals(List.of("C\\Documents\\c.txt"), paths(index.search("\"memory of\"")));
+        assertEquals(List.of("C\\Documents\\b.txt", "C\\Documents\\c.txt"), paths(index.search("memory OR past")));
+        assertTrue(index.search("\"error disk\"").isEmpty());
+    }
+
+    @Test
+    void writesDeletesAndMoves_shouldKeepIndexUpToDate() throws IOException {
+        TextIndex index = open(fs);
+        createBasicStructure();
+        fs.create("Folder", "Archive", "C");
+        fs.create("ZipFile", "old.zip", "C");
+        write("a.txt", "alpha beta");
+        write("b.txt", "beta gamma");
+
+        fs.writeToFile("C\\Documents\\a.txt", "delta");
+        assertTrue(index.search("alpha", true).isEmpty());
+        fs.appendToFile("C\\Documents\\a.txt", " epsilon");
+        try (OutputStream out = fs.openWrite("C\\Documents\\b.txt", true)) {
+            out.write(" zeta".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(List.of("C\\Documents\\a.txt"), paths(index.search("\"delta epsilon\"", true)));
+        assertEquals(List.of("C\\Documents\\b.txt"), paths(index.search("gamma zeta", true)));
+
+        fs.move("C\\Documents\\b.txt", "C\\old.zip");
+        assertEquals(List.of("C\\old.zip\\b.txt"), paths(index.search("zeta", true)));
+
+        fs.move("C\\Documents", "C\\Archive");
+        fs.delete("C\\Archive");
+        assertTrue(index.search("delta", true).isEmpty());
+        assertEquals(1, index.fileCount());
+    }
+
+    @Test
+    void rolledBackBatch_shouldRestoreIndexedContent() {
+        TextIndex index = open(fs);
+        createBasicStructure();
+        write("a.txt", "original");
+
+        assertThrows(IllegalArgumentException.class, () -> fs.apply(List.of(
+                new FileSystemOperation.Write("C\\Documents\\a.txt", "replaced"),
+                new FileSystemOperation.Delete("C\\Documents"),
+                new FileSystemOperation.Delete("C\\Missing"))));
+
+        assertEquals(List.of("C\\Documents\\a.txt"), paths(index.search("original", true)));
+        assertTrue(index.search("replaced", true).isEmpty());
+    }
+
+    @Test
+    void indexText_existingTreeAndCheckpointLoad_shouldIndexEveryFile() throws IOException {
+        createBasicStructure();
+        write("a.txt", "checkpointed words");
+        TextIndex index = open(fs);
+        assertEquals(List.of("C\\Documents\\a.txt"), paths(index.search("words", true)));
+
+        Path file = dir.resolve("fs.checkpoint");
+        Checkpoint.write(fs, file);
+        FileSystem restored = new FileSystem();
+        TextIndex restoredIndex = open(restored);
+        Checkpoint.load(file, restored);
+
+        assertEquals(List.of("C\\Documents\\a.txt"), paths(restoredIndex.search("checkpointed", true)));
+    }
+
+    @Test
+    void search_malformedQuery_shouldThrow() {
+        TextIndex index = open(fs);
+
+        assertThrows(IllegalArgumentException.class, () -> index.search("  "));
+        assertThrows(IllegalArgumentException.class, () -> index.search("\"open phrase"));
+        assertThrows(IllegalArgumentException.class, () -> index.search("word OR"));
+    }
+
+    @Test
+    void concurrentWrites_readYourWrites_shouldMatchContent() throws Exception {
+        FileSystem concurrent = new ConcurrentFileSystem();
+        TextIndex index = open(concurrent);
+        concurrent.create("Drive", "C", null);
+        int threads = 4;
+        for (int t = 0; t < threads; t++) {
+            concurrent.create("Folder", "t" + t, "C");
+            for (int i = 0; i < 20; i++) {
+                concurrent.create("TextFile", "f" + i + ".txt", "C\\t" + t);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(thread);
+                    for (int i = 0; i < 500; i++) {
+                        String path = "C\\t" + thread + "\\f" + random.nextInt(20) + ".txt";
+                        concurrent.writeToFile(path, "word" + random.nextInt(5) + " common");
+                        if (i % 50 == 0) {
+                            String word = ((TextFile) concurrent.findEntity(path)).getContent().split(" ")[0];
+                            assertTrue(paths(index.search(word, true)).contains(path));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int w = 0; w < 5; w++) {
+            List<String> expected = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                for (int i = 0; i < 20; i++) {
+                    String path = "C\\t" + t + "\\f" + i + ".txt";
+                    String content = ((TextFile) concurrent.findEntity(path)).getContent();
+                    if (content.startsWith("word" + w + " ")) {
+                        expected.add(path);
+                    }
+                }
+            }
+            expected.sort(null);
+            assertEquals(expected, paths(index.search("word" + w, true)));
+        }
+    }
+
+    private TextIndex open(FileSystem fileSystem) {
+        TextIndex index = fileSystem.indexText();
+        opened.add(index);
+        return index;
+    }
+
+    private void write(String name, String content) {
+        fs.create("TextFile", name, "C\\Documents");
+        fs.writeToFile("C\\Documents\\" + name, content);
+    }
+
+    private static List<String> paths(List<FileSystemEntity> entities) {
+        List<String> paths = new ArrayList<>();
+        for (FileSystemEntity entity : entities) {
+            paths.add(entity.getPath());
+        }
+        paths.sort(null);
+        return paths;
+    }
+}
@@ -0,0 +1,147 @@
+package filesystem;
+
+import filesystem.api.FileSystemEntity;
+import filesystem.api.FileSystemVisitor;
+import filesystem.entities.TextFile;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemWalkTest extends BaseFileSystemTest {
+
+    @Test
+    void walk_shouldStreamPathAndEveryDescendantParentsFirst() {
+        createBasicStructure();
+        fs.create("TextFile", "a.txt", "C\\Documents");
+        fs.create("ZipFile", "old.zip", "C\\Documents");
+        fs.create("TextFile", "b.txt", "C\\Documents\\old.zip");
+        fs.create("TextFile", "top.txt", "C");
+
+        List<String> paths = fs.walk("C\\Documents").map(FileSystemEntity::getPath).toList();
+
+        assertEquals(Set.of("C\\Documents", "C\\Documents\\a.txt", "C\\Documents\\old.zip", "C\\Documents\\old.zip\\b.txt"),
+                new HashSet<>(paths));
+        assertEquals(4, paths.size());
+        assertEquals("C\\Documents", paths.get(0));
+        assertTrue(paths.indexOf("C\\Documents\\old.zip") < paths.indexOf("C\\Documents\\old.zip\\b.txt"));
+        assertEquals(List.of("C\\top.txt"), fs.walk("C\\top.txt").map(FileSystemEntity::getPath).toList());
+    }
+
+    @Test
+    void walk_parallelOnLargeTree_shouldMatchSequential() {
+        fs.create("Drive", "C", null);
+        List<String> containers = new ArrayList<>(List.of("C"));
+        Random random = new Random(11);
+        for (int i = 0; i < 30_000; i++) {
+            String parent = containers.get(random.nextInt(containers.size()));
+            if (random.nextInt(5) == 0) {
+                fs.create("Folder", "d" + i, parent);
+                containers.add(parent + "\\d" + i);
+            } else {
+                fs.create("TextFile", "f" + i, parent);
+                fs.writeToFile(parent + "\\f" + i, "x".repeat(i % 10));
+            }
+        }
+
+        Set<FileSystemEntity> sequential = fs.walk("C").collect(Collectors.toSet());
+        List<FileSystemEntity> parallel = fs.walk("C").parallel().toList();
+        long bytes = fs.walk("C").parallel().filter(e -> e instanceof TextFile).mapToLong(e -> ((TextFile) e).getSize()).sum();
+
+        assertEquals(30_001, sequential.size());
+        assertEquals(30_001, parallel.size());
+        assertEquals(sequential, new HashSet<>(parallel));
+        assertEquals(fs.findDrive("C").getTotalBytes(), bytes);
+        assertNotNull(fs.walk("C").spliterator().trySplit());
+    }
+
+    @Test
+    void walkWithVisitor_shouldCallHooksAroundChildren() {
+        createBasicStructure();
+        fs.create("TextFile", "a.txt", "C\\Documents");
+        List<String> events = new ArrayList<>();
+
+        assertTrue(fs.walk("C", new FileSystemVisitor() {
+            @Override
+            public Result preVisit(FileSystemEntity entity) {
+                events.add("pre " + entity.getName());
+                return Result.CONTINUE;
+            }
+
+            @Override
+            public Result postVisit(FileSystemEntity entity) {
+                events.add("post " + entity.getName());
+                return Result.CONTINUE;
+            }
+        }));
+
+        assertEquals(List.of("pre C", "pre Documents", "pre a.txt", "post a.txt", "post Documents", "post C"), events);
+    }
+
+    @Test
+    void walkWithVisitor_skipAndTerminate_shouldPruneAndStop() {
+        createBasicStructure();
+        fs.create("Folder", "Skipped", "C");
+        fs.create("TextFile", "hidden.txt", "C\\Skipped");
+        fs.create("TextFile", "a.txt", "C\\Documents");
+        List<String> visited = new ArrayList<>();
+
+        assertTrue(fs.walk("C", new FileSystemVisitor() {
+            @Override
+            public Result preVisit(FileSystemEntity entity) {
+                visited.add(entity.getName());
+                return entity.getName().equals("Skipped") ? Result.SKIP_CHILDREN : Result.CONTINUE;
+            }
+        }));
+        assertTrue(visited.contains("Skipped"));
+        assertFalse(visited.contains("hidden.txt"));
+
+        List<String> seen = new ArrayList<>();
+        assertFalse(fs.walk("C", new FileSystemVisitor() {
+            @Override
+            public Result preVisit(FileSystemEntity entity) {
+                seen.add(entity.getName());
+                return entity instanceof TextFile ? Result.TERMINATE : Result.CONTINUE;
+            }
+        }));
+        assertTrue(seen.get(seen.size() - 1).endsWith(".txt"));
+        assertTrue(seen.size() < 5);
+    }
+
+    @Test
+    void walkWithVisitor_deepChain_shouldNotOverflow() {
+        fs.create("Drive", "C", null);
+        StringBuilder path = new StringBuilder("C");
+        for (int i = 0; i < 5000; i++) {
+            fs.create("Folder", "d", path.toString());
+            path.append("\\d");
+        }
+        int[] posts = new int[1];
+
+        fs.walk("C", new FileSystemVisitor() {
+            @Override
+            public Result postVisit(FileSystemEntity entity) {
+                posts[0]++;
+                return Result.CONTINUE;
+            }
+        });
+
+        assertEquals(5001, posts[0]);
+        assertEquals(5001, fs.walk("C").count());
+    }
+
+    @Test
+    void walk_missingPath_shouldThrow() {
+        createBasicStructure();
+
+        assertThrows(IllegalArgumentException.class, () -> fs.walk("C\\Missing"));
+        assertThrows(IllegalArgumentException.class, () -> fs.walk("X", new FileSystemVisitor() {
+        }));
+    }
+}
@@ -0,0 +1,207 @@
+package filesystem;
+
+import filesystem.watch.OverflowPolicy;
+import filesystem.watch.Watch;
+import filesystem.watch.WatchEvent;
+import filesystem.watch.WatchEvent.Kind;
+import filesystem.watch.WatchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemWatchTest extends BaseFileSystemTest {
+    private final BlockingQueue<List<WatchEvent>> batches = new LinkedBlockingQueue<>();
+    private WatchService service;
+
+    @AfterEach
+    void closeService() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @Test
+    void watch_shouldDeliverChangesBelowPrefixOnly() throws InterruptedException {
+        createBasicStructure();
+        fs.create("Folder", "Other", "C");
+        service = WatchService.open(fs, 64, Duration.ZERO, OverflowPolicy.SIGNAL);
+        service.watch("C\\Documents", batches::add);
+
+        fs.create("TextFile", "a.txt", "C\\Documents");
+        fs.create("TextFile", "b.txt", "C\\Other");
+        fs.writeToFile("C\\Documents\\a.txt", "hello");
+        fs.writeToFile("C\\Other\\b.txt", "ignored");
+        fs.move("C\\Documents\\a.txt", "C\\Other");
+        fs.move("C\\Other\\b.txt", "C\\Documents");
+        fs.copy("C\\Other\\a.txt", "C\\Documents");
+        fs.delete("C\\Documents\\b.txt");
+
+        assertEquals(List.of(
+                new WatchEvent(Kind.CREATE, "C\\Documents\\a.txt", null),
+                new WatchEvent(Kind.WRITE, "C\\Documents\\a.txt", null),
+                new WatchEvent(Kind.MOVE, "C\\Documents\\a.txt", "C\\Other\\a.txt"),
+                new WatchEvent(Kind.MOVE, "C\\Other\\b.txt", "C\\Documents\\b.txt"),
+                new WatchEvent(Kind.CREATE, "C\\Documents\\a.txt", null),
+                new WatchEvent(Kind.DELETE, "C\\Documents\\b.txt", null)), await(6));
+    }
+
+    @Test
+    void watch_shouldReportDeletionOfAnAncestor() throws InterruptedException {
+        createBasicStructure();
+        service = WatchService.open(fs, 64, Duration.ZERO, OverflowPolicy.SIGNAL);
+        service.watch("C\\Documents\\Reports", batches::add);
+
+        fs.create("Folder", "Reports", "C\\Documents");
+        fs.create("Drive", "D", null);
+        fs.delete("C");
+
+        assertEquals(List.of(
+                new WatchEvent(Kind.CREATE, "C\\Documents\\Reports", null),
+                new WatchEvent(Kind.DELETE, "C", null)), await(2));
+    }
+
+    @Test
+    void repeatedWrites_withinWindow_shouldBeCoalesced() throws InterruptedException {
+        createBasicStructure();
+        fs.create("TextFile", "a.txt", "C\\Documents");
+        service = WatchService.open(fs, 1024, Duration.ofSeconds(1), OverflowPolicy.SIGNAL);
+        service.watch("C", batches::add);
+
+        for (int i = 0; i < 100; i++) {
+            fs.writeToFile("C\\Documents\\a.txt", "v" + i);
+        }
+        fs.delete("C\\Documents\\a.txt");
+        fs.create("TextFile", "a.txt", "C\\Documents");
+        fs.writeToFile("C\\Documents\\a.txt", "new");
+        fs.writeToFile("C\\Documents\\a.txt", "newer");
+
+        List<WatchEvent> batch = batches.poll(10, TimeUnit.SECONDS);
+        assertEquals(List.of(
+                new WatchEvent(Kind.WRITE, "C\\Documents\\a.txt", null),
+                new WatchEvent(Kind.DELETE, "C\\Documents\\a.txt", null),
+                new WatchEvent(Kind.CREATE, "C\\Documents\\a.txt", null),
+                new WatchEvent(Kind.WRITE, "C\\Documents\\a.txt", null)), batch);
+        assertEquals(100, service.coalesced());
+    }
+
+    @Test
+    void slowConsumer_withDropPolicy_shouldDiscardSilently() throws InterruptedException {
+        CountDownLatch release = blockFirstBatch(OverflowPolicy.DROP);
+        for (int i = 0; i < 10; i++) {
+            fs.create("Folder", "F" + i, "C");
+        }
+        release.countDown();
+
+        assertEquals(6, service.dropped());
+        List<WatchEvent> events = await(4);
+        assertEquals("C\\F3", events.get(3).path());
+        assertTrue(events.stream().noneMatch(event -> event.kind() == Kind.OVERFLOW));
+    }
+
+    @Test
+    void slowConsumer_withSignalPolicy_shouldDeliverOverflow() throws InterruptedException {
+        CountDownLatch release = blockFirstBatch(OverflowPolicy.SIGNAL);
+        for (int i = 0; i < 10; i++) {
+            fs.create("Folder", "F" + i, "C");
+        }
+        release.countDown();
+
+        assertEquals(6, service.dropped());
+        List<WatchEvent> events = await(5);
+        assertEquals(new WatchEvent(Kind.OVERFLOW, null, null), events.get(4));
+    }
+
+    @Test
+    void slowConsumer_withBlockPolicy_shouldDeliverEverything() throws InterruptedException {
+        createBasicStructure();
+        service = WatchService.open(fs, 2, Duration.ZERO, OverflowPolicy.BLOCK);
+        service.watch("C", batch -> {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batches.add(batch);
+        });
+
+        for (int i = 0; i < 50; i++) {
+            fs.create("Folder", "F" + i, "C");
+        }
+
+        List<WatchEvent> events = await(50);
+        assertEquals(0, service.dropped());
+        assertEquals("C\\F49", events.get(49).path());
+    }
+
+    @Test
+    void close_shouldStopDelivery() throws InterruptedException {
+        createBasicStructure();
+        service = WatchService.open(fs, 64, Duration.ofMillis(50), OverflowPolicy.SIGNAL);
+        List<WatchEvent> other = new ArrayList<>();
+        Watch watch = service.watch("C", other::addAll);
+        service.watch("C", batches::add);
+        watch.close();
+
+        fs.create("Folder", "A", "C");
+        service.close();
+        fs.create("Folder", "B", "C");
+
+        assertEquals(List.of(new WatchEvent(Kind.CREATE, "C\\A", null)), batches.poll());
+        assertTrue(other.isEmpty());
+        assertNull(batches.poll(100, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalStateException.class, () -> service.watch("C", batches::add));
+    }
+
+    @Test
+    void open_withInvalidArguments_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> WatchService.open(fs, 100, Duration.ZERO, OverflowPolicy.DROP));
+        assertThrows(IllegalArgumentException.class, () -> WatchService.open(fs, 64, Duration.ofMillis(-1), OverflowPolicy.DROP));
+        service = WatchService.open(fs);
+        assertThrows(IllegalArgumentException.class, () -> service.watch("", batches::add));
+    }
+
+    /**
+     * Opens a service with room for 4 changes whose consumer holds the dispatcher in the first batch
+     * until the returned latch is released.
+     */
+    private CountDownLatch blockFirstBatch(OverflowPolicy policy) throws InterruptedException {
+        fs.create("Drive", "C", null);
+        service = WatchService.open(fs, 4, Duration.ZERO, policy);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        service.watch("C", batch -> {
+            if (entered.getCount() > 0) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+            batches.add(batch);
+        });
+        fs.create("Folder", "First", "C");
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private List<WatchEvent> await(int count) throws InterruptedException {
+        List<WatchEvent> events = new ArrayList<>();
+        while (events.size() < count) {
+            List<WatchEvent> batch = batches.poll(10, TimeUnit.SECONDS);
+            assertNotNull(batch, "received only " + events);
+            events.addAll(batch);
+        }
+        return events;
+    }
+}
@@ -0,0 +1,319 @@
+package filesystem;
+
+import filesystem.api.EntityPath;
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemListener;
+import filesystem.api.FileSystemOperation;
+import filesystem.concurrent.ConcurrentFileSystem;
+import filesystem.content.ContentEdit;
+import filesystem.durable.SyncPolicy;
+import filesystem.durable.WriteAheadLog;
+import filesystem.entities.TextFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemWriteAheadLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopen_shouldReplayEveryKindOfChange() throws IOException {
+        Path file = dir.resolve("fs.wal");
+        FileSystem fs = new FileSystem();
+        try (WriteAheadLog log = WriteAheadLog.open(fs, file, SyncPolicy.perOperation())) {
+            fs.create("Drive", "C", null);
+            fs.create("Folder", "Documents", "C");
+            fs.create("ZipFile", "archive.zip", "C");
+            fs.create("TextFile", EntityPath.parse("C\\Documents\\note.txt"));
+            fs.writeToFile("C\\Documents\\note.txt", "Hello, world");
+            fs.writeAt("C\\Documents\\note.txt", 7, "WORLD");
+            fs.appendToFile("C\\Documents\\note.txt", "!!");
+            fs.truncate("C\\Documents\\note.txt", 13);
+            try (OutputStream out = fs.openWrite("C\\Documents\\note.txt", true)) {
+                out.write(" Grüße".getBytes(StandardCharsets.UTF_8));
+            }
+            fs.move("C\\Documents\\note.txt", "C\\archive.zip");
+            fs.create("Folder", "Temp", "C");
+            fs.delete("C\\Temp");
+            assertEquals(12, log.records());
+        }
+
+        FileSystem restored = new FileSystem();
+        WriteAheadLog restoredLog = WriteAheadLog.open(restored, file, SyncPolicy.perOperation());
+        try {
+            assertEquals("Hello, WORLD! Grüße", ((TextFile) restored.findEntity("C\\archive.zip\\note.txt")).getContent());
+            assertNull(restored.findEntity("C\\Documents\\note.txt"));
+            assertNull(restored.findEntity("C\\Temp"));
+        } finally {
+            restoredLog.close();
+        }
+    }
+
+    @Test
+    void reopen_tornTail_shouldKeepIntactRecordsAndContinueLogging() throws IOException {
+        Path file = dir.resolve("fs.wal");
+        FileSystem fs = new FileSystem();
+        WriteAheadLog log = WriteAheadLog.open(fs, file, SyncPolicy.perBatch());
+        try {
+            fs.create("Drive", "C", null);
+            fs.create("TextFile", "note.txt", "C");
+            fs.writeToFile("C\\note.txt", "Hello");
+        } finally {
+            log.close();
+        }
+        long intact = Files.size(file);
+        // A record cut short by a crash: a length promising more bytes than follow.
+        Files.write(file, new byte[]{40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        FileSystem restored = new FileSystem();
+        WriteAheadLog restoredLog = WriteAheadLog.open(restored, file, SyncPolicy.perBatch());
+        try {
+            assertEquals(intact, Files.size(file));
+            restored.appendToFile("C\\note.txt", " again");
+        } finally {
+            restoredLog.close();
+        }
+
+        FileSystem again = new FileSystem();
+        WriteAheadLog againLog = WriteAheadLog.open(again, file, SyncPolicy.perBatch());
+        try {
+            assertEquals("Hello again", ((TextFile) again.findEntity("C\\note.txt")).getContent());
+        } finally {
+            againLog.close();
+        }
+    }
+
+    @Test
+    void apply_shouldLogOnlyBatchesThatSucceed() throws IOException {
+        Path file = dir.resolve("fs.wal");
+        FileSystem fs = new FileSystem();
+        try (WriteAheadLog log = WriteAheadLog.open(fs, file, SyncPolicy.interval(Duration.ofMillis(5)))) {
+            fs.create("Drive", "C", null);
+            fs.apply(List.of(
+                    new FileSystemOperation.Create("Folder", "Kept", "C"),
+                    new FileSystemOperation.Create("TextFile", "a.txt", "C\\Kept"),
+                    new FileSystemOperation.Edit("C\\Kept\\a.txt", new ContentEdit.Append("kept".getBytes(StandardCharsets.UTF_8)))));
+            assertThrows(IllegalArgumentException.class, () -> fs.apply(List.of(
+                    new FileSystemOperation.Create("Folder", "Lost", "C"),
+                    new FileSystemOperation.Delete("C\\Missing"))));
+            assertEquals(4, log.records());
+        }
+
+        FileSystem restored = new FileSystem();
+        WriteAheadLog restoredLog = WriteAheadLog.open(restored, file, SyncPolicy.perOperation());
+        try {
+            assertEquals("kept", ((TextFile) restored.findEntity("C\\Kept\\a.txt")).getContent());
+            assertNull(restored.findEntity("C\\Lost"));
+        } finally {
+            restoredLog.close();
+        }
+    }
+
+    @Test
+    void perOperation_shouldSyncEveryRecordBeforeReturning() throws IOException {
+        FileSystem fs = new FileSystem();
+        try (WriteAheadLog log = WriteAheadLog.open(fs, dir.resolve("fs.wal"), SyncPolicy.perOperation())) {
+            fs.create("Drive", "C", null);
+            fs.create("TextFile", "note.txt", "C");
+            fs.writeToFile("C\\note.txt", "Hello");
+
+            assertEquals(3, log.records());
+            assertEquals(3, log.syncs());
+        }
+    }
+
+    @Test
+    void interruptedWriter_shouldFailLaterChangesAndClose() throws Exception {
+        FileSystem fs = new FileSystem();
+        Set<Thread> before = writerThreads();
+        WriteAheadLog log = WriteAheadLog.open(fs, dir.resolve("fs.wal"), SyncPolicy.interval(Duration.ofHours(1)));
+        Set<Thread> started = writerThreads();
+        started.removeAll(before);
+        Thread writer = started.iterator().next();
+        fs.create("Drive", "C", null);
+
+        // Wait until the writer has written the record and waits for the interval to sync it.
+        while (writer.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+        writer.interrupt();
+        writer.join(10_000);
+
+        assertFalse(writer.isAlive());
+        assertThrows(UncheckedIOException.class, () -> fs.create("Folder", "Lost", "C"));
+        assertThrows(InterruptedIOException.class, log::close);
+    }
+
+    private static Set<Thread> writerThreads() {
+        Set<Thread> threads = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("write-ahead-log")) {
+                threads.add(thread);
+            }
+        }
+        return threads;
+    }
+
+    @Test
+    void concurrentWriters_shouldAllBeReplayed() throws Exception {
+        Path file = dir.resolve("fs.wal");
+        FileSystem fs = new ConcurrentFileSystem();
+        try (WriteAheadLog log = WriteAheadLog.open(fs, file, SyncPolicy.perBatch())) {
+            fs.create("Drive", "C", null);
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                String folder = "w" + t;
+                writers.add(new Thread(() -> {
+                    fs.create("Folder", folder, "C");
+                    for (int i = 0; i < 50; i++) {
+                        fs.create("TextFile", "f" + i + ".txt", "C\\" + folder);
+                        fs.writeToFile("C\\" + folder + "\\f" + i + ".txt", folder + i);
+                    }
+                }));
+            }
+            writers.forEach(Thread::start);
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            assertEquals(405, log.records());
+            assertTrue(log.syncs() <= log.records());
+        }
+
+        FileSystem restored = new FileSystem();
+        WriteAheadLog restoredLog = WriteAheadLog.open(restored, file, SyncPolicy.perBatch());
+        try {
+            for (int t = 0; t < 4; t++) {
+                for (int i = 0; i < 50; i++) {
+                    assertEquals("w" + t + i, ((TextFile) restored.findEntity("C\\w" + t + "\\f" + i + ".txt")).getContent());
+                }
+            }
+        } finally {
+            restoredLog.close();
+        }
+    }
+
+    @Test
+    void listener_shouldReceiveAbsolutePathsInOrder() {
+        FileSystem fs = new FileSystem();
+        List<FileSystemOperation> changes = new ArrayList<>();
+        fs.addListener(new FileSystemListener() {
+            @Override
+            public void applied(FileSystemOperation operation) {
+                changes.add(operation);
+            }
+        });
+
+        fs.create("Drive", "C", null);
+        fs.create("Folder", "Documents", "C\\");
+        fs.create("Folder", "Archive", "C");
+        fs.move(EntityPath.parse("C\\Documents"), EntityPath.parse("C\\Archive"));
+        assertThrows(IllegalArgumentException.class, () -> fs.delete("C\\Missing"));
+        fs.delete(EntityPath.parse("C\\Archive\\Documents"));
+
+        assertEquals(List.of(
+                new FileSystemOperation.Create("Drive", "C", null),
+                new FileSystemOperation.Create("Folder", "Documents", "C"),
+                new FileSystemOperation.Create("Folder", "Archive", "C"),
+                new FileSystemOperation.Move("C\\Documents", "C\\Archive"),
+                new FileSystemOperation.Delete("C\\Archive\\Documents")), changes);
+    }
+
+    @Test
+    void reopen_changeThatDoesNotApply_shouldThrow() throws IOException {
+        Path file = dir.resolve("fs.wal");
+        FileSystem fs = new FileSystem();
+        WriteAheadLog log = WriteAheadLog.open(fs, file, SyncPolicy.perOperation());
+        try {
+            fs.create("Drive", "C", null);
+        } finally {
+            log.close();
+        }
+
+        FileSystem notEmpty = new FileSystem();
+        notEmpty.create("Drive", "C", null);
+        IOException e = assertThrows(IOException.class, () -> WriteAheadLog.open(notEmpty, file, SyncPolicy.perOperation()));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    }
+
+    @Test
+    void streamWrite_racingAMove_shouldBeLoggedAfterTheMove() throws Exception {
+        Path file = dir.resolve("fs.wal");
+        FileSystem fs = new ConcurrentFileSystem();
+        // Holds the move between making it and reporting it, before the log hears of it.
+        CountDownLatch moving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        fs.addListener(operation -> {
+            if (operation instanceof FileSystemOperation.Move) {
+                moving.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        WriteAheadLog log = WriteAheadLog.open(fs, file, SyncPolicy.perBatch());
+        try {
+            fs.create("Drive", "C", null);
+            fs.create("Folder", "A", "C");
+            fs.create("Folder", "B", "C");
+            fs.create("TextFile", "note.txt", "C\\A");
+            OutputStream out = fs.openWrite("C\\A\\note.txt", true);
+            Thread mover = new Thread(() -> fs.move("C\\A\\note.txt", "C\\B"));
+            mover.start();
+            assertTrue(moving.await(10, TimeUnit.SECONDS));
+
+            Thread writer = new Thread(() -> {
+                try {
+                    out.write('x');
+                    out.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.start();
+            while (writer.getState() != Thread.State.BLOCKED && writer.isAlive()) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            mover.join();
+            writer.join();
+        } finally {
+            log.close();
+        }
+
+        FileSystem restored = new FileSystem();
+        WriteAheadLog restoredLog = WriteAheadLog.open(restored, file, SyncPolicy.perBatch());
+        try {
+            assertEquals("x", ((TextFile) restored.findEntity("C\\B\\note.txt")).getContent());
+        } finally {
+            restoredLog.close();
+        }
+    }
+
+    @Test
+    void open_otherFile_shouldThrow() throws IOException {
+        Path file = dir.resolve("notes.txt");
+        Files.writeString(file, "not a log");
+
+        assertThrows(IOException.class, () -> WriteAheadLog.open(new FileSystem(), file, SyncPolicy.perOperation()));
+    }
+}
@@ -0,0 +1,92 @@
+package filesystem;
+
+import filesystem.content.DecompressionCache;
+import filesystem.entities.TextFile;
+import filesystem.entities.ZipFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemZipCompressionTest extends BaseFileSystemTest {
+    private static final String LINE = "INFO request served in 3 ms\n";
+    private static final String TEXT = LINE.repeat(2000);
+
+    @BeforeEach
+    void createZip() {
+        createBasicStructure();
+        fs.create("ZipFile", "archive.zip", "C");
+        fs.create("Folder", "logs", "C\\archive.zip");
+    }
+
+    @Test
+    void writeToFile_insideZip_shouldCompress() {
+        fs.create("TextFile", "app.log", "C\\archive.zip\\logs");
+
+        fs.writeToFile("C\\archive.zip\\logs\\app.log", TEXT);
+
+        TextFile file = file("C\\archive.zip\\logs\\app.log");
+        assertEquals(TEXT, file.getContent());
+        assertTrue(file.getRawContent().storedSize() < TEXT.length() / 10);
+    }
+
+    @Test
+    void writeToFile_outsideZip_shouldNotCompress() {
+        fs.create("TextFile", "app.log", "C\\Documents");
+
+        fs.writeToFile("C\\Documents\\app.log", TEXT);
+
+        assertEquals(TEXT.length(), file("C\\Documents\\app.log").getRawContent().storedSize());
+    }
+
+    @Test
+    void move_intoAndOutOfZip_shouldCompressAndInflate() {
+        fs.create("Folder", "old", "C\\Documents");
+        fs.create("TextFile", "app.log", "C\\Documents\\old");
+        fs.writeToFile("C\\Documents\\old\\app.log", TEXT);
+
+        fs.move("C\\Documents\\old", "C\\archive.zip");
+        TextFile archived = file("C\\archive.zip\\old\\app.log");
+        assertTrue(archived.getRawContent().storedSize() < TEXT.length() / 10);
+
+        fs.move("C\\archive.zip\\old\\app.log", "C\\Documents");
+        TextFile restored = file("C\\Documents\\app.log");
+        assertEquals(TEXT.length(), restored.getRawContent().storedSize());
+        assertEquals(TEXT, restored.getContent());
+    }
+
+    @Test
+    void editsAndRangedReads_largeFileInZip_shouldInflateOnlyTouchedChunks() {
+        String path = "C\\archive.zip\\logs\\big.log";
+        fs.create("TextFile", "big.log", "C\\archive.zip\\logs");
+        String big = TEXT.repeat(10);
+        fs.writeToFile(path, big);
+        DecompressionCache cache = ((ZipFile) fs.findEntity("C\\archive.zip")).getDecompressionCache();
+
+        fs.appendToFile(path, "tail\n");
+        byte[] head = fs.readFromFile(path, 0, LINE.length());
+        byte[] again = fs.readFromFile(path, LINE.length(), LINE.length());
+
+        assertEquals(LINE, new String(head, StandardCharsets.UTF_8));
+        assertArrayEquals(head, again);
+        assertTrue(cache.hits() >= 1);
+        assertTrue(cache.sizeBytes() <= ZipFile.DEFAULT_CACHE_BYTES);
+        assertEquals(big + "tail\n", file(path).getContent());
+    }
+
+    @Test
+    void incompressibleContent_shouldBeStoredAsIs() {
+        fs.create("TextFile", "tiny.txt", "C\\archive.zip");
+
+        fs.writeToFile("C\\archive.zip\\tiny.txt", "a");
+
+        assertEquals(1, file("C\\archive.zip\\tiny.txt").getRawContent().storedSize());
+        assertEquals("a", file("C\\archive.zip\\tiny.txt").getContent());
+    }
+
+    private TextFile file(String path) {
+        return (TextFile) fs.findEntity(path);
+    }
+}
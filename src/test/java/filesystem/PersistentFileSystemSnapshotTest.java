@@ -0,0 +1,84 @@
+package filesystem;
+
+import filesystem.api.FileSystem;
+import filesystem.entities.TextFile;
+import filesystem.persistent.PersistentFileSystem;
+import filesystem.persistent.Version;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentFileSystemSnapshotTest {
+    private PersistentFileSystem fs;
+
+    @BeforeEach
+    void setUp() {
+        fs = new PersistentFileSystem();
+        fs.create("Drive", "C", null);
+        fs.create("Folder", "Documents", "C");
+        fs.create("ZipFile", "archive.zip", "C\\Documents");
+        fs.create("TextFile", "note.txt", "C\\Documents\\archive.zip");
+        fs.writeToFile("C\\Documents\\archive.zip\\note.txt", "Hello");
+    }
+
+    @Test
+    void snapshot_shouldNotSeeLaterWrites() {
+        Version snapshot = fs.snapshot();
+
+        fs.writeToFile("C\\Documents\\archive.zip\\note.txt", "Changed");
+        fs.delete("C\\Documents");
+
+        assertEquals("Hello", snapshot.readFile("C\\Documents\\archive.zip\\note.txt"));
+        assertNull(fs.findNode("C\\Documents"));
+    }
+
+    @Test
+    void fork_shouldDivergeIndependently() {
+        PersistentFileSystem fork = fs.fork();
+
+        fork.writeToFile("C\\Documents\\archive.zip\\note.txt", "Fork");
+        fs.create("Folder", "Music", "C");
+
+        assertEquals("Hello", fs.readFile("C\\Documents\\archive.zip\\note.txt"));
+        assertEquals("Fork", fork.readFile("C\\Documents\\archive.zip\\note.txt"));
+        assertNull(fork.findNode("C\\Music"));
+    }
+
+    @Test
+    void fork_shouldShareNodesUntilWritten() {
+        fs.create("Folder", "Music", "C");
+        PersistentFileSystem fork = fs.fork();
+
+        assertSame(fs.findDrive("C"), fork.findDrive("C"));
+
+        fork.writeToFile("C\\Documents\\archive.zip\\note.txt", "Fork");
+
+        assertSame(fs.findNode("C\\Music"), fork.findNode("C\\Music"));
+        assertNotSame(fs.findNode("C\\Documents"), fork.findNode("C\\Documents"));
+    }
+
+    @Test
+    void forkOfOldSnapshot_shouldStartFromThatVersion() {
+        Version snapshot = fs.snapshot();
+        fs.delete("C");
+
+        PersistentFileSystem restored = snapshot.fork();
+
+        assertEquals("Hello", restored.readFile("C\\Documents\\archive.zip\\note.txt"));
+        assertNull(fs.findDrive("C"));
+    }
+
+    @Test
+    void copyOfAndToFileSystem_shouldRoundTripWholeTree() {
+        FileSystem source = fs.snapshot().toFileSystem();
+        assertEquals("ZipFile", source.findEntity("C\\Documents\\archive.zip").getType());
+        assertEquals("Hello", ((TextFile) source.findEntity("C\\Documents\\archive.zip\\note.txt")).getContent());
+
+        PersistentFileSystem copy = PersistentFileSystem.copyOf(source);
+        source.writeToFile("C\\Documents\\archive.zip\\note.txt", "Changed");
+
+        assertEquals("Hello", copy.readFile("C\\Documents\\archive.zip\\note.txt"));
+        assertEquals("ZipFile", copy.findNode("C\\Documents\\archive.zip").getType());
+    }
+}
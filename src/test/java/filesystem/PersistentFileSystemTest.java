@@ -0,0 +1,205 @@
+package filesystem;
+
+import filesystem.api.EntityPath;
+import filesystem.api.FileSystem;
+import filesystem.api.FileSystemOperation;
+import filesystem.content.ContentEdit;
+import filesystem.persistent.DirectoryNode;
+import filesystem.persistent.FileNode;
+import filesystem.persistent.PersistentFileSystem;
+import filesystem.persistent.Version;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentFileSystemTest {
+    private PersistentFileSystem fs;
+
+    @BeforeEach
+    void setUp() {
+        fs = new PersistentFileSystem();
+        fs.create("Drive", "C", null);
+        fs.create("Folder", "Documents", "C");
+    }
+
+    @Test
+    void createWriteAndRead_shouldSucceed() {
+        fs.create("ZipFile", "archive.zip", "C\\Documents");
+        fs.create("TextFile", "note.txt", "C\\Documents\\archive.zip");
+
+        fs.writeToFile("C\\Documents\\archive.zip\\note.txt", "Hello");
+
+        assertEquals("Hello", fs.readFile("C\\Documents\\archive.zip\\note.txt"));
+        assertEquals("ZipFile", fs.findNode("C\\Documents\\archive.zip").getType());
+        assertInstanceOf(FileNode.class, fs.find(EntityPath.parse("C\\Documents\\archive.zip\\note.txt")));
+    }
+
+    @Test
+    void invalidOperations_shouldThrowLikeFileSystem() {
+        assertThrows(IllegalArgumentException.class, () -> fs.create("Drive", "C", null));
+        assertThrows(IllegalArgumentException.class, () -> fs.create("Folder", "Documents", "C"));
+        assertThrows(IllegalArgumentException.class, () -> fs.create("Folder", "x", "C\\Missing"));
+        assertThrows(IllegalArgumentException.class, () -> fs.create("Folder", "My Folder", "C"));
+        assertThrows(IllegalArgumentException.class, () -> fs.create("Link", "x", "C"));
+        assertThrows(IllegalArgumentException.class, () -> fs.delete("C\\Missing"));
+        assertThrows(IllegalArgumentException.class, () -> fs.delete("X"));
+        assertThrows(IllegalArgumentException.class, () -> fs.move("C", "C\\Documents"));
+        assertThrows(IllegalArgumentException.class, () -> fs.move("C\\Documents", "C\\Documents"));
+        assertThrows(IllegalArgumentException.class, () -> fs.writeToFile("C\\Documents", "Hello"));
+    }
+
+    @Test
+    void delete_trailingSeparator_shouldThrowLikeFileSystem() {
+        FileSystem mutable = new FileSystem();
+        mutable.create("Drive", "C", null);
+        mutable.create("Folder", "Documents", "C");
+
+        for (String path : List.of("C\\Documents\\", "C\\")) {
+            assertThrows(IllegalArgumentException.class, () -> mutable.delete(path));
+            assertThrows(IllegalArgumentException.class, () -> fs.delete(path));
+        }
+        assertNotNull(mutable.findEntity("C\\Documents"));
+        assertNotNull(fs.findNode("C\\Documents"));
+    }
+
+    @Test
+    void apply_withEdits_shouldPublishOneVersion() {
+        fs.create("TextFile", "note.txt", "C\\Documents");
+        fs.writeToFile("C\\Documents\\note.txt", "Hello");
+        long version = fs.getVersion();
+
+        fs.apply(List.of(
+                new FileSystemOperation.Edit("C\\Documents\\note.txt", new ContentEdit.Append(" world".getBytes(StandardCharsets.UTF_8))),
+                new FileSystemOperation.Edit("C\\Documents\\note.txt", new ContentEdit.WriteAt(0, "J".getBytes(StandardCharsets.UTF_8))),
+                new FileSystemOperation.Edit("C\\Documents\\note.txt", new ContentEdit.Truncate(9))));
+
+        assertEquals("Jello wor", fs.readFile("C\\Documents\\note.txt"));
+        assertEquals(version + 1, fs.getVersion());
+        assertThrows(IllegalArgumentException.class, () -> fs.apply(List.of(
+                new FileSystemOperation.Edit("C\\Documents\\note.txt", new ContentEdit.Truncate(1)),
+                new FileSystemOperation.Edit("C\\Documents", new ContentEdit.Truncate(0)))));
+        assertEquals("Jello wor", fs.readFile("C\\Documents\\note.txt"));
+    }
+
+    @Test
+    void move_shouldRewireSubtreeBetweenDrives() {
+        fs.create("Drive", "D", null);
+        fs.create("Folder", "Work", "C\\Documents");
+        fs.create("TextFile", "note.txt", "C\\Documents\\Work");
+
+        fs.move("C\\Documents", "D");
+
+        assertNull(fs.findNode("C\\Documents"));
+        assertNotNull(fs.findNode("D\\Documents\\Work\\note.txt"));
+    }
+
+    @Test
+    void delete_shouldRemoveSubtree() {
+        fs.create("TextFile", "note.txt", "C\\Documents");
+
+        fs.delete("C\\Documents");
+        fs.delete(EntityPath.parse("C"));
+
+        assertNull(fs.findDrive("C"));
+        assertNull(fs.findNode("C\\Documents\\note.txt"));
+    }
+
+    @Test
+    void oldVersion_shouldStayUnchangedAfterWrites() {
+        fs.create("TextFile", "note.txt", "C\\Documents");
+        fs.writeToFile("C\\Documents\\note.txt", "v1");
+        Version before = fs.read(version -> version);
+
+        fs.writeToFile("C\\Documents\\note.txt", "v2");
+        fs.move("C\\Documents\\note.txt", "C");
+
+        assertEquals("v1", before.readFile("C\\Documents\\note.txt"));
+        assertNull(before.findNode("C\\note.txt"));
+        assertEquals("v2", fs.readFile("C\\note.txt"));
+        assertEquals(before.getNumber() + 2, fs.getVersion());
+    }
+
+    @Test
+    void write_shouldShareUntouchedSubtrees() {
+        fs.create("Folder", "Music", "C");
+        fs.create("TextFile", "note.txt", "C\\Documents");
+        DirectoryNode musicBefore = (DirectoryNode) fs.findNode("C\\Music");
+
+        fs.writeToFile("C\\Documents\\note.txt", "Hello");
+
+        assertSame(musicBefore, fs.findNode("C\\Music"));
+        assertNotSame(musicBefore, fs.findNode("C\\Documents"));
+    }
+
+    @Test
+    void readers_shouldSeeConsistentTreeDuringMoves() throws Exception {
+        fs.create("Folder", "A", "C");
+        fs.create("Folder", "B", "C");
+        fs.create("Folder", "Project", "C\\A");
+        fs.create("TextFile", "main.txt", "C\\A\\Project");
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> inconsistency = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                String problem = fs.read(version -> {
+                    boolean inA = version.findNode("C\\A\\Project\\main.txt") != null;
+                    boolean inB = version.findNode("C\\B\\Project\\main.txt") != null;
+                    return inA == inB ? "Project in A: " + inA + ", in B: " + inB : null;
+                });
+                if (problem != null) {
+                    inconsistency.compareAndSet(null, problem);
+                }
+            }
+        });
+        reader.start();
+
+        for (int i = 0; i < 2000; i++) {
+            fs.move("C\\A\\Project", "C\\B");
+            fs.move("C\\B\\Project", "C\\A");
+        }
+        running.set(false);
+        reader.join();
+
+        assertNull(inconsistency.get());
+    }
+
+    @Test
+    void namesWithEqualHashCodes_shouldBeStoredSeparately() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        fs.create("Folder", "Aa", "C");
+        fs.create("Folder", "BB", "C");
+
+        fs.delete("C\\Aa");
+
+        assertNull(fs.findNode("C\\Aa"));
+        assertNotNull(fs.findNode("C\\BB"));
+    }
+
+    @Test
+    void wideDirectory_shouldFindEveryChildAfterDeletes() {
+        for (int i = 0; i < 2000; i++) {
+            fs.create("TextFile", "f" + i + ".txt", "C\\Documents");
+        }
+        for (int i = 0; i < 2000; i += 2) {
+            fs.delete("C\\Documents\\f" + i + ".txt");
+        }
+
+        DirectoryNode documents = (DirectoryNode) fs.findNode("C\\Documents");
+        assertEquals(1000, documents.size());
+        int count = 0;
+        for (var child : documents.getChildren()) {
+            assertTrue(documents.hasChild(child.getName()));
+            count++;
+        }
+        assertEquals(1000, count);
+        assertNull(fs.findNode("C\\Documents\\f0.txt"));
+        assertNotNull(fs.findNode("C\\Documents\\f1.txt"));
+    }
+}